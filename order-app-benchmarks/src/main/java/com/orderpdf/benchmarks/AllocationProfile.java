@@ -0,0 +1,41 @@
+package com.orderpdf.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks matching a regex with the allocation profilers attached ({@code -prof gc} and
+ * {@link ResourceUsageProfiler}) and writes the results as JSON, so an optimization can be shown by
+ * running it before and after the change and comparing the two files:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.orderpdf.benchmarks.AllocationProfile HtmlTemplateBenchmark before.json
+ * </pre>
+ *
+ * Without arguments every benchmark runs and results go to {@code jmh-allocation.json}.
+ */
+public final class AllocationProfile {
+
+    private static final String DEFAULT_RESULT_FILE = "jmh-allocation.json";
+
+    private AllocationProfile() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ".*";
+        String resultFile = args.length > 1 ? args[1] : DEFAULT_RESULT_FILE;
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .addProfiler(ResourceUsageProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,151 @@
+package com.orderpdf.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.orderpdf.app.common.dto.Order;
+import com.orderpdf.app.common.dto.OrderLine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the order-app test fixtures, which are packaged into this module under {@code /fixtures}, and
+ * scales them to a given number of order lines for benchmarks parameterized by {@code lineCount}.
+ */
+public final class BenchmarkFixtures {
+
+    public static final String RICH_ORDER = "rich-order.json";
+    public static final String ORDER_RECORD = "dynamodb-order-record.json";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private BenchmarkFixtures() {
+    }
+
+    public static Order loadOrder(String fixtureName) {
+        try (InputStream inputStream = openFixture(fixtureName)) {
+            return OBJECT_MAPPER.readValue(inputStream, Order.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load fixture: " + fixtureName, e);
+        }
+    }
+
+    public static String loadText(String fixtureName) {
+        try (InputStream inputStream = openFixture(fixtureName)) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load fixture: " + fixtureName, e);
+        }
+    }
+
+    /**
+     * The {@code rich-order.json} fixture with its lines repeated, each with its own SKU, up to
+     * {@code lineCount} lines.
+     */
+    public static Order loadOrderWithLines(int lineCount) {
+        Order order = loadOrder(RICH_ORDER);
+        List<OrderLine> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            OrderLine template = order.lines().get(i % order.lines().size());
+            lines.add(new OrderLine(String.format("%s-%05d", template.sku(), i), template.quantity(),
+                    template.priceMinor()));
+        }
+        return new Order(order.orderId(), order.currency(), order.createdAt(), order.customer(), lines,
+                order.status(), order.notes(), order.source(), order.priority(), order.region(),
+                order.totalAmount(), order.orderDate(), order.processingTime());
+    }
+
+    /**
+     * The {@code dynamodb-order-record.json} fixture, as plain JSON, with its first item repeated up to
+     * {@code lineCount} items.
+     */
+    public static ObjectNode loadOrderRecordWithItems(int lineCount) {
+        try {
+            ObjectNode order = (ObjectNode) OBJECT_MAPPER.readTree(loadText(ORDER_RECORD));
+            JsonNode template = order.path("items").get(0);
+            ArrayNode items = JsonNodeFactory.instance.arrayNode(lineCount);
+            for (int i = 0; i < lineCount; i++) {
+                ObjectNode item = template.deepCopy();
+                item.put("itemId", String.format("ITEM-%05d", i));
+                item.put("quantity", 1 + i % 5);
+                items.add(item);
+            }
+            order.set("items", items);
+            return order;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load fixture: " + ORDER_RECORD, e);
+        }
+    }
+
+    /**
+     * Converts plain JSON into DynamoDB-JSON, as a stream record or a {@code GetItem} response carries it.
+     */
+    public static ObjectNode marshal(JsonNode value) {
+        JsonNodeFactory nodes = JsonNodeFactory.instance;
+        ObjectNode typed = nodes.objectNode();
+        if (value.isObject()) {
+            ObjectNode map = typed.putObject("M");
+            Iterator<Map.Entry<String, JsonNode>> fields = value.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                map.set(field.getKey(), marshal(field.getValue()));
+            }
+        } else if (value.isArray()) {
+            ArrayNode list = typed.putArray("L");
+            value.forEach(element -> list.add(marshal(element)));
+        } else if (value.isNumber()) {
+            typed.put("N", value.asText());
+        } else if (value.isBoolean()) {
+            typed.put("BOOL", value.asBoolean());
+        } else if (value.isNull()) {
+            typed.put("NULL", true);
+        } else {
+            typed.put("S", value.asText());
+        }
+        return typed;
+    }
+
+    /**
+     * An INSERT stream record, as Pipe A puts it on the queue, whose {@code NewImage} is {@code order}.
+     */
+    public static ObjectNode streamRecord(ObjectNode order) {
+        JsonNodeFactory nodes = JsonNodeFactory.instance;
+        ObjectNode keys = nodes.objectNode();
+        keys.set("pk", marshal(order.get("pk")));
+        keys.set("sk", marshal(order.get("sk")));
+
+        ObjectNode dynamodb = nodes.objectNode();
+        dynamodb.put("ApproximateCreationDateTime", 1705314600);
+        dynamodb.set("Keys", keys);
+        dynamodb.set("NewImage", marshal(order).get("M"));
+        dynamodb.put("SequenceNumber", "111");
+        dynamodb.put("StreamViewType", "NEW_AND_OLD_IMAGES");
+
+        ObjectNode record = nodes.objectNode();
+        record.put("eventID", "1");
+        record.put("eventName", "INSERT");
+        record.put("eventVersion", "1.1");
+        record.put("eventSource", "aws:dynamodb");
+        record.put("awsRegion", "af-south-1");
+        record.set("dynamodb", dynamodb);
+        return record;
+    }
+
+    private static InputStream openFixture(String fixtureName) throws IOException {
+        InputStream inputStream = BenchmarkFixtures.class.getResourceAsStream("/fixtures/" + fixtureName);
+        if (inputStream == null) {
+            throw new IOException("Fixture not found: " + fixtureName);
+        }
+        return inputStream;
+    }
+}
@@ -0,0 +1,55 @@
+package com.orderpdf.benchmarks;
+
+import com.orderpdf.app.common.dto.Order;
+import com.orderpdf.app.pdf.service.HtmlTemplateService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original replace-chain template expansion with the compiled single-pass renderer
+ * on the {@code rich-order.json} fixture scaled to {@code lineCount} lines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HtmlTemplateBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int lineCount;
+
+    private Order order;
+    private LegacyHtmlTemplateService legacyService;
+    private HtmlTemplateService compiledService;
+
+    @Setup
+    public void setUp() {
+        order = BenchmarkFixtures.loadOrderWithLines(lineCount);
+        legacyService = new LegacyHtmlTemplateService();
+        compiledService = new HtmlTemplateService();
+    }
+
+    @Benchmark
+    public String legacyReplaceChain() throws IOException {
+        return legacyService.generateInvoiceHtml(order);
+    }
+
+    @Benchmark
+    public String compiledTemplate() throws IOException {
+        return compiledService.generateInvoiceHtml(order);
+    }
+}
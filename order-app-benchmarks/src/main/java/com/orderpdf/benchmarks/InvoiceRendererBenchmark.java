@@ -0,0 +1,69 @@
+package com.orderpdf.benchmarks;
+
+import com.orderpdf.app.common.dto.Order;
+import com.orderpdf.app.pdf.service.HtmlConverterContext;
+import com.orderpdf.app.pdf.service.HtmlInvoicePdfRenderer;
+import com.orderpdf.app.pdf.service.HtmlTemplateService;
+import com.orderpdf.app.pdf.service.InvoicePdfRenderer;
+import com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer;
+import com.orderpdf.app.pdf.service.StampedInvoicePdfRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end invoice rendering (order in, PDF bytes out) for each {@link InvoicePdfRenderer} backend.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvoiceRendererBenchmark {
+
+    private Order order;
+    private InvoicePdfRenderer htmlRenderer;
+    private InvoicePdfRenderer layoutRenderer;
+    private InvoicePdfRenderer stampedRenderer;
+
+    @Setup
+    public void setUp() throws IOException {
+        order = BenchmarkFixtures.loadOrder(BenchmarkFixtures.RICH_ORDER);
+        htmlRenderer = new HtmlInvoicePdfRenderer(new HtmlTemplateService(), new HtmlConverterContext(), false, 0);
+        layoutRenderer = new LayoutInvoicePdfRenderer();
+        stampedRenderer = new StampedInvoicePdfRenderer();
+    }
+
+    @Benchmark
+    public byte[] html() throws IOException {
+        return render(htmlRenderer);
+    }
+
+    @Benchmark
+    public byte[] layout() throws IOException {
+        return render(layoutRenderer);
+    }
+
+    @Benchmark
+    public byte[] stamped() throws IOException {
+        return render(stampedRenderer);
+    }
+
+    private byte[] render(InvoicePdfRenderer renderer) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        renderer.render(order, outputStream);
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,68 @@
+package com.orderpdf.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderpdf.app.common.dto.OrderItem;
+
+/**
+ * Baseline copy of the original DynamoDBMessageParsingService: builds a full {@link JsonNode} tree of
+ * the stream record to read four fields. Kept only for before/after comparisons.
+ */
+public class LegacyDynamoDBMessageParser {
+
+    private final ObjectMapper objectMapper;
+
+    public LegacyDynamoDBMessageParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public OrderItem parseOrderItemFromMessage(String messageBody) {
+        try {
+            JsonNode rootNode = objectMapper.readTree(messageBody);
+
+            JsonNode dynamoDBNode = rootNode.path("dynamodb");
+            if (dynamoDBNode.isMissingNode()) {
+                return null;
+            }
+
+            JsonNode newImageNode = dynamoDBNode.path("NewImage");
+            if (newImageNode.isMissingNode()) {
+                return null;
+            }
+
+            String primaryKey = extractStringValue(newImageNode, "pk");
+            String sortKey = extractStringValue(newImageNode, "sk");
+            String orderId = extractStringValue(newImageNode, "orderId");
+            String oldPdfKey = extractNestedStringValue(newImageNode, "pdf", "s3Key");
+
+            if (primaryKey == null || sortKey == null || orderId == null) {
+                return null;
+            }
+
+            return new OrderItem(primaryKey, sortKey, orderId, oldPdfKey);
+
+        } catch (Exception exception) {
+            return null;
+        }
+    }
+
+    private String extractStringValue(JsonNode node, String fieldName) {
+        JsonNode fieldNode = node.path(fieldName);
+        if (fieldNode.isMissingNode()) {
+            return null;
+        }
+        return fieldNode.path("S").asText(null);
+    }
+
+    private String extractNestedStringValue(JsonNode node, String parentField, String childField) {
+        JsonNode parentNode = node.path(parentField);
+        if (parentNode.isMissingNode()) {
+            return null;
+        }
+        JsonNode mapValue = parentNode.path("M");
+        if (mapValue.isMissingNode()) {
+            return null;
+        }
+        return extractStringValue(mapValue, childField);
+    }
+}
@@ -0,0 +1,61 @@
+package com.orderpdf.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.orderpdf.app.common.dto.OrderItem;
+import com.orderpdf.app.preprocess.service.DynamoDBMessageParsingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original tree-building stream record parser with the token-streaming one. Messages are
+ * INSERT stream records whose {@code NewImage} is the {@code dynamodb-order-record.json} fixture with
+ * {@code lineCount} line items.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageParsingBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int lineCount;
+
+    private String messageBody;
+    private LegacyDynamoDBMessageParser treeParser;
+    private DynamoDBMessageParsingService streamingParser;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode order = BenchmarkFixtures.loadOrderRecordWithItems(lineCount);
+
+        messageBody = objectMapper.writeValueAsString(BenchmarkFixtures.streamRecord(order));
+        treeParser = new LegacyDynamoDBMessageParser(objectMapper);
+        streamingParser = new DynamoDBMessageParsingService(objectMapper);
+    }
+
+    @Benchmark
+    public OrderItem tree() {
+        return treeParser.parseOrderItemFromMessage(messageBody);
+    }
+
+    @Benchmark
+    public OrderItem streaming() {
+        return streamingParser.parseOrderItemFromMessage(messageBody);
+    }
+}
@@ -0,0 +1,92 @@
+package com.orderpdf.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderpdf.app.common.dto.Order;
+import com.orderpdf.app.common.dto.OrderItem;
+import com.orderpdf.app.common.service.OrderDetailsService;
+import com.orderpdf.app.common.util.DynamoDbJsonConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OrderDetailsService} mapping a DynamoDB order item to an {@link Order}, for the
+ * {@code dynamodb-order-record.json} fixture with {@code lineCount} items: from the stream image an
+ * order item carries, and from a {@code GetItem} response served by an in-memory client.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderMappingBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int lineCount;
+
+    private OrderDetailsService orderDetailsService;
+    private OrderItem streamImageOrderItem;
+    private OrderItem keyOnlyOrderItem;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode image = BenchmarkFixtures.marshal(BenchmarkFixtures.loadOrderRecordWithItems(lineCount)).get("M");
+        Map<String, Object> newImage = objectMapper.convertValue(image, new TypeReference<>() {
+        });
+        GetItemResponse response = GetItemResponse.builder()
+                .item(DynamoDbJsonConverter.toAttributeValueMap(image))
+                .build();
+
+        orderDetailsService = new OrderDetailsService(new InMemoryDynamoDbClient(response), "orders");
+        streamImageOrderItem = new OrderItem("ORDER#123", "STATE#v1", "123", null, newImage);
+        keyOnlyOrderItem = new OrderItem("ORDER#123", "STATE#v1", "123", null);
+    }
+
+    @Benchmark
+    public Order streamImage() {
+        return orderDetailsService.fetchOrderDetails(streamImageOrderItem);
+    }
+
+    @Benchmark
+    public Order getItem() {
+        return orderDetailsService.fetchOrderDetails(keyOnlyOrderItem);
+    }
+
+    /**
+     * Answers every {@code GetItem} with the same response, so only the mapping is measured.
+     */
+    private record InMemoryDynamoDbClient(GetItemResponse response) implements DynamoDbClient {
+
+        @Override
+        public GetItemResponse getItem(GetItemRequest getItemRequest) {
+            return response;
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
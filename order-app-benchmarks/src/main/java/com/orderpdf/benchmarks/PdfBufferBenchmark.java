@@ -0,0 +1,75 @@
+package com.orderpdf.benchmarks;
+
+import com.orderpdf.app.common.dto.Order;
+import com.orderpdf.app.common.util.ByteArrayPool;
+import com.orderpdf.app.common.util.PooledByteArrayOutputStream;
+import com.orderpdf.app.pdf.service.InvoicePdfRenderer;
+import com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.core.sync.RequestBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders an invoice and hands it to the S3 SDK as a request body, comparing a fresh
+ * {@link ByteArrayOutputStream} per invoice against a buffer recycled through {@link ByteArrayPool}.
+ * The request body is drained the way the SDK's HTTP client would send it. Run with {@code -prof gc}
+ * to compare allocation per invoice.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PdfBufferBenchmark {
+
+    private Order order;
+    private InvoicePdfRenderer renderer;
+    private ByteArrayPool bufferPool;
+
+    @Setup
+    public void setUp() {
+        order = BenchmarkFixtures.loadOrder(BenchmarkFixtures.RICH_ORDER);
+        renderer = new LayoutInvoicePdfRenderer();
+        bufferPool = new ByteArrayPool(2);
+    }
+
+    @Benchmark
+    public long byteArrayOutputStream() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        renderer.render(order, outputStream);
+        return send(RequestBody.fromBytes(outputStream.toByteArray()));
+    }
+
+    @Benchmark
+    public long pooledBuffer() throws IOException {
+        PooledByteArrayOutputStream outputStream = bufferPool.newOutputStream();
+        try {
+            renderer.render(order, outputStream);
+            return send(RequestBody.fromContentProvider(outputStream::newInputStream, outputStream.size(),
+                    "application/pdf"));
+        } finally {
+            outputStream.release();
+        }
+    }
+
+    private static long send(RequestBody requestBody) throws IOException {
+        try (InputStream content = requestBody.contentStreamProvider().newStream()) {
+            return content.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
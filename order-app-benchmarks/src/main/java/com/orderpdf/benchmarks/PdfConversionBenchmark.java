@@ -0,0 +1,55 @@
+package com.orderpdf.benchmarks;
+
+import com.itextpdf.html2pdf.HtmlConverter;
+import com.orderpdf.app.pdf.service.HtmlConverterContext;
+import com.orderpdf.app.pdf.service.HtmlTemplateService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-invoice HTML to PDF conversion time with iText's default per-call converter setup versus the
+ * shared, pre-built {@link HtmlConverterContext}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PdfConversionBenchmark {
+
+    private String html;
+    private HtmlConverterContext converterContext;
+
+    @Setup
+    public void setUp() throws IOException {
+        html = new HtmlTemplateService().generateInvoiceHtml(BenchmarkFixtures.loadOrder(BenchmarkFixtures.RICH_ORDER));
+        converterContext = new HtmlConverterContext();
+    }
+
+    @Benchmark
+    public byte[] defaultConverterProperties() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        HtmlConverter.convertToPdf(html, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] sharedConverterContext() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        HtmlConverter.convertToPdf(html, outputStream, converterContext.newConverterProperties());
+        return outputStream.toByteArray();
+    }
+}
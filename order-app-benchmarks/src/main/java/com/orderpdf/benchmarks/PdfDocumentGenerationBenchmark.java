@@ -0,0 +1,52 @@
+package com.orderpdf.benchmarks;
+
+import com.orderpdf.app.common.dto.Order;
+import com.orderpdf.app.pdf.service.PdfDocumentGenerationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PdfDocumentGenerationService#generatePdfDocument(Order, java.io.OutputStream)} as the handlers
+ * call it, with the renderer chosen by {@code PDF_RENDERER} and {@code PDF_STREAM_HTML}, for the
+ * {@code rich-order.json} fixture scaled to {@code lineCount} lines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PdfDocumentGenerationBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int lineCount;
+
+    private Order order;
+    private PdfDocumentGenerationService pdfGenerationService;
+
+    @Setup
+    public void setUp() {
+        order = BenchmarkFixtures.loadOrderWithLines(lineCount);
+        pdfGenerationService = new PdfDocumentGenerationService();
+    }
+
+    @Benchmark
+    public int generatePdfDocument() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        pdfGenerationService.generatePdfDocument(order, outputStream);
+        return outputStream.size();
+    }
+}
@@ -0,0 +1,45 @@
+package com.orderpdf.benchmarks;
+
+import com.orderpdf.app.common.util.ResourceUsage;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reports allocation and garbage collections per benchmark operation with the same {@link ResourceUsage}
+ * counters the handlers log per invocation, so benchmark and production numbers can be compared
+ * directly. Run with {@code -prof com.orderpdf.benchmarks.ResourceUsageProfiler}.
+ */
+public class ResourceUsageProfiler implements InternalProfiler {
+
+    private ResourceUsage iterationStart;
+
+    @Override
+    public String getDescription() {
+        return "Allocated bytes, GC count and GC time per operation, as the handlers report them";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        iterationStart = ResourceUsage.allThreads();
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams,
+            IterationParams iterationParams, IterationResult iterationResult) {
+        ResourceUsage usage = ResourceUsage.allThreads().since(iterationStart);
+        long operations = Math.max(1, iterationResult.getMetadata().getAllOps());
+        return List.of(
+                new ScalarResult("usage.allocated.norm", (double) usage.allocatedBytes() / operations, "B/op",
+                        AggregationPolicy.AVG),
+                new ScalarResult("usage.gc.count", usage.gcCount(), "counts", AggregationPolicy.SUM),
+                new ScalarResult("usage.gc.time", usage.gcTimeMillis(), "ms", AggregationPolicy.SUM));
+    }
+}
@@ -0,0 +1,83 @@
+package com.orderpdf.benchmarks.load;
+
+import com.orderpdf.app.common.dto.OrderKey;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The order table reads {@link com.orderpdf.app.common.service.OrderDetailsService} makes, served from
+ * memory after {@code latency}, which stands in for the network round trip. Every key is processed in
+ * one {@code BatchGetItem} call.
+ */
+public class InMemoryDynamoDbClient implements DynamoDbClient {
+
+    private final Map<OrderKey, Map<String, AttributeValue>> items = new ConcurrentHashMap<>();
+    private final Duration latency;
+
+    public InMemoryDynamoDbClient(Duration latency) {
+        this.latency = latency;
+    }
+
+    public void putItem(Map<String, AttributeValue> item) {
+        items.put(keyOf(item), item);
+    }
+
+    @Override
+    public GetItemResponse getItem(GetItemRequest getItemRequest) {
+        simulateLatency();
+        Map<String, AttributeValue> item = items.get(keyOf(getItemRequest.key()));
+        return item != null ? GetItemResponse.builder().item(item).build() : GetItemResponse.builder().build();
+    }
+
+    @Override
+    public BatchGetItemResponse batchGetItem(BatchGetItemRequest batchGetItemRequest) {
+        simulateLatency();
+        Map<String, List<Map<String, AttributeValue>>> responses = new ConcurrentHashMap<>();
+        for (Map.Entry<String, KeysAndAttributes> table : batchGetItemRequest.requestItems().entrySet()) {
+            List<Map<String, AttributeValue>> found = new ArrayList<>();
+            for (Map<String, AttributeValue> key : table.getValue().keys()) {
+                Map<String, AttributeValue> item = items.get(keyOf(key));
+                if (item != null) {
+                    found.add(item);
+                }
+            }
+            responses.put(table.getKey(), found);
+        }
+        return BatchGetItemResponse.builder().responses(responses).unprocessedKeys(Map.of()).build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void simulateLatency() {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static OrderKey keyOf(Map<String, AttributeValue> item) {
+        return new OrderKey(item.get("pk").s(), item.get("sk").s());
+    }
+}
@@ -0,0 +1,112 @@
+package com.orderpdf.benchmarks.load;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The uploads {@link com.orderpdf.app.common.util.S3Helper} makes, single-part and multipart, answered
+ * after {@code latency}. Request bodies are read the way the SDK would send them, but only object
+ * sizes are kept, so a long run does not hold every PDF in memory.
+ */
+public class InMemoryS3Client implements S3Client {
+
+    private final Map<String, Long> objectSizes = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> multipartUploads = new ConcurrentHashMap<>();
+    private final Duration latency;
+
+    public InMemoryS3Client(Duration latency) {
+        this.latency = latency;
+    }
+
+    public int objectCount() {
+        return objectSizes.size();
+    }
+
+    public long storedBytes() {
+        return objectSizes.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public PutObjectResponse putObject(PutObjectRequest putObjectRequest, RequestBody requestBody) {
+        objectSizes.put(putObjectRequest.key(), drain(requestBody));
+        simulateLatency();
+        return PutObjectResponse.builder().eTag(UUID.randomUUID().toString()).build();
+    }
+
+    @Override
+    public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+        simulateLatency();
+        String uploadId = UUID.randomUUID().toString();
+        multipartUploads.put(uploadId, new AtomicLong());
+        return CreateMultipartUploadResponse.builder().uploadId(uploadId).key(request.key()).build();
+    }
+
+    @Override
+    public UploadPartResponse uploadPart(UploadPartRequest uploadPartRequest, RequestBody requestBody) {
+        long partBytes = drain(requestBody);
+        simulateLatency();
+        multipartUploads.get(uploadPartRequest.uploadId()).addAndGet(partBytes);
+        return UploadPartResponse.builder().eTag(UUID.randomUUID().toString()).build();
+    }
+
+    @Override
+    public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+        simulateLatency();
+        objectSizes.put(request.key(), multipartUploads.remove(request.uploadId()).get());
+        return CompleteMultipartUploadResponse.builder().key(request.key()).build();
+    }
+
+    @Override
+    public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+        multipartUploads.remove(request.uploadId());
+        return AbortMultipartUploadResponse.builder().build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static long drain(RequestBody requestBody) {
+        try (InputStream content = requestBody.contentStreamProvider().newStream()) {
+            return content.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void simulateLatency() {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
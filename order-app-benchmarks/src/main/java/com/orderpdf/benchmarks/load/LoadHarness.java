@@ -0,0 +1,250 @@
+package com.orderpdf.benchmarks.load;
+
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.orderpdf.app.common.dto.OrderItem;
+import com.orderpdf.app.common.dto.PreprocessOutput;
+import com.orderpdf.app.common.metrics.EmfMetricsLogger;
+import com.orderpdf.app.common.metrics.HistogramRegistry;
+import com.orderpdf.app.common.service.OrderDetailsService;
+import com.orderpdf.app.common.service.PriorityLaneService;
+import com.orderpdf.app.common.util.ByteArrayPool;
+import com.orderpdf.app.common.util.DynamoDbJsonConverter;
+import com.orderpdf.app.common.util.ResourceUsage;
+import com.orderpdf.app.common.util.S3Helper;
+import com.orderpdf.app.pdf.GeneratePdfHandler;
+import com.orderpdf.app.pdf.idempotency.InMemoryIdempotencyStore;
+import com.orderpdf.app.pdf.service.PdfDocumentGenerationService;
+import com.orderpdf.app.preprocess.PreprocessHandler;
+import com.orderpdf.app.preprocess.service.DynamoDBMessageParsingService;
+import com.orderpdf.app.preprocess.service.OrderItemCoalescingService;
+import com.orderpdf.app.preprocess.service.OrderProcessingEligibilityService;
+import com.orderpdf.app.worker.InMemoryOrderQueue;
+import com.orderpdf.app.worker.QueueMessage;
+import com.orderpdf.benchmarks.BenchmarkFixtures;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Box-local capacity test of the invoice pipeline: synthetic INSERT stream records are sent at a fixed
+ * rate to an in-memory queue, and {@code LOAD_CONCURRENCY} consumers each play one Lambda container,
+ * running {@link PreprocessHandler} on a batch and then {@link GeneratePdfHandler} on every order it
+ * returns, as the state machine's Map state would. DynamoDB and S3 are in-memory stand-ins with an
+ * optional fixed latency per call.
+ *
+ * <p>Configured by {@code LOAD_RATE} (records per second), {@code LOAD_DURATION_SECONDS},
+ * {@code LOAD_CONCURRENCY}, {@code LOAD_BATCH_SIZE}, {@code LOAD_LINE_COUNT} and
+ * {@code LOAD_AWS_LATENCY_MILLIS}; the handlers' own variables, such as {@code PDF_UPLOAD_MODE} or
+ * {@code ORDER_IMAGE_PASSTHROUGH_MAX_BYTES}, apply as in production. Once sending stops, the queue is
+ * drained before throughput, per-stage percentiles and allocation are printed.
+ */
+public final class LoadHarness {
+
+    private static final String TABLE_NAME = "orders";
+    private static final String BUCKET_NAME = "invoices";
+    private static final Duration POLL_WAIT = Duration.ofMillis(100);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofMinutes(5);
+
+    private final int rate;
+    private final Duration duration;
+    private final int concurrency;
+    private final int batchSize;
+    private final int lineCount;
+    private final Duration awsLatency;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final InMemoryOrderQueue orderQueue = new InMemoryOrderQueue();
+    private final Map<String, Long> sentAtNanos = new ConcurrentHashMap<>();
+    private final AtomicLong generatedInvoices = new AtomicLong();
+    private final AtomicLong failedInvoices = new AtomicLong();
+    private final LoadReport report = new LoadReport();
+    private final HistogramRegistry histogramRegistry =
+            new HistogramRegistry(report, Duration.ofDays(1), Long.MAX_VALUE, Clock.systemUTC());
+    private volatile boolean stopping;
+
+    public LoadHarness(int rate, Duration duration, int concurrency, int batchSize, int lineCount,
+            Duration awsLatency) {
+        this.rate = rate;
+        this.duration = duration;
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+        this.lineCount = lineCount;
+        this.awsLatency = awsLatency;
+    }
+
+    public static void main(String[] args) throws Exception {
+        // The handlers log every invoice at INFO, which would dominate a load run
+        if (System.getProperty("org.slf4j.simpleLogger.defaultLogLevel") == null) {
+            System.setProperty("org.slf4j.simpleLogger.defaultLogLevel", "error");
+        }
+
+        new LoadHarness(
+                Integer.parseInt(System.getenv().getOrDefault("LOAD_RATE", "20")),
+                Duration.ofSeconds(Long.parseLong(System.getenv().getOrDefault("LOAD_DURATION_SECONDS", "30"))),
+                Integer.parseInt(System.getenv().getOrDefault("LOAD_CONCURRENCY",
+                        String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                Integer.parseInt(System.getenv().getOrDefault("LOAD_BATCH_SIZE", "10")),
+                Integer.parseInt(System.getenv().getOrDefault("LOAD_LINE_COUNT", "10")),
+                Duration.ofMillis(Long.parseLong(System.getenv().getOrDefault("LOAD_AWS_LATENCY_MILLIS", "0"))))
+                .run(System.out);
+    }
+
+    public void run(PrintStream output) throws InterruptedException, JsonProcessingException {
+        InMemoryDynamoDbClient dynamoDbClient = new InMemoryDynamoDbClient(awsLatency);
+        InMemoryS3Client s3Client = new InMemoryS3Client(awsLatency);
+        EmfMetricsLogger discardedMetrics = new EmfMetricsLogger("LoadHarness", Map.of("Service", "load-harness"),
+                new PrintStream(OutputStream.nullOutputStream()), Clock.systemUTC());
+
+        String reprocessPolicy = System.getenv().getOrDefault("REPROCESS_POLICY", "FIRST_TIME_ONLY");
+        PreprocessHandler preprocessHandler = new PreprocessHandler(
+                new DynamoDBMessageParsingService(objectMapper, Integer.parseInt(
+                        System.getenv().getOrDefault("ORDER_IMAGE_PASSTHROUGH_MAX_BYTES", "65536")),
+                        "URL_CHANGED".equals(reprocessPolicy), "FIRST_TIME_ONLY".equals(reprocessPolicy)),
+                new OrderProcessingEligibilityService(reprocessPolicy),
+                new OrderItemCoalescingService(),
+                discardedMetrics,
+                new PriorityLaneService());
+        GeneratePdfHandler generatePdfHandler = GeneratePdfHandler.builder(
+                        new PdfDocumentGenerationService(),
+                        new OrderDetailsService(dynamoDbClient, TABLE_NAME),
+                        new S3Helper(s3Client, BUCKET_NAME))
+                .uploadMode(System.getenv().getOrDefault("PDF_UPLOAD_MODE", "BUFFERED"))
+                .pdfBufferPool(new ByteArrayPool(concurrency))
+                .idempotencyStore(new InMemoryIdempotencyStore(10_000))
+                .priorityLaneService(new PriorityLaneService())
+                .metricsLogger(discardedMetrics)
+                .histogramRegistry(histogramRegistry)
+                .build();
+
+        ObjectNode orderTemplate = BenchmarkFixtures.loadOrderRecordWithItems(lineCount);
+        long recordCount = rate * duration.toSeconds();
+        output.printf("Sending %d stream records at %d/s with %d lines each to %d consumers%n",
+                recordCount, rate, lineCount, concurrency);
+
+        ExecutorService consumers = Executors.newFixedThreadPool(concurrency,
+                Thread.ofPlatform().name("load-consumer-", 0).factory());
+        ResourceUsage usageBefore = ResourceUsage.allThreads();
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            consumers.submit(() -> consume(preprocessHandler, generatePdfHandler));
+        }
+
+        long intervalNanos = 1_000_000_000L / Math.max(1, rate);
+        for (long i = 0; i < recordCount; i++) {
+            long dueNanos = startNanos + i * intervalNanos;
+            for (long waitNanos = dueNanos - System.nanoTime(); waitNanos > 0;
+                    waitNanos = dueNanos - System.nanoTime()) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            send(i, orderTemplate, dynamoDbClient);
+        }
+
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while ((orderQueue.availableCount() > 0 || orderQueue.inFlightCount() > 0)
+                && System.nanoTime() < drainDeadline) {
+            Thread.sleep(POLL_WAIT);
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+        ResourceUsage resourceUsage = ResourceUsage.allThreads().since(usageBefore);
+        stopping = true;
+        consumers.shutdown();
+        consumers.awaitTermination(1, TimeUnit.MINUTES);
+
+        histogramRegistry.flush();
+        report.print(output, elapsed, recordCount, generatedInvoices.get(), failedInvoices.get(), resourceUsage);
+        output.printf("Stored %d invoices, %,d bytes; %d records still queued%n", s3Client.objectCount(),
+                s3Client.storedBytes(), orderQueue.availableCount() + orderQueue.inFlightCount());
+    }
+
+    private void send(long sequence, ObjectNode orderTemplate, InMemoryDynamoDbClient dynamoDbClient)
+            throws JsonProcessingException {
+        String orderId = "LOAD-" + sequence;
+        ObjectNode order = orderTemplate.deepCopy();
+        order.put("pk", "ORDER#" + orderId);
+        order.put("orderId", orderId);
+        dynamoDbClient.putItem(DynamoDbJsonConverter.toAttributeValueMap(BenchmarkFixtures.marshal(order).get("M")));
+
+        ObjectNode streamRecord = BenchmarkFixtures.streamRecord(order);
+        ObjectNode dynamodb = (ObjectNode) streamRecord.get("dynamodb");
+        dynamodb.put("ApproximateCreationDateTime", System.currentTimeMillis() / 1000.0);
+        dynamodb.put("SequenceNumber", String.valueOf(sequence));
+        sentAtNanos.put(orderId, System.nanoTime());
+        orderQueue.send(objectMapper.writeValueAsString(streamRecord));
+    }
+
+    private void consume(PreprocessHandler preprocessHandler, GeneratePdfHandler generatePdfHandler) {
+        while (!stopping) {
+            List<QueueMessage> messages;
+            try {
+                messages = orderQueue.receive(batchSize, POLL_WAIT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (messages.isEmpty()) {
+                continue;
+            }
+
+            long preprocessStartNanos = System.nanoTime();
+            PreprocessOutput preprocessOutput = preprocessHandler.handleRequest(toSqsEvent(messages),
+                    new HarnessContext(UUID.randomUUID().toString(), "preprocess"));
+            histogramRegistry.record("PreprocessInvocation", System.nanoTime() - preprocessStartNanos,
+                    HistogramRegistry.Unit.MILLISECONDS);
+
+            List<OrderItem> orderItems = new ArrayList<>(preprocessOutput.priorityItems());
+            orderItems.addAll(preprocessOutput.items());
+            for (OrderItem orderItem : orderItems) {
+                generate(generatePdfHandler, orderItem);
+            }
+            // Deleted only once handled, so the drain waits for invoices still being generated
+            messages.forEach(orderQueue::delete);
+        }
+    }
+
+    private void generate(GeneratePdfHandler generatePdfHandler, OrderItem orderItem) {
+        long startNanos = System.nanoTime();
+        try {
+            generatePdfHandler.handleRequest(orderItem, new HarnessContext(UUID.randomUUID().toString(),
+                    "generate-pdf"));
+        } catch (RuntimeException e) {
+            failedInvoices.incrementAndGet();
+            return;
+        }
+        long endNanos = System.nanoTime();
+        generatedInvoices.incrementAndGet();
+        histogramRegistry.record("GenerateInvocation", endNanos - startNanos, HistogramRegistry.Unit.MILLISECONDS);
+        Long sentNanos = sentAtNanos.remove(orderItem.orderId());
+        if (sentNanos != null) {
+            histogramRegistry.record("EndToEnd", endNanos - sentNanos, HistogramRegistry.Unit.MILLISECONDS);
+        }
+    }
+
+    private static SQSEvent toSqsEvent(List<QueueMessage> messages) {
+        List<SQSEvent.SQSMessage> sqsMessages = new ArrayList<>(messages.size());
+        for (QueueMessage message : messages) {
+            SQSEvent.SQSMessage sqsMessage = new SQSEvent.SQSMessage();
+            sqsMessage.setMessageId(message.messageId());
+            sqsMessage.setBody(message.body());
+            sqsMessages.add(sqsMessage);
+        }
+        SQSEvent sqsEvent = new SQSEvent();
+        sqsEvent.setRecords(sqsMessages);
+        return sqsEvent;
+    }
+}
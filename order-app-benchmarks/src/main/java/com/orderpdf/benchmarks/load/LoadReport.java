@@ -0,0 +1,43 @@
+package com.orderpdf.benchmarks.load;
+
+import com.orderpdf.app.common.metrics.HistogramExporter;
+import com.orderpdf.app.common.metrics.HistogramSummary;
+import com.orderpdf.app.common.util.ResourceUsage;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the harness's histogram summaries and prints them with throughput and allocation as a
+ * plain-text table.
+ */
+final class LoadReport implements HistogramExporter {
+
+    private final List<HistogramSummary> summaries = new ArrayList<>();
+
+    @Override
+    public synchronized void export(Instant intervalStart, Instant intervalEnd, List<HistogramSummary> summaries) {
+        this.summaries.addAll(summaries);
+    }
+
+    synchronized void print(PrintStream output, Duration elapsed, long recordsSent, long invoicesGenerated,
+            long failedInvoices, ResourceUsage resourceUsage) {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        output.printf("%nLoad harness: %d stream records sent, %d invoices generated, %d failed in %.1f s%n",
+                recordsSent, invoicesGenerated, failedInvoices, seconds);
+        output.printf("Throughput: %.1f invoices/s%n", invoicesGenerated / seconds);
+        output.printf("Allocation: %,d bytes in total, %,d bytes per invoice; %d GCs taking %d ms%n%n",
+                resourceUsage.allocatedBytes(),
+                invoicesGenerated > 0 ? resourceUsage.allocatedBytes() / invoicesGenerated : 0,
+                resourceUsage.gcCount(), resourceUsage.gcTimeMillis());
+
+        output.printf("%-22s %-13s %8s %12s %12s %12s %12s%n", "Stage", "Unit", "Count", "p50", "p90", "p99", "Max");
+        for (HistogramSummary summary : summaries) {
+            output.printf("%-22s %-13s %8d %12.2f %12.2f %12.2f %12.2f%n", summary.name(), summary.unit(),
+                    summary.count(), summary.p50(), summary.p90(), summary.p99(), summary.max());
+        }
+    }
+}
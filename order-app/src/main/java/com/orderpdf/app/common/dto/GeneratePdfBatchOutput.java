@@ -0,0 +1,10 @@
+package com.orderpdf.app.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public record GeneratePdfBatchOutput(
+    @JsonProperty("results") List<GeneratePdfBatchResult> results
+) {
+}
@@ -0,0 +1,26 @@
+package com.orderpdf.app.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Outcome for one order of a batch: the temporary PDF key on success, otherwise the error message.
+ */
+public record GeneratePdfBatchResult(
+    @JsonProperty("orderId") String orderId,
+    @JsonProperty("tempPdfKey") String tempPdfKey,
+    @JsonProperty("error") String error
+) {
+    public static GeneratePdfBatchResult success(String orderId, String tempPdfKey) {
+        return new GeneratePdfBatchResult(orderId, tempPdfKey, null);
+    }
+
+    public static GeneratePdfBatchResult failure(String orderId, String error) {
+        return new GeneratePdfBatchResult(orderId, null, error);
+    }
+
+    @JsonIgnore
+    public boolean succeeded() {
+        return error == null;
+    }
+}
@@ -1,10 +1,111 @@
 package com.orderpdf.app.common.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * An order to generate an invoice for. {@code newImage} optionally carries the order record from the
+ * stream (DynamoDB-JSON), so it can be rendered without reading the table again. It is a plain map
+ * rather than a Jackson tree so the Lambda runtime's own serializer can bind it. {@code sequenceNumber}
+ * is the stream record's position, which orders successive versions of the same order.
+ * {@code invoiceFingerprint} and {@code previousInvoiceFingerprint} fingerprint the invoice fields of
+ * the record's NewImage and OldImage, when the parser was asked to compute them. {@code priority} is the
+ * order's priority, used to pick its delivery lane, and {@code approximateCreationDateTime} is the stream
+ * record's creation time in epoch seconds, from which end-to-end latency is measured.
+ * {@code queueSentTimestamp} (epoch milliseconds, as SQS reports it) and {@code executionStartTime}
+ * (ISO-8601, from the Step Functions context) mark when the record entered the queue and when its
+ * state machine execution started, so the delay of each hop can be measured.
+ */
 public record OrderItem(
         @JsonProperty("pk") String pk,
         @JsonProperty("sk") String sk,
         @JsonProperty("orderId") String orderId,
-        @JsonProperty("oldPdfKey") String oldPdfKey) {
-}
\ No newline at end of file
+        @JsonProperty("oldPdfKey") String oldPdfKey,
+        @JsonProperty("newImage") @JsonInclude(JsonInclude.Include.NON_NULL) Map<String, Object> newImage,
+        @JsonProperty("sequenceNumber") @JsonInclude(JsonInclude.Include.NON_NULL) String sequenceNumber,
+        @JsonProperty("invoiceFingerprint") @JsonInclude(JsonInclude.Include.NON_NULL) String invoiceFingerprint,
+        @JsonProperty("previousInvoiceFingerprint") @JsonInclude(JsonInclude.Include.NON_NULL)
+        String previousInvoiceFingerprint,
+        @JsonProperty("priority") @JsonInclude(JsonInclude.Include.NON_NULL) String priority,
+        @JsonProperty("approximateCreationDateTime") @JsonInclude(JsonInclude.Include.NON_NULL)
+        Double approximateCreationDateTime,
+        @JsonProperty("queueSentTimestamp") @JsonInclude(JsonInclude.Include.NON_NULL) String queueSentTimestamp,
+        @JsonProperty("executionStartTime") @JsonInclude(JsonInclude.Include.NON_NULL) String executionStartTime) {
+
+    public OrderItem(String pk, String sk, String orderId, String oldPdfKey) {
+        this(pk, sk, orderId, oldPdfKey, null, null, null, null, null, null, null, null);
+    }
+
+    public OrderItem(String pk, String sk, String orderId, String oldPdfKey, Map<String, Object> newImage) {
+        this(pk, sk, orderId, oldPdfKey, newImage, null, null, null, null, null, null, null);
+    }
+
+    public OrderItem withSequenceNumber(String sequenceNumber) {
+        return new OrderItem(pk, sk, orderId, oldPdfKey, newImage, sequenceNumber, invoiceFingerprint,
+                previousInvoiceFingerprint, priority, approximateCreationDateTime, queueSentTimestamp,
+                executionStartTime);
+    }
+
+    public OrderItem withInvoiceFingerprints(String invoiceFingerprint, String previousInvoiceFingerprint) {
+        return new OrderItem(pk, sk, orderId, oldPdfKey, newImage, sequenceNumber, invoiceFingerprint,
+                previousInvoiceFingerprint, priority, approximateCreationDateTime, queueSentTimestamp,
+                executionStartTime);
+    }
+
+    public OrderItem withPriority(String priority) {
+        return new OrderItem(pk, sk, orderId, oldPdfKey, newImage, sequenceNumber, invoiceFingerprint,
+                previousInvoiceFingerprint, priority, approximateCreationDateTime, queueSentTimestamp,
+                executionStartTime);
+    }
+
+    public OrderItem withApproximateCreationDateTime(Double approximateCreationDateTime) {
+        return new OrderItem(pk, sk, orderId, oldPdfKey, newImage, sequenceNumber, invoiceFingerprint,
+                previousInvoiceFingerprint, priority, approximateCreationDateTime, queueSentTimestamp,
+                executionStartTime);
+    }
+
+    public OrderItem withHopTimestamps(String queueSentTimestamp, String executionStartTime) {
+        return new OrderItem(pk, sk, orderId, oldPdfKey, newImage, sequenceNumber, invoiceFingerprint,
+                previousInvoiceFingerprint, priority, approximateCreationDateTime, queueSentTimestamp,
+                executionStartTime);
+    }
+
+    /**
+     * When the stream record was created, or null if the item did not come from a stream record.
+     */
+    @JsonIgnore
+    public Instant streamRecordCreatedAt() {
+        return approximateCreationDateTime != null
+                ? Instant.ofEpochMilli(Math.round(approximateCreationDateTime * 1000))
+                : null;
+    }
+
+    /**
+     * When the record was sent to the queue, or null if unknown or malformed.
+     */
+    @JsonIgnore
+    public Instant queueSentAt() {
+        try {
+            return queueSentTimestamp != null ? Instant.ofEpochMilli(Long.parseLong(queueSentTimestamp)) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * When the state machine execution carrying this item started, or null if unknown or malformed.
+     */
+    @JsonIgnore
+    public Instant executionStartedAt() {
+        try {
+            return executionStartTime != null ? Instant.parse(executionStartTime) : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
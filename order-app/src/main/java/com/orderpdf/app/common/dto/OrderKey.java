@@ -0,0 +1,15 @@
+package com.orderpdf.app.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Primary key (pk/sk) of an order record in the orders table.
+ */
+public record OrderKey(
+    @JsonProperty("pk") String pk,
+    @JsonProperty("sk") String sk
+) {
+    public static OrderKey of(OrderItem orderItem) {
+        return new OrderKey(orderItem.pk(), orderItem.sk());
+    }
+}
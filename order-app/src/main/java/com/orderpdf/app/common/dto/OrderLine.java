@@ -1,10 +1,11 @@
 package com.orderpdf.app.common.dto;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public record OrderLine(
     @JsonProperty("sku") String sku,
-    @JsonProperty("qty") int quantity,
+    @JsonProperty("qty") @JsonAlias("quantity") int quantity,
     @JsonProperty("priceMinor") long priceMinor
 ) {
 }
\ No newline at end of file
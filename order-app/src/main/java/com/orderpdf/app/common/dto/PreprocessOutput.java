@@ -4,8 +4,13 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.Instant;
 import java.util.List;
 
+/**
+ * Eligible orders split by delivery lane: {@code priorityItems} go to the fast lane and {@code items}
+ * to the bulk lane.
+ */
 public record PreprocessOutput(
     @JsonProperty("items") List<OrderItem> items,
+    @JsonProperty("priorityItems") List<OrderItem> priorityItems,
     @JsonProperty("ts") Instant timestamp
 ) {
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.orderpdf.app.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Converting one order's invoice HTML to PDF with html2pdf.
+ */
+@Name("com.orderpdf.HtmlToPdf")
+@Label("HTML to PDF")
+@Category({"Order PDF", "Pipeline"})
+public class HtmlToPdfEvent extends Event {
+
+    @Label("Order Id")
+    public String orderId;
+
+    @Label("Line Count")
+    public int lineCount;
+
+    @Label("HTML Length")
+    @Description("Characters of HTML converted, or -1 when the HTML was streamed to the converter")
+    public long htmlLength;
+}
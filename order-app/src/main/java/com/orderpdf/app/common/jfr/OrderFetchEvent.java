@@ -0,0 +1,29 @@
+package com.orderpdf.app.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Reading orders from DynamoDB, or mapping them from the stream image, for one order or one
+ * {@code BatchGetItem} chunk.
+ */
+@Name("com.orderpdf.OrderFetch")
+@Label("Order Fetch")
+@Category({"Order PDF", "Pipeline"})
+@Description("Reading order details for invoice generation")
+public class OrderFetchEvent extends Event {
+
+    @Label("Order Id")
+    @Description("The order fetched, or the first order of a batch")
+    public String orderId;
+
+    @Label("Order Count")
+    public int orderCount;
+
+    @Label("Line Count")
+    @Description("Order lines fetched, over all orders")
+    public int lineCount;
+}
@@ -0,0 +1,26 @@
+package com.orderpdf.app.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Uploading one object to S3.
+ */
+@Name("com.orderpdf.S3Upload")
+@Label("S3 Upload")
+@Category({"Order PDF", "Pipeline"})
+public class S3UploadEvent extends Event {
+
+    @Label("Object Key")
+    public String objectKey;
+
+    @Label("Size")
+    @DataAmount(DataAmount.BYTES)
+    public long bytes;
+
+    @Label("Mode")
+    public String mode;
+}
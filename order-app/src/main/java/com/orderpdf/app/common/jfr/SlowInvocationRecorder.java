@@ -0,0 +1,151 @@
+package com.orderpdf.app.common.jfr;
+
+import com.orderpdf.app.common.util.S3Helper;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Opt-in continuous JFR recording that is dumped when an invocation takes longer than a threshold, so
+ * a slow warm invocation can be read alongside the GC, safepoint and pipeline events around it. Only
+ * the last two minutes are kept, and at most one dump is taken every five minutes, so a burst of slow
+ * invocations does not fill {@code /tmp} or the bucket.
+ *
+ * <p>Dumps are written to {@code /tmp}, and with {@code JFR_DUMP_TARGET=S3} uploaded under
+ * {@code jfr/} in the invoice bucket and then deleted locally. The dump runs on the slow invocation's
+ * own thread, after its work is done.
+ */
+public class SlowInvocationRecorder implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SlowInvocationRecorder.class);
+
+    private static final Duration RECORDING_MAX_AGE = Duration.ofMinutes(2);
+    private static final Duration MIN_DUMP_INTERVAL = Duration.ofMinutes(5);
+    private static final String S3_KEY_PREFIX = "jfr/";
+
+    private final Recording recording;
+    private final Duration threshold;
+    private final Path dumpDirectory;
+    private final S3Helper s3Helper;
+    private final Clock clock;
+    private Instant lastDumpAt;
+
+    private SlowInvocationRecorder() {
+        this.recording = null;
+        this.threshold = null;
+        this.dumpDirectory = null;
+        this.s3Helper = null;
+        this.clock = null;
+    }
+
+    /**
+     * Starts the recording with the named JFR settings ({@code default} or {@code profile}).
+     * {@code s3Helper} may be null to keep dumps in {@code dumpDirectory}.
+     */
+    public SlowInvocationRecorder(Duration threshold, String settings, Path dumpDirectory, S3Helper s3Helper,
+            Clock clock) throws IOException, ParseException {
+        this.threshold = threshold;
+        this.dumpDirectory = dumpDirectory;
+        this.s3Helper = s3Helper;
+        this.clock = clock;
+        this.recording = new Recording(Configuration.getConfiguration(settings));
+        recording.setName("slow-invocations");
+        recording.setMaxAge(RECORDING_MAX_AGE);
+        recording.setToDisk(true);
+        recording.start();
+    }
+
+    public static SlowInvocationRecorder disabled() {
+        return new SlowInvocationRecorder();
+    }
+
+    /**
+     * Recorder configured by {@code JFR_SLOW_INVOCATION_MILLIS} (unset or 0 disables it),
+     * {@code JFR_SETTINGS} and {@code JFR_DUMP_TARGET}.
+     */
+    public static SlowInvocationRecorder fromEnvironment(S3Helper s3StorageHelper) {
+        long thresholdMillis = Long.parseLong(System.getenv().getOrDefault("JFR_SLOW_INVOCATION_MILLIS", "0"));
+        if (thresholdMillis <= 0) {
+            return disabled();
+        }
+
+        String dumpTarget = System.getenv().getOrDefault("JFR_DUMP_TARGET", "TMP");
+        S3Helper dumpUploader = switch (dumpTarget) {
+            case "S3" -> s3StorageHelper;
+            case "TMP" -> null;
+            default -> {
+                logger.warn("Unknown JFR_DUMP_TARGET: {}, defaulting to TMP", dumpTarget);
+                yield null;
+            }
+        };
+
+        String settings = System.getenv().getOrDefault("JFR_SETTINGS", "default");
+        try {
+            SlowInvocationRecorder recorder = new SlowInvocationRecorder(Duration.ofMillis(thresholdMillis), settings,
+                    Path.of(System.getProperty("java.io.tmpdir")), dumpUploader, Clock.systemUTC());
+            logger.info("JFR recording started, dumping invocations slower than {} ms to {}", thresholdMillis,
+                    dumpTarget);
+            return recorder;
+        } catch (IOException | ParseException | RuntimeException e) {
+            logger.warn("Failed to start JFR recording with settings {}, slow invocations will not be recorded",
+                    settings, e);
+            return disabled();
+        }
+    }
+
+    public boolean enabled() {
+        return recording != null;
+    }
+
+    /**
+     * Dumps the recording if {@code elapsed} reached the threshold and no dump was taken recently.
+     * Returns where the dump was written locally, or its S3 key when uploaded.
+     */
+    public synchronized Optional<String> onInvocationCompleted(String label, Duration elapsed) {
+        if (recording == null || elapsed.compareTo(threshold) < 0) {
+            return Optional.empty();
+        }
+        Instant now = clock.instant();
+        if (lastDumpAt != null && Duration.between(lastDumpAt, now).compareTo(MIN_DUMP_INTERVAL) < 0) {
+            logger.info("Invocation {} took {} ms, JFR dump skipped because one was taken at {}", label,
+                    elapsed.toMillis(), lastDumpAt);
+            return Optional.empty();
+        }
+        lastDumpAt = now;
+
+        Path dumpFile = dumpDirectory.resolve(
+                "invoice-" + label.replaceAll("[^A-Za-z0-9_-]", "_") + "-" + now.toEpochMilli() + ".jfr");
+        try {
+            recording.dump(dumpFile);
+            if (s3Helper == null) {
+                logger.warn("Invocation {} took {} ms, JFR recording dumped to {}", label, elapsed.toMillis(), dumpFile);
+                return Optional.of(dumpFile.toString());
+            }
+
+            String objectKey = S3_KEY_PREFIX + dumpFile.getFileName();
+            s3Helper.putObjectFromFile(objectKey, dumpFile, "application/octet-stream");
+            Files.deleteIfExists(dumpFile);
+            logger.warn("Invocation {} took {} ms, JFR recording uploaded to {}", label, elapsed.toMillis(), objectKey);
+            return Optional.of(objectKey);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to dump JFR recording for slow invocation {}", label, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+}
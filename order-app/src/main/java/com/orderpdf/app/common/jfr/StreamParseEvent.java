@@ -0,0 +1,23 @@
+package com.orderpdf.app.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Parsing one DynamoDB stream record from a queue message.
+ */
+@Name("com.orderpdf.StreamParse")
+@Label("Stream Parse")
+@Category({"Order PDF", "Pipeline"})
+public class StreamParseEvent extends Event {
+
+    @Label("Order Id")
+    public String orderId;
+
+    @Label("Message Length")
+    @DataAmount(DataAmount.BYTES)
+    public long messageLength;
+}
@@ -0,0 +1,26 @@
+package com.orderpdf.app.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Expanding the invoice HTML template for one order.
+ */
+@Name("com.orderpdf.TemplateRender")
+@Label("Template Render")
+@Category({"Order PDF", "Pipeline"})
+public class TemplateRenderEvent extends Event {
+
+    @Label("Order Id")
+    public String orderId;
+
+    @Label("Line Count")
+    public int lineCount;
+
+    @Label("HTML Length")
+    @Description("Characters of HTML produced, or -1 when it was streamed to the converter")
+    public long htmlLength;
+}
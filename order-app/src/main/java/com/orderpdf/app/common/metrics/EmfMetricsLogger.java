@@ -0,0 +1,132 @@
+package com.orderpdf.app.common.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintStream;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes CloudWatch metrics in the Embedded Metric Format: each {@link #flush()} writes one JSON
+ * line to stdout, which Lambda ships to CloudWatch Logs and CloudWatch extracts into metrics, without
+ * a PutMetricData call on the request path.
+ *
+ * <p>{@link #putMetric} sums values between flushes, for counters. {@link #putSample} keeps each value,
+ * for latencies whose percentiles CloudWatch should compute.
+ */
+public final class EmfMetricsLogger {
+    private static final Logger logger = LoggerFactory.getLogger(EmfMetricsLogger.class);
+
+    private static final String DEFAULT_NAMESPACE = "OrderPdfGenerator";
+    // EMF accepts at most 100 values per metric in one line
+    private static final int MAX_SAMPLES_PER_LINE = 100;
+
+    public enum Unit {
+        COUNT("Count"),
+        MILLISECONDS("Milliseconds"),
+        BYTES("Bytes");
+
+        private final String cloudWatchName;
+
+        Unit(String cloudWatchName) {
+            this.cloudWatchName = cloudWatchName;
+        }
+    }
+
+    private record Metric(List<Double> values, Unit unit) {
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String namespace;
+    private final Map<String, String> dimensions;
+    private final PrintStream output;
+    private final Clock clock;
+    private final Map<String, Metric> pendingMetrics = new LinkedHashMap<>();
+
+    public EmfMetricsLogger(String namespace, Map<String, String> dimensions, PrintStream output, Clock clock) {
+        this.namespace = namespace;
+        this.dimensions = new LinkedHashMap<>(dimensions);
+        this.output = output;
+        this.clock = clock;
+    }
+
+    /**
+     * Logger for one service, in the namespace from {@code METRICS_NAMESPACE}, writing to stdout.
+     */
+    public static EmfMetricsLogger forService(String service) {
+        String namespace = System.getenv().getOrDefault("METRICS_NAMESPACE", DEFAULT_NAMESPACE);
+        return new EmfMetricsLogger(namespace, Map.of("Service", service), System.out, Clock.systemUTC());
+    }
+
+    /**
+     * Returns a logger with the same namespace and output, whose metrics carry one more dimension,
+     * such as the priority lane. It has its own pending metrics and must be flushed separately.
+     */
+    public EmfMetricsLogger withDimension(String name, String value) {
+        Map<String, String> extendedDimensions = new LinkedHashMap<>(dimensions);
+        extendedDimensions.put(name, value);
+        return new EmfMetricsLogger(namespace, extendedDimensions, output, clock);
+    }
+
+    /**
+     * Records a metric for the next flush; a metric put twice before a flush is summed.
+     */
+    public synchronized void putMetric(String name, double value, Unit unit) {
+        Metric existing = pendingMetrics.get(name);
+        double total = existing != null ? existing.values().get(0) + value : value;
+        pendingMetrics.put(name, new Metric(new ArrayList<>(List.of(total)), unit));
+    }
+
+    /**
+     * Records one observation for the next flush; observations are kept individually, so CloudWatch
+     * can report percentiles over them.
+     */
+    public synchronized void putSample(String name, double value, Unit unit) {
+        Metric metric = pendingMetrics.computeIfAbsent(name, key -> new Metric(new ArrayList<>(), unit));
+        metric.values().add(value);
+        if (metric.values().size() >= MAX_SAMPLES_PER_LINE) {
+            flush();
+        }
+    }
+
+    public synchronized void flush() {
+        if (pendingMetrics.isEmpty()) {
+            return;
+        }
+
+        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode aws = root.putObject("_aws");
+        aws.put("Timestamp", clock.millis());
+        ObjectNode directive = aws.putArray("CloudWatchMetrics").addObject();
+        directive.put("Namespace", namespace);
+        ArrayNode dimensionSet = directive.putArray("Dimensions").addArray();
+        dimensions.keySet().forEach(dimensionSet::add);
+        ArrayNode metrics = directive.putArray("Metrics");
+
+        dimensions.forEach(root::put);
+        pendingMetrics.forEach((name, metric) -> {
+            metrics.addObject().put("Name", name).put("Unit", metric.unit().cloudWatchName);
+            if (metric.values().size() == 1) {
+                root.put(name, metric.values().get(0));
+            } else {
+                ArrayNode values = root.putArray(name);
+                metric.values().forEach(values::add);
+            }
+        });
+        pendingMetrics.clear();
+
+        try {
+            output.println(objectMapper.writeValueAsString(root));
+        } catch (JsonProcessingException e) {
+            logger.warn("Failed to write metrics", e);
+        }
+    }
+}
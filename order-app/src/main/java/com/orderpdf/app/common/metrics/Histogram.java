@@ -0,0 +1,93 @@
+package com.orderpdf.app.common.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-memory histogram of non-negative values in the style of HdrHistogram: values below 256 are
+ * counted exactly, larger ones in log-linear buckets of 128 per power of two, so every recorded value
+ * is reported within 1% of its true value whatever its magnitude. Recording is a couple of shifts and
+ * an array increment, cheap enough for every invoice.
+ *
+ * <p>Values from about 2^44 up (nearly five hours in nanoseconds) are counted in the top bucket; the
+ * maximum is always tracked exactly.
+ */
+public final class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_COUNT = SUB_BUCKET_HALF_COUNT * 2;
+    private static final int MAX_MAGNITUDE = 43;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT
+            + (MAX_MAGNITUDE - SUB_BUCKET_BITS) * SUB_BUCKET_HALF_COUNT;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long maxValue;
+
+    public synchronized void record(long value) {
+        long clamped = Math.max(0, value);
+        counts[bucketIndex(clamped)]++;
+        totalCount++;
+        maxValue = Math.max(maxValue, clamped);
+    }
+
+    public synchronized long count() {
+        return totalCount;
+    }
+
+    public synchronized long max() {
+        return maxValue;
+    }
+
+    /**
+     * The value below which {@code percentile} percent of the recorded values fall, reported as the
+     * upper bound of its bucket and never above the maximum; 0 when nothing was recorded.
+     */
+    public synchronized long valueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int index = 0; index < counts.length; index++) {
+            seen += counts[index];
+            if (seen >= rank) {
+                return Math.min(highestValueInBucket(index), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Returns a copy of the recorded values and clears this histogram, so the next interval starts empty.
+     */
+    public synchronized Histogram snapshotAndReset() {
+        Histogram snapshot = new Histogram();
+        System.arraycopy(counts, 0, snapshot.counts, 0, counts.length);
+        snapshot.totalCount = totalCount;
+        snapshot.maxValue = maxValue;
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        maxValue = 0;
+        return snapshot;
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int magnitude = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_MAGNITUDE);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) Math.min(value >>> shift, SUB_BUCKET_COUNT - 1) - SUB_BUCKET_HALF_COUNT;
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT + subBucket;
+    }
+
+    private static long highestValueInBucket(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,16 @@
+package com.orderpdf.app.common.metrics;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Destination for the percentile summaries a {@link HistogramRegistry} flushes.
+ */
+public interface HistogramExporter {
+
+    /**
+     * Exports the summaries of the histograms that recorded values between {@code intervalStart} and
+     * {@code intervalEnd}.
+     */
+    void export(Instant intervalStart, Instant intervalEnd, List<HistogramSummary> summaries);
+}
@@ -0,0 +1,119 @@
+package com.orderpdf.app.common.metrics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named {@link Histogram}s that accumulate across warm invocations and are flushed as one percentile
+ * summary per interval, instead of one log line per invocation. A flush happens once {@code flushCount}
+ * units of work were recorded or {@code flushInterval} has passed since the last one, whichever comes
+ * first; both are checked when work is recorded, since a frozen Lambda container runs no timers.
+ *
+ * <p>Summaries still pending when the container is shut down are lost.
+ */
+public final class HistogramRegistry {
+
+    private static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofSeconds(60);
+    private static final long DEFAULT_FLUSH_COUNT = 1_000;
+
+    public enum Unit {
+        // Recorded in nanoseconds, reported in milliseconds
+        MILLISECONDS("Milliseconds", 1_000_000.0),
+        BYTES("Bytes", 1),
+        COUNT("Count", 1);
+
+        private final String name;
+        private final double recordedPerReported;
+
+        Unit(String name, double recordedPerReported) {
+            this.name = name;
+            this.recordedPerReported = recordedPerReported;
+        }
+    }
+
+    private record NamedHistogram(Histogram histogram, Unit unit) {
+    }
+
+    private final HistogramExporter exporter;
+    private final Duration flushInterval;
+    private final long flushCount;
+    private final Clock clock;
+    private final Map<String, NamedHistogram> histograms = new ConcurrentHashMap<>();
+    private long recordedSinceFlush;
+    private Instant intervalStart;
+
+    public HistogramRegistry(HistogramExporter exporter, Duration flushInterval, long flushCount, Clock clock) {
+        this.exporter = exporter;
+        this.flushInterval = flushInterval;
+        this.flushCount = flushCount;
+        this.clock = clock;
+        this.intervalStart = clock.instant();
+    }
+
+    /**
+     * Registry flushing to stdout every {@code HISTOGRAM_FLUSH_SECONDS} or {@code HISTOGRAM_FLUSH_COUNT}
+     * units of work.
+     */
+    public static HistogramRegistry fromEnvironment() {
+        return new HistogramRegistry(new StdoutHistogramExporter(),
+                Duration.ofSeconds(Long.parseLong(System.getenv().getOrDefault("HISTOGRAM_FLUSH_SECONDS",
+                        String.valueOf(DEFAULT_FLUSH_INTERVAL.toSeconds())))),
+                Long.parseLong(System.getenv().getOrDefault("HISTOGRAM_FLUSH_COUNT",
+                        String.valueOf(DEFAULT_FLUSH_COUNT))),
+                Clock.systemUTC());
+    }
+
+    /**
+     * Records a value in the named histogram, creating it with {@code unit} on first use. Durations
+     * are recorded in nanoseconds with {@link Unit#MILLISECONDS}.
+     */
+    public void record(String name, long value, Unit unit) {
+        histograms.computeIfAbsent(name, key -> new NamedHistogram(new Histogram(), unit)).histogram().record(value);
+    }
+
+    /**
+     * Marks one unit of work, such as an invoice, as fully recorded, and flushes if the count or the
+     * interval is reached.
+     */
+    public synchronized void recordCompleted() {
+        recordedSinceFlush++;
+        if (recordedSinceFlush >= flushCount
+                || Duration.between(intervalStart, clock.instant()).compareTo(flushInterval) >= 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Exports the histograms that recorded values since the last flush, in name order, and starts a
+     * new interval.
+     */
+    public synchronized void flush() {
+        Instant intervalEnd = clock.instant();
+        List<HistogramSummary> summaries = new ArrayList<>();
+        new TreeMap<>(histograms).forEach((name, named) -> {
+            Histogram snapshot = named.histogram().snapshotAndReset();
+            if (snapshot.count() > 0) {
+                summaries.add(summarize(name, named.unit(), snapshot));
+            }
+        });
+        if (!summaries.isEmpty()) {
+            exporter.export(intervalStart, intervalEnd, summaries);
+        }
+        recordedSinceFlush = 0;
+        intervalStart = intervalEnd;
+    }
+
+    private static HistogramSummary summarize(String name, Unit unit, Histogram histogram) {
+        return new HistogramSummary(name, unit.name, histogram.count(),
+                histogram.valueAtPercentile(50) / unit.recordedPerReported,
+                histogram.valueAtPercentile(90) / unit.recordedPerReported,
+                histogram.valueAtPercentile(99) / unit.recordedPerReported,
+                histogram.max() / unit.recordedPerReported);
+    }
+}
@@ -0,0 +1,8 @@
+package com.orderpdf.app.common.metrics;
+
+/**
+ * Percentiles of one histogram over a flush interval, in the histogram's reporting unit.
+ */
+public record HistogramSummary(String name, String unit, long count, double p50, double p90, double p99,
+        double max) {
+}
@@ -0,0 +1,178 @@
+package com.orderpdf.app.common.metrics;
+
+import com.orderpdf.app.common.util.ResourceUsage;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stage timings, PDF size, line count and, when the invoice had an invocation to itself, that
+ * invocation's allocation and garbage collections, for one invoice. They are emitted as EMF samples once the invoice is
+ * stored. Stages inside the renderer record into the invoice bound to the current thread with
+ * {@link #bind()}, so the renderer interface does not need to carry it.
+ *
+ * <p>The first invoice generated in this JVM is tagged {@code Start=Cold} and the rest
+ * {@code Start=Warm}, so class loading and JIT warm-up do not skew the warm percentiles.
+ */
+public final class InvoiceMetrics {
+
+    private static final AtomicBoolean firstInvoice = new AtomicBoolean(true);
+    private static final ThreadLocal<InvoiceMetrics> current = new ThreadLocal<>();
+
+    public enum Stage {
+        FETCH("FetchLatency"),
+        TEMPLATE("TemplateLatency"),
+        HTML_TO_PDF("HtmlToPdfLatency"),
+        RENDER("RenderLatency"),
+        UPLOAD("UploadLatency");
+
+        private final String metricName;
+
+        Stage(String metricName) {
+            this.metricName = metricName;
+        }
+    }
+
+    public enum Start {
+        COLD("Cold"),
+        WARM("Warm");
+
+        private final String dimensionValue;
+
+        Start(String dimensionValue) {
+            this.dimensionValue = dimensionValue;
+        }
+    }
+
+    /**
+     * Unbinds the invoice from the thread; closing does not throw.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final Start start;
+    private final Map<Stage, Long> stageNanos = new EnumMap<>(Stage.class);
+    private long pdfBytes = -1;
+    private int lineCount = -1;
+    private ResourceUsage resourceUsage;
+
+    private InvoiceMetrics(Start start) {
+        this.start = start;
+    }
+
+    /**
+     * Starts collecting for a new invoice; only the first call in this JVM is a cold start.
+     */
+    public static InvoiceMetrics start() {
+        return new InvoiceMetrics(firstInvoice.compareAndSet(true, false) ? Start.COLD : Start.WARM);
+    }
+
+    /**
+     * One logger per start type, each with a {@code Start} dimension added to {@code metricsLogger}.
+     */
+    public static Map<Start, EmfMetricsLogger> metricsLoggersByStart(EmfMetricsLogger metricsLogger) {
+        Map<Start, EmfMetricsLogger> loggers = new EnumMap<>(Start.class);
+        for (Start start : Start.values()) {
+            loggers.put(start, metricsLogger.withDimension("Start", start.dimensionValue));
+        }
+        return loggers;
+    }
+
+    /**
+     * Adds to a stage of the invoice bound to this thread; does nothing when none is bound.
+     */
+    public static void recordCurrentStage(Stage stage, long elapsedNanos) {
+        InvoiceMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.recordStage(stage, elapsedNanos);
+        }
+    }
+
+    /**
+     * Sets the PDF size of the invoice bound to this thread; does nothing when none is bound.
+     */
+    public static void recordCurrentPdfBytes(long pdfBytes) {
+        InvoiceMetrics metrics = current.get();
+        if (metrics != null) {
+            metrics.pdfBytes = pdfBytes;
+        }
+    }
+
+    /**
+     * Binds this invoice to the current thread until the returned scope is closed.
+     */
+    public Scope bind() {
+        InvoiceMetrics previous = current.get();
+        current.set(this);
+        return () -> current.set(previous);
+    }
+
+    public Start startType() {
+        return start;
+    }
+
+    public void recordStage(Stage stage, long elapsedNanos) {
+        stageNanos.merge(stage, elapsedNanos, Long::sum);
+    }
+
+    public void recordLineCount(int lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    /**
+     * Sets the heap allocation and garbage collections of the invocation that generated this invoice.
+     */
+    public void recordResourceUsage(ResourceUsage resourceUsage) {
+        this.resourceUsage = resourceUsage;
+    }
+
+    /**
+     * Records the collected values as samples on the logger for this invoice's start type. The caller
+     * flushes.
+     */
+    public void emitTo(Map<Start, EmfMetricsLogger> metricsLoggersByStart) {
+        EmfMetricsLogger metricsLogger = metricsLoggersByStart.get(start);
+        stageNanos.forEach((stage, nanos) -> metricsLogger.putSample(stage.metricName, nanos / 1_000_000.0,
+                EmfMetricsLogger.Unit.MILLISECONDS));
+        if (pdfBytes >= 0) {
+            metricsLogger.putSample("PdfBytes", pdfBytes, EmfMetricsLogger.Unit.BYTES);
+        }
+        if (lineCount >= 0) {
+            metricsLogger.putSample("LineCount", lineCount, EmfMetricsLogger.Unit.COUNT);
+        }
+        if (resourceUsage != null) {
+            if (resourceUsage.allocatedBytes() >= 0) {
+                metricsLogger.putSample("AllocatedBytes", resourceUsage.allocatedBytes(), EmfMetricsLogger.Unit.BYTES);
+            }
+            metricsLogger.putSample("GcCount", resourceUsage.gcCount(), EmfMetricsLogger.Unit.COUNT);
+            metricsLogger.putSample("GcTime", resourceUsage.gcTimeMillis(), EmfMetricsLogger.Unit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Adds the collected values to the registry's histograms and counts the invoice towards its next
+     * flush.
+     */
+    public void recordTo(HistogramRegistry histogramRegistry) {
+        stageNanos.forEach((stage, nanos) -> histogramRegistry.record(stage.metricName, nanos,
+                HistogramRegistry.Unit.MILLISECONDS));
+        if (pdfBytes >= 0) {
+            histogramRegistry.record("PdfBytes", pdfBytes, HistogramRegistry.Unit.BYTES);
+        }
+        if (lineCount >= 0) {
+            histogramRegistry.record("LineCount", lineCount, HistogramRegistry.Unit.COUNT);
+        }
+        if (resourceUsage != null) {
+            if (resourceUsage.allocatedBytes() >= 0) {
+                histogramRegistry.record("AllocatedBytes", resourceUsage.allocatedBytes(),
+                        HistogramRegistry.Unit.BYTES);
+            }
+            histogramRegistry.record("GcTime", resourceUsage.gcTimeMillis() * 1_000_000,
+                    HistogramRegistry.Unit.MILLISECONDS);
+        }
+        histogramRegistry.recordCompleted();
+    }
+}
@@ -0,0 +1,54 @@
+package com.orderpdf.app.common.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Writes each flush as one compact JSON line, keyed by histogram name. The line is not in Embedded
+ * Metric Format, so CloudWatch keeps it as a log line to query rather than extracting metrics from it.
+ */
+public final class StdoutHistogramExporter implements HistogramExporter {
+    private static final Logger logger = LoggerFactory.getLogger(StdoutHistogramExporter.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PrintStream output;
+
+    public StdoutHistogramExporter() {
+        this(System.out);
+    }
+
+    public StdoutHistogramExporter(PrintStream output) {
+        this.output = output;
+    }
+
+    @Override
+    public void export(Instant intervalStart, Instant intervalEnd, List<HistogramSummary> summaries) {
+        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode summary = root.putObject("HistogramSummary");
+        summary.put("IntervalStart", intervalStart.toString());
+        summary.put("IntervalEnd", intervalEnd.toString());
+        ObjectNode histograms = summary.putObject("Histograms");
+        for (HistogramSummary histogram : summaries) {
+            histograms.putObject(histogram.name())
+                    .put("Unit", histogram.unit())
+                    .put("Count", histogram.count())
+                    .put("p50", histogram.p50())
+                    .put("p90", histogram.p90())
+                    .put("p99", histogram.p99())
+                    .put("Max", histogram.max());
+        }
+
+        try {
+            output.println(objectMapper.writeValueAsString(root));
+        } catch (JsonProcessingException e) {
+            logger.warn("Failed to write histogram summary", e);
+        }
+    }
+}
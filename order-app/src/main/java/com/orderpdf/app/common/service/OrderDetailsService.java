@@ -5,61 +5,114 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.orderpdf.app.common.dto.Customer;
 import com.orderpdf.app.common.dto.Order;
 import com.orderpdf.app.common.dto.OrderItem;
+import com.orderpdf.app.common.dto.OrderKey;
+import com.orderpdf.app.common.jfr.OrderFetchEvent;
+import com.orderpdf.app.common.util.DynamoDbJsonConverter;
 import com.orderpdf.app.common.dto.OrderLine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class OrderDetailsService {
     private static final Logger logger = LoggerFactory.getLogger(OrderDetailsService.class);
 
+    // DynamoDB limit on keys per BatchGetItem request
+    public static final int BATCH_GET_MAX_KEYS = 100;
+    private static final int BATCH_GET_MAX_ATTEMPTS = 6;
+    private static final long DEFAULT_BATCH_RETRY_BASE_DELAY_MILLIS = 50;
+    private static final long BATCH_RETRY_MAX_DELAY_MILLIS = 2_000;
+
     private final DynamoDbClient dynamoDbClient;
     private final ObjectMapper objectMapper;
     private final String tableName;
+    private final long batchRetryBaseDelayMillis;
 
     public OrderDetailsService() {
         this.dynamoDbClient = DynamoDbClient.builder().build();
         this.objectMapper = new ObjectMapper();
         this.tableName = System.getenv("DYNAMODB_TABLE_NAME") != null ? System.getenv("DYNAMODB_TABLE_NAME")
                 : "orders";
+        this.batchRetryBaseDelayMillis = DEFAULT_BATCH_RETRY_BASE_DELAY_MILLIS;
     }
 
     // Constructor for testing with dependency injection
     public OrderDetailsService(DynamoDbClient dynamoDbClient, String tableName) {
+        this(dynamoDbClient, tableName, DEFAULT_BATCH_RETRY_BASE_DELAY_MILLIS);
+    }
+
+    // Constructor for testing with dependency injection
+    public OrderDetailsService(DynamoDbClient dynamoDbClient, String tableName, long batchRetryBaseDelayMillis) {
         this.dynamoDbClient = dynamoDbClient;
         this.objectMapper = new ObjectMapper();
         this.tableName = tableName;
+        this.batchRetryBaseDelayMillis = batchRetryBaseDelayMillis;
     }
 
     public Order fetchOrderDetails(OrderItem orderItem) {
-        logger.debug("Fetching order details for orderId: {}", orderItem.orderId());
-
-        try {
-            // Create the key for the main order record
-            Map<String, AttributeValue> key = Map.of(
-                    "pk", AttributeValue.builder().s(orderItem.pk()).build(),
-                    "sk", AttributeValue.builder().s(orderItem.sk()).build());
+        OrderFetchEvent fetchEvent = new OrderFetchEvent();
+        fetchEvent.begin();
+        Order order = readOrderDetails(orderItem);
+        fetchEvent.end();
+        if (fetchEvent.shouldCommit()) {
+            fetchEvent.orderId = orderItem.orderId();
+            fetchEvent.orderCount = 1;
+            fetchEvent.lineCount = lineCount(order);
+            fetchEvent.commit();
+        }
+        return order;
+    }
 
-            GetItemRequest request = GetItemRequest.builder()
-                    .tableName(tableName)
-                    .key(key)
-                    .build();
+    /**
+     * Fetches one order like {@link #fetchOrderDetails}, but without the sample-order fallback, for
+     * callers that answer for that order directly: returns empty when the table has no such order and
+     * lets DynamoDB failures propagate.
+     */
+    public Optional<Order> findOrderDetails(OrderItem orderItem) {
+        OrderFetchEvent fetchEvent = new OrderFetchEvent();
+        fetchEvent.begin();
+        Order streamedOrder = mapStreamImage(orderItem);
+        Optional<Order> order = streamedOrder != null ? Optional.of(streamedOrder) : getOrder(orderItem);
+        fetchEvent.end();
+        if (fetchEvent.shouldCommit()) {
+            fetchEvent.orderId = orderItem.orderId();
+            fetchEvent.orderCount = order.isPresent() ? 1 : 0;
+            fetchEvent.lineCount = lineCount(order.orElse(null));
+            fetchEvent.commit();
+        }
+        return order;
+    }
 
-            GetItemResponse response = dynamoDbClient.getItem(request);
+    private Order readOrderDetails(OrderItem orderItem) {
+        Order streamedOrder = mapStreamImage(orderItem);
+        if (streamedOrder != null) {
+            return streamedOrder;
+        }
 
-            if (!response.hasItem()) {
+        try {
+            Optional<Order> order = getOrder(orderItem);
+            if (order.isEmpty()) {
                 logger.warn("Order not found in DynamoDB for orderId: {}", orderItem.orderId());
                 return createSampleOrder(orderItem.orderId());
             }
-
-            return mapDynamoDbItemToOrder(response.item());
+            return order.get();
 
         } catch (Exception e) {
             logger.error("Error fetching order details from DynamoDB for orderId: {}", orderItem.orderId(), e);
@@ -68,6 +121,159 @@ public class OrderDetailsService {
         }
     }
 
+    private Optional<Order> getOrder(OrderItem orderItem) {
+        logger.debug("Fetching order details for orderId: {}", orderItem.orderId());
+
+        // Create the key for the main order record
+        Map<String, AttributeValue> key = Map.of(
+                "pk", AttributeValue.builder().s(orderItem.pk()).build(),
+                "sk", AttributeValue.builder().s(orderItem.sk()).build());
+
+        GetItemRequest request = GetItemRequest.builder()
+                .tableName(tableName)
+                .key(key)
+                .build();
+
+        GetItemResponse response = dynamoDbClient.getItem(request);
+
+        return response.hasItem() ? Optional.of(mapDynamoDbItemToOrder(response.item())) : Optional.empty();
+    }
+
+    /**
+     * Fetches many orders with {@code BatchGetItem}, {@value #BATCH_GET_MAX_KEYS} keys per request;
+     * items that carry a stream image are mapped from it instead.
+     * Keys DynamoDB leaves unprocessed are retried with exponential backoff and jitter; keys still
+     * unprocessed after that, or whose request fails, fall back to {@link #fetchOrderDetails}. Keys the
+     * batch answered as absent get the same sample-order fallback as a single fetch of a missing order,
+     * without another read. The result holds an order for every requested key. Items that repeat a
+     * pk/sk share one order, taken from the first of them, so callers coalesce versions of an order
+     * beforehand.
+     */
+    public Map<OrderKey, Order> fetchOrderDetailsBatch(Collection<OrderItem> orderItems) {
+        OrderFetchEvent fetchEvent = new OrderFetchEvent();
+        fetchEvent.begin();
+        Map<OrderKey, Order> orders = readOrderDetailsBatch(orderItems);
+        fetchEvent.end();
+        if (fetchEvent.shouldCommit()) {
+            fetchEvent.orderId = orderItems.isEmpty() ? null : orderItems.iterator().next().orderId();
+            fetchEvent.orderCount = orders.size();
+            fetchEvent.lineCount = orders.values().stream().mapToInt(OrderDetailsService::lineCount).sum();
+            fetchEvent.commit();
+        }
+        return orders;
+    }
+
+    private static int lineCount(Order order) {
+        return order != null && order.lines() != null ? order.lines().size() : 0;
+    }
+
+    private Map<OrderKey, Order> readOrderDetailsBatch(Collection<OrderItem> orderItems) {
+        Map<OrderKey, Order> orders = new HashMap<>();
+        Map<OrderKey, OrderItem> itemsByKey = new LinkedHashMap<>();
+        for (OrderItem orderItem : orderItems) {
+            OrderKey key = OrderKey.of(orderItem);
+            if (orders.containsKey(key) || itemsByKey.containsKey(key)) {
+                continue;
+            }
+            Order streamedOrder = mapStreamImage(orderItem);
+            if (streamedOrder != null) {
+                orders.put(key, streamedOrder);
+            } else {
+                itemsByKey.put(key, orderItem);
+            }
+        }
+        logger.debug("Fetching order details for {} orders", itemsByKey.size());
+
+        List<OrderKey> keys = new ArrayList<>(itemsByKey.keySet());
+        for (int start = 0; start < keys.size(); start += BATCH_GET_MAX_KEYS) {
+            List<OrderKey> chunk = keys.subList(start, Math.min(start + BATCH_GET_MAX_KEYS, keys.size()));
+            fetchChunk(chunk, itemsByKey, orders);
+        }
+
+        for (Map.Entry<OrderKey, OrderItem> entry : itemsByKey.entrySet()) {
+            if (!orders.containsKey(entry.getKey())) {
+                orders.put(entry.getKey(), fetchOrderDetails(entry.getValue()));
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Maps the order from the stream image the item carries, or returns null when there is none or it
+     * cannot be mapped, in which case the caller reads the table instead.
+     */
+    private Order mapStreamImage(OrderItem orderItem) {
+        if (orderItem.newImage() == null) {
+            return null;
+        }
+
+        try {
+            Order order = mapDynamoDbItemToOrder(DynamoDbJsonConverter.toAttributeValueMap(
+                    objectMapper.valueToTree(orderItem.newImage())));
+            logger.debug("Using stream image for orderId: {}", orderItem.orderId());
+            return order;
+        } catch (Exception e) {
+            logger.warn("Could not map stream image for orderId: {}, reading it from DynamoDB", orderItem.orderId(), e);
+            return null;
+        }
+    }
+
+    private void fetchChunk(List<OrderKey> chunk, Map<OrderKey, OrderItem> itemsByKey, Map<OrderKey, Order> orders) {
+        Map<String, KeysAndAttributes> requestItems = Map.of(tableName, KeysAndAttributes.builder()
+                .keys(chunk.stream().map(OrderDetailsService::toKey).toList())
+                .build());
+        Set<OrderKey> missing = new HashSet<>(chunk);
+
+        try {
+            for (int attempt = 1; !requestItems.isEmpty(); attempt++) {
+                if (attempt > 1) {
+                    if (attempt > BATCH_GET_MAX_ATTEMPTS) {
+                        logger.warn("Giving up on {} unprocessed keys after {} BatchGetItem attempts",
+                                requestItems.get(tableName).keys().size(), BATCH_GET_MAX_ATTEMPTS);
+                        return;
+                    }
+                    Thread.sleep(backoffDelayMillis(attempt - 1));
+                }
+
+                BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                        .requestItems(requestItems)
+                        .build());
+
+                for (Map<String, AttributeValue> item : response.responses().getOrDefault(tableName, List.of())) {
+                    OrderKey key = new OrderKey(getStringValue(item, "pk"), getStringValue(item, "sk"));
+                    if (missing.remove(key)) {
+                        orders.put(key, mapDynamoDbItemToOrder(item));
+                    }
+                }
+                requestItems = response.unprocessedKeys();
+            }
+
+            // Keys that were processed but not returned do not exist, so a single read would miss as well
+            for (OrderKey key : missing) {
+                String orderId = itemsByKey.get(key).orderId();
+                logger.warn("Order not found in DynamoDB for orderId: {}", orderId);
+                orders.put(key, createSampleOrder(orderId));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while retrying BatchGetItem, falling back to single reads");
+        } catch (Exception e) {
+            logger.error("Error batch fetching {} orders from DynamoDB, falling back to single reads", chunk.size(), e);
+        }
+    }
+
+    private long backoffDelayMillis(int retry) {
+        long cap = Math.min(BATCH_RETRY_MAX_DELAY_MILLIS, batchRetryBaseDelayMillis << Math.min(retry - 1, 16));
+        // Full jitter, so concurrent batches do not retry in lockstep
+        return cap > 0 ? ThreadLocalRandom.current().nextLong(cap + 1) : 0;
+    }
+
+    private static Map<String, AttributeValue> toKey(OrderKey key) {
+        return Map.of(
+                "pk", AttributeValue.builder().s(key.pk()).build(),
+                "sk", AttributeValue.builder().s(key.sk()).build());
+    }
+
     private Order mapDynamoDbItemToOrder(Map<String, AttributeValue> item) {
         try {
             // Extract customer information
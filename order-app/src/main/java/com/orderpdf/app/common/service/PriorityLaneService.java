@@ -0,0 +1,72 @@
+package com.orderpdf.app.common.service;
+
+import com.orderpdf.app.common.metrics.EmfMetricsLogger;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Assigns orders to a delivery lane by their {@code priority}. Fast-lane orders travel through their
+ * own queue with no batching window, so they are not held behind bulk traffic.
+ *
+ * <p>Priorities are matched exactly and case-sensitively, as the EventBridge pipe filters that pick the
+ * queue do, so an order is never counted in one lane while it travels through the other.
+ */
+public class PriorityLaneService {
+
+    public static final String DEFAULT_FAST_LANE_PRIORITIES = "high";
+
+    public enum Lane {
+        FAST,
+        BULK;
+
+        /**
+         * Value used for the {@code Lane} metric dimension.
+         */
+        public String dimensionValue() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final Set<String> fastLanePriorities;
+
+    public PriorityLaneService() {
+        this(System.getenv().getOrDefault("FAST_LANE_PRIORITIES", DEFAULT_FAST_LANE_PRIORITIES));
+    }
+
+    /**
+     * @param fastLanePriorities comma-separated priorities routed to the fast lane. Blanks around the
+     *                           commas are ignored, as in the pulumi {@code fastLanePriorities} config.
+     */
+    public PriorityLaneService(String fastLanePriorities) {
+        this.fastLanePriorities = Arrays.stream(fastLanePriorities.split(","))
+                .map(String::trim)
+                .filter(priority -> !priority.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public Lane laneOf(String priority) {
+        return priority != null && fastLanePriorities.contains(priority)
+                ? Lane.FAST
+                : Lane.BULK;
+    }
+
+    public Set<String> fastLanePriorities() {
+        return fastLanePriorities;
+    }
+
+    /**
+     * One metrics logger per lane, each adding a {@code Lane} dimension to {@code metricsLogger}.
+     */
+    public static Map<Lane, EmfMetricsLogger> metricsLoggersByLane(EmfMetricsLogger metricsLogger) {
+        Map<Lane, EmfMetricsLogger> loggers = new EnumMap<>(Lane.class);
+        for (Lane lane : Lane.values()) {
+            loggers.put(lane, metricsLogger.withDimension("Lane", lane.dimensionValue()));
+        }
+        return loggers;
+    }
+}
@@ -0,0 +1,115 @@
+package com.orderpdf.app.common.util;
+
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recycles output buffers across invocations of a warm container.
+ *
+ * <p>New buffers are sized from the largest of the recently produced outputs (plus headroom), so a
+ * typical invoice is written into one array that never has to grow. At most {@code maxPooledBuffers}
+ * arrays are retained; the rest are left to the garbage collector.
+ */
+public final class ByteArrayPool {
+
+    private static final int RECENT_SIZE_WINDOW = 32;
+    private static final int MIN_BUFFER_BYTES = 16 * 1024;
+    private static final int ALIGNMENT_BYTES = 4 * 1024;
+
+    private final int maxPooledBuffers;
+    private final Deque<byte[]> freeBuffers = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pooledCount = new AtomicInteger();
+    private final int[] recentSizes = new int[RECENT_SIZE_WINDOW];
+    private int recentSizeIndex;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    public ByteArrayPool(int maxPooledBuffers) {
+        this.maxPooledBuffers = maxPooledBuffers;
+    }
+
+    public PooledByteArrayOutputStream newOutputStream() {
+        return new PooledByteArrayOutputStream(this, acquire());
+    }
+
+    byte[] acquire() {
+        acquired.increment();
+        int largestRecent = largestRecentSize();
+
+        byte[] buffer;
+        while ((buffer = freeBuffers.pollFirst()) != null) {
+            pooledCount.decrementAndGet();
+            if (buffer.length >= largestRecent) {
+                reused.increment();
+                return buffer;
+            }
+            // Smaller than recent invoices, so it would only have to grow; let it go
+        }
+        return allocate(suggestedCapacity());
+    }
+
+    byte[] grow(byte[] buffer, int minCapacity) {
+        byte[] grown = Arrays.copyOf(buffer, align(Math.max(minCapacity, buffer.length * 2)));
+        allocatedBytes.add(grown.length);
+        return grown;
+    }
+
+    void release(byte[] buffer, int usedBytes) {
+        recordSize(usedBytes);
+        if (pooledCount.incrementAndGet() <= maxPooledBuffers) {
+            freeBuffers.offerFirst(buffer);
+        } else {
+            pooledCount.decrementAndGet();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(acquired.sum(), reused.sum(), allocatedBytes.sum());
+    }
+
+    int suggestedCapacity() {
+        int largest = largestRecentSize();
+        return align(Math.max(MIN_BUFFER_BYTES, largest + largest / 4));
+    }
+
+    private int largestRecentSize() {
+        int largest = 0;
+        synchronized (recentSizes) {
+            for (int size : recentSizes) {
+                largest = Math.max(largest, size);
+            }
+        }
+        return largest;
+    }
+
+    private void recordSize(int usedBytes) {
+        synchronized (recentSizes) {
+            recentSizes[recentSizeIndex] = usedBytes;
+            recentSizeIndex = (recentSizeIndex + 1) % RECENT_SIZE_WINDOW;
+        }
+    }
+
+    private byte[] allocate(int capacity) {
+        allocatedBytes.add(capacity);
+        return new byte[capacity];
+    }
+
+    private static int align(int size) {
+        return (size + ALIGNMENT_BYTES - 1) / ALIGNMENT_BYTES * ALIGNMENT_BYTES;
+    }
+
+    /**
+     * Cumulative pool counters; {@code allocatedBytes} counts every array the pool had to create or
+     * grow, so it stays flat once the pool is warm.
+     */
+    public record Stats(long acquired, long reused, long allocatedBytes) {
+        public long allocatedBytesPerAcquire() {
+            return acquired == 0 ? 0 : allocatedBytes / acquired;
+        }
+    }
+}
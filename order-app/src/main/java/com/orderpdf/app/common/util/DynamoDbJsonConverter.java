@@ -0,0 +1,93 @@
+package com.orderpdf.app.common.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts DynamoDB-JSON, as found in a stream record's {@code NewImage}, into SDK
+ * {@link AttributeValue}s, so stream images can go through the same mapping as {@code GetItem}
+ * results.
+ */
+public final class DynamoDbJsonConverter {
+
+    private DynamoDbJsonConverter() {
+    }
+
+    public static Map<String, AttributeValue> toAttributeValueMap(JsonNode image) {
+        if (image == null || !image.isObject()) {
+            throw new IllegalArgumentException("DynamoDB image must be a JSON object");
+        }
+
+        Map<String, AttributeValue> attributes = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = image.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            attributes.put(field.getKey(), toAttributeValue(field.getValue()));
+        }
+        return attributes;
+    }
+
+    public static AttributeValue toAttributeValue(JsonNode typedValue) {
+        if (typedValue == null || !typedValue.isObject() || typedValue.size() != 1) {
+            throw new IllegalArgumentException("Expected a single-type DynamoDB attribute value: " + typedValue);
+        }
+
+        Map.Entry<String, JsonNode> typed = typedValue.fields().next();
+        JsonNode value = typed.getValue();
+        return switch (typed.getKey()) {
+            case "S" -> AttributeValue.builder().s(value.asText()).build();
+            case "N" -> AttributeValue.builder().n(value.asText()).build();
+            case "BOOL" -> AttributeValue.builder().bool(value.asBoolean()).build();
+            case "NULL" -> AttributeValue.builder().nul(value.asBoolean()).build();
+            case "B" -> AttributeValue.builder().b(toBytes(value)).build();
+            case "M" -> AttributeValue.builder().m(toAttributeValueMap(value)).build();
+            case "L" -> AttributeValue.builder().l(toList(value)).build();
+            case "SS" -> AttributeValue.builder().ss(toStrings(value)).build();
+            case "NS" -> AttributeValue.builder().ns(toStrings(value)).build();
+            case "BS" -> AttributeValue.builder().bs(toBytesList(value)).build();
+            default -> throw new IllegalArgumentException("Unsupported DynamoDB attribute type: " + typed.getKey());
+        };
+    }
+
+    private static List<AttributeValue> toList(JsonNode values) {
+        List<AttributeValue> list = new ArrayList<>(values.size());
+        for (JsonNode value : values) {
+            list.add(toAttributeValue(value));
+        }
+        return list;
+    }
+
+    private static List<String> toStrings(JsonNode values) {
+        List<String> strings = new ArrayList<>(values.size());
+        for (JsonNode value : values) {
+            strings.add(value.asText());
+        }
+        return strings;
+    }
+
+    private static List<SdkBytes> toBytesList(JsonNode values) {
+        List<SdkBytes> bytes = new ArrayList<>(values.size());
+        for (JsonNode value : values) {
+            bytes.add(toBytes(value));
+        }
+        return bytes;
+    }
+
+    private static SdkBytes toBytes(JsonNode value) {
+        try {
+            // Stream records carry binary attributes base64-encoded
+            return SdkBytes.fromByteArray(value.binaryValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.orderpdf.app.common.util;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Fingerprints the part of an order record that appears on its invoice. Two images with the same
+ * fingerprint render the same invoice, so a write that only touches other attributes (such as
+ * {@code pdf} or {@code updatedAt}) does not need a new PDF.
+ *
+ * <p>Images are DynamoDB-JSON as read from a stream record ({@code {"S": "..."}}, {@code {"N": "..."}},
+ * ...). Map keys and set members are sorted and numbers normalised, so attribute order and
+ * {@code 10} vs {@code 10.0} do not change the fingerprint.
+ */
+public final class InvoiceFingerprint {
+
+    /**
+     * Order attributes read by {@code OrderDetailsService} into the {@code Order} fields that
+     * {@code HtmlTemplateService} prints. Keep in step with both when the invoice changes.
+     */
+    public static final Set<String> INVOICE_ATTRIBUTES = Set.of(
+            "orderId", "createdAt", "status", "priority", "notes", "source", "region", "processingTime",
+            "customerName", "customerEmail", "customerPhone", "shippingAddress", "items");
+
+    // Attributes of each entry in "items" that are printed as an invoice row
+    private static final List<String> LINE_ATTRIBUTES = List.of("itemId", "price", "quantity");
+
+    private static final List<String> SORTED_INVOICE_ATTRIBUTES = INVOICE_ATTRIBUTES.stream().sorted().toList();
+
+    private InvoiceFingerprint() {
+    }
+
+    /**
+     * Returns the hex SHA-256 of the invoice attributes of {@code image}; attributes not listed in
+     * {@link #INVOICE_ATTRIBUTES} are ignored and may be absent.
+     */
+    public static String of(Map<String, ?> image) {
+        MessageDigest digest = sha256();
+        for (String attribute : SORTED_INVOICE_ATTRIBUTES) {
+            updateToken(digest, attribute);
+            if ("items".equals(attribute)) {
+                updateLines(digest, image.get(attribute));
+            } else {
+                updateValue(digest, image.get(attribute));
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void updateLines(MessageDigest digest, Object items) {
+        if (!(items instanceof Map<?, ?> typedValue) || !(typedValue.get("L") instanceof List<?> lines)) {
+            updateValue(digest, items);
+            return;
+        }
+
+        updateToken(digest, "L");
+        updateToken(digest, String.valueOf(lines.size()));
+        for (Object line : lines) {
+            if (line instanceof Map<?, ?> typedLine && typedLine.get("M") instanceof Map<?, ?> lineAttributes) {
+                updateToken(digest, "M");
+                for (String attribute : LINE_ATTRIBUTES) {
+                    updateToken(digest, attribute);
+                    updateValue(digest, lineAttributes.get(attribute));
+                }
+            } else {
+                updateValue(digest, line);
+            }
+        }
+    }
+
+    private static void updateValue(MessageDigest digest, Object typedValue) {
+        if (!(typedValue instanceof Map<?, ?> attribute) || attribute.size() != 1) {
+            // Absent, or not an attribute value; digest it as-is so differences still show
+            updateToken(digest, typedValue == null ? "~" : "?" + typedValue);
+            return;
+        }
+
+        Map.Entry<?, ?> entry = attribute.entrySet().iterator().next();
+        String type = String.valueOf(entry.getKey());
+        Object value = entry.getValue();
+        updateToken(digest, type);
+
+        switch (type) {
+            case "N" -> updateToken(digest, normaliseNumber(value));
+            case "M" -> {
+                Map<String, Object> sorted = new TreeMap<>();
+                if (value instanceof Map<?, ?> members) {
+                    members.forEach((key, member) -> sorted.put(String.valueOf(key), member));
+                }
+                updateToken(digest, String.valueOf(sorted.size()));
+                sorted.forEach((key, member) -> {
+                    updateToken(digest, key);
+                    updateValue(digest, member);
+                });
+            }
+            case "L" -> {
+                Collection<?> elements = value instanceof Collection<?> list ? list : List.of();
+                updateToken(digest, String.valueOf(elements.size()));
+                elements.forEach(element -> updateValue(digest, element));
+            }
+            case "SS", "NS", "BS" -> {
+                List<String> members = new ArrayList<>();
+                if (value instanceof Collection<?> set) {
+                    set.forEach(member -> members.add("NS".equals(type) ? normaliseNumber(member) : String.valueOf(member)));
+                }
+                members.sort(null);
+                updateToken(digest, String.valueOf(members.size()));
+                members.forEach(member -> updateToken(digest, member));
+            }
+            default -> updateToken(digest, String.valueOf(value));
+        }
+    }
+
+    private static String normaliseNumber(Object value) {
+        try {
+            return new BigDecimal(String.valueOf(value)).stripTrailingZeros().toPlainString();
+        } catch (NumberFormatException e) {
+            return String.valueOf(value);
+        }
+    }
+
+    // Length-prefixed, so adjacent tokens cannot run into each other
+    private static void updateToken(MessageDigest digest, String token) {
+        byte[] bytes = token.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.orderpdf.app.common.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * An in-memory output stream backed by a {@link ByteArrayPool} buffer. The written bytes are read
+ * back in place through {@link #newInputStream()} instead of being copied out, and the buffer goes
+ * back to the pool on {@link #release()}.
+ *
+ * <p>{@link #close()} does not release the buffer, because writers such as iText close their stream
+ * before the content has been consumed.
+ */
+public final class PooledByteArrayOutputStream extends OutputStream {
+
+    private final ByteArrayPool pool;
+    private byte[] buffer;
+    private int count;
+
+    PooledByteArrayOutputStream(ByteArrayPool pool, byte[] buffer) {
+        this.pool = pool;
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        ensureCapacity(count + length);
+        System.arraycopy(bytes, offset, buffer, count, length);
+        count += length;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public InputStream newInputStream() {
+        ensureNotReleased();
+        return new ByteArrayInputStream(buffer, 0, count);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Returns the buffer to the pool. The stream and any input streams obtained from it must not be
+     * used afterwards.
+     */
+    public void release() {
+        if (buffer != null) {
+            pool.release(buffer, count);
+            buffer = null;
+        }
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        ensureNotReleased();
+        if (minCapacity > buffer.length) {
+            buffer = pool.grow(buffer, minCapacity);
+        }
+    }
+
+    private void ensureNotReleased() {
+        if (buffer == null) {
+            throw new IllegalStateException("Buffer has already been released");
+        }
+    }
+}
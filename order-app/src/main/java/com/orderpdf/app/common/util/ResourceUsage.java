@@ -0,0 +1,55 @@
+package com.orderpdf.app.common.util;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Heap bytes allocated and garbage collections run, either as counters at a point in time or as the
+ * difference between two of them. Used to report what one invocation cost in memory, to size the
+ * functions and check that allocation work pays off.
+ *
+ * <p>Collections are counted for the whole JVM. A Lambda container runs one invocation at a time, so
+ * there they belong to the invocation; in the long-running worker they do not.
+ */
+public record ResourceUsage(long allocatedBytes, long gcCount, long gcTimeMillis) {
+
+    private static final List<GarbageCollectorMXBean> GARBAGE_COLLECTORS =
+            ManagementFactory.getGarbageCollectorMXBeans();
+
+    /**
+     * Counters with allocation by the current thread only, for work that stays on the calling thread.
+     */
+    public static ResourceUsage currentThread() {
+        return withGarbageCollections(ThreadAllocation.currentThreadAllocatedBytes());
+    }
+
+    /**
+     * Counters with allocation by every thread of the JVM, for work spread over thread pools.
+     */
+    public static ResourceUsage allThreads() {
+        return withGarbageCollections(ThreadAllocation.totalAllocatedBytes());
+    }
+
+    /**
+     * What was used between {@code start} and these counters. Allocation is -1 when either side could
+     * not read it.
+     */
+    public ResourceUsage since(ResourceUsage start) {
+        return new ResourceUsage(
+                allocatedBytes < 0 || start.allocatedBytes < 0 ? -1 : allocatedBytes - start.allocatedBytes,
+                gcCount - start.gcCount,
+                gcTimeMillis - start.gcTimeMillis);
+    }
+
+    private static ResourceUsage withGarbageCollections(long allocatedBytes) {
+        long gcCount = 0;
+        long gcTimeMillis = 0;
+        for (GarbageCollectorMXBean garbageCollector : GARBAGE_COLLECTORS) {
+            // Collectors report -1 when they do not track a counter
+            gcCount += Math.max(0, garbageCollector.getCollectionCount());
+            gcTimeMillis += Math.max(0, garbageCollector.getCollectionTime());
+        }
+        return new ResourceUsage(allocatedBytes, gcCount, gcTimeMillis);
+    }
+}
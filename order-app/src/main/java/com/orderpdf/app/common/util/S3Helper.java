@@ -1,37 +1,117 @@
 package com.orderpdf.app.common.util;
 
+import com.orderpdf.app.common.jfr.S3UploadEvent;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.core.sync.RequestBody;
 import java.io.InputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
 
 public class S3Helper {
+    private static final int DEFAULT_MAX_IN_FLIGHT_PARTS = 2;
+
     private final S3Client s3Client;
     private final String bucketName;
+    private final int partSizeBytes;
+    private final int maxInFlightParts;
 
     public S3Helper(S3Client s3Client, String bucketName) {
+        this(s3Client, bucketName, S3MultipartOutputStream.MIN_PART_SIZE_BYTES, DEFAULT_MAX_IN_FLIGHT_PARTS);
+    }
+
+    public S3Helper(S3Client s3Client, String bucketName, int partSizeBytes, int maxInFlightParts) {
         this.s3Client = s3Client;
         this.bucketName = bucketName;
+        this.partSizeBytes = partSizeBytes;
+        this.maxInFlightParts = maxInFlightParts;
+    }
+
+    /**
+     * Writes the object content into an S3 upload as it is produced.
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void writeTo(OutputStream outputStream) throws IOException;
     }
 
     public void putObjectFromInputStream(String objectKey, InputStream contentStream, String contentType) throws IOException {
+        putObjectStreaming(objectKey, contentType, contentStream::transferTo);
+    }
+
+    public void putObjectFromBytes(String objectKey, byte[] contentBytes, String contentType) {
         PutObjectRequest putObjectRequest = PutObjectRequest.builder()
             .bucket(bucketName)
             .key(objectKey)
             .contentType(contentType)
             .build();
-        
-        s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(contentStream, contentStream.available()));
+
+        S3UploadEvent uploadEvent = new S3UploadEvent();
+        uploadEvent.begin();
+        s3Client.putObject(putObjectRequest, RequestBody.fromBytes(contentBytes));
+        commit(uploadEvent, objectKey, contentBytes.length, "BYTES");
     }
 
-    public void putObjectFromBytes(String objectKey, byte[] contentBytes, String contentType) {
+    public void putObjectFromFile(String objectKey, Path file, String contentType) {
         PutObjectRequest putObjectRequest = PutObjectRequest.builder()
             .bucket(bucketName)
             .key(objectKey)
             .contentType(contentType)
             .build();
-        
-        s3Client.putObject(putObjectRequest, RequestBody.fromBytes(contentBytes));
+
+        s3Client.putObject(putObjectRequest, RequestBody.fromFile(file));
+    }
+
+    /**
+     * Uploads the buffer's content in place; the SDK reads from the pooled array without copying it.
+     */
+    public void putObjectFromBuffer(String objectKey, PooledByteArrayOutputStream content, String contentType) {
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+            .bucket(bucketName)
+            .key(objectKey)
+            .contentType(contentType)
+            .build();
+
+        S3UploadEvent uploadEvent = new S3UploadEvent();
+        uploadEvent.begin();
+        s3Client.putObject(putObjectRequest,
+            RequestBody.fromContentProvider(content::newInputStream, content.size(), contentType));
+        commit(uploadEvent, objectKey, content.size(), "BUFFER");
+    }
+
+    /**
+     * Uploads content of unknown length while {@code contentWriter} produces it. Small objects go up
+     * as a single PutObject; larger ones as a multipart upload that overlaps with the writer. The
+     * object is only published if the writer returns normally.
+     *
+     * @return the number of bytes uploaded
+     */
+    public long putObjectStreaming(String objectKey, String contentType, ContentWriter contentWriter) throws IOException {
+        S3MultipartOutputStream uploadStream = new S3MultipartOutputStream(
+            s3Client, bucketName, objectKey, contentType, partSizeBytes, maxInFlightParts);
+
+        // Spans the writer too, since the upload overlaps with producing the content
+        S3UploadEvent uploadEvent = new S3UploadEvent();
+        uploadEvent.begin();
+        try {
+            contentWriter.writeTo(uploadStream);
+            uploadStream.complete();
+        } catch (IOException | RuntimeException e) {
+            uploadStream.abort();
+            throw e;
+        }
+        commit(uploadEvent, objectKey, uploadStream.bytesWritten(), "STREAMING");
+        return uploadStream.bytesWritten();
+    }
+
+    private static void commit(S3UploadEvent uploadEvent, String objectKey, long bytes, String mode) {
+        uploadEvent.end();
+        if (uploadEvent.shouldCommit()) {
+            uploadEvent.objectKey = objectKey;
+            uploadEvent.bytes = bytes;
+            uploadEvent.mode = mode;
+            uploadEvent.commit();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,273 @@
+package com.orderpdf.app.common.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Uploads whatever is written to it as one S3 object without knowing the length up front.
+ *
+ * <p>Bytes are collected into a buffer that starts small and grows up to the part size, so a typical
+ * invoice of a few KB never allocates a whole part. Content that fits in a single part is sent with
+ * one PutObject on {@link #complete()}; anything larger switches to a multipart upload whose parts
+ * are sent in the background while the producer keeps writing. At most {@code maxInFlightParts}
+ * parts are uploading at once, and the producer blocks when that limit is reached, so memory is
+ * bounded by {@code (maxInFlightParts + 1) * partSizeBytes} regardless of the object size.
+ *
+ * <p>Not thread-safe: a single producer writes and then calls {@link #complete()} or
+ * {@link #abort()}.
+ */
+public final class S3MultipartOutputStream extends OutputStream {
+    private static final Logger logger = LoggerFactory.getLogger(S3MultipartOutputStream.class);
+
+    // S3 rejects multipart parts below 5 MiB except for the last one
+    public static final int MIN_PART_SIZE_BYTES = 5 * 1024 * 1024;
+
+    private static final int INITIAL_BUFFER_BYTES = 8 * 1024;
+
+    private static final ExecutorService PART_UPLOADER = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final S3Client s3Client;
+    private final String bucketName;
+    private final String objectKey;
+    private final String contentType;
+    private final int partSizeBytes;
+    private final Semaphore inFlightParts;
+    private final Queue<byte[]> freeBuffers = new ConcurrentLinkedQueue<>();
+    private final List<CompletableFuture<CompletedPart>> partUploads = new ArrayList<>();
+
+    private byte[] buffer;
+    private int position;
+    private long bytesWritten;
+    private String uploadId;
+    private boolean finished;
+    private boolean aborted;
+
+    public S3MultipartOutputStream(S3Client s3Client, String bucketName, String objectKey, String contentType,
+            int partSizeBytes, int maxInFlightParts) {
+        this.s3Client = s3Client;
+        this.bucketName = bucketName;
+        this.objectKey = objectKey;
+        this.contentType = contentType;
+        this.partSizeBytes = partSizeBytes;
+        this.inFlightParts = new Semaphore(maxInFlightParts);
+        this.buffer = new byte[Math.min(INITIAL_BUFFER_BYTES, partSizeBytes)];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        ensureCapacity(position + 1);
+        buffer[position++] = (byte) b;
+        bytesWritten++;
+        if (position == partSizeBytes) {
+            uploadFullBuffer();
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            int chunk = Math.min(length, partSizeBytes - position);
+            ensureCapacity(position + chunk);
+            System.arraycopy(bytes, offset, buffer, position, chunk);
+            position += chunk;
+            bytesWritten += chunk;
+            offset += chunk;
+            length -= chunk;
+            if (position == partSizeBytes) {
+                uploadFullBuffer();
+            }
+        }
+    }
+
+    /**
+     * Ignored: the object is only published by {@link #complete()}, so a producer that closes its
+     * stream while failing cannot leave a truncated object behind.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Uploads the remaining bytes and publishes the object.
+     */
+    public void complete() throws IOException {
+        ensureOpen();
+        finished = true;
+
+        if (uploadId == null) {
+            s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(bucketName)
+                            .key(objectKey)
+                            .contentType(contentType)
+                            .build(),
+                    requestBody(buffer, position));
+            return;
+        }
+
+        try {
+            if (position > 0) {
+                submitPart(buffer, position);
+            }
+            List<CompletedPart> parts = new ArrayList<>(partUploads.size());
+            for (CompletableFuture<CompletedPart> partUpload : partUploads) {
+                parts.add(partUpload.join());
+            }
+            parts.sort(Comparator.comparing(CompletedPart::partNumber));
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+
+            logger.debug("Completed multipart upload of {} ({} bytes in {} parts)", objectKey, bytesWritten,
+                    parts.size());
+        } catch (CompletionException | InterruptedIOException e) {
+            abortUpload();
+            throw new IOException("Multipart upload failed for " + objectKey,
+                    e instanceof CompletionException ? e.getCause() : e);
+        } catch (RuntimeException e) {
+            abortUpload();
+            throw e;
+        }
+    }
+
+    /**
+     * Discards everything written so far. Safe to call after a failed {@link #complete()}.
+     */
+    public void abort() {
+        finished = true;
+        if (uploadId != null) {
+            abortUpload();
+        }
+    }
+
+    public long bytesWritten() {
+        return bytesWritten;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.min(partSizeBytes, Math.max(required, buffer.length * 2)));
+        }
+    }
+
+    private void uploadFullBuffer() throws IOException {
+        if (uploadId == null) {
+            uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                            .bucket(bucketName)
+                            .key(objectKey)
+                            .contentType(contentType)
+                            .build())
+                    .uploadId();
+        }
+
+        failFastOnPartFailure();
+        submitPart(buffer, position);
+
+        // Only a multipart upload needs whole parts, so full-size buffers are allocated from here on
+        byte[] recycled = freeBuffers.poll();
+        buffer = recycled != null ? recycled : new byte[partSizeBytes];
+        position = 0;
+    }
+
+    private void submitPart(byte[] partBuffer, int length) throws InterruptedIOException {
+        try {
+            inFlightParts.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to upload part of " + objectKey);
+        }
+
+        int partNumber = partUploads.size() + 1;
+        partUploads.add(CompletableFuture.supplyAsync(() -> {
+            try {
+                String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucketName)
+                                .key(objectKey)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) length)
+                                .build(),
+                        requestBody(partBuffer, length))
+                        .eTag();
+                return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+            } finally {
+                freeBuffers.offer(partBuffer);
+                inFlightParts.release();
+            }
+        }, PART_UPLOADER));
+    }
+
+    private void failFastOnPartFailure() throws IOException {
+        for (CompletableFuture<CompletedPart> partUpload : partUploads) {
+            if (partUpload.isCompletedExceptionally()) {
+                try {
+                    partUpload.join();
+                } catch (CompletionException e) {
+                    throw new IOException("Part upload failed for " + objectKey, e.getCause());
+                }
+            }
+        }
+    }
+
+    private void abortUpload() {
+        if (aborted) {
+            return;
+        }
+        aborted = true;
+
+        // Parts still in flight would otherwise be stored after the abort
+        for (CompletableFuture<CompletedPart> partUpload : partUploads) {
+            partUpload.exceptionally(t -> null).join();
+        }
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to abort multipart upload {} for {}", uploadId, objectKey, e);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (finished) {
+            throw new IOException("Upload of " + objectKey + " is already finished");
+        }
+    }
+
+    // Streams straight from the part buffer; RequestBody.fromBytes would take a defensive copy
+    private RequestBody requestBody(byte[] bytes, int length) {
+        return RequestBody.fromContentProvider(() -> new ByteArrayInputStream(bytes, 0, length), length, contentType);
+    }
+}
@@ -0,0 +1,41 @@
+package com.orderpdf.app.common.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the JVM's per-thread allocation counter, used to report how many heap bytes one invocation
+ * allocated.
+ */
+public final class ThreadAllocation {
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = resolveThreadMxBean();
+
+    private ThreadAllocation() {
+    }
+
+    /**
+     * Total bytes allocated by the current thread so far, or -1 when the JVM does not track it.
+     */
+    public static long currentThreadAllocatedBytes() {
+        return THREAD_MX_BEAN != null ? THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /**
+     * Total bytes allocated by all threads of this JVM so far, live or terminated, or -1 when the JVM does
+     * not track it.
+     */
+    public static long totalAllocatedBytes() {
+        return THREAD_MX_BEAN != null ? THREAD_MX_BEAN.getTotalThreadAllocatedBytes() : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean resolveThreadMxBean() {
+        ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+        if (threadMxBean instanceof com.sun.management.ThreadMXBean extended
+                && extended.isThreadAllocatedMemorySupported()) {
+            extended.setThreadAllocatedMemoryEnabled(true);
+            return extended;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,379 @@
+package com.orderpdf.app.http;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.orderpdf.app.common.dto.Order;
+import com.orderpdf.app.common.dto.OrderItem;
+import com.orderpdf.app.common.metrics.EmfMetricsLogger;
+import com.orderpdf.app.common.service.OrderDetailsService;
+import com.orderpdf.app.pdf.service.PdfDocumentGenerationService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Synchronous invoice rendering over HTTP, for callers that cannot wait for the stream pipeline:
+ * <ul>
+ *   <li>{@code POST /invoices} renders the {@link Order} in the request body</li>
+ *   <li>{@code GET /invoices/{orderId}} fetches the order with {@link OrderDetailsService}, then renders it;
+ *   an unknown order gets a 404, and a failed read a 502, or a 503 with {@code Retry-After} when
+ *   DynamoDB is throttling</li>
+ * </ul>
+ * Each request runs on its own virtual thread. At most {@code maxConcurrentRenders} render at once; a
+ * request that cannot start within {@code queueTimeout} gets a 503 with {@code Retry-After}. The PDF is
+ * streamed to the client as it is rendered, with chunked encoding, so it is never buffered whole.
+ */
+public class InvoiceHttpServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceHttpServer.class);
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final long DEFAULT_QUEUE_TIMEOUT_MILLIS = 1_000;
+    private static final String INVOICES_PATH = "/invoices";
+    private static final int RESPONSE_BUFFER_BYTES = 16 * 1024;
+    private static final Duration METRICS_FLUSH_INTERVAL = Duration.ofSeconds(60);
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(30);
+
+    private final OrderDetailsService orderDetailsService;
+    private final PdfDocumentGenerationService pdfGenerationService;
+    private final ObjectMapper objectMapper;
+    private final Semaphore renderPermits;
+    private final Duration queueTimeout;
+    private final Map<Route, EmfMetricsLogger> routeMetricsLoggers;
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private volatile boolean stopping;
+
+    private HttpServer server;
+    private ExecutorService requestExecutor;
+    private ScheduledExecutorService metricsFlusher;
+
+    enum Route {
+        RENDER_ORDER("RenderOrder"),
+        FETCH_AND_RENDER("FetchAndRender");
+
+        private final String dimensionValue;
+
+        Route(String dimensionValue) {
+            this.dimensionValue = dimensionValue;
+        }
+    }
+
+    public InvoiceHttpServer(OrderDetailsService orderDetailsService,
+            PdfDocumentGenerationService pdfGenerationService,
+            ObjectMapper objectMapper,
+            int maxConcurrentRenders,
+            Duration queueTimeout,
+            EmfMetricsLogger metricsLogger) {
+        this.orderDetailsService = orderDetailsService;
+        this.pdfGenerationService = pdfGenerationService;
+        this.objectMapper = objectMapper;
+        this.renderPermits = new Semaphore(maxConcurrentRenders);
+        this.queueTimeout = queueTimeout;
+        this.routeMetricsLoggers = Map.of(
+                Route.RENDER_ORDER, metricsLogger.withDimension("Route", Route.RENDER_ORDER.dimensionValue),
+                Route.FETCH_AND_RENDER, metricsLogger.withDimension("Route", Route.FETCH_AND_RENDER.dimensionValue));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.parseInt(System.getenv().getOrDefault("HTTP_PORT", String.valueOf(DEFAULT_PORT)));
+        // Rendering is CPU-bound, so more concurrent renders than CPUs only adds latency
+        int maxConcurrentRenders = Integer.parseInt(System.getenv().getOrDefault("HTTP_MAX_CONCURRENT_RENDERS",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        long queueTimeoutMillis = Long.parseLong(System.getenv().getOrDefault("HTTP_QUEUE_TIMEOUT_MILLIS",
+                String.valueOf(DEFAULT_QUEUE_TIMEOUT_MILLIS)));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+
+        InvoiceHttpServer server = new InvoiceHttpServer(new OrderDetailsService(), new PdfDocumentGenerationService(),
+                objectMapper, maxConcurrentRenders, Duration.ofMillis(queueTimeoutMillis),
+                EmfMetricsLogger.forService("invoice-http"));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "invoice-http-shutdown"));
+        server.start(new InetSocketAddress(port));
+    }
+
+    public synchronized void start(InetSocketAddress address) throws IOException {
+        stopping = false;
+        server = HttpServer.create(address, 0);
+        requestExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("invoice-http-", 0).factory());
+        server.setExecutor(requestExecutor);
+        server.createContext(INVOICES_PATH, this::handle);
+
+        metricsFlusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("invoice-http-metrics").daemon().factory());
+        metricsFlusher.scheduleAtFixedRate(this::flushMetrics, METRICS_FLUSH_INTERVAL.toMillis(),
+                METRICS_FLUSH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+
+        server.start();
+        logger.info("Invoice HTTP server listening on {} with {} render permits",
+                server.getAddress(), renderPermits.availablePermits());
+    }
+
+    /**
+     * Port the server is bound to, which is the ephemeral port picked when started on port 0.
+     */
+    public synchronized int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Answers new requests with 503, waits up to 30 seconds for requests in progress to finish, then
+     * stops the server.
+     */
+    @Override
+    public synchronized void close() {
+        if (server == null) {
+            return;
+        }
+        stopping = true;
+        // HttpServer.stop waits out its whole delay while idle keep-alive connections are open, so
+        // drain on the request count instead and stop without a delay
+        long deadline = System.nanoTime() + STOP_TIMEOUT.toNanos();
+        try {
+            while (activeRequests.get() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (activeRequests.get() > 0) {
+            logger.warn("Stopping invoice HTTP server with {} requests still in progress", activeRequests.get());
+        }
+        server.stop(0);
+        requestExecutor.close();
+        metricsFlusher.shutdownNow();
+        flushMetrics();
+        server = null;
+        logger.info("Invoice HTTP server stopped");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        activeRequests.incrementAndGet();
+        try (exchange) {
+            if (stopping) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, "Server is shutting down");
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+
+            if (path.equals(INVOICES_PATH) || path.equals(INVOICES_PATH + "/")) {
+                if (!method.equals("POST")) {
+                    sendMethodNotAllowed(exchange, "POST");
+                    return;
+                }
+                handleRenderOrder(exchange);
+            } else if (path.startsWith(INVOICES_PATH + "/") && path.indexOf('/', INVOICES_PATH.length() + 1) < 0) {
+                if (!method.equals("GET")) {
+                    sendMethodNotAllowed(exchange, "GET");
+                    return;
+                }
+                handleFetchAndRender(exchange, path.substring(INVOICES_PATH.length() + 1));
+            } else {
+                sendError(exchange, 404, "Not found");
+            }
+        } catch (IOException e) {
+            // The client went away or the response was cut short; closing the exchange drops the connection
+            logger.warn("Failed to respond to {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+        } finally {
+            activeRequests.decrementAndGet();
+        }
+    }
+
+    private void handleRenderOrder(HttpExchange exchange) throws IOException {
+        long startNanos = System.nanoTime();
+        Order order;
+        try (InputStream requestBody = exchange.getRequestBody()) {
+            order = objectMapper.readValue(requestBody, Order.class);
+        } catch (JsonProcessingException e) {
+            sendError(exchange, 400, "Request body is not a valid order: " + e.getOriginalMessage());
+            recordRequest(Route.RENDER_ORDER, 400, startNanos);
+            return;
+        }
+        if (order == null || order.orderId() == null || order.orderId().isBlank()) {
+            sendError(exchange, 400, "orderId is required");
+            recordRequest(Route.RENDER_ORDER, 400, startNanos);
+            return;
+        }
+
+        recordRequest(Route.RENDER_ORDER, render(exchange, order), startNanos);
+    }
+
+    private void handleFetchAndRender(HttpExchange exchange, String orderId) throws IOException {
+        long startNanos = System.nanoTime();
+        if (orderId.isBlank()) {
+            sendError(exchange, 404, "Not found");
+            recordRequest(Route.FETCH_AND_RENDER, 404, startNanos);
+            return;
+        }
+
+        // Fetched before taking a render permit, so slow reads do not hold back renders
+        Optional<Order> order;
+        try {
+            order = orderDetailsService.findOrderDetails(new OrderItem("ORDER#" + orderId, "STATE#v1", orderId, null));
+        } catch (RuntimeException e) {
+            logger.error("Failed to fetch order for orderId: {}", orderId, e);
+            int status = fetchFailureStatus(e);
+            if (status == 503) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+            }
+            sendError(exchange, status, "Failed to fetch order");
+            recordRequest(Route.FETCH_AND_RENDER, status, startNanos);
+            return;
+        }
+        if (order.isEmpty()) {
+            sendError(exchange, 404, "Order not found");
+            recordRequest(Route.FETCH_AND_RENDER, 404, startNanos);
+            return;
+        }
+
+        recordRequest(Route.FETCH_AND_RENDER, render(exchange, order.get()), startNanos);
+    }
+
+    /**
+     * DynamoDB throttling is temporary, so the client is asked to retry; anything else the order store
+     * got wrong is a bad gateway.
+     */
+    private static int fetchFailureStatus(RuntimeException e) {
+        return e instanceof AwsServiceException serviceException && serviceException.isThrottlingException()
+                ? 503 : 502;
+    }
+
+    /**
+     * Renders under a permit and streams the PDF; returns the response status. Headers are sent with
+     * the first PDF byte, so a failure before that still gets a 500. A failure after it can only be
+     * signalled by cutting the response short.
+     */
+    private int render(HttpExchange exchange, Order order) throws IOException {
+        boolean acquired;
+        try {
+            acquired = renderPermits.tryAcquire(queueTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendError(exchange, 503, "Too many invoices rendering, retry later");
+            return 503;
+        }
+
+        String orderId = order.orderId();
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/pdf");
+            exchange.getResponseHeaders().set("Content-Disposition",
+                    "inline; filename=\"invoice-" + orderId + ".pdf\"");
+            CommittingResponseStream responseStream = new CommittingResponseStream(exchange);
+            try {
+                pdfGenerationService.generatePdfDocument(order, responseStream);
+                responseStream.close();
+                return 200;
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to render invoice for orderId: {}", orderId, e);
+                if (responseStream.committed()) {
+                    throw new IOException("Invoice response for orderId " + orderId + " cut short", e);
+                }
+                exchange.getResponseHeaders().remove("Content-Disposition");
+                sendError(exchange, 500, "Failed to render invoice");
+                return 500;
+            }
+        } finally {
+            renderPermits.release();
+        }
+    }
+
+    private void recordRequest(Route route, int status, long startNanos) {
+        EmfMetricsLogger metrics = routeMetricsLoggers.get(route);
+        metrics.putSample("RequestLatency", (System.nanoTime() - startNanos) / 1_000_000.0,
+                EmfMetricsLogger.Unit.MILLISECONDS);
+        metrics.putMetric("Requests", 1, EmfMetricsLogger.Unit.COUNT);
+        if (status == 503) {
+            metrics.putMetric("RejectedRequests", 1, EmfMetricsLogger.Unit.COUNT);
+        } else if (status >= 500) {
+            metrics.putMetric("FailedRequests", 1, EmfMetricsLogger.Unit.COUNT);
+        }
+    }
+
+    private void flushMetrics() {
+        routeMetricsLoggers.values().forEach(EmfMetricsLogger::flush);
+    }
+
+    private void sendMethodNotAllowed(HttpExchange exchange, String allowedMethod) throws IOException {
+        exchange.getResponseHeaders().set("Allow", allowedMethod);
+        sendError(exchange, 405, "Method not allowed");
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("error", message));
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+
+    /**
+     * Sends a 200 with chunked encoding on the first write, then passes bytes through a small buffer.
+     */
+    private static final class CommittingResponseStream extends OutputStream {
+        private final HttpExchange exchange;
+        private OutputStream responseBody;
+
+        CommittingResponseStream(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        boolean committed() {
+            return responseBody != null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            commit().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            commit().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (responseBody != null) {
+                responseBody.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            commit().close();
+        }
+
+        private OutputStream commit() throws IOException {
+            if (responseBody == null) {
+                exchange.sendResponseHeaders(200, 0);
+                responseBody = new BufferedOutputStream(exchange.getResponseBody(), RESPONSE_BUFFER_BYTES);
+            }
+            return responseBody;
+        }
+    }
+}
@@ -2,68 +2,455 @@ package com.orderpdf.app.pdf;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.orderpdf.app.common.dto.GeneratePdfBatchInput;
+import com.orderpdf.app.common.dto.GeneratePdfBatchOutput;
+import com.orderpdf.app.common.dto.GeneratePdfBatchResult;
 import com.orderpdf.app.common.dto.GeneratePdfOutput;
 import com.orderpdf.app.common.dto.Order;
 import com.orderpdf.app.common.dto.OrderItem;
+import com.orderpdf.app.common.dto.OrderKey;
+import com.orderpdf.app.common.jfr.SlowInvocationRecorder;
+import com.orderpdf.app.common.metrics.EmfMetricsLogger;
+import com.orderpdf.app.common.metrics.HistogramRegistry;
+import com.orderpdf.app.common.metrics.InvoiceMetrics;
 import com.orderpdf.app.common.service.OrderDetailsService;
+import com.orderpdf.app.common.service.PriorityLaneService;
+import com.orderpdf.app.common.util.ByteArrayPool;
+import com.orderpdf.app.common.util.PooledByteArrayOutputStream;
+import com.orderpdf.app.common.util.ResourceUsage;
 import com.orderpdf.app.common.util.S3Helper;
+import com.orderpdf.app.pdf.idempotency.CachingIdempotencyStore;
+import com.orderpdf.app.pdf.idempotency.DynamoDbIdempotencyStore;
+import com.orderpdf.app.pdf.idempotency.IdempotencyKey;
+import com.orderpdf.app.pdf.idempotency.IdempotencyStore;
+import com.orderpdf.app.pdf.idempotency.InMemoryIdempotencyStore;
 import com.orderpdf.app.pdf.service.PdfDocumentGenerationService;
+import com.orderpdf.app.preprocess.service.OrderItemCoalescingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.s3.S3Client;
 
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 public class GeneratePdfHandler implements RequestHandler<OrderItem, GeneratePdfOutput> {
     private static final Logger logger = LoggerFactory.getLogger(GeneratePdfHandler.class);
 
+    private static final int DEFAULT_BUFFER_POOL_SIZE = 4;
+    private static final int DEFAULT_IDEMPOTENCY_CACHE_SIZE = 10_000;
+    private static final Duration DEFAULT_IDEMPOTENCY_TTL = Duration.ofDays(7);
+
     private final PdfDocumentGenerationService pdfGenerationService;
     private final OrderDetailsService orderDetailsService;
     private final S3Helper s3StorageHelper;
+    private final String uploadMode;
+    private final ByteArrayPool pdfBufferPool;
+    private final InvoiceBatchPipeline batchPipeline;
+    private final IdempotencyStore idempotencyStore;
+    private final PriorityLaneService priorityLaneService;
+    private final Map<PriorityLaneService.Lane, EmfMetricsLogger> laneMetricsLoggers;
+    private final Map<InvoiceMetrics.Start, EmfMetricsLogger> stageMetricsLoggers;
+    private final EmfMetricsLogger batchMetricsLogger;
+    private final SlowInvocationRecorder slowInvocationRecorder;
+    private final HistogramRegistry histogramRegistry;
+    private final OrderItemCoalescingService coalescingService = new OrderItemCoalescingService();
 
     public GeneratePdfHandler() {
-        String bucketName = System.getenv("BUCKET_NAME");
-
-        S3Client s3Client = S3Client.builder().build();
+        this(environmentBuilder());
+    }
 
-        this.pdfGenerationService = new PdfDocumentGenerationService();
-        this.orderDetailsService = new OrderDetailsService();
-        this.s3StorageHelper = new S3Helper(s3Client, bucketName);
+    GeneratePdfHandler(Builder builder) {
+        this.pdfGenerationService = builder.pdfGenerationService;
+        this.orderDetailsService = builder.orderDetailsService;
+        this.s3StorageHelper = builder.s3StorageHelper;
+        this.uploadMode = builder.uploadMode;
+        this.pdfBufferPool = builder.pdfBufferPool;
+        this.batchPipeline = builder.batchPipeline;
+        this.idempotencyStore = builder.idempotencyStore;
+        this.priorityLaneService = builder.priorityLaneService;
+        this.laneMetricsLoggers = PriorityLaneService.metricsLoggersByLane(builder.metricsLogger);
+        this.stageMetricsLoggers = InvoiceMetrics.metricsLoggersByStart(builder.metricsLogger);
+        this.batchMetricsLogger = builder.metricsLogger.withDimension("Handler", "Batch");
+        this.slowInvocationRecorder = builder.slowInvocationRecorder;
+        this.histogramRegistry = builder.histogramRegistry;
     }
 
-    // Constructor for testing with dependency injection
-    public GeneratePdfHandler(PdfDocumentGenerationService pdfGenerationService,
+    /**
+     * Handler wired with the given collaborators, for tests and harnesses. Anything not set on the
+     * builder gets an in-process default; unlike the no-arg constructor, nothing is read from the
+     * environment except the histogram settings.
+     */
+    public static Builder builder(PdfDocumentGenerationService pdfGenerationService,
             OrderDetailsService orderDetailsService,
             S3Helper s3StorageHelper) {
-        this.pdfGenerationService = pdfGenerationService;
-        this.orderDetailsService = orderDetailsService;
-        this.s3StorageHelper = s3StorageHelper;
+        return new Builder(pdfGenerationService, orderDetailsService, s3StorageHelper);
+    }
+
+    private static Builder environmentBuilder() {
+        PdfDocumentGenerationService pdfGenerationService = new PdfDocumentGenerationService();
+        OrderDetailsService orderDetailsService = new OrderDetailsService();
+        S3Helper s3StorageHelper = new S3Helper(S3Client.builder().build(), System.getenv("BUCKET_NAME"));
+        ByteArrayPool pdfBufferPool = new ByteArrayPool(Integer.parseInt(
+                System.getenv().getOrDefault("PDF_BUFFER_POOL_SIZE", String.valueOf(DEFAULT_BUFFER_POOL_SIZE))));
+        HistogramRegistry histogramRegistry = HistogramRegistry.fromEnvironment();
+
+        return builder(pdfGenerationService, orderDetailsService, s3StorageHelper)
+                .uploadMode(System.getenv().getOrDefault("PDF_UPLOAD_MODE", "BUFFERED"))
+                .pdfBufferPool(pdfBufferPool)
+                .batchPipeline(InvoiceBatchPipeline.fromEnvironment(orderDetailsService, pdfGenerationService,
+                        s3StorageHelper, pdfBufferPool, histogramRegistry))
+                .idempotencyStore(createIdempotencyStore())
+                .priorityLaneService(new PriorityLaneService())
+                .metricsLogger(EmfMetricsLogger.forService("generate-pdf"))
+                .slowInvocationRecorder(SlowInvocationRecorder.fromEnvironment(s3StorageHelper))
+                .histogramRegistry(histogramRegistry);
+    }
+
+    private static IdempotencyStore createIdempotencyStore() {
+        InMemoryIdempotencyStore cache = new InMemoryIdempotencyStore(Integer.parseInt(System.getenv()
+                .getOrDefault("IDEMPOTENCY_CACHE_SIZE", String.valueOf(DEFAULT_IDEMPOTENCY_CACHE_SIZE))));
+
+        String tableName = System.getenv("IDEMPOTENCY_TABLE_NAME");
+        if (tableName == null || tableName.isBlank()) {
+            logger.warn("IDEMPOTENCY_TABLE_NAME is not set, only repeats on a warm container will be skipped");
+            return cache;
+        }
+        return new CachingIdempotencyStore(cache, new DynamoDbIdempotencyStore(DynamoDbClient.builder().build(),
+                tableName, DEFAULT_IDEMPOTENCY_TTL, Clock.systemUTC()));
     }
 
     @Override
     public GeneratePdfOutput handleRequest(OrderItem orderItem, Context lambdaContext) {
+        Instant invokedAt = Instant.now();
         logger.info("Generating PDF invoice for orderId: {}", orderItem.orderId());
 
+        Optional<IdempotencyKey> idempotencyKey = IdempotencyKey.of(orderItem);
+        Optional<String> completedPdfKey = idempotencyKey.flatMap(this::findCompletedPdfKey);
+        if (completedPdfKey.isPresent()) {
+            logger.info("PDF invoice already generated for orderId: {}, version: {}, reusing key: {}",
+                    orderItem.orderId(), orderItem.sequenceNumber(), completedPdfKey.get());
+            return new GeneratePdfOutput(completedPdfKey.get());
+        }
+
+        // The template writer and streaming uploads run on other threads, so count allocation on every thread
+        ResourceUsage usageBefore = ResourceUsage.allThreads();
+        InvoiceMetrics invoiceMetrics = InvoiceMetrics.start();
+        InvoiceMetrics.Scope scope = invoiceMetrics.bind();
         try {
+            long fetchStartNanos = System.nanoTime();
             Order orderDetails = orderDetailsService.fetchOrderDetails(orderItem);
-
-            byte[] pdfDocumentBytes = pdfGenerationService.generatePdfDocument(orderDetails);
+            invoiceMetrics.recordStage(InvoiceMetrics.Stage.FETCH, System.nanoTime() - fetchStartNanos);
+            invoiceMetrics.recordLineCount(orderDetails.lines() != null ? orderDetails.lines().size() : 0);
 
             String executionId = lambdaContext.getAwsRequestId();
             String temporaryPdfKey = createTemporaryPdfKey(executionId, orderItem.orderId());
 
-            s3StorageHelper.putObjectFromBytes(temporaryPdfKey, pdfDocumentBytes, "application/pdf");
+            uploadPdf(orderDetails, temporaryPdfKey);
+            ResourceUsage resourceUsage = ResourceUsage.allThreads().since(usageBefore);
+            invoiceMetrics.recordResourceUsage(resourceUsage);
 
             logger.info("Successfully generated PDF invoice for orderId: {}, temporaryKey: {}",
                     orderItem.orderId(), temporaryPdfKey);
+            logResourceUsage(orderItem.orderId(), resourceUsage);
+            recordPipelineLag(orderItem,
+                    orderItem.priority() != null ? orderItem.priority() : orderDetails.priority(), invokedAt);
+            flushLaneMetrics();
+            invoiceMetrics.emitTo(stageMetricsLoggers);
+            stageMetricsLoggers.values().forEach(EmfMetricsLogger::flush);
+            invoiceMetrics.recordTo(histogramRegistry);
 
-            return new GeneratePdfOutput(temporaryPdfKey);
+            String pdfKey = idempotencyKey
+                    .map(key -> recordCompleted(key, temporaryPdfKey))
+                    .orElse(temporaryPdfKey);
+            return new GeneratePdfOutput(pdfKey);
 
         } catch (Exception exception) {
             logger.error("Failed to generate PDF invoice for orderId: {}", orderItem.orderId(), exception);
             throw new RuntimeException("PDF invoice generation failed for order: " + orderItem.orderId(), exception);
+        } finally {
+            scope.close();
+            slowInvocationRecorder.onInvocationCompleted(orderItem.orderId(), Duration.between(invokedAt, Instant.now()));
+        }
+    }
+
+    /**
+     * Batch entry point ({@code GeneratePdfHandler::handleBatch}): generates invoices for several
+     * orders in one invocation, overlapping DynamoDB reads, rendering and S3 uploads. Failures are
+     * reported per order instead of failing the invocation. Orders whose version already has an
+     * invoice are answered from the idempotency store without rendering. Several records for one
+     * order are rendered once, from the latest, and every one of them is answered with that invoice.
+     */
+    public GeneratePdfBatchOutput handleBatch(GeneratePdfBatchInput batchInput, Context lambdaContext) {
+        Instant invokedAt = Instant.now();
+        // Rendering and uploads run on the pipeline's pools, so count allocation on every thread
+        ResourceUsage usageBefore = ResourceUsage.allThreads();
+        List<OrderItem> orderItems = batchInput.orderItems() != null ? batchInput.orderItems() : List.of();
+        logger.info("Generating PDF invoices for batch of {} orders", orderItems.size());
+
+        List<GeneratePdfBatchResult> results = new ArrayList<>(orderItems.size());
+        List<OrderItem> pendingOrderItems = new ArrayList<>();
+        List<Integer> pendingPositions = new ArrayList<>();
+        for (OrderItem orderItem : orderItems) {
+            Optional<String> completedPdfKey = IdempotencyKey.of(orderItem).flatMap(this::findCompletedPdfKey);
+            if (completedPdfKey.isPresent()) {
+                results.add(GeneratePdfBatchResult.success(orderItem.orderId(), completedPdfKey.get()));
+            } else {
+                pendingPositions.add(results.size());
+                pendingOrderItems.add(orderItem);
+                results.add(null);
+            }
+        }
+        if (pendingOrderItems.size() < orderItems.size()) {
+            logger.info("Skipping {} orders whose invoice was already generated",
+                    orderItems.size() - pendingOrderItems.size());
+        }
+
+        // Orders are fetched once per pk/sk, so an older record rendered alongside a newer one would get
+        // the same order details, and the newer version's invoice could come from the older image
+        List<OrderItem> latestOrderItems = coalescingService.coalesce(pendingOrderItems);
+        List<GeneratePdfBatchResult> generated = batchPipeline.process(latestOrderItems,
+                lambdaContext.getAwsRequestId());
+        Map<OrderKey, GeneratePdfBatchResult> generatedByOrder = new HashMap<>();
+        for (int i = 0; i < generated.size(); i++) {
+            generatedByOrder.put(OrderKey.of(latestOrderItems.get(i)), generated.get(i));
+        }
+        for (int i = 0; i < pendingOrderItems.size(); i++) {
+            OrderItem orderItem = pendingOrderItems.get(i);
+            GeneratePdfBatchResult result = recordCompleted(orderItem, generatedByOrder.get(OrderKey.of(orderItem)));
+            if (result.succeeded()) {
+                recordPipelineLag(orderItem, orderItem.priority(), invokedAt);
+            }
+            results.set(pendingPositions.get(i), result);
+        }
+        flushLaneMetrics();
+
+        long failed = results.stream().filter(result -> !result.succeeded()).count();
+        logger.info("Generated PDF invoices for batch: {} succeeded, {} failed", results.size() - failed, failed);
+        recordBatchResourceUsage(ResourceUsage.allThreads().since(usageBefore), results.size());
+        slowInvocationRecorder.onInvocationCompleted("batch-" + lambdaContext.getAwsRequestId(),
+                Duration.between(invokedAt, Instant.now()));
+        return new GeneratePdfBatchOutput(results);
+    }
+
+    private GeneratePdfBatchResult recordCompleted(OrderItem orderItem, GeneratePdfBatchResult result) {
+        Optional<IdempotencyKey> idempotencyKey = IdempotencyKey.of(orderItem);
+        if (!result.succeeded() || idempotencyKey.isEmpty()) {
+            return result;
+        }
+        String pdfKey = recordCompleted(idempotencyKey.get(), result.tempPdfKey());
+        return pdfKey.equals(result.tempPdfKey()) ? result : GeneratePdfBatchResult.success(result.orderId(), pdfKey);
+    }
+
+    /**
+     * Records, under the order's lane, the end-to-end time from its stream record to its stored invoice
+     * ({@code InvoiceLatency}) and the part of it spent in each hop the item has timestamps for:
+     * <ul>
+     *   <li>{@code StreamToQueueDelay}: stream record to queue, including Pipe A's batching window</li>
+     *   <li>{@code QueueDelay}: queue to state machine execution, including Pipe B's batching window</li>
+     *   <li>{@code MapQueueDelay}: execution start to this invocation, waiting on Map concurrency and retries</li>
+     *   <li>{@code GenerationTime}: this invocation, up to the stored invoice</li>
+     * </ul>
+     */
+    private void recordPipelineLag(OrderItem orderItem, String priority, Instant invokedAt) {
+        EmfMetricsLogger laneMetrics = laneMetricsLoggers.get(priorityLaneService.laneOf(priority));
+        Instant storedAt = Instant.now();
+        Instant recordCreatedAt = orderItem.streamRecordCreatedAt();
+        Instant queueSentAt = orderItem.queueSentAt();
+        Instant executionStartedAt = orderItem.executionStartedAt();
+
+        putDelay(laneMetrics, "InvoiceLatency", recordCreatedAt, storedAt);
+        putDelay(laneMetrics, "StreamToQueueDelay", recordCreatedAt, queueSentAt);
+        putDelay(laneMetrics, "QueueDelay", queueSentAt, executionStartedAt);
+        putDelay(laneMetrics, "MapQueueDelay", executionStartedAt, invokedAt);
+        putDelay(laneMetrics, "GenerationTime", invokedAt, storedAt);
+    }
+
+    // Stream timestamps are whole seconds and clocks differ between services, so a short hop can come out negative
+    private static void putDelay(EmfMetricsLogger laneMetrics, String metricName, Instant from, Instant to) {
+        if (from != null && to != null) {
+            laneMetrics.putSample(metricName, Math.max(0, Duration.between(from, to).toMillis()),
+                    EmfMetricsLogger.Unit.MILLISECONDS);
+        }
+    }
+
+    private void flushLaneMetrics() {
+        laneMetricsLoggers.values().forEach(EmfMetricsLogger::flush);
+    }
+
+    // The store only saves work; if it is unavailable the invoice is generated as if it were new
+    private Optional<String> findCompletedPdfKey(IdempotencyKey idempotencyKey) {
+        try {
+            return idempotencyStore.findCompletedPdfKey(idempotencyKey);
+        } catch (RuntimeException e) {
+            logger.warn("Idempotency lookup failed for {}, generating invoice", idempotencyKey.id(), e);
+            return Optional.empty();
+        }
+    }
+
+    private String recordCompleted(IdempotencyKey idempotencyKey, String pdfKey) {
+        try {
+            return idempotencyStore.recordCompleted(idempotencyKey, pdfKey);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to record generated invoice for {}", idempotencyKey.id(), e);
+            return pdfKey;
+        }
+    }
+
+    // STREAMING renders into the upload, so its render time includes the upload and no upload time is recorded
+    private void uploadPdf(Order orderDetails, String temporaryPdfKey) throws IOException {
+        switch (uploadMode) {
+            case "STREAMING" -> s3StorageHelper.putObjectStreaming(temporaryPdfKey, "application/pdf",
+                    outputStream -> pdfGenerationService.generatePdfDocument(orderDetails, outputStream));
+            case "POOLED" -> uploadPooled(orderDetails, temporaryPdfKey);
+            case "BUFFERED" -> uploadBuffered(orderDetails, temporaryPdfKey);
+            default -> {
+                logger.warn("Unknown PDF upload mode: {}, defaulting to BUFFERED", uploadMode);
+                uploadBuffered(orderDetails, temporaryPdfKey);
+            }
+        }
+    }
+
+    private void uploadBuffered(Order orderDetails, String temporaryPdfKey) throws IOException {
+        byte[] pdfDocumentBytes = pdfGenerationService.generatePdfDocument(orderDetails);
+        long uploadStartNanos = System.nanoTime();
+        s3StorageHelper.putObjectFromBytes(temporaryPdfKey, pdfDocumentBytes, "application/pdf");
+        InvoiceMetrics.recordCurrentStage(InvoiceMetrics.Stage.UPLOAD, System.nanoTime() - uploadStartNanos);
+    }
+
+    private void uploadPooled(Order orderDetails, String temporaryPdfKey) throws IOException {
+        PooledByteArrayOutputStream pdfBuffer = pdfBufferPool.newOutputStream();
+        try {
+            pdfGenerationService.generatePdfDocument(orderDetails, pdfBuffer);
+            long uploadStartNanos = System.nanoTime();
+            s3StorageHelper.putObjectFromBuffer(temporaryPdfKey, pdfBuffer, "application/pdf");
+            InvoiceMetrics.recordCurrentStage(InvoiceMetrics.Stage.UPLOAD, System.nanoTime() - uploadStartNanos);
+        } finally {
+            pdfBuffer.release();
+        }
+    }
+
+    private void recordBatchResourceUsage(ResourceUsage resourceUsage, int orderCount) {
+        logger.info("PDF invoice batch of {} orders allocated {} bytes on all threads, {} GCs taking {} ms",
+                orderCount, resourceUsage.allocatedBytes(), resourceUsage.gcCount(), resourceUsage.gcTimeMillis());
+        if (resourceUsage.allocatedBytes() >= 0) {
+            batchMetricsLogger.putSample("AllocatedBytes", resourceUsage.allocatedBytes(), EmfMetricsLogger.Unit.BYTES);
         }
+        batchMetricsLogger.putSample("GcCount", resourceUsage.gcCount(), EmfMetricsLogger.Unit.COUNT);
+        batchMetricsLogger.putSample("GcTime", resourceUsage.gcTimeMillis(), EmfMetricsLogger.Unit.MILLISECONDS);
+        batchMetricsLogger.flush();
+    }
+
+    private void logResourceUsage(String orderId, ResourceUsage resourceUsage) {
+        ByteArrayPool.Stats poolStats = pdfBufferPool.stats();
+        logger.info("PDF invoice allocation for orderId: {}: {} bytes on all threads, {} GCs taking {} ms "
+                        + "(upload mode: {}, buffer pool: {} acquired, {} reused, {} bytes allocated per invoice)",
+                orderId, resourceUsage.allocatedBytes(), resourceUsage.gcCount(), resourceUsage.gcTimeMillis(),
+                uploadMode, poolStats.acquired(), poolStats.reused(), poolStats.allocatedBytesPerAcquire());
     }
 
     private String createTemporaryPdfKey(String executionId, String orderId) {
-        return String.format("temp/%s-%s.pdf", executionId, orderId);
+        return InvoiceBatchPipeline.createTemporaryPdfKey(executionId, orderId);
+    }
+
+    public static final class Builder {
+        private final PdfDocumentGenerationService pdfGenerationService;
+        private final OrderDetailsService orderDetailsService;
+        private final S3Helper s3StorageHelper;
+        private String uploadMode = "BUFFERED";
+        private ByteArrayPool pdfBufferPool;
+        private InvoiceBatchPipeline batchPipeline;
+        private IdempotencyStore idempotencyStore;
+        private PriorityLaneService priorityLaneService;
+        private EmfMetricsLogger metricsLogger;
+        private SlowInvocationRecorder slowInvocationRecorder;
+        private HistogramRegistry histogramRegistry;
+
+        private Builder(PdfDocumentGenerationService pdfGenerationService,
+                OrderDetailsService orderDetailsService,
+                S3Helper s3StorageHelper) {
+            this.pdfGenerationService = pdfGenerationService;
+            this.orderDetailsService = orderDetailsService;
+            this.s3StorageHelper = s3StorageHelper;
+        }
+
+        public Builder uploadMode(String uploadMode) {
+            this.uploadMode = uploadMode;
+            return this;
+        }
+
+        public Builder pdfBufferPool(ByteArrayPool pdfBufferPool) {
+            this.pdfBufferPool = pdfBufferPool;
+            return this;
+        }
+
+        /**
+         * Pipeline for batch invocations; by default one is built from this builder's services with
+         * {@link InvoiceBatchPipeline#DEFAULT_IO_THREADS} I/O threads and a render thread per CPU.
+         */
+        public Builder batchPipeline(InvoiceBatchPipeline batchPipeline) {
+            this.batchPipeline = batchPipeline;
+            return this;
+        }
+
+        public Builder idempotencyStore(IdempotencyStore idempotencyStore) {
+            this.idempotencyStore = idempotencyStore;
+            return this;
+        }
+
+        public Builder priorityLaneService(PriorityLaneService priorityLaneService) {
+            this.priorityLaneService = priorityLaneService;
+            return this;
+        }
+
+        public Builder metricsLogger(EmfMetricsLogger metricsLogger) {
+            this.metricsLogger = metricsLogger;
+            return this;
+        }
+
+        public Builder slowInvocationRecorder(SlowInvocationRecorder slowInvocationRecorder) {
+            this.slowInvocationRecorder = slowInvocationRecorder;
+            return this;
+        }
+
+        public Builder histogramRegistry(HistogramRegistry histogramRegistry) {
+            this.histogramRegistry = histogramRegistry;
+            return this;
+        }
+
+        public GeneratePdfHandler build() {
+            if (pdfBufferPool == null) {
+                pdfBufferPool = new ByteArrayPool(DEFAULT_BUFFER_POOL_SIZE);
+            }
+            if (idempotencyStore == null) {
+                idempotencyStore = new InMemoryIdempotencyStore(DEFAULT_IDEMPOTENCY_CACHE_SIZE);
+            }
+            if (priorityLaneService == null) {
+                priorityLaneService = new PriorityLaneService(PriorityLaneService.DEFAULT_FAST_LANE_PRIORITIES);
+            }
+            if (metricsLogger == null) {
+                metricsLogger = EmfMetricsLogger.forService("generate-pdf");
+            }
+            if (slowInvocationRecorder == null) {
+                slowInvocationRecorder = SlowInvocationRecorder.disabled();
+            }
+            if (histogramRegistry == null) {
+                histogramRegistry = HistogramRegistry.fromEnvironment();
+            }
+            if (batchPipeline == null) {
+                batchPipeline = new InvoiceBatchPipeline(orderDetailsService, pdfGenerationService,
+                        s3StorageHelper, pdfBufferPool, InvoiceBatchPipeline.DEFAULT_IO_THREADS,
+                        Runtime.getRuntime().availableProcessors(), InvoiceBatchPipeline.DEFAULT_IO_THREADS,
+                        metricsLogger, histogramRegistry);
+            }
+            return new GeneratePdfHandler(this);
+        }
     }
-}
\ No newline at end of file
+}
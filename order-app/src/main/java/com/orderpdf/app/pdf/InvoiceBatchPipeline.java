@@ -0,0 +1,269 @@
+package com.orderpdf.app.pdf;
+
+import com.orderpdf.app.common.dto.GeneratePdfBatchResult;
+import com.orderpdf.app.common.dto.Order;
+import com.orderpdf.app.common.dto.OrderItem;
+import com.orderpdf.app.common.dto.OrderKey;
+import com.orderpdf.app.common.metrics.EmfMetricsLogger;
+import com.orderpdf.app.common.metrics.HistogramRegistry;
+import com.orderpdf.app.common.metrics.InvoiceMetrics;
+import com.orderpdf.app.common.service.OrderDetailsService;
+import com.orderpdf.app.common.util.ByteArrayPool;
+import com.orderpdf.app.common.util.PooledByteArrayOutputStream;
+import com.orderpdf.app.common.util.S3Helper;
+import com.orderpdf.app.pdf.service.PdfDocumentGenerationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates invoices for a batch of orders as a three-stage pipeline: fetch, render and upload each
+ * run on their own bounded pool, so reads and uploads overlap with rendering. Orders are read with
+ * {@code BatchGetItem}, one chunk ahead of the chunk being rendered. Rendering gets platform threads
+ * sized to the CPUs; fetch and upload are blocking I/O and run on virtual threads.
+ *
+ * <p>At most {@code fetchThreads + renderThreads + uploadThreads} orders are rendering or uploading at
+ * once, which bounds the number of rendered PDFs held in memory.
+ *
+ * <p>Each generated invoice reports its stage timings through {@link InvoiceMetrics}; its fetch time is
+ * that of the {@code BatchGetItem} chunk it was read in.
+ */
+public final class InvoiceBatchPipeline implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceBatchPipeline.class);
+
+    public static final int DEFAULT_IO_THREADS = 4;
+
+    private final OrderDetailsService orderDetailsService;
+    private final PdfDocumentGenerationService pdfGenerationService;
+    private final S3Helper s3StorageHelper;
+    private final ByteArrayPool pdfBufferPool;
+    private final Map<InvoiceMetrics.Start, EmfMetricsLogger> stageMetricsLoggers;
+    private final HistogramRegistry histogramRegistry;
+
+    private final ExecutorService fetchExecutor;
+    private final ExecutorService renderExecutor;
+    private final ExecutorService uploadExecutor;
+    private final int maxInFlight;
+
+    public InvoiceBatchPipeline(OrderDetailsService orderDetailsService,
+            PdfDocumentGenerationService pdfGenerationService,
+            S3Helper s3StorageHelper,
+            ByteArrayPool pdfBufferPool,
+            int fetchThreads,
+            int renderThreads,
+            int uploadThreads) {
+        this(orderDetailsService, pdfGenerationService, s3StorageHelper, pdfBufferPool, fetchThreads, renderThreads,
+                uploadThreads, EmfMetricsLogger.forService("generate-pdf"));
+    }
+
+    public InvoiceBatchPipeline(OrderDetailsService orderDetailsService,
+            PdfDocumentGenerationService pdfGenerationService,
+            S3Helper s3StorageHelper,
+            ByteArrayPool pdfBufferPool,
+            int fetchThreads,
+            int renderThreads,
+            int uploadThreads,
+            EmfMetricsLogger metricsLogger) {
+        this(orderDetailsService, pdfGenerationService, s3StorageHelper, pdfBufferPool, fetchThreads, renderThreads,
+                uploadThreads, metricsLogger, HistogramRegistry.fromEnvironment());
+    }
+
+    public InvoiceBatchPipeline(OrderDetailsService orderDetailsService,
+            PdfDocumentGenerationService pdfGenerationService,
+            S3Helper s3StorageHelper,
+            ByteArrayPool pdfBufferPool,
+            int fetchThreads,
+            int renderThreads,
+            int uploadThreads,
+            EmfMetricsLogger metricsLogger,
+            HistogramRegistry histogramRegistry) {
+        this.orderDetailsService = orderDetailsService;
+        this.pdfGenerationService = pdfGenerationService;
+        this.s3StorageHelper = s3StorageHelper;
+        this.pdfBufferPool = pdfBufferPool;
+        this.stageMetricsLoggers = InvoiceMetrics.metricsLoggersByStart(metricsLogger);
+        this.histogramRegistry = histogramRegistry;
+        // Threads are started on first use, so single-order invocations never pay for these pools
+        this.fetchExecutor = Executors.newFixedThreadPool(fetchThreads,
+                Thread.ofVirtual().name("pdf-batch-fetch-", 0).factory());
+        this.renderExecutor = Executors.newFixedThreadPool(renderThreads,
+                Thread.ofPlatform().name("pdf-batch-render-", 0).daemon().factory());
+        this.uploadExecutor = Executors.newFixedThreadPool(uploadThreads,
+                Thread.ofVirtual().name("pdf-batch-upload-", 0).factory());
+        this.maxInFlight = fetchThreads + renderThreads + uploadThreads;
+    }
+
+    /**
+     * Pipeline sized from {@code PDF_BATCH_FETCH_THREADS}, {@code PDF_BATCH_RENDER_THREADS} and
+     * {@code PDF_BATCH_UPLOAD_THREADS}, recording into a registry shared with the caller.
+     */
+    public static InvoiceBatchPipeline fromEnvironment(OrderDetailsService orderDetailsService,
+            PdfDocumentGenerationService pdfGenerationService,
+            S3Helper s3StorageHelper,
+            ByteArrayPool pdfBufferPool,
+            HistogramRegistry histogramRegistry) {
+        return new InvoiceBatchPipeline(orderDetailsService, pdfGenerationService, s3StorageHelper, pdfBufferPool,
+                Integer.parseInt(System.getenv().getOrDefault("PDF_BATCH_FETCH_THREADS",
+                        String.valueOf(DEFAULT_IO_THREADS))),
+                Integer.parseInt(System.getenv().getOrDefault("PDF_BATCH_RENDER_THREADS",
+                        String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                Integer.parseInt(System.getenv().getOrDefault("PDF_BATCH_UPLOAD_THREADS",
+                        String.valueOf(DEFAULT_IO_THREADS))),
+                EmfMetricsLogger.forService("generate-pdf"),
+                histogramRegistry);
+    }
+
+    /**
+     * Processes every order and returns one result per order, in input order. A failing order is
+     * reported in its result and does not affect the others. Each order is uploaded under a key that
+     * includes its position, so repeats of the same order in one batch do not overwrite each other.
+     */
+    public List<GeneratePdfBatchResult> process(List<OrderItem> orderItems, String executionId) {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        List<CompletableFuture<GeneratePdfBatchResult>> results = new ArrayList<>(orderItems.size());
+
+        List<List<OrderItem>> chunks = partition(orderItems, OrderDetailsService.BATCH_GET_MAX_KEYS);
+        CompletableFuture<FetchedChunk> nextChunkOrders = chunks.isEmpty() ? null : fetch(chunks.get(0));
+
+        int position = 0;
+        for (int chunkIndex = 0; chunkIndex < chunks.size(); chunkIndex++) {
+            CompletableFuture<FetchedChunk> chunkOrders = nextChunkOrders;
+            // Read the next chunk while this one renders
+            nextChunkOrders = chunkIndex + 1 < chunks.size() ? fetch(chunks.get(chunkIndex + 1)) : null;
+
+            for (OrderItem orderItem : chunks.get(chunkIndex)) {
+                inFlight.acquireUninterruptibly();
+                String temporaryPdfKey = createTemporaryPdfKey(executionId, orderItem.orderId(), position++);
+                results.add(process(orderItem, temporaryPdfKey, chunkOrders)
+                        .whenComplete((result, failure) -> inFlight.release()));
+            }
+        }
+
+        List<GeneratePdfBatchResult> completed = results.stream()
+                .map(CompletableFuture::join)
+                .toList();
+        stageMetricsLoggers.values().forEach(EmfMetricsLogger::flush);
+        return completed;
+    }
+
+    /**
+     * Stops the stage pools once the orders already submitted have finished, waiting up to 30 seconds.
+     */
+    @Override
+    public void close() {
+        for (ExecutorService executor : List.of(fetchExecutor, renderExecutor, uploadExecutor)) {
+            executor.shutdown();
+        }
+        try {
+            for (ExecutorService executor : List.of(fetchExecutor, renderExecutor, uploadExecutor)) {
+                if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                    logger.warn("Invoice pipeline stage did not finish within 30 seconds, stopping it");
+                    executor.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fetchExecutor.shutdownNow();
+            renderExecutor.shutdownNow();
+            uploadExecutor.shutdownNow();
+        }
+    }
+
+    private CompletableFuture<GeneratePdfBatchResult> process(OrderItem orderItem, String temporaryPdfKey,
+            CompletableFuture<FetchedChunk> chunkOrders) {
+        InvoiceMetrics invoiceMetrics = InvoiceMetrics.start();
+
+        return chunkOrders
+                .thenApplyAsync(chunk -> {
+                    invoiceMetrics.recordStage(InvoiceMetrics.Stage.FETCH, chunk.fetchNanos());
+                    return render(chunk.orders().get(OrderKey.of(orderItem)), invoiceMetrics);
+                }, renderExecutor)
+                .thenApplyAsync(pdfBuffer -> upload(temporaryPdfKey, pdfBuffer, invoiceMetrics), uploadExecutor)
+                .handle((uploadedKey, failure) -> toResult(orderItem, uploadedKey, failure, invoiceMetrics));
+    }
+
+    private CompletableFuture<FetchedChunk> fetch(List<OrderItem> chunk) {
+        return CompletableFuture.supplyAsync(() -> {
+            long startNanos = System.nanoTime();
+            Map<OrderKey, Order> orders = orderDetailsService.fetchOrderDetailsBatch(chunk);
+            return new FetchedChunk(orders, System.nanoTime() - startNanos);
+        }, fetchExecutor);
+    }
+
+    private PooledByteArrayOutputStream render(Order orderDetails, InvoiceMetrics invoiceMetrics) {
+        invoiceMetrics.recordLineCount(orderDetails.lines() != null ? orderDetails.lines().size() : 0);
+        PooledByteArrayOutputStream pdfBuffer = pdfBufferPool.newOutputStream();
+        InvoiceMetrics.Scope scope = invoiceMetrics.bind();
+        try {
+            pdfGenerationService.generatePdfDocument(orderDetails, pdfBuffer);
+            return pdfBuffer;
+        } catch (IOException e) {
+            pdfBuffer.release();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            pdfBuffer.release();
+            throw e;
+        } finally {
+            scope.close();
+        }
+    }
+
+    private String upload(String temporaryPdfKey, PooledByteArrayOutputStream pdfBuffer,
+            InvoiceMetrics invoiceMetrics) {
+        try {
+            long startNanos = System.nanoTime();
+            s3StorageHelper.putObjectFromBuffer(temporaryPdfKey, pdfBuffer, "application/pdf");
+            invoiceMetrics.recordStage(InvoiceMetrics.Stage.UPLOAD, System.nanoTime() - startNanos);
+            return temporaryPdfKey;
+        } finally {
+            pdfBuffer.release();
+        }
+    }
+
+    private GeneratePdfBatchResult toResult(OrderItem orderItem, String uploadedKey, Throwable failure,
+            InvoiceMetrics invoiceMetrics) {
+        if (failure == null) {
+            invoiceMetrics.emitTo(stageMetricsLoggers);
+            invoiceMetrics.recordTo(histogramRegistry);
+            return GeneratePdfBatchResult.success(orderItem.orderId(), uploadedKey);
+        }
+
+        Throwable cause = failure;
+        while ((cause instanceof CompletionException || cause instanceof UncheckedIOException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        logger.error("Failed to generate PDF invoice for orderId: {}", orderItem.orderId(), cause);
+        return GeneratePdfBatchResult.failure(orderItem.orderId(), String.valueOf(cause.getMessage()));
+    }
+
+    private static <T> List<List<T>> partition(List<T> items, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int start = 0; start < items.size(); start += size) {
+            chunks.add(items.subList(start, Math.min(start + size, items.size())));
+        }
+        return chunks;
+    }
+
+    private record FetchedChunk(Map<OrderKey, Order> orders, long fetchNanos) {
+    }
+
+    static String createTemporaryPdfKey(String executionId, String orderId) {
+        return String.format("temp/%s-%s.pdf", executionId, orderId);
+    }
+
+    static String createTemporaryPdfKey(String executionId, String orderId, int position) {
+        return String.format("temp/%s-%s-%d.pdf", executionId, orderId, position);
+    }
+}
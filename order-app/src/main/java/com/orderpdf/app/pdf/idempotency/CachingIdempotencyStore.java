@@ -0,0 +1,37 @@
+package com.orderpdf.app.pdf.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Checks a warm-container cache before the durable store, and copies durable hits and new records
+ * into the cache so repeats on the same container never leave the process.
+ */
+public class CachingIdempotencyStore implements IdempotencyStore {
+
+    private final InMemoryIdempotencyStore cache;
+    private final IdempotencyStore durableStore;
+
+    public CachingIdempotencyStore(InMemoryIdempotencyStore cache, IdempotencyStore durableStore) {
+        this.cache = cache;
+        this.durableStore = durableStore;
+    }
+
+    @Override
+    public Optional<String> findCompletedPdfKey(IdempotencyKey key) {
+        Optional<String> cachedPdfKey = cache.findCompletedPdfKey(key);
+        if (cachedPdfKey.isPresent()) {
+            return cachedPdfKey;
+        }
+
+        Optional<String> durablePdfKey = durableStore.findCompletedPdfKey(key);
+        durablePdfKey.ifPresent(pdfKey -> cache.recordCompleted(key, pdfKey));
+        return durablePdfKey;
+    }
+
+    @Override
+    public String recordCompleted(IdempotencyKey key, String pdfKey) {
+        String recordedPdfKey = durableStore.recordCompleted(key, pdfKey);
+        cache.recordCompleted(key, recordedPdfKey);
+        return recordedPdfKey;
+    }
+}
@@ -0,0 +1,73 @@
+package com.orderpdf.app.pdf.idempotency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Idempotency store backed by a DynamoDB side table keyed by {@code id}. Records are written with a
+ * conditional put, so the first invocation to finish an order version wins and later ones read its
+ * PDF key back. {@code expiresAt} is set for the table's TTL, after which the record is dropped.
+ */
+public class DynamoDbIdempotencyStore implements IdempotencyStore {
+    private static final Logger logger = LoggerFactory.getLogger(DynamoDbIdempotencyStore.class);
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+    private final Duration recordTtl;
+    private final Clock clock;
+
+    public DynamoDbIdempotencyStore(DynamoDbClient dynamoDbClient, String tableName, Duration recordTtl,
+            Clock clock) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+        this.recordTtl = recordTtl;
+        this.clock = clock;
+    }
+
+    @Override
+    public Optional<String> findCompletedPdfKey(IdempotencyKey key) {
+        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(tableName)
+                .key(Map.of("id", AttributeValue.builder().s(key.id()).build()))
+                .consistentRead(true)
+                .build());
+
+        if (!response.hasItem() || !response.item().containsKey("pdfKey")) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(response.item().get("pdfKey").s());
+    }
+
+    @Override
+    public String recordCompleted(IdempotencyKey key, String pdfKey) {
+        Instant now = clock.instant();
+        try {
+            dynamoDbClient.putItem(PutItemRequest.builder()
+                    .tableName(tableName)
+                    .item(Map.of(
+                            "id", AttributeValue.builder().s(key.id()).build(),
+                            "pdfKey", AttributeValue.builder().s(pdfKey).build(),
+                            "completedAt", AttributeValue.builder().s(now.toString()).build(),
+                            "expiresAt", AttributeValue.builder()
+                                    .n(String.valueOf(now.plus(recordTtl).getEpochSecond())).build()))
+                    .conditionExpression("attribute_not_exists(id)")
+                    .build());
+            return pdfKey;
+        } catch (ConditionalCheckFailedException e) {
+            logger.info("Invoice for {} was already recorded by another invocation", key.id());
+            return findCompletedPdfKey(key).orElse(pdfKey);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.orderpdf.app.pdf.idempotency;
+
+import com.orderpdf.app.common.dto.OrderItem;
+
+import java.util.Optional;
+
+/**
+ * Identifies one version of an order: its pk/sk plus the stream sequence number of the write that
+ * produced it. Two invocations with the same key would render the same invoice.
+ */
+public record IdempotencyKey(String pk, String sk, String version) {
+
+    /**
+     * Returns the key for an order item, or empty when the item carries no sequence number and so
+     * cannot be told apart from other versions of the same order.
+     */
+    public static Optional<IdempotencyKey> of(OrderItem orderItem) {
+        if (orderItem.pk() == null || orderItem.sk() == null || orderItem.sequenceNumber() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new IdempotencyKey(orderItem.pk(), orderItem.sk(), orderItem.sequenceNumber()));
+    }
+
+    public String id() {
+        return pk + "|" + sk + "|" + version;
+    }
+}
@@ -0,0 +1,21 @@
+package com.orderpdf.app.pdf.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Records which order versions already have an invoice, so repeated deliveries of the same version
+ * can return the existing PDF instead of rendering it again.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Returns the PDF key recorded for this order version, if its invoice has been generated.
+     */
+    Optional<String> findCompletedPdfKey(IdempotencyKey key);
+
+    /**
+     * Records the invoice generated for this order version. If another invocation recorded one first,
+     * that record is kept and its PDF key is returned; otherwise {@code pdfKey} is returned.
+     */
+    String recordCompleted(IdempotencyKey key, String pdfKey);
+}
@@ -0,0 +1,39 @@
+package com.orderpdf.app.pdf.idempotency;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Idempotency store held in memory, keeping the most recently used {@code maxEntries} records. It
+ * lives as long as the Lambda container, so it only catches repeats that land on a warm container;
+ * on its own it is the local stand-in for tests.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Map<String, String> completedPdfKeys;
+
+    public InMemoryIdempotencyStore(int maxEntries) {
+        this.completedPdfKeys = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Optional<String> findCompletedPdfKey(IdempotencyKey key) {
+        return Optional.ofNullable(completedPdfKeys.get(key.id()));
+    }
+
+    @Override
+    public synchronized String recordCompleted(IdempotencyKey key, String pdfKey) {
+        String existingPdfKey = completedPdfKeys.putIfAbsent(key.id(), pdfKey);
+        return existingPdfKey != null ? existingPdfKey : pdfKey;
+    }
+
+    public synchronized int size() {
+        return completedPdfKeys.size();
+    }
+}
@@ -0,0 +1,97 @@
+package com.orderpdf.app.pdf.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An HTML template parsed once into alternating literal segments and {@code {{PLACEHOLDER}}} slots.
+ * Rendering walks the segments a single time, so each document costs one copy of the template
+ * instead of one copy per placeholder.
+ */
+public final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    @FunctionalInterface
+    public interface SlotWriter {
+        void write(String placeholder, Appendable out) throws IOException;
+    }
+
+    // literals.length == placeholders.length + 1; literal i is emitted before placeholder i
+    private final String[] literals;
+    private final String[] placeholders;
+    private final int literalLength;
+
+    private CompiledTemplate(List<String> literals, List<String> placeholders) {
+        this.literals = literals.toArray(String[]::new);
+        this.placeholders = placeholders.toArray(String[]::new);
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    public static CompiledTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+
+        int position = 0;
+        StringBuilder literal = new StringBuilder();
+        while (position < source.length()) {
+            int open = source.indexOf(OPEN, position);
+            int close = open < 0 ? -1 : source.indexOf(CLOSE, open + OPEN.length());
+            if (open < 0 || close < 0) {
+                break;
+            }
+
+            String name = source.substring(open + OPEN.length(), close);
+            if (!isPlaceholderName(name)) {
+                // Not a placeholder (e.g. stray braces in CSS) - keep the opening braces as text
+                literal.append(source, position, open + OPEN.length());
+                position = open + OPEN.length();
+                continue;
+            }
+
+            literal.append(source, position, open);
+            literals.add(literal.toString());
+            literal.setLength(0);
+            placeholders.add(name);
+            position = close + CLOSE.length();
+        }
+        literal.append(source, position, source.length());
+        literals.add(literal.toString());
+
+        return new CompiledTemplate(literals, placeholders);
+    }
+
+    public void render(Appendable out, SlotWriter slotWriter) throws IOException {
+        for (int i = 0; i < placeholders.length; i++) {
+            out.append(literals[i]);
+            slotWriter.write(placeholders[i], out);
+        }
+        out.append(literals[placeholders.length]);
+    }
+
+    /**
+     * Total number of characters contributed by the template itself, used to pre-size output buffers.
+     */
+    public int literalLength() {
+        return literalLength;
+    }
+
+    public List<String> placeholders() {
+        return List.of(placeholders);
+    }
+
+    private static boolean isPlaceholderName(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!(c == '_' || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,75 @@
+package com.orderpdf.app.pdf.service;
+
+import com.itextpdf.html2pdf.ConverterProperties;
+import com.itextpdf.html2pdf.HtmlConverter;
+import com.itextpdf.html2pdf.resolver.font.DefaultFontProvider;
+import com.itextpdf.layout.font.FontSet;
+import com.itextpdf.styledxmlparser.css.media.MediaDeviceDescription;
+import com.itextpdf.styledxmlparser.css.media.MediaType;
+import com.itextpdf.styledxmlparser.resolver.font.BasicFontProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converter configuration built once per container and shared by every conversion.
+ *
+ * <p>Font discovery is the expensive part of a default {@code HtmlConverter} call: each call builds a
+ * new {@link DefaultFontProvider} and re-parses the shipped font programs. Here the {@link FontSet}
+ * is built once and only a lightweight {@link BasicFontProvider} view over it is created per
+ * conversion, because a font provider caches document-bound {@code PdfFont}s and must not be shared
+ * between documents or threads.
+ */
+public final class HtmlConverterContext {
+    private static final Logger logger = LoggerFactory.getLogger(HtmlConverterContext.class);
+
+    private static final String WARM_UP_HTML = """
+            <html><head><style>body { font-family: 'Helvetica', Arial, sans-serif; }</style></head>
+            <body><table><tr><td><b>warm-up</b></td><td>$0.00</td></tr></table></body></html>
+            """;
+
+    private final FontSet fontSet;
+    private final String defaultFontFamily;
+    private final ConverterProperties baseProperties;
+
+    public HtmlConverterContext() {
+        DefaultFontProvider fontProvider = new DefaultFontProvider(true, true, false);
+        this.fontSet = fontProvider.getFontSet();
+        this.defaultFontFamily = fontProvider.getDefaultFontFamily();
+        this.baseProperties = new ConverterProperties()
+                .setMediaDeviceDescription(new MediaDeviceDescription(MediaType.PRINT))
+                .setCharset(StandardCharsets.UTF_8.name());
+    }
+
+    public static HtmlConverterContext shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    /**
+     * Returns properties for a single conversion. The result must not be reused concurrently.
+     */
+    public ConverterProperties newConverterProperties() {
+        return new ConverterProperties(baseProperties)
+                .setFontProvider(new BasicFontProvider(fontSet, defaultFontFamily));
+    }
+
+    /**
+     * Runs one throwaway conversion so class loading, font parsing and CSS machinery are initialised
+     * during container init instead of on the first invoice.
+     */
+    public void warmUp() {
+        long start = System.nanoTime();
+        try {
+            HtmlConverter.convertToPdf(WARM_UP_HTML, OutputStream.nullOutputStream(), newConverterProperties());
+            logger.info("HTML converter warmed up in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("HTML converter warm-up failed, continuing without it", e);
+        }
+    }
+
+    private static final class SharedHolder {
+        private static final HtmlConverterContext INSTANCE = new HtmlConverterContext();
+    }
+}
@@ -0,0 +1,145 @@
+package com.orderpdf.app.pdf.service;
+
+import com.itextpdf.html2pdf.HtmlConverter;
+import com.orderpdf.app.common.dto.Order;
+import com.orderpdf.app.common.jfr.HtmlToPdfEvent;
+import com.orderpdf.app.common.jfr.TemplateRenderEvent;
+import com.orderpdf.app.common.metrics.InvoiceMetrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Renders the invoice HTML template and converts it with html2pdf. This is the only backend that
+ * honours custom templates.
+ */
+public class HtmlInvoicePdfRenderer implements InvoicePdfRenderer {
+
+    private final HtmlTemplateService htmlTemplateService;
+    private final HtmlConverterContext converterContext;
+    private final boolean streamHtml;
+    private final int streamBufferBytes;
+
+    public HtmlInvoicePdfRenderer(HtmlTemplateService htmlTemplateService, HtmlConverterContext converterContext,
+            boolean streamHtml, int streamBufferBytes) {
+        this.htmlTemplateService = htmlTemplateService;
+        this.converterContext = converterContext;
+        this.streamHtml = streamHtml;
+        this.streamBufferBytes = streamBufferBytes;
+    }
+
+    @Override
+    public void render(Order order, OutputStream outputStream) throws IOException {
+        if (streamHtml) {
+            convertStreamingHtml(order, outputStream);
+        } else {
+            // Generate HTML from template
+            TemplateRenderEvent templateEvent = new TemplateRenderEvent();
+            templateEvent.begin();
+            long templateStartNanos = System.nanoTime();
+            String html = htmlTemplateService.generateInvoiceHtml(order);
+            long conversionStartNanos = System.nanoTime();
+            InvoiceMetrics.recordCurrentStage(InvoiceMetrics.Stage.TEMPLATE, conversionStartNanos - templateStartNanos);
+            commit(templateEvent, order, html.length());
+
+            // Convert HTML to PDF using iText
+            HtmlToPdfEvent conversionEvent = new HtmlToPdfEvent();
+            conversionEvent.begin();
+            HtmlConverter.convertToPdf(html, outputStream, converterContext.newConverterProperties());
+            InvoiceMetrics.recordCurrentStage(InvoiceMetrics.Stage.HTML_TO_PDF, System.nanoTime() - conversionStartNanos);
+            commit(conversionEvent, order, html.length());
+        }
+    }
+
+    /**
+     * Renders the template on a separate thread into a bounded pipe that the converter reads from,
+     * so the HTML never exists as one String. Only {@code streamBufferBytes} of HTML is in flight
+     * between the two sides; the converter's own DOM still grows with the document.
+     *
+     * <p>Template expansion overlaps the conversion here, so it is included in the HTML to PDF time
+     * rather than recorded on its own.
+     */
+    private void convertStreamingHtml(Order order, OutputStream outputStream) throws IOException {
+        AtomicReference<Throwable> writerFailure = new AtomicReference<>();
+
+        PipedInputStream htmlInput = new PipedInputStream(streamBufferBytes);
+        PipedOutputStream htmlOutput = new PipedOutputStream(htmlInput);
+
+        Thread writerThread = Thread.ofVirtual()
+                .name("invoice-html-writer-" + order.orderId())
+                .start(() -> {
+                    TemplateRenderEvent templateEvent = new TemplateRenderEvent();
+                    templateEvent.begin();
+                    try (Writer writer = new OutputStreamWriter(htmlOutput, StandardCharsets.UTF_8)) {
+                        htmlTemplateService.writeInvoiceHtml(order, writer);
+                        commit(templateEvent, order, -1);
+                    } catch (Throwable t) {
+                        writerFailure.set(t);
+                    }
+                });
+
+        try {
+            HtmlToPdfEvent conversionEvent = new HtmlToPdfEvent();
+            conversionEvent.begin();
+            long conversionStartNanos = System.nanoTime();
+            HtmlConverter.convertToPdf(htmlInput, outputStream, converterContext.newConverterProperties());
+            InvoiceMetrics.recordCurrentStage(InvoiceMetrics.Stage.HTML_TO_PDF,
+                    System.nanoTime() - conversionStartNanos);
+            commit(conversionEvent, order, -1);
+        } finally {
+            // Closing the read side unblocks the writer if the converter bailed out early
+            htmlInput.close();
+            joinUninterruptibly(writerThread);
+        }
+
+        Throwable failure = writerFailure.get();
+        if (failure != null) {
+            throw new IOException("Failed to render invoice HTML for order: " + order.orderId(), failure);
+        }
+    }
+
+    private static void commit(TemplateRenderEvent event, Order order, long htmlLength) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.orderId = order.orderId();
+            event.lineCount = lineCount(order);
+            event.htmlLength = htmlLength;
+            event.commit();
+        }
+    }
+
+    private static void commit(HtmlToPdfEvent event, Order order, long htmlLength) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.orderId = order.orderId();
+            event.lineCount = lineCount(order);
+            event.htmlLength = htmlLength;
+            event.commit();
+        }
+    }
+
+    private static int lineCount(Order order) {
+        return order.lines() != null ? order.lines().size() : 0;
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -5,125 +5,156 @@ import com.orderpdf.app.common.dto.OrderLine;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
-import java.text.NumberFormat;
-import java.util.Locale;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.orderpdf.app.pdf.service.InvoiceValues.formatCurrency;
+import static com.orderpdf.app.pdf.service.InvoiceValues.nullToEmpty;
 
 public class HtmlTemplateService {
 
-    private static final NumberFormat CURRENCY_FORMAT = NumberFormat.getCurrencyInstance(Locale.US);
-    private static final String TEMPLATE_PATH = "/templates/invoice-template.html";
+    public static final String DEFAULT_TEMPLATE_PATH = "/templates/invoice-template.html";
+
+    // Rough size of one rendered <tr> in ORDER_ITEMS, used to pre-size the output buffer
+    private static final int ESTIMATED_ROW_LENGTH = 220;
+    private static final int ESTIMATED_DYNAMIC_LENGTH = 1024;
+
+    // Templates are compiled once per container and shared by every service instance
+    private static final Map<String, CompiledTemplate> TEMPLATE_CACHE = new ConcurrentHashMap<>();
+
+    private final String templatePath;
+
+    public HtmlTemplateService() {
+        this(DEFAULT_TEMPLATE_PATH);
+    }
+
+    /**
+     * Uses a custom classpath template; it may use any subset of the standard invoice placeholders.
+     */
+    public HtmlTemplateService(String templatePath) {
+        this.templatePath = templatePath;
+    }
+
+    public boolean usesDefaultTemplate() {
+        return DEFAULT_TEMPLATE_PATH.equals(templatePath);
+    }
 
     public String generateInvoiceHtml(Order order) throws IOException {
-        // Load template from resources
-        String template = loadTemplate();
-
-        // Calculate totals
-        double subtotal = order.lines().stream()
-                .mapToDouble(line -> (line.priceMinor() / 100.0) * line.quantity())
-                .sum();
-        double taxRate = 0.08;
-        double taxAmount = subtotal * taxRate;
-        double grandTotal = subtotal + taxAmount;
-
-        String formattedDate = order.createdAt()
-                .atOffset(ZoneOffset.UTC)
-                .format(DateTimeFormatter.ofPattern("MMM dd, yyyy"));
-
-        // Replace placeholders with actual data
-        return processTemplate(template, order, formattedDate, subtotal, taxAmount, grandTotal);
+        CompiledTemplate template = loadTemplate();
+
+        StringBuilder html = new StringBuilder(estimateLength(template, order));
+        writeInvoiceHtml(template, order, html);
+        return html.toString();
+    }
+
+    /**
+     * Streams the invoice HTML into {@code out} without materialising the whole document, so callers
+     * can pipe it straight into a consumer such as the PDF converter.
+     */
+    public void writeInvoiceHtml(Order order, Appendable out) throws IOException {
+        writeInvoiceHtml(loadTemplate(), order, out);
+    }
+
+    private void writeInvoiceHtml(CompiledTemplate template, Order order, Appendable out) throws IOException {
+        InvoiceValues values = InvoiceValues.of(order);
+        template.render(out, (placeholder, target) -> writePlaceholder(placeholder, order, values, target));
+    }
+
+    private CompiledTemplate loadTemplate() throws IOException {
+        try {
+            return TEMPLATE_CACHE.computeIfAbsent(templatePath, path -> {
+                try {
+                    return CompiledTemplate.compile(readTemplate(path));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
-    private String loadTemplate() throws IOException {
-        try (InputStream inputStream = getClass().getResourceAsStream(TEMPLATE_PATH)) {
+    private String readTemplate(String path) throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream(path)) {
             if (inputStream == null) {
-                throw new IOException("Template file not found: " + TEMPLATE_PATH);
+                throw new IOException("Template file not found: " + path);
             }
             return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
         }
     }
 
-    private String processTemplate(String template, Order order, String formattedDate,
-            double subtotal, double taxAmount, double grandTotal) {
-        return template
-                .replace("{{ORDER_ID}}", order.orderId())
-                .replace("{{ORDER_DATE}}", formattedDate)
-                .replace("{{ORDER_STATUS}}", order.status() != null ? order.status().toUpperCase() : "CONFIRMED")
-                .replace("{{ORDER_PRIORITY}}", order.priority() != null ? order.priority().toUpperCase() : "NORMAL")
-                .replace("{{CUSTOMER_NAME}}", order.customer().name())
-                .replace("{{CUSTOMER_EMAIL}}", order.customer().email())
-                .replace("{{CUSTOMER_PHONE}}", generatePhoneSection(order.customer().phone()))
-                .replace("{{SHIPPING_ADDRESS}}", generateShippingAddress(order))
-                .replace("{{ORDER_META}}", generateOrderMeta(order))
-                .replace("{{ORDER_ITEMS}}", generateItemRows(order))
-                .replace("{{SUBTOTAL}}", CURRENCY_FORMAT.format(subtotal))
-                .replace("{{TAX_AMOUNT}}", CURRENCY_FORMAT.format(taxAmount))
-                .replace("{{GRAND_TOTAL}}", CURRENCY_FORMAT.format(grandTotal))
-                .replace("{{GENERATION_DATE}}",
-                        java.time.LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
-                .replace("{{PROCESSING_TIME}}",
-                        String.valueOf(order.processingTime() != null ? order.processingTime() : 0));
+    private int estimateLength(CompiledTemplate template, Order order) {
+        int lineCount = order.lines() != null ? order.lines().size() : 0;
+        return template.literalLength() + ESTIMATED_DYNAMIC_LENGTH + lineCount * ESTIMATED_ROW_LENGTH;
     }
 
-    private String generatePhoneSection(String phone) {
-        return phone != null && !phone.isEmpty()
-                ? "<div class=\"customer-detail\">Tel: " + phone + "</div>"
-                : "";
+    private void writePlaceholder(String placeholder, Order order, InvoiceValues values, Appendable out)
+            throws IOException {
+        switch (placeholder) {
+            case "ORDER_ID" -> out.append(nullToEmpty(order.orderId()));
+            case "ORDER_DATE" -> out.append(values.formattedDate());
+            case "ORDER_STATUS" -> out.append(InvoiceValues.statusLabel(order));
+            case "ORDER_PRIORITY" -> out.append(InvoiceValues.priorityLabel(order));
+            case "CUSTOMER_NAME" -> out.append(nullToEmpty(order.customer().name()));
+            case "CUSTOMER_EMAIL" -> out.append(nullToEmpty(order.customer().email()));
+            case "CUSTOMER_PHONE" -> appendPhoneSection(order.customer().phone(), out);
+            case "SHIPPING_ADDRESS" -> appendShippingAddress(order, out);
+            case "ORDER_META" -> appendOrderMeta(order, out);
+            case "ORDER_ITEMS" -> appendItemRows(order, out);
+            case "SUBTOTAL" -> out.append(formatCurrency(values.subtotal()));
+            case "TAX_AMOUNT" -> out.append(formatCurrency(values.taxAmount()));
+            case "GRAND_TOTAL" -> out.append(formatCurrency(values.grandTotal()));
+            case "GENERATION_DATE" -> out.append(values.generationDate());
+            case "PROCESSING_TIME" -> out.append(String.valueOf(InvoiceValues.processingTime(order)));
+            // Unknown placeholders are left in place, as the previous replace-based renderer did
+            default -> out.append("{{").append(placeholder).append("}}");
+        }
+    }
+
+    private void appendPhoneSection(String phone, Appendable out) throws IOException {
+        if (phone != null && !phone.isEmpty()) {
+            out.append("<div class=\"customer-detail\">Tel: ").append(phone).append("</div>");
+        }
     }
 
-    private String generateShippingAddress(Order order) {
-        if (order.customer().address() != null && !order.customer().address().isEmpty()) {
-            String[] addressLines = order.customer().address().split(",");
-            StringBuilder address = new StringBuilder();
+    private void appendShippingAddress(Order order, Appendable out) throws IOException {
+        List<String> addressLines = InvoiceValues.addressLines(order);
+        if (!addressLines.isEmpty()) {
             for (String line : addressLines) {
-                address.append("<div class=\"customer-detail\">").append(line.trim()).append("</div>");
+                out.append("<div class=\"customer-detail\">").append(line).append("</div>");
             }
-            return address.toString();
         } else {
-            return "<div class=\"customer-detail\" style=\"font-style: italic; color: #999;\">Same as billing address</div>";
+            out.append("<div class=\"customer-detail\" style=\"font-style: italic; color: #999;\">Same as billing address</div>");
         }
     }
 
-    private String generateOrderMeta(Order order) {
-        StringBuilder meta = new StringBuilder("<div class=\"order-meta\">");
+    private void appendOrderMeta(Order order, Appendable out) throws IOException {
+        out.append("<div class=\"order-meta\">");
 
         if (order.source() != null && !order.source().isEmpty()) {
-            meta.append("<span>Source: ").append(order.source().toUpperCase()).append("</span>");
+            out.append("<span>Source: ").append(order.source().toUpperCase()).append("</span>");
         }
         if (order.region() != null && !order.region().isEmpty()) {
-            meta.append("<span>Region: ").append(order.region().toUpperCase()).append("</span>");
+            out.append("<span>Region: ").append(order.region().toUpperCase()).append("</span>");
         }
         if (order.notes() != null && !order.notes().isEmpty()) {
-            meta.append("<span>Notes: ").append(order.notes()).append("</span>");
+            out.append("<span>Notes: ").append(order.notes()).append("</span>");
         }
 
-        meta.append("</div>");
-        return meta.toString();
+        out.append("</div>");
     }
 
-    private String generateItemRows(Order order) {
-        StringBuilder rows = new StringBuilder();
-
+    private void appendItemRows(Order order, Appendable out) throws IOException {
         for (OrderLine line : order.lines()) {
-            double unitPrice = line.priceMinor() / 100.0;
-            double totalPrice = unitPrice * line.quantity();
-
-            rows.append("""
-                    <tr>
-                        <td><span class="item-sku">%s</span></td>
-                        <td>%d</td>
-                        <td>%s</td>
-                        <td>%s</td>
-                    </tr>
-                    """.formatted(
-                    line.sku(),
-                    line.quantity(),
-                    CURRENCY_FORMAT.format(unitPrice),
-                    CURRENCY_FORMAT.format(totalPrice)));
+            out.append("<tr>\n")
+                    .append("    <td><span class=\"item-sku\">").append(line.sku()).append("</span></td>\n")
+                    .append("    <td>").append(Integer.toString(line.quantity())).append("</td>\n")
+                    .append("    <td>").append(formatCurrency(InvoiceValues.unitPrice(line))).append("</td>\n")
+                    .append("    <td>").append(formatCurrency(InvoiceValues.lineTotal(line))).append("</td>\n")
+                    .append("</tr>\n");
         }
-
-        return rows.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,270 @@
+package com.orderpdf.app.pdf.service;
+
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.Canvas;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.VerticalAlignment;
+import com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer.Fonts;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer.BRAND_BLUE;
+import static com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer.DETAIL_BORDER;
+import static com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer.FAINT_TEXT;
+import static com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer.HEADER_DIVIDER;
+import static com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer.ITEM_COLUMN_HEADINGS;
+import static com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer.ITEM_COLUMN_WIDTHS;
+import static com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer.MUTED_TEXT;
+import static com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer.PAGE_MARGIN;
+import static com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer.PANEL_BACKGROUND;
+import static com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer.RULE_COLOR;
+import static com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer.SUBTLE_TEXT;
+
+/**
+ * The order-independent parts of the invoice, drawn once into a small source PDF. Each source page is
+ * one piece of chrome; renderers import them into every invoice as form XObjects, so the shared
+ * graphics are never laid out again per order.
+ *
+ * <p>Positions on the page-one header are measured from the top edge of the page so the stamped
+ * renderer can place the order's values into the slots drawn here.
+ */
+final class InvoiceChrome {
+
+    static final float PAGE_WIDTH = PageSize.A4.getWidth();
+    static final float PAGE_HEIGHT = PageSize.A4.getHeight();
+    static final float CONTENT_WIDTH = PAGE_WIDTH - 2 * PAGE_MARGIN;
+
+    static final float LOGO_SIZE = 37.5f;
+    static final float DETAILS_TOP = PAGE_MARGIN + LOGO_SIZE + 7.5f;
+    static final float DETAILS_WIDTH = 210;
+    static final float DETAILS_PADDING = 11.25f;
+    static final float DETAIL_ROW_HEIGHT = 15;
+    static final String[] DETAIL_LABELS = {"Order #:", "Date:", "Status:", "Priority:"};
+    static final float DETAILS_HEIGHT = DETAIL_LABELS.length * DETAIL_ROW_HEIGHT + 12;
+
+    static final float HEADER_RULE_Y = DETAILS_TOP + DETAILS_HEIGHT + 15;
+    static final float PANEL_TOP = HEADER_RULE_Y + 22.5f;
+    static final float PANEL_HEIGHT = 125;
+    static final float PANEL_PADDING = 18.75f;
+    static final float CUSTOMER_DETAILS_TOP = PANEL_TOP + PANEL_PADDING + 22.5f;
+    static final float CUSTOMER_COLUMN_WIDTH = CONTENT_WIDTH / 2 - PANEL_PADDING - 15;
+    static final float BILL_TO_X = PAGE_MARGIN + PANEL_PADDING;
+    static final float SHIP_TO_X = PAGE_MARGIN + CONTENT_WIDTH / 2 + 15;
+
+    // Where flowing content starts on page one
+    static final float HEADER_HEIGHT = PANEL_TOP + PANEL_HEIGHT + 22.5f;
+
+    static final float ITEMS_HEADER_HEIGHT = 34.5f;
+    static final float FOOTER_HEIGHT = 57;
+
+    private final byte[] sourcePdf;
+
+    // Copying needs an open source document, and PdfDocument is not thread-safe. Pooled render threads
+    // parse the small source once and keep it; a virtual thread renders once and exits, so it opens its
+    // own copy per invoice rather than leaving one behind in a thread local
+    private final ThreadLocal<PdfDocument> platformThreadSource = ThreadLocal.withInitial(this::openSource);
+
+    InvoiceChrome() {
+        try {
+            this.sourcePdf = draw();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to draw invoice chrome", e);
+        }
+    }
+
+    static InvoiceChrome shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    /**
+     * Copies the chrome into {@code target}. The XObjects belong to that document only.
+     */
+    Stamps importInto(PdfDocument target) throws IOException {
+        if (Thread.currentThread().isVirtual()) {
+            try (PdfDocument source = openSource()) {
+                return copy(source, target);
+            }
+        }
+        return copy(platformThreadSource.get(), target);
+    }
+
+    private static Stamps copy(PdfDocument source, PdfDocument target) throws IOException {
+        return new Stamps(
+                source.getPage(1).copyAsFormXObject(target),
+                source.getPage(2).copyAsFormXObject(target),
+                source.getPage(3).copyAsFormXObject(target));
+    }
+
+    private PdfDocument openSource() {
+        try {
+            return new PdfDocument(new PdfReader(new ByteArrayInputStream(sourcePdf)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open invoice chrome", e);
+        }
+    }
+
+    /**
+     * Converts a distance from the top of the page into a PDF y coordinate.
+     */
+    static float fromTop(float y) {
+        return PAGE_HEIGHT - y;
+    }
+
+    private static byte[] draw() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(outputStream))) {
+            Fonts fonts = Fonts.create();
+            drawHeader(pdfDocument.addNewPage(PageSize.A4), fonts);
+            drawItemsHeader(pdfDocument.addNewPage(new PageSize(CONTENT_WIDTH, ITEMS_HEADER_HEIGHT)), fonts);
+            drawFooter(pdfDocument.addNewPage(new PageSize(CONTENT_WIDTH, FOOTER_HEIGHT)), fonts);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static void drawHeader(PdfPage page, Fonts fonts) {
+        PdfCanvas pdfCanvas = new PdfCanvas(page);
+
+        fillRoundRectangle(pdfCanvas, PAGE_MARGIN, fromTop(PAGE_MARGIN + LOGO_SIZE), LOGO_SIZE, LOGO_SIZE, 4.5f,
+                BRAND_BLUE);
+        pdfCanvas.saveState()
+                .setFillColor(PANEL_BACKGROUND)
+                .setStrokeColor(DETAIL_BORDER)
+                .setLineWidth(0.75f)
+                .roundRectangle(PAGE_MARGIN, fromTop(DETAILS_TOP + DETAILS_HEIGHT), DETAILS_WIDTH, DETAILS_HEIGHT, 4.5f)
+                .fillStroke()
+                .restoreState();
+        pdfCanvas.saveState()
+                .setStrokeColor(RULE_COLOR)
+                .setLineWidth(1.5f)
+                .moveTo(PAGE_MARGIN, fromTop(HEADER_RULE_Y))
+                .lineTo(PAGE_WIDTH - PAGE_MARGIN, fromTop(HEADER_RULE_Y))
+                .stroke()
+                .restoreState();
+        fillRoundRectangle(pdfCanvas, PAGE_MARGIN, fromTop(PANEL_TOP + PANEL_HEIGHT), CONTENT_WIDTH, PANEL_HEIGHT,
+                7.5f, PANEL_BACKGROUND);
+
+        try (Canvas canvas = new Canvas(pdfCanvas, page.getPageSize())) {
+            float logoCenter = PAGE_MARGIN + LOGO_SIZE / 2;
+            canvas.showTextAligned(new Paragraph("PDF").setFont(fonts.bold()).setFontSize(10.5f)
+                            .setFontColor(ColorConstants.WHITE),
+                    logoCenter, fromTop(logoCenter), TextAlignment.CENTER, VerticalAlignment.MIDDLE);
+            canvas.showTextAligned(new Paragraph("ORDER INVOICE").setFont(fonts.bold()).setFontSize(24)
+                            .setFontColor(BRAND_BLUE).setCharacterSpacing(0.75f),
+                    PAGE_MARGIN + LOGO_SIZE + 11.25f, fromTop(logoCenter), TextAlignment.LEFT, VerticalAlignment.MIDDLE);
+            canvas.showTextAligned(new Paragraph("INVOICE").setFont(fonts.bold()).setFontSize(21)
+                            .setFontColor(BRAND_BLUE),
+                    PAGE_WIDTH - PAGE_MARGIN, fromTop(PAGE_MARGIN), TextAlignment.RIGHT, VerticalAlignment.TOP);
+
+            for (int row = 0; row < DETAIL_LABELS.length; row++) {
+                canvas.showTextAligned(new Paragraph(DETAIL_LABELS[row]).setFont(fonts.bold()).setFontSize(9)
+                                .setFontColor(MUTED_TEXT),
+                        PAGE_MARGIN + DETAILS_PADDING, fromTop(detailRowMiddle(row)),
+                        TextAlignment.LEFT, VerticalAlignment.MIDDLE);
+            }
+
+            float headingTop = fromTop(PANEL_TOP + PANEL_PADDING);
+            canvas.showTextAligned(sectionHeading("BILL TO", fonts), BILL_TO_X, headingTop,
+                    TextAlignment.LEFT, VerticalAlignment.TOP);
+            canvas.showTextAligned(sectionHeading("SHIP TO", fonts), SHIP_TO_X, headingTop,
+                    TextAlignment.LEFT, VerticalAlignment.TOP);
+        }
+    }
+
+    private static void drawItemsHeader(PdfPage page, Fonts fonts) {
+        PdfCanvas pdfCanvas = new PdfCanvas(page);
+        pdfCanvas.saveState()
+                .setFillColor(BRAND_BLUE)
+                .rectangle(0, 0, CONTENT_WIDTH, ITEMS_HEADER_HEIGHT)
+                .fill()
+                .restoreState();
+
+        float totalWeight = 0;
+        for (float width : ITEM_COLUMN_WIDTHS) {
+            totalWeight += width;
+        }
+
+        try (Canvas canvas = new Canvas(pdfCanvas, page.getPageSize())) {
+            float left = 0;
+            for (int column = 0; column < ITEM_COLUMN_HEADINGS.length; column++) {
+                float right = left + CONTENT_WIDTH * ITEM_COLUMN_WIDTHS[column] / totalWeight;
+                boolean firstColumn = column == 0;
+
+                canvas.showTextAligned(new Paragraph(ITEM_COLUMN_HEADINGS[column]).setFont(fonts.bold())
+                                .setFontSize(9.75f).setCharacterSpacing(0.375f).setFontColor(ColorConstants.WHITE),
+                        firstColumn ? left + 9 : right - 9, ITEMS_HEADER_HEIGHT / 2,
+                        firstColumn ? TextAlignment.LEFT : TextAlignment.RIGHT, VerticalAlignment.MIDDLE);
+
+                if (column < ITEM_COLUMN_HEADINGS.length - 1) {
+                    pdfCanvas.saveState()
+                            .setStrokeColor(HEADER_DIVIDER)
+                            .setLineWidth(0.75f)
+                            .moveTo(right, 0)
+                            .lineTo(right, ITEMS_HEADER_HEIGHT)
+                            .stroke()
+                            .restoreState();
+                }
+                left = right;
+            }
+        }
+    }
+
+    private static void drawFooter(PdfPage page, Fonts fonts) {
+        PdfCanvas pdfCanvas = new PdfCanvas(page);
+        pdfCanvas.saveState()
+                .setStrokeColor(RULE_COLOR)
+                .setLineWidth(1.5f)
+                .moveTo(0, FOOTER_HEIGHT - 0.75f)
+                .lineTo(CONTENT_WIDTH, FOOTER_HEIGHT - 0.75f)
+                .stroke()
+                .restoreState();
+
+        float contentTop = FOOTER_HEIGHT - 16.5f;
+        try (Canvas canvas = new Canvas(pdfCanvas, page.getPageSize())) {
+            canvas.showTextAligned(new Paragraph("Thank you for your business!").setFont(fonts.bold())
+                            .setFontSize(10.5f).setFontColor(BRAND_BLUE),
+                    0, contentTop, TextAlignment.LEFT, VerticalAlignment.TOP);
+            canvas.showTextAligned(new Paragraph("Questions? Contact us at support@company.com or +1-555-123-4567")
+                            .setFont(fonts.regular()).setFontSize(7.5f).setFontColor(SUBTLE_TEXT),
+                    0, contentTop - 16.5f, TextAlignment.LEFT, VerticalAlignment.TOP);
+            canvas.showTextAligned(new Paragraph("Page 1 of 1").setFont(fonts.regular()).setFontSize(7.5f)
+                            .setFontColor(FAINT_TEXT),
+                    CONTENT_WIDTH, contentTop, TextAlignment.RIGHT, VerticalAlignment.TOP);
+        }
+    }
+
+    static float detailRowMiddle(int row) {
+        return DETAILS_TOP + 6 + DETAIL_ROW_HEIGHT / 2 + row * DETAIL_ROW_HEIGHT;
+    }
+
+    private static Paragraph sectionHeading(String text, Fonts fonts) {
+        return new Paragraph(text).setFont(fonts.bold()).setFontSize(10.5f).setFontColor(BRAND_BLUE);
+    }
+
+    private static void fillRoundRectangle(PdfCanvas pdfCanvas, float x, float y, float width, float height,
+            float radius, Color color) {
+        pdfCanvas.saveState()
+                .setFillColor(color)
+                .roundRectangle(x, y, width, height, radius)
+                .fill()
+                .restoreState();
+    }
+
+    record Stamps(PdfFormXObject header, PdfFormXObject itemsHeader, PdfFormXObject footer) {
+    }
+
+    private static final class SharedHolder {
+        private static final InvoiceChrome INSTANCE = new InvoiceChrome();
+    }
+}
@@ -0,0 +1,15 @@
+package com.orderpdf.app.pdf.service;
+
+import com.orderpdf.app.common.dto.Order;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A backend that turns an order into invoice PDF bytes. Implementations must be safe to call from
+ * several threads at once.
+ */
+public interface InvoicePdfRenderer {
+
+    void render(Order order, OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,82 @@
+package com.orderpdf.app.pdf.service;
+
+import com.orderpdf.app.common.dto.Order;
+import com.orderpdf.app.common.dto.OrderLine;
+
+import java.text.NumberFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Derived invoice values shared by every renderer, so the HTML and layout backends print identical
+ * totals, dates and labels.
+ */
+record InvoiceValues(String formattedDate, String generationDate,
+        double subtotal, double taxAmount, double grandTotal) {
+
+    static final double TAX_RATE = 0.08;
+
+    // NumberFormat is not thread-safe and renderers run concurrently in batch mode
+    private static final ThreadLocal<NumberFormat> CURRENCY_FORMAT =
+            ThreadLocal.withInitial(() -> NumberFormat.getCurrencyInstance(Locale.US));
+    private static final DateTimeFormatter ORDER_DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+    private static final DateTimeFormatter GENERATION_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    static InvoiceValues of(Order order) {
+        double subtotal = order.lines().stream()
+                .mapToDouble(InvoiceValues::lineTotal)
+                .sum();
+        double taxAmount = subtotal * TAX_RATE;
+        double grandTotal = subtotal + taxAmount;
+
+        String formattedDate = order.createdAt()
+                .atOffset(ZoneOffset.UTC)
+                .format(ORDER_DATE_FORMAT);
+
+        return new InvoiceValues(formattedDate, LocalDateTime.now().format(GENERATION_DATE_FORMAT),
+                subtotal, taxAmount, grandTotal);
+    }
+
+    static double unitPrice(OrderLine line) {
+        return line.priceMinor() / 100.0;
+    }
+
+    static double lineTotal(OrderLine line) {
+        return unitPrice(line) * line.quantity();
+    }
+
+    static String formatCurrency(double amount) {
+        return CURRENCY_FORMAT.get().format(amount);
+    }
+
+    static String statusLabel(Order order) {
+        return order.status() != null ? order.status().toUpperCase() : "CONFIRMED";
+    }
+
+    static String priorityLabel(Order order) {
+        return order.priority() != null ? order.priority().toUpperCase() : "NORMAL";
+    }
+
+    static int processingTime(Order order) {
+        return order.processingTime() != null ? order.processingTime() : 0;
+    }
+
+    /**
+     * Shipping address split on commas into display lines; empty when the customer has no address.
+     */
+    static List<String> addressLines(Order order) {
+        String address = order.customer().address();
+        if (address == null || address.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(address.split(",")).map(String::trim).toList();
+    }
+
+    static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,349 @@
+package com.orderpdf.app.pdf.service;
+
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Div;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.element.Text;
+import com.itextpdf.layout.properties.BorderRadius;
+import com.itextpdf.layout.properties.HorizontalAlignment;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import com.itextpdf.layout.properties.VerticalAlignment;
+import com.orderpdf.app.common.dto.Order;
+import com.orderpdf.app.common.dto.OrderLine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.orderpdf.app.pdf.service.InvoiceValues.formatCurrency;
+import static com.orderpdf.app.pdf.service.InvoiceValues.nullToEmpty;
+
+/**
+ * Draws the standard invoice directly with iText's layout API, skipping HTML parsing and CSS
+ * resolution. The geometry mirrors {@code invoice-template.html} (CSS px converted at 0.75pt/px);
+ * custom templates are not supported and must use {@link HtmlInvoicePdfRenderer}.
+ */
+public class LayoutInvoicePdfRenderer implements InvoicePdfRenderer {
+
+    static final float PAGE_MARGIN = 56.7f; // 20mm
+    static final Color BRAND_BLUE = new DeviceRgb(0x29, 0x80, 0xb9);
+    static final Color TEXT_COLOR = new DeviceRgb(0x33, 0x33, 0x33);
+    static final Color MUTED_TEXT = new DeviceRgb(0x55, 0x55, 0x55);
+    static final Color SUBTLE_TEXT = new DeviceRgb(0x66, 0x66, 0x66);
+    static final Color FAINT_TEXT = new DeviceRgb(0x99, 0x99, 0x99);
+    static final Color SKU_TEXT = new DeviceRgb(0x2c, 0x3e, 0x50);
+    static final Color PANEL_BACKGROUND = new DeviceRgb(0xf8, 0xf9, 0xfa);
+    static final Color CHIP_BACKGROUND = new DeviceRgb(0xe9, 0xec, 0xef);
+    static final Color DETAIL_BORDER = new DeviceRgb(0xde, 0xe2, 0xe6);
+    static final Color RULE_COLOR = new DeviceRgb(0xe0, 0xe0, 0xe0);
+    static final Color HEADER_DIVIDER = new DeviceRgb(0x54, 0x99, 0xc7);
+
+    static final float[] ITEM_COLUMN_WIDTHS = {40, 15, 20, 25};
+    static final String[] ITEM_COLUMN_HEADINGS = {"ITEM / SKU", "QTY", "UNIT PRICE", "TOTAL"};
+
+    // Rows are flushed to the writer in chunks so very large orders do not keep the whole table in memory
+    private static final int ROW_FLUSH_INTERVAL = 50;
+
+    @Override
+    public void render(Order order, OutputStream outputStream) throws IOException {
+        InvoiceValues values = InvoiceValues.of(order);
+
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(outputStream));
+                Document document = new Document(pdfDocument, PageSize.A4)) {
+            Fonts fonts = Fonts.create();
+            document.setMargins(PAGE_MARGIN, PAGE_MARGIN, PAGE_MARGIN, PAGE_MARGIN);
+            document.setFont(fonts.regular()).setFontSize(9).setFontColor(TEXT_COLOR);
+
+            addContent(document, order, values, fonts);
+        }
+    }
+
+    /**
+     * Lays out every section of the invoice into {@code document}, whose margins and default font are
+     * already set.
+     */
+    void addContent(Document document, Order order, InvoiceValues values, Fonts fonts) {
+        document.add(header(order, values, fonts));
+        document.add(customerSection(order, fonts));
+        document.add(orderMeta(order));
+        addItemsTable(document, order, fonts, table -> addItemsHeader(table, fonts));
+        document.add(totals(values, fonts));
+        document.add(footer(order, values, fonts));
+    }
+
+    private void addItemsHeader(Table table, Fonts fonts) {
+        for (int column = 0; column < ITEM_COLUMN_HEADINGS.length; column++) {
+            table.addHeaderCell(new Cell()
+                    .add(new Paragraph(ITEM_COLUMN_HEADINGS[column]).setFont(fonts.bold()).setFontSize(9.75f)
+                            .setCharacterSpacing(0.375f)
+                            .setTextAlignment(column == 0 ? TextAlignment.LEFT : TextAlignment.RIGHT))
+                    .setFontColor(ColorConstants.WHITE)
+                    .setBackgroundColor(BRAND_BLUE)
+                    .setBorder(Border.NO_BORDER)
+                    .setBorderRight(column < ITEM_COLUMN_HEADINGS.length - 1
+                            ? new SolidBorder(HEADER_DIVIDER, 0.75f) : Border.NO_BORDER)
+                    .setPaddingTop(11.25f).setPaddingBottom(11.25f).setPaddingLeft(9).setPaddingRight(9));
+        }
+    }
+
+    private Div header(Order order, InvoiceValues values, Fonts fonts) {
+        Table logoAndTitle = new Table(UnitValue.createPointArray(new float[]{37.5f, 250}))
+                .setBorder(Border.NO_BORDER);
+        logoAndTitle.addCell(new Cell()
+                .add(new Paragraph("PDF").setFont(fonts.bold()).setFontSize(10.5f).setFontColor(ColorConstants.WHITE)
+                        .setTextAlignment(TextAlignment.CENTER))
+                .setHeight(37.5f)
+                .setVerticalAlignment(VerticalAlignment.MIDDLE)
+                .setBackgroundColor(BRAND_BLUE)
+                .setBorder(Border.NO_BORDER)
+                .setBorderRadius(new BorderRadius(6)));
+        logoAndTitle.addCell(new Cell()
+                .add(new Paragraph("ORDER INVOICE").setFont(fonts.bold()).setFontSize(24).setFontColor(BRAND_BLUE)
+                        .setCharacterSpacing(0.75f))
+                .setVerticalAlignment(VerticalAlignment.MIDDLE)
+                .setPaddingLeft(11.25f)
+                .setBorder(Border.NO_BORDER));
+
+        Table details = new Table(UnitValue.createPercentArray(new float[]{50, 50}))
+                .setWidth(210)
+                .setMarginTop(7.5f)
+                .setBackgroundColor(PANEL_BACKGROUND)
+                .setBorder(new SolidBorder(DETAIL_BORDER, 0.75f))
+                .setBorderRadius(new BorderRadius(6));
+        addDetailRow(details, "Order #:", nullToEmpty(order.orderId()), fonts);
+        addDetailRow(details, "Date:", values.formattedDate(), fonts);
+        addDetailRow(details, "Status:", InvoiceValues.statusLabel(order), fonts);
+        addDetailRow(details, "Priority:", InvoiceValues.priorityLabel(order), fonts);
+
+        Table columns = new Table(UnitValue.createPercentArray(new float[]{60, 40})).useAllAvailableWidth();
+        columns.addCell(new Cell().add(logoAndTitle).add(details).setBorder(Border.NO_BORDER).setPadding(0));
+        columns.addCell(new Cell()
+                .add(new Paragraph("INVOICE").setFont(fonts.bold()).setFontSize(21).setFontColor(BRAND_BLUE)
+                        .setTextAlignment(TextAlignment.RIGHT))
+                .setBorder(Border.NO_BORDER)
+                .setPadding(0));
+
+        return new Div()
+                .add(columns)
+                .setPaddingBottom(15)
+                .setMarginBottom(22.5f)
+                .setBorderBottom(new SolidBorder(RULE_COLOR, 1.5f));
+    }
+
+    private void addDetailRow(Table details, String label, String value, Fonts fonts) {
+        details.addCell(new Cell()
+                .add(new Paragraph(label).setFont(fonts.bold()).setFontColor(MUTED_TEXT))
+                .setBorder(Border.NO_BORDER)
+                .setPaddingLeft(11.25f));
+        details.addCell(new Cell()
+                .add(new Paragraph(value).setFont(fonts.bold()).setTextAlignment(TextAlignment.RIGHT))
+                .setBorder(Border.NO_BORDER)
+                .setPaddingRight(11.25f));
+    }
+
+    private Table customerSection(Order order, Fonts fonts) {
+        Cell billTo = new Cell().add(sectionHeading("BILL TO", fonts));
+        billToDetails(order, fonts).forEach(billTo::add);
+
+        Cell shipTo = new Cell().add(sectionHeading("SHIP TO", fonts));
+        shipToDetails(order, fonts).forEach(shipTo::add);
+
+        Table section = new Table(UnitValue.createPercentArray(new float[]{50, 50}))
+                .useAllAvailableWidth()
+                .setBackgroundColor(PANEL_BACKGROUND)
+                .setBorder(Border.NO_BORDER)
+                .setBorderRadius(new BorderRadius(7.5f))
+                .setMarginBottom(22.5f);
+        section.addCell(billTo.setBorder(Border.NO_BORDER).setPadding(18.75f).setPaddingRight(15));
+        section.addCell(shipTo.setBorder(Border.NO_BORDER).setPadding(18.75f).setPaddingLeft(15));
+        return section;
+    }
+
+    private Paragraph sectionHeading(String text, Fonts fonts) {
+        return new Paragraph(text).setFont(fonts.bold()).setFontSize(10.5f).setFontColor(BRAND_BLUE)
+                .setMarginBottom(11.25f);
+    }
+
+    List<Paragraph> billToDetails(Order order, Fonts fonts) {
+        List<Paragraph> details = new ArrayList<>();
+        details.add(new Paragraph(nullToEmpty(order.customer().name())).setFont(fonts.bold()).setFontSize(10.5f)
+                .setMarginBottom(6));
+        details.add(customerDetail(nullToEmpty(order.customer().email())));
+        String phone = order.customer().phone();
+        if (phone != null && !phone.isEmpty()) {
+            details.add(customerDetail("Tel: " + phone));
+        }
+        return details;
+    }
+
+    List<Paragraph> shipToDetails(Order order, Fonts fonts) {
+        List<String> addressLines = InvoiceValues.addressLines(order);
+        if (addressLines.isEmpty()) {
+            return List.of(customerDetail("Same as billing address").setFont(fonts.italic()).setFontColor(FAINT_TEXT));
+        }
+        return addressLines.stream().map(this::customerDetail).toList();
+    }
+
+    private Paragraph customerDetail(String text) {
+        return new Paragraph(text).setFontColor(MUTED_TEXT).setMarginBottom(4.5f);
+    }
+
+    Paragraph orderMeta(Order order) {
+        Paragraph meta = new Paragraph().setFontSize(8.25f).setFontColor(SUBTLE_TEXT).setMarginBottom(18.75f);
+        addMetaChip(meta, "Source: ", order.source(), true);
+        addMetaChip(meta, "Region: ", order.region(), true);
+        addMetaChip(meta, "Notes: ", order.notes(), false);
+        return meta;
+    }
+
+    private void addMetaChip(Paragraph meta, String label, String value, boolean upperCase) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        meta.add(new Text(label + (upperCase ? value.toUpperCase() : value))
+                .setBackgroundColor(CHIP_BACKGROUND, 9, 4.5f, 9, 4.5f));
+        meta.add(new Text("        "));
+    }
+
+    /**
+     * Streams the item rows into a large table whose header row, repeated on every page, is supplied
+     * by {@code header}.
+     */
+    void addItemsTable(Document document, Order order, Fonts fonts, Consumer<Table> header) {
+        Table table = new Table(UnitValue.createPercentArray(ITEM_COLUMN_WIDTHS), true)
+                .useAllAvailableWidth()
+                .setBorder(new SolidBorder(BRAND_BLUE, 1.5f))
+                .setMarginBottom(22.5f);
+
+        header.accept(table);
+        document.add(table);
+
+        List<OrderLine> lines = order.lines();
+        for (int row = 0; row < lines.size(); row++) {
+            OrderLine line = lines.get(row);
+            Color background = row % 2 == 1 ? PANEL_BACKGROUND : null;
+
+            table.addCell(itemCell(new Paragraph(nullToEmpty(line.sku())).setFont(fonts.bold()).setFontColor(SKU_TEXT)
+                    .setTextAlignment(TextAlignment.LEFT), background, false));
+            table.addCell(itemCell(numeric(Integer.toString(line.quantity())), background, false));
+            table.addCell(itemCell(numeric(formatCurrency(InvoiceValues.unitPrice(line))), background, false));
+            table.addCell(itemCell(numeric(formatCurrency(InvoiceValues.lineTotal(line))), background, true));
+
+            if ((row + 1) % ROW_FLUSH_INTERVAL == 0) {
+                table.flush();
+            }
+        }
+        table.complete();
+    }
+
+    private Paragraph numeric(String text) {
+        return new Paragraph(text).setTextAlignment(TextAlignment.RIGHT);
+    }
+
+    private Cell itemCell(Paragraph content, Color background, boolean lastColumn) {
+        Cell cell = new Cell()
+                .add(content)
+                .setPadding(9)
+                .setVerticalAlignment(VerticalAlignment.MIDDLE)
+                .setBorder(Border.NO_BORDER)
+                .setBorderBottom(new SolidBorder(CHIP_BACKGROUND, 0.75f))
+                .setBorderRight(lastColumn ? Border.NO_BORDER : new SolidBorder(CHIP_BACKGROUND, 0.75f));
+        if (background != null) {
+            cell.setBackgroundColor(background);
+        }
+        return cell;
+    }
+
+    Table totals(InvoiceValues values, Fonts fonts) {
+        Table totals = new Table(UnitValue.createPercentArray(new float[]{60, 40}))
+                .setWidth(262.5f)
+                .setHorizontalAlignment(HorizontalAlignment.RIGHT)
+                .setBorder(new SolidBorder(CHIP_BACKGROUND, 0.75f))
+                .setBorderRadius(new BorderRadius(6))
+                .setMarginBottom(30);
+
+        addTotalRow(totals, "Subtotal:", formatCurrency(values.subtotal()), fonts, false);
+        addTotalRow(totals, "Tax (8%):", formatCurrency(values.taxAmount()), fonts, false);
+        addTotalRow(totals, "TOTAL:", formatCurrency(values.grandTotal()), fonts, true);
+        return totals;
+    }
+
+    private void addTotalRow(Table totals, String label, String value, Fonts fonts, boolean grandTotal) {
+        Cell labelCell = new Cell().add(new Paragraph(label).setFont(fonts.bold()));
+        Cell valueCell = new Cell().add(new Paragraph(value).setFont(fonts.bold()).setTextAlignment(TextAlignment.RIGHT));
+
+        for (Cell cell : new Cell[]{labelCell, valueCell}) {
+            cell.setBorder(Border.NO_BORDER)
+                    .setPaddingTop(9).setPaddingBottom(9).setPaddingLeft(15).setPaddingRight(15);
+            if (grandTotal) {
+                cell.setBackgroundColor(BRAND_BLUE).setFontColor(ColorConstants.WHITE).setFontSize(12);
+            } else {
+                cell.setBorderBottom(new SolidBorder(CHIP_BACKGROUND, 0.75f));
+            }
+            totals.addCell(cell);
+        }
+    }
+
+    private Div footer(Order order, InvoiceValues values, Fonts fonts) {
+        Table content = new Table(UnitValue.createPercentArray(new float[]{70, 30})).useAllAvailableWidth()
+                .setMarginBottom(15);
+        content.addCell(new Cell()
+                .add(new Paragraph("Thank you for your business!").setFont(fonts.bold()).setFontSize(10.5f)
+                        .setFontColor(BRAND_BLUE).setMarginBottom(3.75f))
+                .add(new Paragraph("Questions? Contact us at support@company.com or +1-555-123-4567")
+                        .setFontSize(7.5f).setFontColor(SUBTLE_TEXT))
+                .setBorder(Border.NO_BORDER)
+                .setPadding(0));
+        content.addCell(new Cell()
+                .add(new Paragraph("Page 1 of 1").setFontSize(7.5f).setFontColor(FAINT_TEXT)
+                        .setTextAlignment(TextAlignment.RIGHT))
+                .setBorder(Border.NO_BORDER)
+                .setPadding(0));
+
+        return new Div()
+                .add(content)
+                .add(processingInfo(order, values))
+                .setMarginTop(37.5f)
+                .setPaddingTop(15)
+                .setBorderTop(new SolidBorder(RULE_COLOR, 1.5f));
+    }
+
+    Paragraph processingInfo(Order order, InvoiceValues values) {
+        return new Paragraph("Generated on %s | Order ID: %s | Processing Time: %dms".formatted(
+                values.generationDate(), nullToEmpty(order.orderId()), InvoiceValues.processingTime(order)))
+                .setFontSize(6.75f)
+                .setFontColor(FAINT_TEXT)
+                .setTextAlignment(TextAlignment.CENTER)
+                .setPaddingTop(7.5f)
+                .setBorderTop(new SolidBorder(CHIP_BACKGROUND, 0.75f));
+    }
+
+    /**
+     * Standard Type 1 fonts need no embedding, but a {@link PdfFont} is bound to one document, so a
+     * fresh set is created per invoice.
+     */
+    record Fonts(PdfFont regular, PdfFont bold, PdfFont italic) {
+        static Fonts create() throws IOException {
+            return new Fonts(
+                    PdfFontFactory.createFont(StandardFonts.HELVETICA),
+                    PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD),
+                    PdfFontFactory.createFont(StandardFonts.HELVETICA_OBLIQUE));
+        }
+    }
+}
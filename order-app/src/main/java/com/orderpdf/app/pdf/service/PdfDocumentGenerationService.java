@@ -1,31 +1,50 @@
 package com.orderpdf.app.pdf.service;
 
-import com.itextpdf.html2pdf.HtmlConverter;
 import com.orderpdf.app.common.dto.Order;
+import com.orderpdf.app.common.metrics.InvoiceMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 public class PdfDocumentGenerationService {
     private static final Logger logger = LoggerFactory.getLogger(PdfDocumentGenerationService.class);
-    private final HtmlTemplateService htmlTemplateService;
+
+    private static final int DEFAULT_STREAM_BUFFER_BYTES = 64 * 1024;
+
+    private final InvoicePdfRenderer renderer;
 
     public PdfDocumentGenerationService() {
-        this.htmlTemplateService = new HtmlTemplateService();
+        this(createRenderer(
+                System.getenv().getOrDefault("PDF_RENDERER", "HTML"),
+                System.getenv().getOrDefault("INVOICE_TEMPLATE_PATH", HtmlTemplateService.DEFAULT_TEMPLATE_PATH)));
     }
 
-    public byte[] generatePdfDocument(Order order) throws IOException {
-        try {
-            // Generate HTML from template
-            String html = htmlTemplateService.generateInvoiceHtml(order);
+    // Constructor for testing with dependency injection
+    public PdfDocumentGenerationService(InvoicePdfRenderer renderer) {
+        this.renderer = renderer;
+    }
 
-            // Convert HTML to PDF using iText
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            HtmlConverter.convertToPdf(html, outputStream);
+    public byte[] generatePdfDocument(Order order) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        generatePdfDocument(order, outputStream);
+        return outputStream.toByteArray();
+    }
 
-            return outputStream.toByteArray();
+    /**
+     * Renders the invoice into {@code outputStream}, recording the render time and PDF size on the
+     * invoice bound to this thread, if any.
+     */
+    public void generatePdfDocument(Order order, OutputStream outputStream) throws IOException {
+        long startNanos = System.nanoTime();
+        try {
+            CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+            renderer.render(order, countingStream);
+            InvoiceMetrics.recordCurrentStage(InvoiceMetrics.Stage.RENDER, System.nanoTime() - startNanos);
+            InvoiceMetrics.recordCurrentPdfBytes(countingStream.count);
 
         } catch (Exception e) {
             logger.error("Failed to generate PDF for order: {}", order.orderId(), e);
@@ -33,4 +52,67 @@ public class PdfDocumentGenerationService {
         }
     }
 
+    /**
+     * Picks the backend named by {@code PDF_RENDERER}. A custom template can only be honoured by the
+     * HTML backend, so it wins over a LAYOUT selection.
+     */
+    static InvoicePdfRenderer createRenderer(String rendererName, String templatePath) {
+        HtmlTemplateService templateService = new HtmlTemplateService(templatePath);
+        String renderer = rendererName.toUpperCase();
+
+        if (!templateService.usesDefaultTemplate() && !renderer.equals("HTML")) {
+            logger.warn("PDF_RENDERER={} ignored because custom template {} requires the HTML renderer",
+                    rendererName, templatePath);
+            renderer = "HTML";
+        }
+
+        return switch (renderer) {
+            case "LAYOUT" -> {
+                logger.info("Using layout PDF renderer");
+                yield new LayoutInvoicePdfRenderer();
+            }
+            case "STAMPED" -> {
+                logger.info("Using stamped PDF renderer");
+                yield new StampedInvoicePdfRenderer();
+            }
+            case "HTML" -> createHtmlRenderer(templateService);
+            default -> {
+                logger.warn("Unknown PDF_RENDERER: {}, falling back to HTML", rendererName);
+                yield createHtmlRenderer(templateService);
+            }
+        };
+    }
+
+    private static InvoicePdfRenderer createHtmlRenderer(HtmlTemplateService templateService) {
+        HtmlConverterContext converterContext = HtmlConverterContext.shared();
+        if (Boolean.parseBoolean(System.getenv().getOrDefault("PDF_CONVERTER_WARM_UP", "true"))) {
+            converterContext.warmUp();
+        }
+
+        return new HtmlInvoicePdfRenderer(templateService,
+                converterContext,
+                Boolean.parseBoolean(System.getenv().getOrDefault("PDF_STREAM_HTML", "false")),
+                Integer.parseInt(System.getenv().getOrDefault("PDF_STREAM_BUFFER_BYTES",
+                        String.valueOf(DEFAULT_STREAM_BUFFER_BYTES))));
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
 }
@@ -0,0 +1,189 @@
+package com.orderpdf.app.pdf.service;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.layout.Canvas;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Div;
+import com.itextpdf.layout.element.Image;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.layout.LayoutArea;
+import com.itextpdf.layout.layout.LayoutContext;
+import com.itextpdf.layout.layout.LayoutResult;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.VerticalAlignment;
+import com.itextpdf.layout.renderer.DrawContext;
+import com.itextpdf.layout.renderer.IRenderer;
+import com.orderpdf.app.common.dto.Order;
+import com.orderpdf.app.pdf.service.InvoiceChrome.Stamps;
+import com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer.Fonts;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.orderpdf.app.pdf.service.InvoiceChrome.BILL_TO_X;
+import static com.orderpdf.app.pdf.service.InvoiceChrome.CUSTOMER_COLUMN_WIDTH;
+import static com.orderpdf.app.pdf.service.InvoiceChrome.CUSTOMER_DETAILS_TOP;
+import static com.orderpdf.app.pdf.service.InvoiceChrome.DETAILS_PADDING;
+import static com.orderpdf.app.pdf.service.InvoiceChrome.DETAIL_LABELS;
+import static com.orderpdf.app.pdf.service.InvoiceChrome.DETAILS_WIDTH;
+import static com.orderpdf.app.pdf.service.InvoiceChrome.HEADER_HEIGHT;
+import static com.orderpdf.app.pdf.service.InvoiceChrome.PANEL_HEIGHT;
+import static com.orderpdf.app.pdf.service.InvoiceChrome.PANEL_PADDING;
+import static com.orderpdf.app.pdf.service.InvoiceChrome.PANEL_TOP;
+import static com.orderpdf.app.pdf.service.InvoiceChrome.SHIP_TO_X;
+import static com.orderpdf.app.pdf.service.InvoiceChrome.detailRowMiddle;
+import static com.orderpdf.app.pdf.service.InvoiceChrome.fromTop;
+import static com.orderpdf.app.pdf.service.InvoiceValues.nullToEmpty;
+import static com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer.ITEM_COLUMN_WIDTHS;
+import static com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer.PAGE_MARGIN;
+import static com.orderpdf.app.pdf.service.LayoutInvoicePdfRenderer.TEXT_COLOR;
+
+/**
+ * Layout renderer variant that stamps the pre-drawn {@link InvoiceChrome} (header band, logo,
+ * detail box, customer panel, item column headings, footer) as shared form XObjects and only lays
+ * out the order's own values on top. Items, totals and the footer still flow, so long orders page
+ * exactly as in {@link LayoutInvoicePdfRenderer}. An order whose details do not fit beside their
+ * stamped labels, or whose customer details do not fit the stamped panel, is laid out in full by the
+ * same sections instead of being cut short or overprinted.
+ */
+public class StampedInvoicePdfRenderer implements InvoicePdfRenderer {
+
+    private static final float CUSTOMER_DETAILS_HEIGHT = PANEL_TOP + PANEL_HEIGHT - PANEL_PADDING - CUSTOMER_DETAILS_TOP;
+    private static final float DETAIL_FONT_SIZE = 9;
+    private static final float DETAIL_LABEL_GAP = 6;
+
+    private final LayoutInvoicePdfRenderer sections = new LayoutInvoicePdfRenderer();
+    private final InvoiceChrome chrome;
+
+    public StampedInvoicePdfRenderer() {
+        this(InvoiceChrome.shared());
+    }
+
+    StampedInvoicePdfRenderer(InvoiceChrome chrome) {
+        this.chrome = chrome;
+    }
+
+    @Override
+    public void render(Order order, OutputStream outputStream) throws IOException {
+        InvoiceValues values = InvoiceValues.of(order);
+
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(outputStream));
+                Document document = new Document(pdfDocument, PageSize.A4)) {
+            Fonts fonts = Fonts.create();
+            document.setMargins(PAGE_MARGIN, PAGE_MARGIN, PAGE_MARGIN, PAGE_MARGIN);
+            document.setFont(fonts.regular()).setFontSize(9).setFontColor(TEXT_COLOR);
+
+            // The document lays out onto this page once flowing content starts
+            Stamps stamps = stampHeader(pdfDocument.addNewPage(PageSize.A4), order, values, fonts);
+            if (stamps == null) {
+                sections.addContent(document, order, values, fonts);
+                return;
+            }
+
+            // Reserve the header area the stamp and the order's values already fill
+            document.add(new Div().setHeight(HEADER_HEIGHT - PAGE_MARGIN));
+            document.add(sections.orderMeta(order));
+            sections.addItemsTable(document, order, fonts, table -> table.addHeaderCell(
+                    new Cell(1, ITEM_COLUMN_WIDTHS.length)
+                            .add(new Image(stamps.itemsHeader()).setAutoScaleWidth(true))
+                            .setBorder(Border.NO_BORDER)
+                            .setPadding(0)));
+            document.add(sections.totals(values, fonts));
+            document.add(new Div()
+                    .add(new Image(stamps.footer()))
+                    .add(sections.processingInfo(order, values))
+                    .setMarginTop(37.5f)
+                    .setKeepTogether(true));
+        }
+    }
+
+    /**
+     * Stamps the chrome onto page one and fills in the order's values. The detail box and the customer
+     * panel have a fixed size on the stamp, so the details are measured and both customer columns are
+     * laid out before anything is drawn; if any of them does not fit, nothing is stamped and
+     * {@code null} is returned so the caller can lay the whole invoice out instead.
+     */
+    private Stamps stampHeader(PdfPage page, Order order, InvoiceValues values, Fonts fonts) throws IOException {
+        String[] details = {
+                nullToEmpty(order.orderId()),
+                values.formattedDate(),
+                InvoiceValues.statusLabel(order),
+                InvoiceValues.priorityLabel(order)
+        };
+        if (!detailsFit(details, fonts)) {
+            return null;
+        }
+
+        try (Canvas canvas = new Canvas(page, page.getPageSize())) {
+            canvas.setFont(fonts.regular()).setFontSize(9).setFontColor(TEXT_COLOR);
+
+            List<IRenderer> billTo = layoutCustomerColumn(canvas, BILL_TO_X, sections.billToDetails(order, fonts));
+            List<IRenderer> shipTo = layoutCustomerColumn(canvas, SHIP_TO_X, sections.shipToDetails(order, fonts));
+            if (billTo == null || shipTo == null) {
+                return null;
+            }
+
+            Stamps stamps = chrome.importInto(page.getDocument());
+            // Drawn beneath the page content so it behaves as a background
+            new PdfCanvas(page.newContentStreamBefore(), page.getResources(), page.getDocument())
+                    .addXObjectAt(stamps.header(), 0, 0);
+
+            for (int row = 0; row < details.length; row++) {
+                canvas.showTextAligned(new Paragraph(details[row]).setFont(fonts.bold()).setFontSize(DETAIL_FONT_SIZE),
+                        PAGE_MARGIN + DETAILS_WIDTH - DETAILS_PADDING, fromTop(detailRowMiddle(row)),
+                        TextAlignment.RIGHT, VerticalAlignment.MIDDLE);
+            }
+
+            DrawContext drawContext = new DrawContext(canvas.getPdfDocument(), canvas.getPdfCanvas());
+            billTo.forEach(renderer -> renderer.draw(drawContext));
+            shipTo.forEach(renderer -> renderer.draw(drawContext));
+            return stamps;
+        }
+    }
+
+    /**
+     * Whether every detail value fits on its row between the stamped label and the box's right padding.
+     */
+    private static boolean detailsFit(String[] details, Fonts fonts) {
+        float rowWidth = DETAILS_WIDTH - 2 * DETAILS_PADDING;
+        for (int row = 0; row < details.length; row++) {
+            float labelWidth = fonts.bold().getWidth(DETAIL_LABELS[row], DETAIL_FONT_SIZE);
+            float valueWidth = fonts.bold().getWidth(details[row], DETAIL_FONT_SIZE);
+            if (labelWidth + DETAIL_LABEL_GAP + valueWidth > rowWidth) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lays each line out below the previous one inside the column, returning the laid-out renderers,
+     * or {@code null} as soon as a line does not fit.
+     */
+    private List<IRenderer> layoutCustomerColumn(Canvas canvas, float left, List<Paragraph> details) {
+        float bottom = fromTop(CUSTOMER_DETAILS_TOP + CUSTOMER_DETAILS_HEIGHT);
+        float remaining = CUSTOMER_DETAILS_HEIGHT;
+        List<IRenderer> renderers = new ArrayList<>(details.size());
+
+        for (Paragraph detail : details) {
+            IRenderer renderer = detail.setMarginTop(0).createRendererSubTree().setParent(canvas.getRenderer());
+            LayoutResult result = renderer.layout(new LayoutContext(
+                    new LayoutArea(1, new Rectangle(left, bottom, CUSTOMER_COLUMN_WIDTH, remaining))));
+            if (result.getStatus() != LayoutResult.FULL) {
+                return null;
+            }
+            renderers.add(renderer);
+            remaining -= result.getOccupiedArea().getBBox().getHeight();
+        }
+        return renderers;
+    }
+}
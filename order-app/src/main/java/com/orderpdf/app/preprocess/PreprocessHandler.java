@@ -2,25 +2,38 @@ package com.orderpdf.app.preprocess;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.orderpdf.app.common.dto.OrderItem;
+import com.orderpdf.app.common.dto.OrderKey;
 import com.orderpdf.app.common.dto.PreprocessOutput;
+import com.orderpdf.app.common.metrics.EmfMetricsLogger;
+import com.orderpdf.app.common.service.PriorityLaneService;
+import com.orderpdf.app.common.util.ResourceUsage;
 import com.orderpdf.app.preprocess.service.DynamoDBMessageParsingService;
+import com.orderpdf.app.preprocess.service.OrderItemCoalescingService;
 import com.orderpdf.app.preprocess.service.OrderProcessingEligibilityService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class PreprocessHandler implements RequestHandler<SQSEvent, PreprocessOutput> {
     private static final Logger logger = LoggerFactory.getLogger(PreprocessHandler.class);
     
     private final DynamoDBMessageParsingService messageParsingService;
     private final OrderProcessingEligibilityService eligibilityService;
+    private final OrderItemCoalescingService coalescingService;
+    private final EmfMetricsLogger metricsLogger;
+    private final PriorityLaneService priorityLaneService;
+    private final Map<PriorityLaneService.Lane, EmfMetricsLogger> laneMetricsLoggers;
 
     public PreprocessHandler() {
         ObjectMapper objectMapper = new ObjectMapper();
@@ -28,38 +41,165 @@ public class PreprocessHandler implements RequestHandler<SQSEvent, PreprocessOut
         
         String reprocessPolicy = System.getenv().getOrDefault("REPROCESS_POLICY", "FIRST_TIME_ONLY");
         
-        this.messageParsingService = new DynamoDBMessageParsingService(objectMapper);
+        int maxPassthroughImageBytes = Integer.parseInt(
+            System.getenv().getOrDefault("ORDER_IMAGE_PASSTHROUGH_MAX_BYTES", "65536"));
+
+        // Fingerprinting reads the invoice fields of both images, and the previous PDF key may come after
+        // the line items, so only pay for either when the policy uses it
+        this.messageParsingService = new DynamoDBMessageParsingService(objectMapper, maxPassthroughImageBytes,
+            "URL_CHANGED".equals(reprocessPolicy), "FIRST_TIME_ONLY".equals(reprocessPolicy));
         this.eligibilityService = new OrderProcessingEligibilityService(reprocessPolicy);
+        this.coalescingService = new OrderItemCoalescingService();
+        this.metricsLogger = EmfMetricsLogger.forService("preprocess");
+        this.priorityLaneService = new PriorityLaneService();
+        this.laneMetricsLoggers = PriorityLaneService.metricsLoggersByLane(metricsLogger);
     }
 
     // Constructor for testing with dependency injection
     public PreprocessHandler(DynamoDBMessageParsingService messageParsingService, 
                            OrderProcessingEligibilityService eligibilityService) {
+        this(messageParsingService, eligibilityService, new OrderItemCoalescingService(),
+            EmfMetricsLogger.forService("preprocess"));
+    }
+
+    // Constructor for testing with dependency injection
+    public PreprocessHandler(DynamoDBMessageParsingService messageParsingService, 
+                           OrderProcessingEligibilityService eligibilityService,
+                           OrderItemCoalescingService coalescingService,
+                           EmfMetricsLogger metricsLogger) {
+        this(messageParsingService, eligibilityService, coalescingService, metricsLogger,
+            new PriorityLaneService(PriorityLaneService.DEFAULT_FAST_LANE_PRIORITIES));
+    }
+
+    // Constructor for testing with dependency injection
+    public PreprocessHandler(DynamoDBMessageParsingService messageParsingService, 
+                           OrderProcessingEligibilityService eligibilityService,
+                           OrderItemCoalescingService coalescingService,
+                           EmfMetricsLogger metricsLogger,
+                           PriorityLaneService priorityLaneService) {
         this.messageParsingService = messageParsingService;
         this.eligibilityService = eligibilityService;
+        this.coalescingService = coalescingService;
+        this.metricsLogger = metricsLogger;
+        this.priorityLaneService = priorityLaneService;
+        this.laneMetricsLoggers = PriorityLaneService.metricsLoggersByLane(metricsLogger);
     }
 
     @Override
     public PreprocessOutput handleRequest(SQSEvent sqsEvent, Context lambdaContext) {
+        PreprocessResult result = preprocess(sqsEvent, false);
+
+        // Fast-lane orders are returned separately so they can be delivered without waiting for bulk ones
+        List<OrderItem> bulkItems = new ArrayList<>();
+        List<OrderItem> priorityItems = new ArrayList<>();
+        Instant now = Instant.now();
+        for (OrderItem orderItem : result.eligibleOrderItems()) {
+            PriorityLaneService.Lane lane = priorityLaneService.laneOf(orderItem.priority());
+            (lane == PriorityLaneService.Lane.FAST ? priorityItems : bulkItems).add(orderItem);
+            recordLaneMetrics(lane, orderItem, now);
+        }
+        laneMetricsLoggers.values().forEach(EmfMetricsLogger::flush);
+
+        logger.info("Routed {} orders to the fast lane and {} to the bulk lane", priorityItems.size(), bulkItems.size());
+        return new PreprocessOutput(bulkItems, priorityItems, now);
+    }
+
+    private void recordLaneMetrics(PriorityLaneService.Lane lane, OrderItem orderItem, Instant now) {
+        EmfMetricsLogger laneMetrics = laneMetricsLoggers.get(lane);
+        laneMetrics.putMetric("RoutedOrders", 1, EmfMetricsLogger.Unit.COUNT);
+        Instant recordCreatedAt = orderItem.streamRecordCreatedAt();
+        if (recordCreatedAt != null) {
+            laneMetrics.putSample("RecordAge", Duration.between(recordCreatedAt, now).toMillis(),
+                EmfMetricsLogger.Unit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Partial batch response entry point ({@code PreprocessHandler::handleRequestWithBatchResponse}) for
+     * an SQS event source mapping with {@code ReportBatchItemFailures}. Messages that fail to parse or to
+     * check, including ones that are not valid JSON, are returned as {@code batchItemFailures} so SQS
+     * redelivers only those instead of the whole batch. Superseded records for an order share the outcome
+     * of the record that replaced them. Nothing is rendered here.
+     */
+    public SQSBatchResponse handleRequestWithBatchResponse(SQSEvent sqsEvent, Context lambdaContext) {
+        PreprocessResult result = preprocess(sqsEvent, true);
+
+        List<SQSBatchResponse.BatchItemFailure> batchItemFailures = result.failedMessageIds().stream()
+            .map(SQSBatchResponse.BatchItemFailure::new)
+            .toList();
+        return new SQSBatchResponse(batchItemFailures);
+    }
+
+    private PreprocessResult preprocess(SQSEvent sqsEvent, boolean reportMalformedMessages) {
         logger.info("Processing {} SQS messages", sqsEvent.getRecords().size());
+        ResourceUsage usageBefore = ResourceUsage.currentThread();
         
-        List<OrderItem> eligibleOrderItems = new ArrayList<>();
+        List<OrderItem> parsedOrderItems = new ArrayList<>();
+        Map<OrderKey, List<String>> messageIdsByOrder = new LinkedHashMap<>();
+        List<String> failedMessageIds = new ArrayList<>();
         
         for (SQSEvent.SQSMessage sqsMessage : sqsEvent.getRecords()) {
             try {
-                OrderItem orderItem = messageParsingService.parseOrderItemFromMessage(sqsMessage.getBody());
-                if (orderItem != null && eligibilityService.shouldProcessOrder(orderItem)) {
+                OrderItem orderItem = reportMalformedMessages
+                    ? messageParsingService.parseOrderItem(sqsMessage.getBody())
+                    : messageParsingService.parseOrderItemFromMessage(sqsMessage.getBody());
+                if (orderItem != null) {
+                    String sentTimestamp = sqsMessage.getAttributes() != null
+                        ? sqsMessage.getAttributes().get("SentTimestamp")
+                        : null;
+                    if (sentTimestamp != null) {
+                        orderItem = orderItem.withHopTimestamps(sentTimestamp, orderItem.executionStartTime());
+                    }
+                    parsedOrderItems.add(orderItem);
+                    messageIdsByOrder.computeIfAbsent(OrderKey.of(orderItem), key -> new ArrayList<>())
+                        .add(sqsMessage.getMessageId());
+                }
+            } catch (Exception exception) {
+                logger.error("Failed to process SQS message: {}", sqsMessage.getMessageId(), exception);
+                failedMessageIds.add(sqsMessage.getMessageId());
+            }
+        }
+
+        // Only the latest record per order needs a render; earlier ones in the batch are superseded
+        List<OrderItem> latestOrderItems = coalescingService.coalesce(parsedOrderItems);
+        int coalescedRecords = parsedOrderItems.size() - latestOrderItems.size();
+        if (coalescedRecords > 0) {
+            logger.info("Coalesced {} stream records superseded by a later record for the same order", coalescedRecords);
+        }
+        metricsLogger.putMetric("CoalescedRecords", coalescedRecords, EmfMetricsLogger.Unit.COUNT);
+
+        List<OrderItem> eligibleOrderItems = new ArrayList<>();
+        for (OrderItem orderItem : latestOrderItems) {
+            try {
+                if (eligibilityService.shouldProcessOrder(orderItem)) {
                     eligibleOrderItems.add(orderItem);
                     logger.info("Added eligible order item for processing: orderId={}", orderItem.orderId());
                 }
             } catch (Exception exception) {
-                logger.error("Failed to process SQS message: {}", sqsMessage.getMessageId(), exception);
+                List<String> orderMessageIds = messageIdsByOrder.get(OrderKey.of(orderItem));
+                logger.error("Failed to process SQS messages: {}", orderMessageIds, exception);
+                failedMessageIds.addAll(orderMessageIds);
             }
         }
         
-        logger.info("Preprocessed {} eligible items out of {} total messages", 
-            eligibleOrderItems.size(), sqsEvent.getRecords().size());
+        logger.info("Preprocessed {} eligible items out of {} total messages, {} failed", 
+            eligibleOrderItems.size(), sqsEvent.getRecords().size(), failedMessageIds.size());
+        recordResourceUsage(ResourceUsage.currentThread().since(usageBefore), sqsEvent.getRecords().size());
         
-        return new PreprocessOutput(eligibleOrderItems, Instant.now());
+        return new PreprocessResult(eligibleOrderItems, failedMessageIds);
+    }
+
+    private void recordResourceUsage(ResourceUsage resourceUsage, int messageCount) {
+        logger.info("Preprocessing {} messages allocated {} bytes, {} GCs taking {} ms",
+            messageCount, resourceUsage.allocatedBytes(), resourceUsage.gcCount(), resourceUsage.gcTimeMillis());
+        if (resourceUsage.allocatedBytes() >= 0) {
+            metricsLogger.putMetric("AllocatedBytes", resourceUsage.allocatedBytes(), EmfMetricsLogger.Unit.BYTES);
+        }
+        metricsLogger.putMetric("GcCount", resourceUsage.gcCount(), EmfMetricsLogger.Unit.COUNT);
+        metricsLogger.putMetric("GcTime", resourceUsage.gcTimeMillis(), EmfMetricsLogger.Unit.MILLISECONDS);
+        metricsLogger.flush();
+    }
+
+    private record PreprocessResult(List<OrderItem> eligibleOrderItems, List<String> failedMessageIds) {
     }
 }
\ No newline at end of file
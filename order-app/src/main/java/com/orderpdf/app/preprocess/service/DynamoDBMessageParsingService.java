@@ -1,72 +1,336 @@
 package com.orderpdf.app.preprocess.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.orderpdf.app.common.dto.OrderItem;
+import com.orderpdf.app.common.jfr.StreamParseEvent;
+import com.orderpdf.app.common.util.InvoiceFingerprint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Extracts the order keys from a DynamoDB stream record with a token-streaming parser. Only the
+ * {@code dynamodb.NewImage} object is inspected; everything else, including the line items, is skipped
+ * without being materialised. Once the record's {@code SequenceNumber} and
+ * {@code ApproximateCreationDateTime} have been read, parsing stops as soon as the image has yielded
+ * {@code pk}, {@code sk}, {@code orderId}, {@code priority} and, when the caller needs it,
+ * {@code pdf.s3Key}. Attributes come in no fixed order, so an image without a {@code priority} is read
+ * to its end before the order is sent to the bulk lane.
+ *
+ * <p>When invoice fingerprinting is enabled, the invoice attributes of {@code NewImage} and
+ * {@code OldImage} are read as well, and their {@link InvoiceFingerprint}s are set on the item.
+ */
 public class DynamoDBMessageParsingService {
     private static final Logger logger = LoggerFactory.getLogger(DynamoDBMessageParsingService.class);
 
+    private static final TypeReference<Map<String, Object>> IMAGE_TYPE = new TypeReference<>() {
+    };
+
     private final ObjectMapper objectMapper;
+    private final int maxPassthroughImageBytes;
+    private final boolean fingerprintInvoices;
+    private final boolean readPreviousPdfKey;
 
     public DynamoDBMessageParsingService(ObjectMapper objectMapper) {
+        this(objectMapper, 0);
+    }
+
+    public DynamoDBMessageParsingService(ObjectMapper objectMapper, int maxPassthroughImageBytes) {
+        this(objectMapper, maxPassthroughImageBytes, false);
+    }
+
+    /**
+     * @param maxPassthroughImageBytes messages up to this size keep their {@code NewImage} on the
+     *                                 parsed item so the PDF can be rendered without a table read;
+     *                                 larger ones fall back to {@code GetItem}. 0 disables it.
+     * @param fingerprintInvoices      whether to fingerprint the invoice fields of the new and old
+     *                                 images, for the {@code URL_CHANGED} reprocess policy
+     */
+    public DynamoDBMessageParsingService(ObjectMapper objectMapper, int maxPassthroughImageBytes,
+            boolean fingerprintInvoices) {
+        this(objectMapper, maxPassthroughImageBytes, fingerprintInvoices, true);
+    }
+
+    /**
+     * @param readPreviousPdfKey whether the image must be read until its {@code pdf} attribute, for the
+     *                           {@code FIRST_TIME_ONLY} reprocess policy. Without it, parsing can stop
+     *                           before an image that has no {@code pdf} attribute ends.
+     */
+    public DynamoDBMessageParsingService(ObjectMapper objectMapper, int maxPassthroughImageBytes,
+            boolean fingerprintInvoices, boolean readPreviousPdfKey) {
         this.objectMapper = objectMapper;
+        this.maxPassthroughImageBytes = maxPassthroughImageBytes;
+        this.fingerprintInvoices = fingerprintInvoices;
+        this.readPreviousPdfKey = readPreviousPdfKey;
     }
 
     public OrderItem parseOrderItemFromMessage(String messageBody) {
         try {
-            JsonNode rootNode = objectMapper.readTree(messageBody);
+            return parseOrderItem(messageBody);
+        } catch (Exception exception) {
+            logger.error("Failed to parse order item from message body", exception);
+            return null;
+        }
+    }
 
-            JsonNode dynamoDBNode = rootNode.path("dynamodb");
-            if (dynamoDBNode.isMissingNode()) {
+    /**
+     * Like {@link #parseOrderItemFromMessage}, but throws when the message is not valid JSON, so
+     * callers can report it as a failed message instead of dropping it. Records that are valid but not
+     * orders still return null.
+     */
+    public OrderItem parseOrderItem(String messageBody) throws IOException {
+        StreamParseEvent parseEvent = new StreamParseEvent();
+        parseEvent.begin();
+        OrderItem orderItem = parseStreamRecord(messageBody);
+        parseEvent.end();
+        if (parseEvent.shouldCommit()) {
+            parseEvent.orderId = orderItem != null ? orderItem.orderId() : null;
+            parseEvent.messageLength = messageBody.length();
+            parseEvent.commit();
+        }
+        return orderItem;
+    }
+
+    private OrderItem parseStreamRecord(String messageBody) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(messageBody)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
                 logger.warn("No DynamoDB data found in message");
                 return null;
             }
 
-            JsonNode newImageNode = dynamoDBNode.path("NewImage");
-            if (newImageNode.isMissingNode()) {
-                logger.warn("No NewImage found in DynamoDB record");
-                return null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                JsonToken valueToken = parser.nextToken();
+                if ("dynamodb".equals(fieldName) && valueToken == JsonToken.START_OBJECT) {
+                    // The message body bounds the image size, so large records never inflate the state payload
+                    return parseDynamoDbRecord(parser, messageBody.length() <= maxPassthroughImageBytes);
+                }
+                parser.skipChildren();
             }
 
-            String primaryKey = extractStringValue(newImageNode, "pk");
-            String sortKey = extractStringValue(newImageNode, "sk");
-            String orderId = extractStringValue(newImageNode, "orderId");
-            String oldPdfKey = extractNestedStringValue(newImageNode, "pdf", "s3Key");
+            logger.warn("No DynamoDB data found in message");
+            return null;
+        }
+    }
 
-            if (primaryKey == null || sortKey == null || orderId == null) {
-                logger.warn("Missing required fields: primaryKey={}, sortKey={}, orderId={}",
-                        primaryKey, sortKey, orderId);
-                return null;
+    private OrderItem parseDynamoDbRecord(JsonParser parser, boolean passImageThrough) throws IOException {
+        OrderItem orderItem = null;
+        boolean imageSeen = false;
+        String sequenceNumber = null;
+        Double approximateCreationDateTime = null;
+        Map<String, Object> invoiceAttributes = fingerprintInvoices ? new HashMap<>() : null;
+        String previousInvoiceFingerprint = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken valueToken = parser.nextToken();
+            if ("NewImage".equals(fieldName) && valueToken == JsonToken.START_OBJECT) {
+                // With the record metadata already read there is nothing after the image we need,
+                // unless the old image is still to come for fingerprinting
+                boolean lastField = sequenceNumber != null && approximateCreationDateTime != null
+                        && !fingerprintInvoices;
+                orderItem = passImageThrough
+                        ? parseImageWithPassthrough(parser, invoiceAttributes)
+                        : parseImage(parser, lastField, invoiceAttributes);
+                imageSeen = true;
+                if (lastField) {
+                    break;
+                }
+            } else if ("OldImage".equals(fieldName) && valueToken == JsonToken.START_OBJECT && fingerprintInvoices) {
+                previousInvoiceFingerprint = InvoiceFingerprint.of(readInvoiceAttributes(parser));
+            } else if ("SequenceNumber".equals(fieldName) && valueToken.isScalarValue()) {
+                sequenceNumber = parser.getValueAsString();
+                if (imageSeen && approximateCreationDateTime != null && !fingerprintInvoices) {
+                    break;
+                }
+            } else if ("ApproximateCreationDateTime".equals(fieldName) && valueToken.isNumeric()) {
+                approximateCreationDateTime = parser.getDoubleValue();
+                if (imageSeen && sequenceNumber != null && !fingerprintInvoices) {
+                    break;
+                }
+            } else {
+                parser.skipChildren();
             }
+        }
 
-            return new OrderItem(primaryKey, sortKey, orderId, oldPdfKey);
+        if (!imageSeen) {
+            logger.warn("No NewImage found in DynamoDB record");
+            return null;
+        }
+        if (orderItem == null) {
+            return null;
+        }
+        orderItem = orderItem.withSequenceNumber(sequenceNumber)
+                .withApproximateCreationDateTime(approximateCreationDateTime);
+        return fingerprintInvoices
+                ? orderItem.withInvoiceFingerprints(InvoiceFingerprint.of(invoiceAttributes), previousInvoiceFingerprint)
+                : orderItem;
+    }
 
-        } catch (Exception exception) {
-            logger.error("Failed to parse order item from message body", exception);
+    /**
+     * Reads the order fields from the image the parser is positioned on. Unless {@code stopEarly} is
+     * set, the rest of the image is skipped so the parser ends on its closing brace. Invoice attributes
+     * are copied into {@code invoiceAttributes} unless it is null.
+     */
+    private OrderItem parseImage(JsonParser parser, boolean stopEarly, Map<String, Object> invoiceAttributes)
+            throws IOException {
+        String primaryKey = null;
+        String sortKey = null;
+        String orderId = null;
+        String priority = null;
+        String oldPdfKey = null;
+        boolean pdfSeen = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+            switch (fieldName) {
+                case "pk" -> primaryKey = readStringAttribute(parser);
+                case "sk" -> sortKey = readStringAttribute(parser);
+                case "orderId" -> orderId = readStringAttribute(parser, fieldName, invoiceAttributes);
+                case "priority" -> priority = readStringAttribute(parser, fieldName, invoiceAttributes);
+                case "pdf" -> {
+                    oldPdfKey = readNestedStringAttribute(parser, "s3Key");
+                    pdfSeen = true;
+                }
+                default -> readInvoiceAttribute(parser, fieldName, invoiceAttributes);
+            }
+
+            // Attributes have no fixed order, so a missing priority or pdf is only known at the end of the image
+            if (stopEarly && primaryKey != null && sortKey != null && orderId != null && priority != null
+                    && (pdfSeen || !readPreviousPdfKey)) {
+                break;
+            }
+        }
+
+        return toOrderItem(primaryKey, sortKey, orderId, priority, oldPdfKey, null);
+    }
+
+    private OrderItem parseImageWithPassthrough(JsonParser parser, Map<String, Object> invoiceAttributes)
+            throws IOException {
+        Map<String, Object> image = objectMapper.readValue(parser, IMAGE_TYPE);
+        if (invoiceAttributes != null) {
+            invoiceAttributes.putAll(image);
+        }
+
+        Object pdf = image.get("pdf");
+        String oldPdfKey = pdf instanceof Map<?, ?> pdfAttribute && pdfAttribute.get("M") instanceof Map<?, ?> pdfMap
+                ? stringAttribute(pdfMap.get("s3Key"))
+                : null;
+
+        return toOrderItem(stringAttribute(image.get("pk")), stringAttribute(image.get("sk")),
+                stringAttribute(image.get("orderId")), stringAttribute(image.get("priority")), oldPdfKey, image);
+    }
+
+    private OrderItem toOrderItem(String primaryKey, String sortKey, String orderId, String priority,
+            String oldPdfKey, Map<String, Object> passthroughImage) {
+        if (primaryKey == null || sortKey == null || orderId == null) {
+            logger.warn("Missing required fields: primaryKey={}, sortKey={}, orderId={}",
+                    primaryKey, sortKey, orderId);
             return null;
         }
+        return new OrderItem(primaryKey, sortKey, orderId, oldPdfKey, passthroughImage).withPriority(priority);
     }
 
-    private String extractStringValue(JsonNode node, String fieldName) {
-        JsonNode fieldNode = node.path(fieldName);
-        if (fieldNode.isMissingNode()) {
+    /**
+     * Reads the invoice attributes of the image the parser is positioned on, skipping the rest.
+     */
+    private Map<String, Object> readInvoiceAttributes(JsonParser parser) throws IOException {
+        Map<String, Object> invoiceAttributes = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+            readInvoiceAttribute(parser, fieldName, invoiceAttributes);
+        }
+        return invoiceAttributes;
+    }
+
+    /**
+     * Copies the attribute value the parser is positioned on into {@code invoiceAttributes} if it is
+     * printed on the invoice, otherwise skips it. Returns the copied value, or null when skipped.
+     */
+    private Object readInvoiceAttribute(JsonParser parser, String fieldName, Map<String, Object> invoiceAttributes)
+            throws IOException {
+        if (invoiceAttributes == null || !InvoiceFingerprint.INVOICE_ATTRIBUTES.contains(fieldName)) {
+            parser.skipChildren();
             return null;
         }
-        return fieldNode.path("S").asText(null);
+        Object value = objectMapper.readValue(parser, Object.class);
+        invoiceAttributes.put(fieldName, value);
+        return value;
+    }
+
+    /**
+     * Reads a string attribute, also copying it into {@code invoiceAttributes} when that is not null.
+     */
+    private String readStringAttribute(JsonParser parser, String fieldName, Map<String, Object> invoiceAttributes)
+            throws IOException {
+        return invoiceAttributes != null
+                ? stringAttribute(readInvoiceAttribute(parser, fieldName, invoiceAttributes))
+                : readStringAttribute(parser);
     }
 
-    private String extractNestedStringValue(JsonNode node, String parentField, String childField) {
-        JsonNode parentNode = node.path(parentField);
-        if (parentNode.isMissingNode()) {
+    /**
+     * Reads the {@code S} member of the attribute value the parser is positioned on, skipping the rest.
+     */
+    private String readStringAttribute(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
             return null;
         }
-        JsonNode mapValue = parentNode.path("M");
-        if (mapValue.isMissingNode()) {
+
+        String value = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String typeName = parser.currentName();
+            JsonToken valueToken = parser.nextToken();
+            if ("S".equals(typeName) && valueToken.isScalarValue()) {
+                value = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Reads {@code M.<childField>.S} of the map attribute the parser is positioned on.
+     */
+    private String readNestedStringAttribute(JsonParser parser, String childField) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
             return null;
         }
-        return extractStringValue(mapValue, childField);
+
+        String value = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String typeName = parser.currentName();
+            JsonToken valueToken = parser.nextToken();
+            if ("M".equals(typeName) && valueToken == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String fieldName = parser.currentName();
+                    parser.nextToken();
+                    if (childField.equals(fieldName)) {
+                        value = readStringAttribute(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+
+    private static String stringAttribute(Object attribute) {
+        return attribute instanceof Map<?, ?> typedValue && typedValue.get("S") != null
+                ? String.valueOf(typedValue.get("S"))
+                : null;
     }
-}
\ No newline at end of file
+}
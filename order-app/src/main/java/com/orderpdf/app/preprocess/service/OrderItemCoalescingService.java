@@ -0,0 +1,55 @@
+package com.orderpdf.app.preprocess.service;
+
+import com.orderpdf.app.common.dto.OrderItem;
+import com.orderpdf.app.common.dto.OrderKey;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collapses several stream records for the same order within one batch into the latest one, so an
+ * order updated in quick succession is rendered once.
+ */
+public class OrderItemCoalescingService {
+
+    /**
+     * Keeps one item per pk/sk: the one with the highest stream sequence number. Items without a
+     * sequence number are ordered by their position in the batch, later winning. The result keeps the
+     * order in which each pk/sk first appeared.
+     *
+     * <p>The surviving item takes its previous invoice fingerprint from the earliest record for the
+     * pk/sk, so it compares the invoice before the whole group of writes with the invoice after it. An
+     * invoice change followed by a write to non-invoice fields is still rendered.
+     */
+    public List<OrderItem> coalesce(List<OrderItem> orderItems) {
+        Map<OrderKey, OrderItem> latestByKey = new LinkedHashMap<>();
+        Map<OrderKey, OrderItem> earliestByKey = new HashMap<>();
+        for (OrderItem orderItem : orderItems) {
+            OrderKey key = OrderKey.of(orderItem);
+            latestByKey.merge(key, orderItem,
+                    (current, candidate) -> isNewer(candidate, current) ? candidate : current);
+            earliestByKey.merge(key, orderItem,
+                    (current, candidate) -> isNewer(candidate, current) ? current : candidate);
+        }
+
+        List<OrderItem> coalesced = new ArrayList<>(latestByKey.size());
+        latestByKey.forEach((key, latest) -> {
+            OrderItem earliest = earliestByKey.get(key);
+            coalesced.add(earliest == latest ? latest
+                    : latest.withInvoiceFingerprints(latest.invoiceFingerprint(), earliest.previousInvoiceFingerprint()));
+        });
+        return coalesced;
+    }
+
+    private boolean isNewer(OrderItem candidate, OrderItem current) {
+        if (candidate.sequenceNumber() == null || current.sequenceNumber() == null) {
+            return true;
+        }
+        // Sequence numbers are decimal strings of up to 40 digits
+        return new BigInteger(candidate.sequenceNumber()).compareTo(new BigInteger(current.sequenceNumber())) >= 0;
+    }
+}
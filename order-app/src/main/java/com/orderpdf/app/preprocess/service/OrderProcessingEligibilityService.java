@@ -17,7 +17,7 @@ public class OrderProcessingEligibilityService {
         boolean eligible = switch (reprocessPolicy) {
             case "ALWAYS" -> true;
             case "FIRST_TIME_ONLY" -> isFirstTimeProcessing(orderItem);
-            case "URL_CHANGED" -> hasUrlChanged(orderItem);
+            case "URL_CHANGED" -> hasInvoiceChanged(orderItem);
             default -> {
                 logger.warn("Unknown reprocess policy: {}, defaulting to ALWAYS", reprocessPolicy);
                 yield true;
@@ -32,9 +32,14 @@ public class OrderProcessingEligibilityService {
         return orderItem.oldPdfKey() == null;
     }
 
-    private boolean hasUrlChanged(OrderItem orderItem) {
-        // For now, we always process if we reach this point since we don't have previous URL tracking
-        // In a real implementation, we would compare against stored previous URL
-        return true;
+    /**
+     * True unless the write left every invoice field as it was. Inserts have no previous fingerprint,
+     * and items parsed without fingerprints are processed rather than silently dropped.
+     */
+    private boolean hasInvoiceChanged(OrderItem orderItem) {
+        if (orderItem.invoiceFingerprint() == null || orderItem.previousInvoiceFingerprint() == null) {
+            return true;
+        }
+        return !orderItem.invoiceFingerprint().equals(orderItem.previousInvoiceFingerprint());
     }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.orderpdf.app.worker;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OrderQueue} held in memory, for local runs and tests. Messages that are received but neither
+ * deleted nor released stay in flight indefinitely; there is no visibility timeout.
+ */
+public class InMemoryOrderQueue implements OrderQueue {
+
+    private final LinkedBlockingQueue<QueueMessage> available = new LinkedBlockingQueue<>();
+    private final Map<String, QueueMessage> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a message and returns its id.
+     */
+    public String send(String body) {
+        String messageId = UUID.randomUUID().toString();
+        available.add(new QueueMessage(messageId, body, messageId));
+        return messageId;
+    }
+
+    @Override
+    public List<QueueMessage> receive(int maxMessages, Duration waitTime) throws InterruptedException {
+        List<QueueMessage> messages = new ArrayList<>(maxMessages);
+        QueueMessage first = available.poll(waitTime.toMillis(), TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return messages;
+        }
+        messages.add(first);
+        available.drainTo(messages, maxMessages - 1);
+        messages.forEach(message -> inFlight.put(message.receiptHandle(), message));
+        return messages;
+    }
+
+    @Override
+    public void delete(QueueMessage message) {
+        inFlight.remove(message.receiptHandle());
+    }
+
+    @Override
+    public void release(QueueMessage message) {
+        if (inFlight.remove(message.receiptHandle()) != null) {
+            available.add(message);
+        }
+    }
+
+    public int availableCount() {
+        return available.size();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
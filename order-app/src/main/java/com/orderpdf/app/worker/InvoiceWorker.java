@@ -0,0 +1,272 @@
+package com.orderpdf.app.worker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.orderpdf.app.common.dto.GeneratePdfBatchResult;
+import com.orderpdf.app.common.dto.OrderItem;
+import com.orderpdf.app.common.dto.OrderKey;
+import com.orderpdf.app.common.metrics.HistogramRegistry;
+import com.orderpdf.app.common.service.OrderDetailsService;
+import com.orderpdf.app.common.util.ByteArrayPool;
+import com.orderpdf.app.common.util.S3Helper;
+import com.orderpdf.app.pdf.InvoiceBatchPipeline;
+import com.orderpdf.app.pdf.service.PdfDocumentGenerationService;
+import com.orderpdf.app.preprocess.service.DynamoDBMessageParsingService;
+import com.orderpdf.app.preprocess.service.OrderItemCoalescingService;
+import com.orderpdf.app.preprocess.service.OrderProcessingEligibilityService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.sqs.SqsClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-running alternative to the Lambda deployment: polls the orders queue directly and renders
+ * invoices through the same {@link InvoiceBatchPipeline}, so the JIT, template cache and buffer pool
+ * stay warm across batches. A message is deleted once its order is rendered or found ineligible, and
+ * released for redelivery if it fails.
+ *
+ * <p>Each poller handles one received batch at a time and the pipeline bounds the renders in flight,
+ * so the worker never holds more than {@code pollers} batches.
+ */
+public class InvoiceWorker implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceWorker.class);
+
+    public static final int DEFAULT_POLLERS = 2;
+    private static final int RECEIVE_MAX_MESSAGES = 10;
+    private static final Duration DEFAULT_POLL_WAIT = Duration.ofSeconds(20);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(60);
+
+    private final OrderQueue orderQueue;
+    private final DynamoDBMessageParsingService messageParsingService;
+    private final OrderItemCoalescingService coalescingService;
+    private final OrderProcessingEligibilityService eligibilityService;
+    private final InvoiceBatchPipeline batchPipeline;
+    private final int pollers;
+    private final Duration pollWait;
+
+    private final List<Thread> pollerThreads = new ArrayList<>();
+    private final AtomicLong generatedInvoices = new AtomicLong();
+    private final AtomicLong failedMessages = new AtomicLong();
+    private volatile boolean running;
+
+    public InvoiceWorker(OrderQueue orderQueue,
+            DynamoDBMessageParsingService messageParsingService,
+            OrderItemCoalescingService coalescingService,
+            OrderProcessingEligibilityService eligibilityService,
+            InvoiceBatchPipeline batchPipeline,
+            int pollers,
+            Duration pollWait) {
+        this.orderQueue = orderQueue;
+        this.messageParsingService = messageParsingService;
+        this.coalescingService = coalescingService;
+        this.eligibilityService = eligibilityService;
+        this.batchPipeline = batchPipeline;
+        this.pollers = pollers;
+        this.pollWait = pollWait;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String queueUrl = System.getenv("ORDER_QUEUE_URL");
+        if (queueUrl == null || queueUrl.isBlank()) {
+            throw new IllegalStateException("ORDER_QUEUE_URL must be set to run the invoice worker");
+        }
+        int pollers = Integer.parseInt(System.getenv().getOrDefault("WORKER_POLLERS", String.valueOf(DEFAULT_POLLERS)));
+        String reprocessPolicy = System.getenv().getOrDefault("REPROCESS_POLICY", "FIRST_TIME_ONLY");
+        int maxPassthroughImageBytes = Integer.parseInt(
+                System.getenv().getOrDefault("ORDER_IMAGE_PASSTHROUGH_MAX_BYTES", "65536"));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+
+        OrderDetailsService orderDetailsService = new OrderDetailsService();
+        PdfDocumentGenerationService pdfGenerationService = new PdfDocumentGenerationService();
+        S3Helper s3StorageHelper = new S3Helper(S3Client.builder().build(), System.getenv("BUCKET_NAME"));
+        // One buffer per render thread, so every concurrent render reuses a buffer
+        ByteArrayPool pdfBufferPool = new ByteArrayPool(Integer.parseInt(System.getenv().getOrDefault(
+                "PDF_BUFFER_POOL_SIZE", String.valueOf(Runtime.getRuntime().availableProcessors()))));
+
+        InvoiceWorker worker = new InvoiceWorker(
+                new SqsOrderQueue(SqsClient.builder().build(), queueUrl),
+                new DynamoDBMessageParsingService(objectMapper, maxPassthroughImageBytes,
+                        "URL_CHANGED".equals(reprocessPolicy), "FIRST_TIME_ONLY".equals(reprocessPolicy)),
+                new OrderItemCoalescingService(),
+                new OrderProcessingEligibilityService(reprocessPolicy),
+                InvoiceBatchPipeline.fromEnvironment(orderDetailsService, pdfGenerationService, s3StorageHelper,
+                        pdfBufferPool, HistogramRegistry.fromEnvironment()),
+                pollers,
+                DEFAULT_POLL_WAIT);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(worker::close, "invoice-worker-shutdown"));
+        worker.start();
+        worker.awaitTermination();
+    }
+
+    /**
+     * Starts the pollers. Each runs on its own virtual thread until {@link #close()} is called.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < pollers; i++) {
+            pollerThreads.add(Thread.ofVirtual().name("invoice-worker-poller-" + i).start(this::poll));
+        }
+        logger.info("Invoice worker started with {} pollers", pollers);
+    }
+
+    /**
+     * Stops polling, lets the batches already received finish (up to 60 seconds), then shuts down the
+     * pipeline. Messages of a batch that is cut short become visible again once their visibility
+     * timeout expires.
+     */
+    @Override
+    public void close() {
+        List<Thread> threads;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            threads = List.copyOf(pollerThreads);
+        }
+        logger.info("Stopping invoice worker");
+
+        long deadline = System.nanoTime() + SHUTDOWN_TIMEOUT.toNanos();
+        try {
+            for (Thread thread : threads) {
+                long remainingMillis = Math.max(1, (deadline - System.nanoTime()) / 1_000_000);
+                if (!thread.join(Duration.ofMillis(remainingMillis))) {
+                    logger.warn("Poller {} did not finish within {} seconds, interrupting it",
+                            thread.getName(), SHUTDOWN_TIMEOUT.toSeconds());
+                    thread.interrupt();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            threads.forEach(Thread::interrupt);
+        }
+
+        batchPipeline.close();
+        logger.info("Invoice worker stopped: {} invoices generated, {} messages failed",
+                generatedInvoices.get(), failedMessages.get());
+    }
+
+    /**
+     * Blocks until every poller has exited.
+     */
+    public void awaitTermination() throws InterruptedException {
+        List<Thread> threads;
+        synchronized (this) {
+            threads = List.copyOf(pollerThreads);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    public long generatedInvoices() {
+        return generatedInvoices.get();
+    }
+
+    public long failedMessages() {
+        return failedMessages.get();
+    }
+
+    private void poll() {
+        while (running) {
+            try {
+                List<QueueMessage> messages = orderQueue.receive(RECEIVE_MAX_MESSAGES, pollWait);
+                if (!messages.isEmpty()) {
+                    processMessages(messages);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Failed to poll the orders queue", e);
+            }
+        }
+    }
+
+    void processMessages(List<QueueMessage> messages) {
+        // Superseded records for an order are acknowledged along with the record that is rendered
+        Map<OrderKey, List<QueueMessage>> messagesByOrder = new LinkedHashMap<>();
+        List<OrderItem> parsedOrderItems = new ArrayList<>();
+        for (QueueMessage message : messages) {
+            OrderItem orderItem;
+            try {
+                orderItem = messageParsingService.parseOrderItem(message.body());
+            } catch (Exception e) {
+                logger.error("Failed to parse queue message: {}", message.messageId(), e);
+                fail(List.of(message));
+                continue;
+            }
+            if (orderItem == null) {
+                delete(List.of(message));
+                continue;
+            }
+            parsedOrderItems.add(orderItem);
+            messagesByOrder.computeIfAbsent(OrderKey.of(orderItem), key -> new ArrayList<>()).add(message);
+        }
+
+        List<OrderItem> eligibleOrderItems = new ArrayList<>();
+        for (OrderItem orderItem : coalescingService.coalesce(parsedOrderItems)) {
+            List<QueueMessage> orderMessages = messagesByOrder.get(OrderKey.of(orderItem));
+            try {
+                if (eligibilityService.shouldProcessOrder(orderItem)) {
+                    eligibleOrderItems.add(orderItem);
+                } else {
+                    delete(orderMessages);
+                }
+            } catch (Exception e) {
+                logger.error("Failed to check eligibility for orderId: {}", orderItem.orderId(), e);
+                fail(orderMessages);
+            }
+        }
+        if (eligibleOrderItems.isEmpty()) {
+            return;
+        }
+
+        List<GeneratePdfBatchResult> results = batchPipeline.process(eligibleOrderItems,
+                "worker-" + UUID.randomUUID());
+        for (int i = 0; i < results.size(); i++) {
+            List<QueueMessage> orderMessages = messagesByOrder.get(OrderKey.of(eligibleOrderItems.get(i)));
+            if (results.get(i).succeeded()) {
+                generatedInvoices.incrementAndGet();
+                delete(orderMessages);
+            } else {
+                fail(orderMessages);
+            }
+        }
+    }
+
+    private void delete(List<QueueMessage> messages) {
+        for (QueueMessage message : messages) {
+            try {
+                orderQueue.delete(message);
+            } catch (Exception e) {
+                logger.warn("Failed to delete queue message: {}", message.messageId(), e);
+            }
+        }
+    }
+
+    private void fail(List<QueueMessage> messages) {
+        failedMessages.addAndGet(messages.size());
+        for (QueueMessage message : messages) {
+            try {
+                orderQueue.release(message);
+            } catch (Exception e) {
+                logger.warn("Failed to release queue message: {}", message.messageId(), e);
+            }
+        }
+    }
+}
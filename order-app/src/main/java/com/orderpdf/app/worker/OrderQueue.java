@@ -0,0 +1,27 @@
+package com.orderpdf.app.worker;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Queue of DynamoDB stream records for the worker, with SQS semantics: a received message stays
+ * hidden until it is deleted, or released to be delivered again.
+ */
+public interface OrderQueue {
+
+    /**
+     * Receives up to {@code maxMessages}, waiting up to {@code waitTime} for the first one. Returns an
+     * empty list if none arrived.
+     */
+    List<QueueMessage> receive(int maxMessages, Duration waitTime) throws InterruptedException;
+
+    /**
+     * Acknowledges a message that has been handled, so it is not delivered again.
+     */
+    void delete(QueueMessage message);
+
+    /**
+     * Makes a message that could not be handled available for redelivery straight away.
+     */
+    void release(QueueMessage message);
+}
@@ -0,0 +1,8 @@
+package com.orderpdf.app.worker;
+
+/**
+ * A message received from an {@link OrderQueue}. The receipt handle identifies this delivery when the
+ * message is deleted or released.
+ */
+public record QueueMessage(String messageId, String body, String receiptHandle) {
+}
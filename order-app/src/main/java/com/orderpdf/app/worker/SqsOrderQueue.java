@@ -0,0 +1,56 @@
+package com.orderpdf.app.worker;
+
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageRequest;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@link OrderQueue} over an SQS queue, such as the one Pipe A fills from the orders stream.
+ */
+public class SqsOrderQueue implements OrderQueue {
+
+    // SQS limits
+    private static final int MAX_RECEIVE_MESSAGES = 10;
+    private static final int MAX_WAIT_SECONDS = 20;
+
+    private final SqsClient sqsClient;
+    private final String queueUrl;
+
+    public SqsOrderQueue(SqsClient sqsClient, String queueUrl) {
+        this.sqsClient = sqsClient;
+        this.queueUrl = queueUrl;
+    }
+
+    @Override
+    public List<QueueMessage> receive(int maxMessages, Duration waitTime) {
+        return sqsClient.receiveMessage(ReceiveMessageRequest.builder()
+                        .queueUrl(queueUrl)
+                        .maxNumberOfMessages(Math.min(maxMessages, MAX_RECEIVE_MESSAGES))
+                        .waitTimeSeconds((int) Math.min(waitTime.toSeconds(), MAX_WAIT_SECONDS))
+                        .build())
+                .messages().stream()
+                .map(message -> new QueueMessage(message.messageId(), message.body(), message.receiptHandle()))
+                .toList();
+    }
+
+    @Override
+    public void delete(QueueMessage message) {
+        sqsClient.deleteMessage(DeleteMessageRequest.builder()
+                .queueUrl(queueUrl)
+                .receiptHandle(message.receiptHandle())
+                .build());
+    }
+
+    @Override
+    public void release(QueueMessage message) {
+        sqsClient.changeMessageVisibility(ChangeMessageVisibilityRequest.builder()
+                .queueUrl(queueUrl)
+                .receiptHandle(message.receiptHandle())
+                .visibilityTimeout(0)
+                .build());
+    }
+}
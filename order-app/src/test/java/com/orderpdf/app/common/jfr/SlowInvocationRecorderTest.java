@@ -0,0 +1,107 @@
+package com.orderpdf.app.common.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SlowInvocationRecorderTest {
+
+        private static final Instant NOW = Instant.parse("2024-01-15T10:30:00Z");
+
+        @TempDir
+        Path dumpDirectory;
+
+        private final Clock clock = mock(Clock.class);
+        private SlowInvocationRecorder recorder;
+
+        @AfterEach
+        void tearDown() {
+                if (recorder != null) {
+                        recorder.close();
+                }
+        }
+
+        @Test
+        void shouldDumpPipelineEventsWhenInvocationIsSlow() throws Exception {
+                // Given
+                when(clock.instant()).thenReturn(NOW);
+                recorder = new SlowInvocationRecorder(Duration.ofMillis(500), "default", dumpDirectory, null, clock);
+                OrderFetchEvent fetchEvent = new OrderFetchEvent();
+                fetchEvent.begin();
+                fetchEvent.orderId = "123";
+                fetchEvent.orderCount = 1;
+                fetchEvent.lineCount = 3;
+                fetchEvent.commit();
+
+                // When
+                Optional<String> dump = recorder.onInvocationCompleted("ORDER#123", Duration.ofMillis(800));
+
+                // Then
+                Path dumpFile = dumpDirectory.resolve("invoice-ORDER_123-" + NOW.toEpochMilli() + ".jfr");
+                assertThat(dump).contains(dumpFile.toString());
+                List<RecordedEvent> fetchEvents = RecordingFile.readAllEvents(dumpFile).stream()
+                                .filter(event -> event.getEventType().getName().equals("com.orderpdf.OrderFetch"))
+                                .toList();
+                assertThat(fetchEvents).anySatisfy(event -> {
+                        assertThat(event.getString("orderId")).isEqualTo("123");
+                        assertThat(event.getInt("lineCount")).isEqualTo(3);
+                });
+        }
+
+        @Test
+        void shouldNotDumpWhenInvocationIsUnderThreshold() throws Exception {
+                // Given
+                recorder = new SlowInvocationRecorder(Duration.ofMillis(500), "default", dumpDirectory, null, clock);
+
+                // When
+                Optional<String> dump = recorder.onInvocationCompleted("123", Duration.ofMillis(499));
+
+                // Then
+                assertThat(dump).isEmpty();
+                try (var files = Files.list(dumpDirectory)) {
+                        assertThat(files).isEmpty();
+                }
+        }
+
+        @Test
+        void shouldDumpAtMostOnceEveryFiveMinutes() throws Exception {
+                // Given
+                when(clock.instant()).thenReturn(NOW, NOW.plus(Duration.ofMinutes(1)),
+                                NOW.plus(Duration.ofMinutes(5)));
+                recorder = new SlowInvocationRecorder(Duration.ofMillis(500), "default", dumpDirectory, null, clock);
+
+                // When
+                Optional<String> first = recorder.onInvocationCompleted("1", Duration.ofSeconds(1));
+                Optional<String> second = recorder.onInvocationCompleted("2", Duration.ofSeconds(1));
+                Optional<String> third = recorder.onInvocationCompleted("3", Duration.ofSeconds(1));
+
+                // Then
+                assertThat(first).isPresent();
+                assertThat(second).isEmpty();
+                assertThat(third).isPresent();
+        }
+
+        @Test
+        void shouldIgnoreInvocationsWhenDisabled() {
+                // When
+                SlowInvocationRecorder disabled = SlowInvocationRecorder.disabled();
+
+                // Then
+                assertThat(disabled.enabled()).isFalse();
+                assertThat(disabled.onInvocationCompleted("123", Duration.ofHours(1))).isEmpty();
+        }
+}
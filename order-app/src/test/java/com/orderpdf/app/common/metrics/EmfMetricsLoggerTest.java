@@ -0,0 +1,91 @@
+package com.orderpdf.app.common.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmfMetricsLoggerTest {
+
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private final EmfMetricsLogger metricsLogger = new EmfMetricsLogger("TestNamespace",
+                        Map.of("Service", "preprocess"),
+                        new PrintStream(output, true, StandardCharsets.UTF_8),
+                        Clock.fixed(Instant.ofEpochMilli(1_700_000_000_000L), ZoneOffset.UTC));
+
+        @Test
+        void shouldWriteOneEmbeddedMetricFormatLinePerFlush() throws Exception {
+                // Given
+                metricsLogger.putMetric("CoalescedRecords", 2, EmfMetricsLogger.Unit.COUNT);
+                metricsLogger.putMetric("CoalescedRecords", 1, EmfMetricsLogger.Unit.COUNT);
+                metricsLogger.putMetric("RenderTime", 12.5, EmfMetricsLogger.Unit.MILLISECONDS);
+
+                // When
+                metricsLogger.flush();
+
+                // Then
+                String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+                assertThat(lines).hasSize(1);
+
+                JsonNode line = new ObjectMapper().readTree(lines[0]);
+                JsonNode directive = line.path("_aws").path("CloudWatchMetrics").get(0);
+                assertThat(line.path("_aws").path("Timestamp").asLong()).isEqualTo(1_700_000_000_000L);
+                assertThat(directive.path("Namespace").asText()).isEqualTo("TestNamespace");
+                assertThat(directive.path("Dimensions").get(0).get(0).asText()).isEqualTo("Service");
+                assertThat(directive.path("Metrics").findValuesAsText("Name"))
+                                .containsExactly("CoalescedRecords", "RenderTime");
+                assertThat(directive.path("Metrics").findValuesAsText("Unit"))
+                                .containsExactly("Count", "Milliseconds");
+                assertThat(line.path("Service").asText()).isEqualTo("preprocess");
+                assertThat(line.path("CoalescedRecords").asDouble()).isEqualTo(3);
+                assertThat(line.path("RenderTime").asDouble()).isEqualTo(12.5);
+        }
+
+        @Test
+        void shouldWriteNothingWithoutPendingMetrics() {
+                // Given
+                metricsLogger.putMetric("CoalescedRecords", 1, EmfMetricsLogger.Unit.COUNT);
+                metricsLogger.flush();
+                output.reset();
+
+                // When
+                metricsLogger.flush();
+
+                // Then
+                assertThat(output.size()).isZero();
+        }
+
+        @Test
+        void shouldKeepSamplesIndividuallyUnderExtraDimension() throws Exception {
+                // Given
+                EmfMetricsLogger laneLogger = metricsLogger.withDimension("Lane", "fast");
+                laneLogger.putSample("InvoiceLatency", 120, EmfMetricsLogger.Unit.MILLISECONDS);
+                laneLogger.putSample("InvoiceLatency", 80, EmfMetricsLogger.Unit.MILLISECONDS);
+
+                // When
+                laneLogger.flush();
+                metricsLogger.flush();
+
+                // Then
+                String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+                assertThat(lines).hasSize(1);
+
+                JsonNode line = new ObjectMapper().readTree(lines[0]);
+                JsonNode dimensions = line.path("_aws").path("CloudWatchMetrics").get(0).path("Dimensions").get(0);
+                assertThat(dimensions.get(0).asText()).isEqualTo("Service");
+                assertThat(dimensions.get(1).asText()).isEqualTo("Lane");
+                assertThat(line.path("Lane").asText()).isEqualTo("fast");
+                assertThat(line.path("InvoiceLatency").isArray()).isTrue();
+                assertThat(line.path("InvoiceLatency").get(0).asDouble()).isEqualTo(120);
+                assertThat(line.path("InvoiceLatency").get(1).asDouble()).isEqualTo(80);
+        }
+}
@@ -0,0 +1,75 @@
+package com.orderpdf.app.common.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HistogramRegistryTest {
+
+        private static final Instant NOW = Instant.parse("2024-01-15T10:30:00Z");
+
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private final HistogramExporter exporter = new StdoutHistogramExporter(
+                        new PrintStream(output, true, StandardCharsets.UTF_8));
+        private final Clock clock = mock(Clock.class);
+
+        @Test
+        void shouldFlushPercentileSummaryAfterFlushCount() throws Exception {
+                // Given
+                when(clock.instant()).thenReturn(NOW);
+                HistogramRegistry registry = new HistogramRegistry(exporter, Duration.ofMinutes(1), 2, clock);
+
+                // When
+                registry.record("RenderLatency", 40_000_000, HistogramRegistry.Unit.MILLISECONDS);
+                registry.record("PdfBytes", 2_048, HistogramRegistry.Unit.BYTES);
+                registry.recordCompleted();
+                String afterFirst = output.toString(StandardCharsets.UTF_8);
+                registry.record("RenderLatency", 60_000_000, HistogramRegistry.Unit.MILLISECONDS);
+                registry.recordCompleted();
+
+                // Then
+                assertThat(afterFirst).isEmpty();
+                JsonNode histograms = new ObjectMapper().readTree(output.toString(StandardCharsets.UTF_8))
+                                .path("HistogramSummary").path("Histograms");
+                JsonNode renderLatency = histograms.path("RenderLatency");
+                assertThat(renderLatency.path("Unit").asText()).isEqualTo("Milliseconds");
+                assertThat(renderLatency.path("Count").asLong()).isEqualTo(2);
+                assertThat(renderLatency.path("p50").asDouble()).isBetween(40.0, 40.4);
+                assertThat(renderLatency.path("Max").asDouble()).isEqualTo(60.0);
+                assertThat(histograms.path("PdfBytes").path("p99").asDouble()).isBetween(2_048.0, 2_064.0);
+        }
+
+        @Test
+        void shouldFlushOnceIntervalHasPassedAndStartEmpty() throws Exception {
+                // Given
+                when(clock.instant()).thenReturn(NOW, NOW.plusSeconds(30), NOW.plusSeconds(61), NOW.plusSeconds(61),
+                                NOW.plusSeconds(70), NOW.plusSeconds(70));
+                HistogramRegistry registry = new HistogramRegistry(exporter, Duration.ofMinutes(1), 1_000, clock);
+
+                // When
+                registry.record("LineCount", 10, HistogramRegistry.Unit.COUNT);
+                registry.recordCompleted();
+                registry.record("LineCount", 20, HistogramRegistry.Unit.COUNT);
+                registry.recordCompleted();
+                registry.flush();
+
+                // Then
+                String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+                assertThat(lines).hasSize(1);
+                JsonNode summary = new ObjectMapper().readTree(lines[0]).path("HistogramSummary");
+                assertThat(summary.path("IntervalStart").asText()).isEqualTo(NOW.toString());
+                assertThat(summary.path("Histograms").path("LineCount").path("Count").asLong()).isEqualTo(2);
+                assertThat(summary.path("Histograms").path("LineCount").path("Max").asDouble()).isEqualTo(20);
+        }
+}
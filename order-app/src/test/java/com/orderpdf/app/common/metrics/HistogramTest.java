@@ -0,0 +1,59 @@
+package com.orderpdf.app.common.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HistogramTest {
+
+        @Test
+        void shouldReportPercentilesWithinOnePercent() {
+                // Given
+                Histogram histogram = new Histogram();
+
+                // When
+                for (long value = 1; value <= 10_000; value++) {
+                        histogram.record(value * 1_000_000);
+                }
+
+                // Then
+                assertThat(histogram.count()).isEqualTo(10_000);
+                assertThat((double) histogram.valueAtPercentile(50)).isCloseTo(5_000_000_000.0, within(50_000_000.0));
+                assertThat((double) histogram.valueAtPercentile(99)).isCloseTo(9_900_000_000.0, within(99_000_000.0));
+                assertThat(histogram.valueAtPercentile(100)).isEqualTo(10_000_000_000L);
+                assertThat(histogram.max()).isEqualTo(10_000_000_000L);
+        }
+
+        @Test
+        void shouldCountSmallValuesExactly() {
+                // Given
+                Histogram histogram = new Histogram();
+
+                // When
+                histogram.record(3);
+                histogram.record(7);
+                histogram.record(200);
+
+                // Then
+                assertThat(histogram.valueAtPercentile(50)).isEqualTo(7);
+                assertThat(histogram.valueAtPercentile(90)).isEqualTo(200);
+        }
+
+        @Test
+        void shouldStartEmptyAfterSnapshot() {
+                // Given
+                Histogram histogram = new Histogram();
+                histogram.record(42);
+                histogram.record(Long.MAX_VALUE);
+
+                // When
+                Histogram snapshot = histogram.snapshotAndReset();
+
+                // Then
+                assertThat(snapshot.count()).isEqualTo(2);
+                assertThat(snapshot.max()).isEqualTo(Long.MAX_VALUE);
+                assertThat(histogram.count()).isZero();
+                assertThat(histogram.valueAtPercentile(99)).isZero();
+        }
+}
@@ -0,0 +1,63 @@
+package com.orderpdf.app.common.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvoiceMetricsTest {
+
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private final EmfMetricsLogger metricsLogger = new EmfMetricsLogger("TestNamespace",
+                        Map.of("Service", "generate-pdf"),
+                        new PrintStream(output, true, StandardCharsets.UTF_8),
+                        Clock.systemUTC());
+
+        @Test
+        void shouldTreatOnlyTheFirstInvoiceAsColdStart() {
+                // Given
+                InvoiceMetrics.start();
+
+                // When
+                InvoiceMetrics later = InvoiceMetrics.start();
+
+                // Then
+                assertThat(later.startType()).isEqualTo(InvoiceMetrics.Start.WARM);
+        }
+
+        @Test
+        void shouldRecordStagesOnTheInvoiceBoundToTheCurrentThreadOnly() throws Exception {
+                // Given
+                InvoiceMetrics invoiceMetrics = InvoiceMetrics.start();
+                InvoiceMetrics.recordCurrentStage(InvoiceMetrics.Stage.TEMPLATE, 1_000_000);
+
+                // When
+                try (InvoiceMetrics.Scope scope = invoiceMetrics.bind()) {
+                        InvoiceMetrics.recordCurrentStage(InvoiceMetrics.Stage.HTML_TO_PDF, 2_000_000);
+                        InvoiceMetrics.recordCurrentStage(InvoiceMetrics.Stage.HTML_TO_PDF, 500_000);
+                        InvoiceMetrics.recordCurrentPdfBytes(4_096);
+                }
+                InvoiceMetrics.recordCurrentStage(InvoiceMetrics.Stage.UPLOAD, 3_000_000);
+                invoiceMetrics.recordLineCount(12);
+                Map<InvoiceMetrics.Start, EmfMetricsLogger> loggers = InvoiceMetrics.metricsLoggersByStart(metricsLogger);
+                invoiceMetrics.emitTo(loggers);
+                loggers.values().forEach(EmfMetricsLogger::flush);
+
+                // Then
+                JsonNode line = new ObjectMapper().readTree(output.toString(StandardCharsets.UTF_8));
+                assertThat(line.path("Start").asText()).isEqualTo(invoiceMetrics.startType() == InvoiceMetrics.Start.COLD
+                                ? "Cold" : "Warm");
+                assertThat(line.path("HtmlToPdfLatency").asDouble()).isEqualTo(2.5);
+                assertThat(line.path("PdfBytes").asDouble()).isEqualTo(4_096);
+                assertThat(line.path("LineCount").asDouble()).isEqualTo(12);
+                assertThat(line.has("TemplateLatency")).isFalse();
+                assertThat(line.has("UploadLatency")).isFalse();
+        }
+}
@@ -1,23 +1,37 @@
 package com.orderpdf.app.common.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.orderpdf.app.common.dto.Order;
 import com.orderpdf.app.common.dto.OrderItem;
+import com.orderpdf.app.common.dto.OrderKey;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,7 +46,7 @@ class OrderDetailsServiceTest {
 
         @BeforeEach
         void setUp() {
-                orderDetailsService = new OrderDetailsService(dynamoDbClient, TEST_TABLE_NAME);
+                orderDetailsService = new OrderDetailsService(dynamoDbClient, TEST_TABLE_NAME, 1);
         }
 
         @Test
@@ -102,6 +116,33 @@ class OrderDetailsServiceTest {
                 assertThat(result.lines()).hasSize(2);
         }
 
+        @Test
+        void shouldFindOrderWithoutFallingBackToSampleOrder() {
+                // Given
+                OrderItem found = new OrderItem("ORDER#123", "STATE#v1", "123", null);
+                OrderItem missing = new OrderItem("ORDER#999", "STATE#v1", "999", null);
+                when(dynamoDbClient.getItem(any(GetItemRequest.class)))
+                                .thenReturn(GetItemResponse.builder().item(createSampleDynamoDbItem()).build())
+                                .thenReturn(GetItemResponse.builder().build());
+
+                // When/Then
+                assertThat(orderDetailsService.findOrderDetails(found)).get()
+                                .extracting(order -> order.customer().name()).isEqualTo("John Doe");
+                assertThat(orderDetailsService.findOrderDetails(missing)).isEmpty();
+        }
+
+        @Test
+        void shouldPropagateDynamoDBFailureWhenFindingOrder() {
+                // Given
+                OrderItem orderItem = new OrderItem("ORDER#ERROR", "STATE#v1", "ERROR", null);
+                when(dynamoDbClient.getItem(any(GetItemRequest.class)))
+                                .thenThrow(new RuntimeException("DynamoDB connection failed"));
+
+                // When/Then
+                assertThatThrownBy(() -> orderDetailsService.findOrderDetails(orderItem))
+                                .hasMessage("DynamoDB connection failed");
+        }
+
         @Test
         void shouldReturnSampleOrderWhenDynamoDBThrowsException() {
                 // Given
@@ -170,6 +211,160 @@ class OrderDetailsServiceTest {
                 assertThat(result.lines().get(0).priceMinor()).isEqualTo(2500); // 25.00 * 100
         }
 
+        @Test
+        void shouldBatchFetchOrdersInChunksOfOneHundredKeys() {
+                // Given
+                List<OrderItem> orderItems = IntStream.range(0, 150)
+                                .mapToObj(i -> new OrderItem("ORDER#" + i, "STATE#v1", String.valueOf(i), null))
+                                .toList();
+                List<Integer> requestSizes = new ArrayList<>();
+
+                when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class))).thenAnswer(invocation -> {
+                        BatchGetItemRequest request = invocation.getArgument(0);
+                        List<Map<String, AttributeValue>> keys = request.requestItems().get(TEST_TABLE_NAME).keys();
+                        requestSizes.add(keys.size());
+                        return BatchGetItemResponse.builder()
+                                        .responses(Map.of(TEST_TABLE_NAME, keys.stream().map(this::createItemForKey).toList()))
+                                        .build();
+                });
+
+                // When
+                Map<OrderKey, Order> result = orderDetailsService.fetchOrderDetailsBatch(orderItems);
+
+                // Then
+                assertThat(requestSizes).containsExactly(100, 50);
+                assertThat(result).hasSize(150);
+                assertThat(result.get(new OrderKey("ORDER#42", "STATE#v1")).orderId()).isEqualTo("42");
+                verify(dynamoDbClient, never()).getItem(any(GetItemRequest.class));
+        }
+
+        @Test
+        void shouldRetryUnprocessedKeysUntilAllOrdersAreFetched() {
+                // Given
+                OrderItem first = new OrderItem("ORDER#1", "STATE#v1", "1", null);
+                OrderItem throttled = new OrderItem("ORDER#2", "STATE#v1", "2", null);
+                Map<String, AttributeValue> throttledKey = Map.of(
+                                "pk", AttributeValue.builder().s("ORDER#2").build(),
+                                "sk", AttributeValue.builder().s("STATE#v1").build());
+
+                when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                                .thenReturn(BatchGetItemResponse.builder()
+                                                .responses(Map.of(TEST_TABLE_NAME, List.of(createItemForKey(Map.of(
+                                                                "pk", AttributeValue.builder().s("ORDER#1").build(),
+                                                                "sk", AttributeValue.builder().s("STATE#v1").build())))))
+                                                .unprocessedKeys(Map.of(TEST_TABLE_NAME,
+                                                                KeysAndAttributes.builder().keys(throttledKey).build()))
+                                                .build())
+                                .thenReturn(BatchGetItemResponse.builder()
+                                                .responses(Map.of(TEST_TABLE_NAME, List.of(createItemForKey(throttledKey))))
+                                                .build());
+
+                // When
+                Map<OrderKey, Order> result = orderDetailsService.fetchOrderDetailsBatch(List.of(first, throttled));
+
+                // Then
+                ArgumentCaptor<BatchGetItemRequest> requests = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+                verify(dynamoDbClient, times(2)).batchGetItem(requests.capture());
+                assertThat(requests.getAllValues().get(1).requestItems().get(TEST_TABLE_NAME).keys())
+                                .containsExactly(throttledKey);
+                assertThat(result.get(OrderKey.of(first)).orderId()).isEqualTo("1");
+                assertThat(result.get(OrderKey.of(throttled)).orderId()).isEqualTo("2");
+        }
+
+        @Test
+        void shouldUseSampleOrderForKeysAbsentFromBatchWithoutReadingThemAgain() {
+                // Given
+                OrderItem missingItem = new OrderItem("ORDER#404", "STATE#v1", "404", null);
+
+                when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                                .thenReturn(BatchGetItemResponse.builder()
+                                                .responses(Map.of(TEST_TABLE_NAME, List.of()))
+                                                .build());
+
+                // When
+                Map<OrderKey, Order> result = orderDetailsService.fetchOrderDetailsBatch(List.of(missingItem));
+
+                // Then
+                assertThat(result.get(OrderKey.of(missingItem)).orderId()).isEqualTo("404");
+                assertThat(result.get(OrderKey.of(missingItem)).customer().name()).isEqualTo("Sample Customer");
+                verify(dynamoDbClient, never()).getItem(any(GetItemRequest.class));
+        }
+
+        @Test
+        void shouldFallBackToSingleReadsWhenBatchGetFails() {
+                // Given
+                OrderItem orderItem = new OrderItem("ORDER#123", "STATE#v1", "123", null);
+
+                when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                                .thenThrow(new RuntimeException("DynamoDB connection failed"));
+                when(dynamoDbClient.getItem(any(GetItemRequest.class)))
+                                .thenReturn(GetItemResponse.builder().item(createSampleDynamoDbItem()).build());
+
+                // When
+                Map<OrderKey, Order> result = orderDetailsService.fetchOrderDetailsBatch(List.of(orderItem));
+
+                // Then
+                assertThat(result.get(OrderKey.of(orderItem)).customer().name()).isEqualTo("John Doe");
+        }
+
+        @Test
+        void shouldMapStreamImageWithoutReadingDynamoDB() throws Exception {
+                // Given
+                Map<String, Object> newImage = new ObjectMapper().readValue("""
+                                {
+                                    "pk": {"S": "ORDER#123"},
+                                    "sk": {"S": "STATE#v1"},
+                                    "orderId": {"S": "123"},
+                                    "customerName": {"S": "John Doe"},
+                                    "totalAmount": {"N": "125.50"},
+                                    "items": {"L": [
+                                        {"M": {"itemId": {"S": "ITEM-001"}, "quantity": {"N": "2"}, "price": {"N": "25.00"}}}
+                                    ]}
+                                }
+                                """, new TypeReference<>() {
+                                });
+                OrderItem orderItem = new OrderItem("ORDER#123", "STATE#v1", "123", null, newImage);
+
+                // When
+                Order result = orderDetailsService.fetchOrderDetails(orderItem);
+                Map<OrderKey, Order> batchResult = orderDetailsService.fetchOrderDetailsBatch(List.of(orderItem));
+
+                // Then
+                assertThat(result.orderId()).isEqualTo("123");
+                assertThat(result.customer().name()).isEqualTo("John Doe");
+                assertThat(result.totalAmount()).isEqualTo(125.50);
+                assertThat(result.lines()).hasSize(1);
+                assertThat(result.lines().get(0).priceMinor()).isEqualTo(2500);
+                assertThat(batchResult.get(OrderKey.of(orderItem)).customer().name()).isEqualTo("John Doe");
+                verify(dynamoDbClient, never()).getItem(any(GetItemRequest.class));
+                verify(dynamoDbClient, never()).batchGetItem(any(BatchGetItemRequest.class));
+        }
+
+        @Test
+        void shouldReadDynamoDBWhenStreamImageCannotBeMapped() {
+                // Given
+                Map<String, Object> malformedImage = Map.of("orderId", "123");
+                OrderItem orderItem = new OrderItem("ORDER#123", "STATE#v1", "123", null, malformedImage);
+
+                when(dynamoDbClient.getItem(any(GetItemRequest.class)))
+                                .thenReturn(GetItemResponse.builder().item(createSampleDynamoDbItem()).build());
+
+                // When
+                Order result = orderDetailsService.fetchOrderDetails(orderItem);
+
+                // Then
+                assertThat(result.customer().name()).isEqualTo("John Doe");
+                verify(dynamoDbClient).getItem(any(GetItemRequest.class));
+        }
+
+        private Map<String, AttributeValue> createItemForKey(Map<String, AttributeValue> key) {
+                String pk = key.get("pk").s();
+                Map<String, AttributeValue> item = new HashMap<>(createSampleDynamoDbItem());
+                item.putAll(key);
+                item.put("orderId", AttributeValue.builder().s(pk.substring("ORDER#".length())).build());
+                return item;
+        }
+
         private Map<String, AttributeValue> createSampleDynamoDbItem() {
                 Map<String, AttributeValue> item = new HashMap<>();
                 item.put("orderId", AttributeValue.builder().s("123").build());
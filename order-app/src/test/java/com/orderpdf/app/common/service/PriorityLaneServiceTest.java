@@ -0,0 +1,34 @@
+package com.orderpdf.app.common.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriorityLaneServiceTest {
+
+        @Test
+        void shouldRouteConfiguredPrioritiesToFastLane() {
+                // Given
+                PriorityLaneService laneService = new PriorityLaneService(" high ,urgent,");
+
+                // When / Then
+                assertThat(laneService.fastLanePriorities()).containsExactlyInAnyOrder("high", "urgent");
+                assertThat(laneService.laneOf("high")).isEqualTo(PriorityLaneService.Lane.FAST);
+                assertThat(laneService.laneOf("urgent")).isEqualTo(PriorityLaneService.Lane.FAST);
+                assertThat(laneService.laneOf("normal")).isEqualTo(PriorityLaneService.Lane.BULK);
+                assertThat(laneService.laneOf(null)).isEqualTo(PriorityLaneService.Lane.BULK);
+        }
+
+        @Test
+        void shouldMatchPrioritiesExactlyLikeThePipeFilters() {
+                // Given
+                PriorityLaneService laneService = new PriorityLaneService("high");
+
+                // When / Then
+                // The pipe filters compare the attribute string as is, so these reach the bulk queue
+                assertThat(laneService.laneOf("HIGH")).isEqualTo(PriorityLaneService.Lane.BULK);
+                assertThat(laneService.laneOf("High")).isEqualTo(PriorityLaneService.Lane.BULK);
+                assertThat(laneService.laneOf(" high")).isEqualTo(PriorityLaneService.Lane.BULK);
+                assertThat(laneService.laneOf("")).isEqualTo(PriorityLaneService.Lane.BULK);
+        }
+}
@@ -0,0 +1,102 @@
+package com.orderpdf.app.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ByteArrayPoolTest {
+
+        @Test
+        void shouldReadWrittenBytesBackInPlace() throws Exception {
+                // Given
+                ByteArrayPool pool = new ByteArrayPool(2);
+                PooledByteArrayOutputStream outputStream = pool.newOutputStream();
+                byte[] content = createContent(40_000);
+
+                // When - larger than the initial buffer, so it has to grow
+                outputStream.write(content);
+                outputStream.close();
+
+                // Then
+                assertThat(outputStream.size()).isEqualTo(content.length);
+                try (InputStream inputStream = outputStream.newInputStream()) {
+                        assertThat(inputStream.readAllBytes()).isEqualTo(content);
+                }
+        }
+
+        @Test
+        void shouldReuseReleasedBufferWithoutAllocating() throws Exception {
+                // Given
+                ByteArrayPool pool = new ByteArrayPool(2);
+                PooledByteArrayOutputStream first = pool.newOutputStream();
+                first.write(createContent(40_000));
+                first.release();
+                long allocatedAfterWarmUp = pool.stats().allocatedBytes();
+
+                // When
+                PooledByteArrayOutputStream second = pool.newOutputStream();
+                second.write(createContent(40_000));
+                second.release();
+
+                // Then
+                assertThat(pool.stats().acquired()).isEqualTo(2);
+                assertThat(pool.stats().reused()).isEqualTo(1);
+                assertThat(pool.stats().allocatedBytes()).isEqualTo(allocatedAfterWarmUp);
+        }
+
+        @Test
+        void shouldSizeNewBuffersFromRecentOutputs() {
+                // Given
+                ByteArrayPool pool = new ByteArrayPool(0);
+                int initialCapacity = pool.suggestedCapacity();
+
+                // When
+                pool.release(new byte[100_000], 100_000);
+
+                // Then
+                assertThat(initialCapacity).isEqualTo(16 * 1024);
+                assertThat(pool.suggestedCapacity()).isGreaterThanOrEqualTo(125_000);
+        }
+
+        @Test
+        void shouldRetainAtMostMaxPooledBuffers() {
+                // Given
+                ByteArrayPool pool = new ByteArrayPool(1);
+                PooledByteArrayOutputStream first = pool.newOutputStream();
+                PooledByteArrayOutputStream second = pool.newOutputStream();
+                first.release();
+                second.release();
+
+                // When
+                pool.newOutputStream();
+                pool.newOutputStream();
+
+                // Then
+                assertThat(pool.stats().acquired()).isEqualTo(4);
+                assertThat(pool.stats().reused()).isEqualTo(1);
+        }
+
+        @Test
+        void shouldRejectUseAfterRelease() {
+                // Given
+                PooledByteArrayOutputStream outputStream = new ByteArrayPool(1).newOutputStream();
+                outputStream.release();
+
+                // When/Then
+                assertThatThrownBy(() -> outputStream.write(1))
+                                .isInstanceOf(IllegalStateException.class);
+                assertThatThrownBy(outputStream::newInputStream)
+                                .isInstanceOf(IllegalStateException.class);
+        }
+
+        private byte[] createContent(int length) {
+                byte[] content = new byte[length];
+                for (int i = 0; i < length; i++) {
+                        content[i] = (byte) (i % 251);
+                }
+                return content;
+        }
+}
@@ -0,0 +1,61 @@
+package com.orderpdf.app.common.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DynamoDbJsonConverterTest {
+
+        private final ObjectMapper objectMapper = new ObjectMapper();
+
+        @Test
+        void shouldConvertNestedStreamImage() throws Exception {
+                // Given
+                JsonNode image = objectMapper.readTree("""
+                                {
+                                    "orderId": {"S": "123"},
+                                    "totalAmount": {"N": "125.50"},
+                                    "gift": {"BOOL": true},
+                                    "notes": {"NULL": true},
+                                    "tags": {"SS": ["priority", "fragile"]},
+                                    "signature": {"B": "AQID"},
+                                    "items": {"L": [
+                                        {"M": {"itemId": {"S": "ITEM-001"}, "quantity": {"N": "2"}}}
+                                    ]}
+                                }
+                                """);
+
+                // When
+                Map<String, AttributeValue> attributes = DynamoDbJsonConverter.toAttributeValueMap(image);
+
+                // Then
+                assertThat(attributes.get("orderId").s()).isEqualTo("123");
+                assertThat(attributes.get("totalAmount").n()).isEqualTo("125.50");
+                assertThat(attributes.get("gift").bool()).isTrue();
+                assertThat(attributes.get("notes").nul()).isTrue();
+                assertThat(attributes.get("tags").ss()).containsExactly("priority", "fragile");
+                assertThat(attributes.get("signature").b()).isEqualTo(SdkBytes.fromByteArray(new byte[] {1, 2, 3}));
+
+                Map<String, AttributeValue> firstItem = attributes.get("items").l().get(0).m();
+                assertThat(firstItem.get("itemId").s()).isEqualTo("ITEM-001");
+                assertThat(firstItem.get("quantity").n()).isEqualTo("2");
+        }
+
+        @Test
+        void shouldRejectUnknownAttributeType() throws Exception {
+                // Given
+                JsonNode image = objectMapper.readTree("{\"orderId\": {\"X\": \"123\"}}");
+
+                // When/Then
+                assertThatThrownBy(() -> DynamoDbJsonConverter.toAttributeValueMap(image))
+                                .isInstanceOf(IllegalArgumentException.class)
+                                .hasMessageContaining("X");
+        }
+}
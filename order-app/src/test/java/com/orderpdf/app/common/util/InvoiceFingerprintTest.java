@@ -0,0 +1,69 @@
+package com.orderpdf.app.common.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvoiceFingerprintTest {
+
+        private static final String IMAGE = """
+                        {
+                            "pk": {"S": "ORDER#1"},
+                            "orderId": {"S": "1"},
+                            "customerName": {"S": "Jane Doe"},
+                            "createdAt": {"S": "2024-01-15T10:00:00Z"},
+                            "items": {"L": [
+                                {"M": {"itemId": {"S": "SKU-1"}, "quantity": {"N": "2"}, "price": {"N": "12.50"}}}
+                            ]},
+                            "pdf": {"M": {"s3Key": {"S": "invoices/1.pdf"}, "status": {"S": "DONE"}}},
+                            "updatedAt": {"S": "2024-01-15T10:00:00Z"},
+                            "totalAmount": {"N": "25"}
+                        }
+                        """;
+
+        private final ObjectMapper objectMapper = new ObjectMapper();
+
+        @Test
+        void shouldIgnoreAttributesNotPrintedOnInvoice() throws Exception {
+                // Given
+                Map<String, Object> image = readImage(IMAGE);
+                Map<String, Object> rewritten = readImage(IMAGE);
+                rewritten.put("pdf", Map.of("M", Map.of("s3Key", Map.of("S", "invoices/1-v2.pdf"))));
+                rewritten.put("updatedAt", Map.of("S", "2024-02-01T00:00:00Z"));
+                rewritten.put("totalAmount", Map.of("N", "99"));
+                rewritten.put("items", Map.of("L", java.util.List.of(Map.of("M", Map.of(
+                                "price", Map.of("N", "12.5"),
+                                "itemId", Map.of("S", "SKU-1"),
+                                "quantity", Map.of("N", "2.0"),
+                                "warehouse", Map.of("S", "CPT"))))));
+
+                // When / Then
+                assertThat(InvoiceFingerprint.of(rewritten)).isEqualTo(InvoiceFingerprint.of(image));
+        }
+
+        @Test
+        void shouldChangeWhenAnyInvoiceAttributeChanges() throws Exception {
+                // Given
+                Map<String, Object> image = readImage(IMAGE);
+                String fingerprint = InvoiceFingerprint.of(image);
+
+                // When / Then
+                for (String attribute : InvoiceFingerprint.INVOICE_ATTRIBUTES) {
+                        Map<String, Object> changed = new HashMap<>(image);
+                        changed.put(attribute, Map.of("S", "changed"));
+                        assertThat(InvoiceFingerprint.of(changed)).as(attribute).isNotEqualTo(fingerprint);
+                }
+                Map<String, Object> quantityChanged = readImage(IMAGE.replace("\"N\": \"2\"", "\"N\": \"3\""));
+                assertThat(InvoiceFingerprint.of(quantityChanged)).isNotEqualTo(fingerprint);
+        }
+
+        private Map<String, Object> readImage(String json) throws Exception {
+                return objectMapper.readValue(json, new TypeReference<HashMap<String, Object>>() {
+                });
+        }
+}
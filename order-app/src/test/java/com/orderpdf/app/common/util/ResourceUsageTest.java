@@ -0,0 +1,36 @@
+package com.orderpdf.app.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceUsageTest {
+
+        @Test
+        void shouldReportAllocationOfTheCurrentThreadSinceStart() {
+                // Given
+                ResourceUsage start = ResourceUsage.currentThread();
+
+                // When
+                byte[] allocated = new byte[1_000_000];
+                ResourceUsage usage = ResourceUsage.currentThread().since(start);
+
+                // Then
+                assertThat(allocated).hasSize(1_000_000);
+                assertThat(usage.allocatedBytes()).isGreaterThanOrEqualTo(1_000_000);
+                assertThat(usage.gcCount()).isNotNegative();
+                assertThat(usage.gcTimeMillis()).isNotNegative();
+        }
+
+        @Test
+        void shouldReportUnknownAllocationWhenEitherSideIsUnknown() {
+                // Given
+                ResourceUsage start = new ResourceUsage(-1, 2, 10);
+
+                // When
+                ResourceUsage usage = new ResourceUsage(5_000, 3, 25).since(start);
+
+                // Then
+                assertThat(usage).isEqualTo(new ResourceUsage(-1, 1, 15));
+        }
+}
@@ -0,0 +1,219 @@
+package com.orderpdf.app.common.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class S3HelperTest {
+
+        private static final String TEST_BUCKET = "test-bucket";
+        private static final int PART_SIZE = 1024;
+
+        @Mock
+        private S3Client s3Client;
+
+        private S3Helper s3Helper;
+
+        @BeforeEach
+        void setUp() {
+                s3Helper = new S3Helper(s3Client, TEST_BUCKET, PART_SIZE, 2);
+        }
+
+        @Test
+        void shouldUploadSmallContentWithSinglePutObject() throws Exception {
+                // Given
+                byte[] content = createContent(PART_SIZE - 1);
+                ArgumentCaptor<RequestBody> body = ArgumentCaptor.forClass(RequestBody.class);
+
+                // When
+                long uploaded = s3Helper.putObjectStreaming("temp/small.pdf", "application/pdf",
+                                outputStream -> outputStream.write(content));
+
+                // Then
+                assertThat(uploaded).isEqualTo(content.length);
+                verify(s3Client).putObject(any(PutObjectRequest.class), body.capture());
+                assertThat(readBody(body.getValue())).isEqualTo(content);
+                verify(s3Client, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+        }
+
+        @Test
+        void shouldGrowBufferForSinglePartContentLargerThanInitialBuffer() throws Exception {
+                // Given - a part size well above the initial buffer, so the buffer grows several times
+                S3Helper largePartHelper = new S3Helper(s3Client, TEST_BUCKET, 256 * 1024, 2);
+                byte[] content = createContent(100_000);
+                ArgumentCaptor<RequestBody> body = ArgumentCaptor.forClass(RequestBody.class);
+
+                // When - mixing single bytes and chunks
+                long uploaded = largePartHelper.putObjectStreaming("temp/medium.pdf", "application/pdf",
+                                outputStream -> {
+                                        outputStream.write(content[0]);
+                                        for (int offset = 1; offset < content.length; offset += 1000) {
+                                                outputStream.write(content, offset, Math.min(1000, content.length - offset));
+                                        }
+                                });
+
+                // Then
+                assertThat(uploaded).isEqualTo(content.length);
+                verify(s3Client).putObject(any(PutObjectRequest.class), body.capture());
+                assertThat(readBody(body.getValue())).isEqualTo(content);
+                verify(s3Client, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+        }
+
+        @Test
+        void shouldUploadLargeContentAsOrderedMultipartUpload() throws Exception {
+                // Given
+                byte[] content = createContent(PART_SIZE * 2 + 500);
+                Map<Integer, byte[]> uploadedParts = new ConcurrentHashMap<>();
+                when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+                when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                                .thenAnswer(invocation -> {
+                                        UploadPartRequest request = invocation.getArgument(0);
+                                        uploadedParts.put(request.partNumber(), readBody(invocation.getArgument(1)));
+                                        return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+                                });
+                ArgumentCaptor<CompleteMultipartUploadRequest> completeRequest =
+                                ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+
+                // When - written in small chunks, as the PDF writer does
+                s3Helper.putObjectStreaming("temp/large.pdf", "application/pdf", outputStream -> {
+                        for (int offset = 0; offset < content.length; offset += 100) {
+                                outputStream.write(content, offset, Math.min(100, content.length - offset));
+                        }
+                });
+
+                // Then
+                verify(s3Client).completeMultipartUpload(completeRequest.capture());
+                assertThat(completeRequest.getValue().multipartUpload().parts())
+                                .extracting(CompletedPart::partNumber, CompletedPart::eTag)
+                                .containsExactly(
+                                                tuple(1, "etag-1"),
+                                                tuple(2, "etag-2"),
+                                                tuple(3, "etag-3"));
+
+                ByteArrayOutputStream reassembled = new ByteArrayOutputStream();
+                for (int part = 1; part <= 3; part++) {
+                        reassembled.write(uploadedParts.get(part));
+                }
+                assertThat(reassembled.toByteArray()).isEqualTo(content);
+                verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        }
+
+        @Test
+        void shouldAbortMultipartUploadWhenWriterFails() {
+                // Given
+                when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+                when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                                .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+
+                // When/Then - the writer closes the stream before failing, as iText does
+                assertThatThrownBy(() -> s3Helper.putObjectStreaming("temp/broken.pdf", "application/pdf",
+                                outputStream -> {
+                                        outputStream.write(createContent(PART_SIZE + 10));
+                                        outputStream.close();
+                                        throw new IOException("PDF generation failed");
+                                }))
+                                .isInstanceOf(IOException.class)
+                                .hasMessage("PDF generation failed");
+
+                verify(s3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+                verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+        }
+
+        @Test
+        void shouldNotUploadAnythingWhenSmallWriterFails() {
+                // When/Then
+                assertThatThrownBy(() -> s3Helper.putObjectStreaming("temp/broken.pdf", "application/pdf",
+                                outputStream -> {
+                                        outputStream.write(createContent(10));
+                                        throw new IOException("PDF generation failed");
+                                }))
+                                .isInstanceOf(IOException.class);
+
+                verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        }
+
+        @Test
+        void shouldFailAndAbortWhenPartUploadFails() {
+                // Given
+                when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+                when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                                .thenThrow(new RuntimeException("S3 unavailable"));
+
+                // When/Then
+                assertThatThrownBy(() -> s3Helper.putObjectStreaming("temp/large.pdf", "application/pdf",
+                                outputStream -> outputStream.write(createContent(PART_SIZE * 2))))
+                                .isInstanceOf(IOException.class)
+                                .hasRootCauseMessage("S3 unavailable");
+
+                verify(s3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        }
+
+        @Test
+        void shouldUploadInputStreamWithoutTrustingAvailable() throws Exception {
+                // Given - available() reports nothing although the stream has content
+                byte[] content = createContent(300);
+                InputStream contentStream = new ByteArrayInputStream(content) {
+                        @Override
+                        public synchronized int available() {
+                                return 0;
+                        }
+                };
+                ArgumentCaptor<RequestBody> body = ArgumentCaptor.forClass(RequestBody.class);
+
+                // When
+                s3Helper.putObjectFromInputStream("temp/stream.pdf", contentStream, "application/pdf");
+
+                // Then
+                verify(s3Client).putObject(any(PutObjectRequest.class), body.capture());
+                assertThat(readBody(body.getValue())).isEqualTo(content);
+        }
+
+        private byte[] createContent(int length) {
+                byte[] content = new byte[length];
+                for (int i = 0; i < length; i++) {
+                        content[i] = (byte) (i % 251);
+                }
+                return content;
+        }
+
+        private byte[] readBody(RequestBody requestBody) {
+                try (InputStream inputStream = requestBody.contentStreamProvider().newStream()) {
+                        return inputStream.readAllBytes();
+                } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                }
+        }
+}
@@ -0,0 +1,259 @@
+package com.orderpdf.app.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.orderpdf.app.common.dto.Order;
+import com.orderpdf.app.common.dto.OrderItem;
+import com.orderpdf.app.common.metrics.EmfMetricsLogger;
+import com.orderpdf.app.common.service.OrderDetailsService;
+import com.orderpdf.app.pdf.service.PdfDocumentGenerationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceHttpServerTest {
+
+        private static final byte[] PDF_BYTES = "%PDF-1.7 fake".getBytes(StandardCharsets.UTF_8);
+
+        @Mock
+        private OrderDetailsService orderDetailsService;
+
+        @Mock
+        private PdfDocumentGenerationService pdfGenerationService;
+
+        private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        private final ByteArrayOutputStream metricsOutput = new ByteArrayOutputStream();
+        private final HttpClient httpClient = HttpClient.newHttpClient();
+        private InvoiceHttpServer invoiceHttpServer;
+
+        @BeforeEach
+        void setUp() throws IOException {
+                startServer(2, Duration.ofSeconds(1));
+        }
+
+        @AfterEach
+        void tearDown() {
+                invoiceHttpServer.close();
+        }
+
+        @Test
+        void shouldRenderPostedOrder() throws Exception {
+                // Given
+                Order order = createOrder("123");
+                doAnswer(invocation -> {
+                        invocation.getArgument(1, OutputStream.class).write(PDF_BYTES);
+                        return null;
+                }).when(pdfGenerationService).generatePdfDocument(eq(order), any(OutputStream.class));
+
+                // When
+                HttpResponse<byte[]> response = send(HttpRequest.newBuilder(uri("/invoices"))
+                                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(order))));
+
+                // Then
+                assertThat(response.statusCode()).isEqualTo(200);
+                assertThat(response.headers().firstValue("Content-Type")).contains("application/pdf");
+                assertThat(response.body()).isEqualTo(PDF_BYTES);
+                verify(orderDetailsService, never()).findOrderDetails(any());
+        }
+
+        @Test
+        void shouldFetchAndRenderOrderById() throws Exception {
+                // Given
+                Order order = createOrder("456");
+                when(orderDetailsService.findOrderDetails(new OrderItem("ORDER#456", "STATE#v1", "456", null)))
+                                .thenReturn(Optional.of(order));
+                doAnswer(invocation -> {
+                        invocation.getArgument(1, OutputStream.class).write(PDF_BYTES);
+                        return null;
+                }).when(pdfGenerationService).generatePdfDocument(eq(order), any(OutputStream.class));
+
+                // When
+                HttpResponse<byte[]> response = send(HttpRequest.newBuilder(uri("/invoices/456")).GET());
+
+                // Then
+                assertThat(response.statusCode()).isEqualTo(200);
+                assertThat(response.body()).isEqualTo(PDF_BYTES);
+        }
+
+        @Test
+        void shouldReturnNotFoundForUnknownOrderId() throws Exception {
+                // Given
+                when(orderDetailsService.findOrderDetails(new OrderItem("ORDER#404", "STATE#v1", "404", null)))
+                                .thenReturn(Optional.empty());
+
+                // When
+                HttpResponse<byte[]> response = send(HttpRequest.newBuilder(uri("/invoices/404")).GET());
+
+                // Then
+                assertThat(response.statusCode()).isEqualTo(404);
+                assertThat(response.headers().firstValue("Content-Type")).contains("application/json");
+                verify(pdfGenerationService, never()).generatePdfDocument(any(), any());
+        }
+
+        @Test
+        void shouldReturnBadGatewayOrRetryWhenFetchingOrderFails() throws Exception {
+                // Given
+                when(orderDetailsService.findOrderDetails(new OrderItem("ORDER#1", "STATE#v1", "1", null)))
+                                .thenThrow(DynamoDbException.builder().message("Internal server error")
+                                                .statusCode(500).build());
+                when(orderDetailsService.findOrderDetails(new OrderItem("ORDER#2", "STATE#v1", "2", null)))
+                                .thenThrow(ProvisionedThroughputExceededException.builder()
+                                                .awsErrorDetails(AwsErrorDetails.builder()
+                                                                .errorCode("ProvisionedThroughputExceededException")
+                                                                .build())
+                                                .statusCode(400).build());
+
+                // When
+                HttpResponse<byte[]> failed = send(HttpRequest.newBuilder(uri("/invoices/1")).GET());
+                HttpResponse<byte[]> throttled = send(HttpRequest.newBuilder(uri("/invoices/2")).GET());
+
+                // Then
+                assertThat(failed.statusCode()).isEqualTo(502);
+                assertThat(throttled.statusCode()).isEqualTo(503);
+                assertThat(throttled.headers().firstValue("Retry-After")).contains("1");
+                verify(pdfGenerationService, never()).generatePdfDocument(any(), any());
+        }
+
+        @Test
+        void shouldRejectInvalidRequests() throws Exception {
+                // When
+                HttpResponse<byte[]> malformed = send(HttpRequest.newBuilder(uri("/invoices"))
+                                .POST(HttpRequest.BodyPublishers.ofString("{not json")));
+                HttpResponse<byte[]> missingOrderId = send(HttpRequest.newBuilder(uri("/invoices"))
+                                .POST(HttpRequest.BodyPublishers.ofString("{\"currency\":\"USD\"}")));
+                HttpResponse<byte[]> wrongMethod = send(HttpRequest.newBuilder(uri("/invoices/123"))
+                                .DELETE());
+                HttpResponse<byte[]> unknownPath = send(HttpRequest.newBuilder(uri("/invoices/123/pdf")).GET());
+
+                // Then
+                assertThat(malformed.statusCode()).isEqualTo(400);
+                assertThat(missingOrderId.statusCode()).isEqualTo(400);
+                assertThat(wrongMethod.statusCode()).isEqualTo(405);
+                assertThat(wrongMethod.headers().firstValue("Allow")).contains("GET");
+                assertThat(unknownPath.statusCode()).isEqualTo(404);
+        }
+
+        @Test
+        void shouldReturnServerErrorWhenRenderingFailsBeforeAnyOutput() throws Exception {
+                // Given
+                Order order = createOrder("123");
+                doThrow(new IOException("PDF generation failed"))
+                                .when(pdfGenerationService).generatePdfDocument(eq(order), any(OutputStream.class));
+
+                // When
+                HttpResponse<byte[]> response = send(HttpRequest.newBuilder(uri("/invoices"))
+                                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(order))));
+
+                // Then
+                assertThat(response.statusCode()).isEqualTo(500);
+                assertThat(response.headers().firstValue("Content-Type")).contains("application/json");
+        }
+
+        @Test
+        void shouldRejectRequestsBeyondTheConcurrencyLimit() throws Exception {
+                // Given
+                invoiceHttpServer.close();
+                startServer(1, Duration.ZERO);
+                Order order = createOrder("123");
+                CountDownLatch rendering = new CountDownLatch(1);
+                CountDownLatch releaseRender = new CountDownLatch(1);
+                doAnswer(invocation -> {
+                        rendering.countDown();
+                        releaseRender.await(5, TimeUnit.SECONDS);
+                        invocation.getArgument(1, OutputStream.class).write(PDF_BYTES);
+                        return null;
+                }).when(pdfGenerationService).generatePdfDocument(eq(order), any(OutputStream.class));
+                HttpRequest request = HttpRequest.newBuilder(uri("/invoices"))
+                                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(order)))
+                                .build();
+
+                // When
+                CompletableFuture<HttpResponse<byte[]>> first = httpClient.sendAsync(request,
+                                HttpResponse.BodyHandlers.ofByteArray());
+                assertThat(rendering.await(5, TimeUnit.SECONDS)).isTrue();
+                HttpResponse<byte[]> rejected = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                releaseRender.countDown();
+
+                // Then
+                assertThat(rejected.statusCode()).isEqualTo(503);
+                assertThat(rejected.headers().firstValue("Retry-After")).contains("1");
+                assertThat(first.get(5, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+        }
+
+        @Test
+        void shouldRecordRequestLatencyPerRoute() throws Exception {
+                // Given
+                Order order = createOrder("123");
+                doAnswer(invocation -> {
+                        invocation.getArgument(1, OutputStream.class).write(PDF_BYTES);
+                        return null;
+                }).when(pdfGenerationService).generatePdfDocument(eq(order), any(OutputStream.class));
+
+                // When
+                send(HttpRequest.newBuilder(uri("/invoices"))
+                                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(order))));
+                invoiceHttpServer.close();
+
+                // Then
+                String metrics = metricsOutput.toString(StandardCharsets.UTF_8);
+                assertThat(metrics).contains("\"Route\":\"RenderOrder\"");
+                assertThat(metrics).contains("\"RequestLatency\"");
+                assertThat(metrics).contains("\"Requests\":1.0");
+        }
+
+        private void startServer(int maxConcurrentRenders, Duration queueTimeout) throws IOException {
+                EmfMetricsLogger metricsLogger = new EmfMetricsLogger("Test", Map.of("Service", "invoice-http"),
+                                new PrintStream(metricsOutput, true, StandardCharsets.UTF_8), Clock.systemUTC());
+                invoiceHttpServer = new InvoiceHttpServer(orderDetailsService, pdfGenerationService, objectMapper,
+                                maxConcurrentRenders, queueTimeout, metricsLogger);
+                invoiceHttpServer.start(new InetSocketAddress("127.0.0.1", 0));
+        }
+
+        private HttpResponse<byte[]> send(HttpRequest.Builder request) throws Exception {
+                return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        }
+
+        private URI uri(String path) {
+                return URI.create("http://127.0.0.1:" + invoiceHttpServer.port() + path);
+        }
+
+        private static Order createOrder(String orderId) {
+                return new Order(orderId, "USD", null, null, List.of(), "CONFIRMED", null, null, null, null,
+                                10.0, null, null);
+        }
+}
@@ -1,13 +1,25 @@
 package com.orderpdf.app.pdf;
 
 import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.orderpdf.app.common.dto.Customer;
+import com.orderpdf.app.common.dto.GeneratePdfBatchInput;
+import com.orderpdf.app.common.dto.GeneratePdfBatchOutput;
+import com.orderpdf.app.common.dto.GeneratePdfBatchResult;
 import com.orderpdf.app.common.dto.GeneratePdfOutput;
 import com.orderpdf.app.common.dto.Order;
 import com.orderpdf.app.common.dto.OrderItem;
+import com.orderpdf.app.common.dto.OrderKey;
 import com.orderpdf.app.common.dto.OrderLine;
+import com.orderpdf.app.common.metrics.EmfMetricsLogger;
 import com.orderpdf.app.common.service.OrderDetailsService;
+import com.orderpdf.app.common.service.PriorityLaneService;
+import com.orderpdf.app.common.util.ByteArrayPool;
+import com.orderpdf.app.common.util.PooledByteArrayOutputStream;
 import com.orderpdf.app.common.util.S3Helper;
+import com.orderpdf.app.pdf.idempotency.IdempotencyKey;
+import com.orderpdf.app.pdf.idempotency.InMemoryIdempotencyStore;
 import com.orderpdf.app.pdf.service.PdfDocumentGenerationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,14 +27,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -45,10 +68,8 @@ class GeneratePdfHandlerTest {
 
         @BeforeEach
         void setUp() {
-                generatePdfHandler = new GeneratePdfHandler(
-                                pdfGenerationService,
-                                orderDetailsService,
-                                s3StorageHelper);
+                generatePdfHandler = GeneratePdfHandler.builder(pdfGenerationService, orderDetailsService, s3StorageHelper)
+                                .build();
         }
 
         @Test
@@ -206,6 +227,339 @@ class GeneratePdfHandlerTest {
                                 eq("application/pdf"));
         }
 
+        @Test
+        void shouldStreamPdfIntoS3WhenStreamingUploadEnabled() throws Exception {
+                // Given
+                GeneratePdfHandler streamingHandler = GeneratePdfHandler.builder(pdfGenerationService,
+                                orderDetailsService, s3StorageHelper)
+                                .uploadMode("STREAMING")
+                                .build();
+                OrderItem orderItem = new OrderItem(
+                                "ORDER#123",
+                                "STATE#v1",
+                                "123",
+                                null);
+
+                Order orderDetails = createSampleOrder("123");
+                ByteArrayOutputStream uploadStream = new ByteArrayOutputStream();
+
+                when(lambdaContext.getAwsRequestId()).thenReturn("test-execution-id");
+                when(orderDetailsService.fetchOrderDetails(orderItem))
+                                .thenReturn(orderDetails);
+                when(s3StorageHelper.putObjectStreaming(eq("temp/test-execution-id-123.pdf"), eq("application/pdf"), any()))
+                                .thenAnswer(invocation -> {
+                                        S3Helper.ContentWriter contentWriter = invocation.getArgument(2);
+                                        contentWriter.writeTo(uploadStream);
+                                        return 0L;
+                                });
+
+                // When
+                GeneratePdfOutput result = streamingHandler.handleRequest(orderItem, lambdaContext);
+
+                // Then
+                assertThat(result.tempPdfKey()).isEqualTo("temp/test-execution-id-123.pdf");
+                verify(pdfGenerationService).generatePdfDocument(orderDetails, uploadStream);
+                verify(pdfGenerationService, never()).generatePdfDocument(orderDetails);
+                verify(s3StorageHelper, never()).putObjectFromBytes(any(), any(), any());
+        }
+
+        @Test
+        void shouldUploadPooledBufferInPlaceAndRecycleIt() throws Exception {
+                // Given
+                ByteArrayPool bufferPool = new ByteArrayPool(1);
+                GeneratePdfHandler pooledHandler = GeneratePdfHandler.builder(pdfGenerationService,
+                                orderDetailsService, s3StorageHelper)
+                                .uploadMode("POOLED")
+                                .pdfBufferPool(bufferPool)
+                                .build();
+                OrderItem orderItem = new OrderItem(
+                                "ORDER#123",
+                                "STATE#v1",
+                                "123",
+                                null);
+
+                Order orderDetails = createSampleOrder("123");
+                byte[] pdfBytes = "pdf-content".getBytes();
+                List<byte[]> uploadedContent = new ArrayList<>();
+
+                when(lambdaContext.getAwsRequestId()).thenReturn("test-execution-id");
+                when(orderDetailsService.fetchOrderDetails(orderItem))
+                                .thenReturn(orderDetails);
+                doAnswer(invocation -> {
+                        OutputStream outputStream = invocation.getArgument(1);
+                        outputStream.write(pdfBytes);
+                        return null;
+                }).when(pdfGenerationService).generatePdfDocument(eq(orderDetails), any(OutputStream.class));
+                doAnswer(invocation -> {
+                        PooledByteArrayOutputStream buffer = invocation.getArgument(1);
+                        uploadedContent.add(buffer.newInputStream().readAllBytes());
+                        return null;
+                }).when(s3StorageHelper).putObjectFromBuffer(eq("temp/test-execution-id-123.pdf"), any(),
+                                eq("application/pdf"));
+
+                // When
+                pooledHandler.handleRequest(orderItem, lambdaContext);
+                pooledHandler.handleRequest(orderItem, lambdaContext);
+
+                // Then
+                assertThat(uploadedContent).containsExactly(pdfBytes, pdfBytes);
+                assertThat(bufferPool.stats().acquired()).isEqualTo(2);
+                assertThat(bufferPool.stats().reused()).isEqualTo(1);
+                verify(pdfGenerationService, never()).generatePdfDocument(orderDetails);
+                verify(s3StorageHelper, never()).putObjectFromBytes(any(), any(), any());
+        }
+
+        @Test
+        void shouldReportPerOrderResultsForBatchInInputOrder() throws Exception {
+                // Given
+                OrderItem firstItem = new OrderItem("ORDER#1", "STATE#v1", "1", null);
+                OrderItem failingItem = new OrderItem("ORDER#2", "STATE#v1", "2", null);
+                OrderItem lastItem = new OrderItem("ORDER#3", "STATE#v1", "3", null);
+                Order failingOrder = createSampleOrder("2");
+
+                when(lambdaContext.getAwsRequestId()).thenReturn("test-execution-id");
+                when(orderDetailsService.fetchOrderDetailsBatch(List.of(firstItem, failingItem, lastItem)))
+                                .thenReturn(Map.of(
+                                                OrderKey.of(firstItem), createSampleOrder("1"),
+                                                OrderKey.of(failingItem), failingOrder,
+                                                OrderKey.of(lastItem), createSampleOrder("3")));
+                doAnswer(invocation -> {
+                        if (invocation.getArgument(0) == failingOrder) {
+                                throw new IOException("Template rendering failed");
+                        }
+                        return null;
+                }).when(pdfGenerationService).generatePdfDocument(any(Order.class), any(OutputStream.class));
+
+                // When
+                GeneratePdfBatchOutput output = generatePdfHandler.handleBatch(
+                                new GeneratePdfBatchInput(List.of(firstItem, failingItem, lastItem)), lambdaContext);
+
+                // Then
+                assertThat(output.results()).containsExactly(
+                                GeneratePdfBatchResult.success("1", "temp/test-execution-id-1-0.pdf"),
+                                GeneratePdfBatchResult.failure("2", "Template rendering failed"),
+                                GeneratePdfBatchResult.success("3", "temp/test-execution-id-3-2.pdf"));
+                verify(s3StorageHelper).putObjectFromBuffer(eq("temp/test-execution-id-1-0.pdf"), any(),
+                                eq("application/pdf"));
+                verify(s3StorageHelper).putObjectFromBuffer(eq("temp/test-execution-id-3-2.pdf"), any(),
+                                eq("application/pdf"));
+                verify(s3StorageHelper, never()).putObjectFromBuffer(eq("temp/test-execution-id-2-1.pdf"), any(),
+                                any());
+        }
+
+        @Test
+        void shouldRenderTwoVersionsOfAnOrderInBatchOnceFromTheLatest() throws Exception {
+                // Given - two versions of one order that were not coalesced upstream
+                InMemoryIdempotencyStore idempotencyStore = new InMemoryIdempotencyStore(100);
+                GeneratePdfHandler idempotentHandler = GeneratePdfHandler.builder(pdfGenerationService,
+                                orderDetailsService, s3StorageHelper)
+                                .idempotencyStore(idempotencyStore)
+                                .build();
+                OrderItem oldVersion = new OrderItem("ORDER#1", "STATE#v1", "1", null,
+                                Map.of("status", Map.of("S", "old"))).withSequenceNumber("20");
+                OrderItem newVersion = new OrderItem("ORDER#1", "STATE#v1", "1", null,
+                                Map.of("status", Map.of("S", "new"))).withSequenceNumber("30");
+                Order newOrder = createSampleOrder("1");
+
+                when(lambdaContext.getAwsRequestId()).thenReturn("test-execution-id");
+                when(orderDetailsService.fetchOrderDetailsBatch(List.of(newVersion)))
+                                .thenReturn(Map.of(OrderKey.of(newVersion), newOrder));
+
+                // When - the newer record arrives first
+                GeneratePdfBatchOutput output = idempotentHandler.handleBatch(
+                                new GeneratePdfBatchInput(List.of(newVersion, oldVersion)), lambdaContext);
+
+                // Then
+                assertThat(output.results()).containsExactly(
+                                GeneratePdfBatchResult.success("1", "temp/test-execution-id-1-0.pdf"),
+                                GeneratePdfBatchResult.success("1", "temp/test-execution-id-1-0.pdf"));
+                verify(pdfGenerationService, times(1)).generatePdfDocument(eq(newOrder), any(OutputStream.class));
+                verify(s3StorageHelper, times(1)).putObjectFromBuffer(any(), any(), any());
+                assertThat(idempotencyStore.findCompletedPdfKey(IdempotencyKey.of(newVersion).orElseThrow()))
+                                .contains("temp/test-execution-id-1-0.pdf");
+        }
+
+        @Test
+        void shouldReturnExistingPdfKeyForRepeatedOrderVersion() throws Exception {
+                // Given
+                InMemoryIdempotencyStore idempotencyStore = new InMemoryIdempotencyStore(100);
+                GeneratePdfHandler idempotentHandler = GeneratePdfHandler.builder(pdfGenerationService,
+                                orderDetailsService, s3StorageHelper)
+                                .pdfBufferPool(new ByteArrayPool(1))
+                                .idempotencyStore(idempotencyStore)
+                                .build();
+                OrderItem orderItem = new OrderItem("ORDER#123", "STATE#v1", "123", null)
+                                .withSequenceNumber("100");
+                OrderItem newerVersion = orderItem.withSequenceNumber("200");
+                Order orderDetails = createSampleOrder("123");
+
+                when(lambdaContext.getAwsRequestId()).thenReturn("first-execution", "second-execution",
+                                "third-execution");
+                when(orderDetailsService.fetchOrderDetails(any(OrderItem.class))).thenReturn(orderDetails);
+                when(pdfGenerationService.generatePdfDocument(orderDetails)).thenReturn("pdf".getBytes());
+
+                // When
+                GeneratePdfOutput first = idempotentHandler.handleRequest(orderItem, lambdaContext);
+                GeneratePdfOutput repeat = idempotentHandler.handleRequest(orderItem, lambdaContext);
+                GeneratePdfOutput newer = idempotentHandler.handleRequest(newerVersion, lambdaContext);
+
+                // Then
+                assertThat(first.tempPdfKey()).isEqualTo("temp/first-execution-123.pdf");
+                assertThat(repeat.tempPdfKey()).isEqualTo("temp/first-execution-123.pdf");
+                assertThat(newer.tempPdfKey()).isEqualTo("temp/second-execution-123.pdf");
+                verify(pdfGenerationService, times(2)).generatePdfDocument(orderDetails);
+                assertThat(idempotencyStore.findCompletedPdfKey(IdempotencyKey.of(newerVersion).orElseThrow()))
+                                .contains("temp/second-execution-123.pdf");
+        }
+
+        @Test
+        void shouldSkipAlreadyGeneratedOrdersInBatch() throws Exception {
+                // Given
+                InMemoryIdempotencyStore idempotencyStore = new InMemoryIdempotencyStore(100);
+                GeneratePdfHandler idempotentHandler = GeneratePdfHandler.builder(pdfGenerationService,
+                                orderDetailsService, s3StorageHelper)
+                                .pdfBufferPool(new ByteArrayPool(1))
+                                .idempotencyStore(idempotencyStore)
+                                .build();
+                OrderItem doneItem = new OrderItem("ORDER#1", "STATE#v1", "1", null).withSequenceNumber("10");
+                OrderItem pendingItem = new OrderItem("ORDER#2", "STATE#v1", "2", null).withSequenceNumber("20");
+                idempotencyStore.recordCompleted(IdempotencyKey.of(doneItem).orElseThrow(),
+                                "temp/earlier-execution-1.pdf");
+
+                when(lambdaContext.getAwsRequestId()).thenReturn("test-execution-id");
+                when(orderDetailsService.fetchOrderDetailsBatch(List.of(pendingItem)))
+                                .thenReturn(Map.of(OrderKey.of(pendingItem), createSampleOrder("2")));
+
+                // When
+                GeneratePdfBatchOutput output = idempotentHandler.handleBatch(
+                                new GeneratePdfBatchInput(List.of(doneItem, pendingItem)), lambdaContext);
+
+                // Then
+                assertThat(output.results()).containsExactly(
+                                GeneratePdfBatchResult.success("1", "temp/earlier-execution-1.pdf"),
+                                GeneratePdfBatchResult.success("2", "temp/test-execution-id-2-0.pdf"));
+                verify(s3StorageHelper, times(1)).putObjectFromBuffer(any(), any(), any());
+                assertThat(idempotencyStore.findCompletedPdfKey(IdempotencyKey.of(pendingItem).orElseThrow()))
+                                .contains("temp/test-execution-id-2-0.pdf");
+        }
+
+        @Test
+        void shouldReportInvoiceLatencyUnderTheOrdersLane() throws Exception {
+                // Given
+                ByteArrayOutputStream metricsOutput = new ByteArrayOutputStream();
+                EmfMetricsLogger metricsLogger = new EmfMetricsLogger("Test", Map.of("Service", "generate-pdf"),
+                                new PrintStream(metricsOutput, true, StandardCharsets.UTF_8), Clock.systemUTC());
+                GeneratePdfHandler laneHandler = GeneratePdfHandler.builder(pdfGenerationService,
+                                orderDetailsService, s3StorageHelper)
+                                .pdfBufferPool(new ByteArrayPool(1))
+                                .idempotencyStore(new InMemoryIdempotencyStore(10))
+                                .priorityLaneService(new PriorityLaneService("high"))
+                                .metricsLogger(metricsLogger)
+                                .build();
+                OrderItem orderItem = new OrderItem("ORDER#123", "STATE#v1", "123", null)
+                                .withApproximateCreationDateTime(System.currentTimeMillis() / 1000.0 - 2);
+                Order orderDetails = createRichSampleOrder("123");
+
+                when(lambdaContext.getAwsRequestId()).thenReturn("test-execution-id");
+                when(orderDetailsService.fetchOrderDetails(orderItem)).thenReturn(orderDetails);
+                when(pdfGenerationService.generatePdfDocument(orderDetails)).thenReturn("pdf".getBytes());
+
+                // When
+                laneHandler.handleRequest(orderItem, lambdaContext);
+
+                // Then
+                List<String> laneLines = metricsOutput.toString(StandardCharsets.UTF_8).lines()
+                                .filter(line -> line.contains("\"Lane\""))
+                                .toList();
+                assertThat(laneLines).hasSize(1);
+                assertThat(laneLines.get(0)).contains("\"Lane\":\"fast\"").contains("\"InvoiceLatency\"");
+                double latencyMillis = new ObjectMapper().readTree(laneLines.get(0))
+                                .path("InvoiceLatency").asDouble();
+                assertThat(latencyMillis).isGreaterThanOrEqualTo(1_900);
+        }
+
+        @Test
+        void shouldReportTheDelayOfEachPipelineHop() throws Exception {
+                // Given
+                ByteArrayOutputStream metricsOutput = new ByteArrayOutputStream();
+                EmfMetricsLogger metricsLogger = new EmfMetricsLogger("Test", Map.of("Service", "generate-pdf"),
+                                new PrintStream(metricsOutput, true, StandardCharsets.UTF_8), Clock.systemUTC());
+                GeneratePdfHandler lagHandler = GeneratePdfHandler.builder(pdfGenerationService,
+                                orderDetailsService, s3StorageHelper)
+                                .pdfBufferPool(new ByteArrayPool(1))
+                                .idempotencyStore(new InMemoryIdempotencyStore(10))
+                                .priorityLaneService(new PriorityLaneService("high"))
+                                .metricsLogger(metricsLogger)
+                                .build();
+                long nowMillis = System.currentTimeMillis();
+                OrderItem orderItem = new OrderItem("ORDER#123", "STATE#v1", "123", null)
+                                .withApproximateCreationDateTime((nowMillis - 10_000) / 1000.0)
+                                .withHopTimestamps(String.valueOf(nowMillis - 7_000),
+                                                Instant.ofEpochMilli(nowMillis - 3_000).toString());
+                Order orderDetails = createSampleOrder("123");
+
+                when(lambdaContext.getAwsRequestId()).thenReturn("test-execution-id");
+                when(orderDetailsService.fetchOrderDetails(orderItem)).thenReturn(orderDetails);
+                when(pdfGenerationService.generatePdfDocument(orderDetails)).thenReturn("pdf".getBytes());
+
+                // When
+                lagHandler.handleRequest(orderItem, lambdaContext);
+
+                // Then
+                String laneLine = metricsOutput.toString(StandardCharsets.UTF_8).lines()
+                                .filter(line -> line.contains("\"Lane\""))
+                                .findFirst()
+                                .orElseThrow();
+                JsonNode lag = new ObjectMapper().readTree(laneLine);
+                assertThat(lag.path("StreamToQueueDelay").asDouble()).isEqualTo(3_000);
+                assertThat(lag.path("QueueDelay").asDouble()).isEqualTo(4_000);
+                assertThat(lag.path("MapQueueDelay").asDouble()).isGreaterThanOrEqualTo(3_000);
+                assertThat(lag.path("GenerationTime").asDouble()).isGreaterThanOrEqualTo(0);
+                assertThat(lag.path("InvoiceLatency").asDouble()).isGreaterThanOrEqualTo(10_000);
+        }
+
+        @Test
+        void shouldReportStageTimingsPdfSizeAndLineCount() throws Exception {
+                // Given
+                ByteArrayOutputStream metricsOutput = new ByteArrayOutputStream();
+                EmfMetricsLogger metricsLogger = new EmfMetricsLogger("Test", Map.of("Service", "generate-pdf"),
+                                new PrintStream(metricsOutput, true, StandardCharsets.UTF_8), Clock.systemUTC());
+                GeneratePdfHandler metricsHandler = GeneratePdfHandler.builder(
+                                new PdfDocumentGenerationService((order, outputStream) -> outputStream.write(
+                                                "fake-pdf".getBytes(StandardCharsets.UTF_8))),
+                                orderDetailsService, s3StorageHelper)
+                                .uploadMode("POOLED")
+                                .pdfBufferPool(new ByteArrayPool(1))
+                                .idempotencyStore(new InMemoryIdempotencyStore(10))
+                                .priorityLaneService(new PriorityLaneService("high"))
+                                .metricsLogger(metricsLogger)
+                                .build();
+                OrderItem orderItem = new OrderItem("ORDER#123", "STATE#v1", "123", null);
+                Order orderDetails = createSampleOrder("123");
+
+                when(lambdaContext.getAwsRequestId()).thenReturn("test-execution-id");
+                when(orderDetailsService.fetchOrderDetails(orderItem)).thenReturn(orderDetails);
+
+                // When
+                metricsHandler.handleRequest(orderItem, lambdaContext);
+
+                // Then
+                List<String> stageLines = metricsOutput.toString(StandardCharsets.UTF_8).lines()
+                                .filter(line -> line.contains("\"Start\""))
+                                .toList();
+                assertThat(stageLines).hasSize(1);
+                JsonNode stageMetrics = new ObjectMapper().readTree(stageLines.get(0));
+                assertThat(stageMetrics.path("Start").asText()).isIn("Cold", "Warm");
+                assertThat(stageMetrics.has("FetchLatency")).isTrue();
+                assertThat(stageMetrics.has("RenderLatency")).isTrue();
+                assertThat(stageMetrics.has("UploadLatency")).isTrue();
+                assertThat(stageMetrics.path("PdfBytes").asDouble()).isEqualTo(8);
+                assertThat(stageMetrics.path("LineCount").asDouble()).isEqualTo(orderDetails.lines().size());
+                assertThat(stageMetrics.path("AllocatedBytes").asDouble()).isPositive();
+                assertThat(stageMetrics.has("GcCount")).isTrue();
+                assertThat(stageMetrics.has("GcTime")).isTrue();
+        }
+
         private Order createSampleOrder(String orderId) {
                 Customer customer = new Customer(
                                 "Test Customer",
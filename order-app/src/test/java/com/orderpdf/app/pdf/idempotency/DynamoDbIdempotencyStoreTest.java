@@ -0,0 +1,90 @@
+package com.orderpdf.app.pdf.idempotency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DynamoDbIdempotencyStoreTest {
+
+        private static final Instant NOW = Instant.parse("2024-01-15T10:00:00Z");
+        private static final IdempotencyKey KEY = new IdempotencyKey("ORDER#1", "STATE#v1", "100");
+
+        @Mock
+        private DynamoDbClient dynamoDbClient;
+
+        private DynamoDbIdempotencyStore store;
+
+        @BeforeEach
+        void setUp() {
+                store = new DynamoDbIdempotencyStore(dynamoDbClient, "order-idempotency", Duration.ofDays(1),
+                                Clock.fixed(NOW, ZoneOffset.UTC));
+        }
+
+        @Test
+        void shouldWriteRecordConditionallyWithExpiry() {
+                // When
+                String recorded = store.recordCompleted(KEY, "temp/first.pdf");
+
+                // Then
+                ArgumentCaptor<PutItemRequest> request = ArgumentCaptor.forClass(PutItemRequest.class);
+                verify(dynamoDbClient).putItem(request.capture());
+                assertThat(recorded).isEqualTo("temp/first.pdf");
+                assertThat(request.getValue().tableName()).isEqualTo("order-idempotency");
+                assertThat(request.getValue().conditionExpression()).isEqualTo("attribute_not_exists(id)");
+                assertThat(request.getValue().item().get("id").s()).isEqualTo("ORDER#1|STATE#v1|100");
+                assertThat(request.getValue().item().get("pdfKey").s()).isEqualTo("temp/first.pdf");
+                assertThat(request.getValue().item().get("expiresAt").n())
+                                .isEqualTo(String.valueOf(NOW.plus(Duration.ofDays(1)).getEpochSecond()));
+        }
+
+        @Test
+        void shouldReturnWinningPdfKeyWhenAnotherInvocationRecordedFirst() {
+                // Given
+                when(dynamoDbClient.putItem(any(PutItemRequest.class)))
+                                .thenThrow(ConditionalCheckFailedException.builder().message("exists").build());
+                when(dynamoDbClient.getItem(any(GetItemRequest.class))).thenReturn(GetItemResponse.builder()
+                                .item(Map.of(
+                                                "id", AttributeValue.builder().s(KEY.id()).build(),
+                                                "pdfKey", AttributeValue.builder().s("temp/winner.pdf").build()))
+                                .build());
+
+                // When
+                String recorded = store.recordCompleted(KEY, "temp/loser.pdf");
+
+                // Then
+                assertThat(recorded).isEqualTo("temp/winner.pdf");
+                ArgumentCaptor<GetItemRequest> request = ArgumentCaptor.forClass(GetItemRequest.class);
+                verify(dynamoDbClient).getItem(request.capture());
+                assertThat(request.getValue().consistentRead()).isTrue();
+        }
+
+        @Test
+        void shouldFindNothingForUnknownVersion() {
+                // Given
+                when(dynamoDbClient.getItem(any(GetItemRequest.class))).thenReturn(GetItemResponse.builder().build());
+
+                // When / Then
+                assertThat(store.findCompletedPdfKey(KEY)).isEmpty();
+        }
+}
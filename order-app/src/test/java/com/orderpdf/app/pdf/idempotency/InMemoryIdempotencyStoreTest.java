@@ -0,0 +1,58 @@
+package com.orderpdf.app.pdf.idempotency;
+
+import com.orderpdf.app.common.dto.OrderItem;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryIdempotencyStoreTest {
+
+        @Test
+        void shouldKeepFirstRecordedPdfKey() {
+                // Given
+                InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(10);
+                IdempotencyKey key = new IdempotencyKey("ORDER#1", "STATE#v1", "100");
+
+                // When
+                String first = store.recordCompleted(key, "temp/first.pdf");
+                String second = store.recordCompleted(key, "temp/second.pdf");
+
+                // Then
+                assertThat(first).isEqualTo("temp/first.pdf");
+                assertThat(second).isEqualTo("temp/first.pdf");
+                assertThat(store.findCompletedPdfKey(key)).contains("temp/first.pdf");
+                assertThat(store.findCompletedPdfKey(new IdempotencyKey("ORDER#1", "STATE#v1", "200"))).isEmpty();
+        }
+
+        @Test
+        void shouldEvictLeastRecentlyUsedRecord() {
+                // Given
+                InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(2);
+                IdempotencyKey first = new IdempotencyKey("ORDER#1", "STATE#v1", "1");
+                IdempotencyKey second = new IdempotencyKey("ORDER#2", "STATE#v1", "1");
+                IdempotencyKey third = new IdempotencyKey("ORDER#3", "STATE#v1", "1");
+                store.recordCompleted(first, "temp/1.pdf");
+                store.recordCompleted(second, "temp/2.pdf");
+
+                // When
+                store.findCompletedPdfKey(first);
+                store.recordCompleted(third, "temp/3.pdf");
+
+                // Then
+                assertThat(store.size()).isEqualTo(2);
+                assertThat(store.findCompletedPdfKey(first)).contains("temp/1.pdf");
+                assertThat(store.findCompletedPdfKey(second)).isEmpty();
+                assertThat(store.findCompletedPdfKey(third)).contains("temp/3.pdf");
+        }
+
+        @Test
+        void shouldOnlyKeyOrderItemsThatCarryAVersion() {
+                // Given
+                OrderItem unversioned = new OrderItem("ORDER#1", "STATE#v1", "1", null);
+
+                // When / Then
+                assertThat(IdempotencyKey.of(unversioned)).isEmpty();
+                assertThat(IdempotencyKey.of(unversioned.withSequenceNumber("42")))
+                                .contains(new IdempotencyKey("ORDER#1", "STATE#v1", "42"));
+        }
+}
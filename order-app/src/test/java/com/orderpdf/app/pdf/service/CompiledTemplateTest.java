@@ -0,0 +1,54 @@
+package com.orderpdf.app.pdf.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledTemplateTest {
+
+    @Test
+    void shouldSplitTemplateIntoLiteralsAndPlaceholders() throws IOException {
+        CompiledTemplate template = CompiledTemplate.compile("<p>{{NAME}}</p><b>{{TOTAL}}</b>");
+
+        StringBuilder out = new StringBuilder();
+        template.render(out, (placeholder, target) -> target.append(placeholder.toLowerCase()));
+
+        assertThat(template.placeholders()).containsExactly("NAME", "TOTAL");
+        assertThat(template.literalLength()).isEqualTo("<p></p><b></b>".length());
+        assertThat(out.toString()).isEqualTo("<p>name</p><b>total</b>");
+    }
+
+    @Test
+    void shouldRenderRepeatedPlaceholdersEachTime() throws IOException {
+        CompiledTemplate template = CompiledTemplate.compile("{{ID}}-{{ID}}");
+
+        StringBuilder out = new StringBuilder();
+        template.render(out, (placeholder, target) -> target.append("42"));
+
+        assertThat(out.toString()).isEqualTo("42-42");
+    }
+
+    @Test
+    void shouldKeepBracesThatAreNotPlaceholders() throws IOException {
+        CompiledTemplate template = CompiledTemplate.compile("a {{ not a slot }} {{ID}} {{unterminated");
+
+        StringBuilder out = new StringBuilder();
+        template.render(out, (placeholder, target) -> target.append("x"));
+
+        assertThat(template.placeholders()).containsExactly("ID");
+        assertThat(out.toString()).isEqualTo("a {{ not a slot }} x {{unterminated");
+    }
+
+    @Test
+    void shouldNotExpandPlaceholdersFoundInRenderedValues() throws IOException {
+        CompiledTemplate template = CompiledTemplate.compile("{{NAME}}|{{TOTAL}}");
+
+        StringBuilder out = new StringBuilder();
+        template.render(out, (placeholder, target) -> target.append(
+                placeholder.equals("NAME") ? "{{TOTAL}}" : "$1.00"));
+
+        assertThat(out.toString()).isEqualTo("{{TOTAL}}|$1.00");
+    }
+}
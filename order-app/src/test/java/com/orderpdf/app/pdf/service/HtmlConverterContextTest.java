@@ -0,0 +1,74 @@
+package com.orderpdf.app.pdf.service;
+
+import com.itextpdf.html2pdf.ConverterProperties;
+import com.itextpdf.html2pdf.HtmlConverter;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.itextpdf.layout.font.FontSet;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HtmlConverterContextTest {
+
+    private final HtmlConverterContext converterContext = HtmlConverterContext.shared();
+
+    @Test
+    void shouldCreateIndependentFontProvidersOverSharedFontSet() {
+        ConverterProperties first = converterContext.newConverterProperties();
+        ConverterProperties second = converterContext.newConverterProperties();
+
+        assertThat(first.getFontProvider()).isNotSameAs(second.getFontProvider());
+        assertThat(first.getFontProvider().getFontSet()).isSameAs(second.getFontProvider().getFontSet());
+        assertThat(first.getFontProvider().getFontSet().size()).isGreaterThan(0);
+        assertThat(first.getMediaDeviceDescription().getType()).isEqualTo("print");
+    }
+
+    @Test
+    void shouldConvertConcurrentlyWithSharedContext() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String html = "<html><body><p>Invoice %d</p></body></html>".formatted(i);
+                results.add(executor.submit(() -> {
+                    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                    HtmlConverter.convertToPdf(html, outputStream, converterContext.newConverterProperties());
+                    return outputStream.toByteArray();
+                }));
+            }
+
+            for (Future<byte[]> result : results) {
+                assertThat(result.get()).startsWith("%PDF".getBytes()); // PDF magic number
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldKeepSharedFontSetAndConvertAfterWarmUp() throws Exception {
+        HtmlConverterContext warmedContext = new HtmlConverterContext();
+        FontSet fontSet = warmedContext.newConverterProperties().getFontProvider().getFontSet();
+
+        warmedContext.warmUp();
+
+        ConverterProperties properties = warmedContext.newConverterProperties();
+        assertThat(properties.getFontProvider().getFontSet()).isSameAs(fontSet);
+        assertThat(fontSet.size()).isGreaterThan(0);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        HtmlConverter.convertToPdf("<html><body><p>Invoice after warm-up</p></body></html>", outputStream, properties);
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(outputStream.toByteArray())))) {
+            assertThat(PdfTextExtractor.getTextFromPage(pdfDocument.getPage(1))).contains("Invoice after warm-up");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.orderpdf.app.pdf.service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.orderpdf.app.common.dto.Customer;
+import com.orderpdf.app.common.dto.Order;
+import com.orderpdf.app.common.dto.OrderLine;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LayoutInvoicePdfRendererTest {
+
+    private final LayoutInvoicePdfRenderer renderer = new LayoutInvoicePdfRenderer();
+
+    @Test
+    void shouldRenderAllInvoiceSections() throws Exception {
+        // Given
+        Order order = createOrder(List.of(
+                new OrderLine("ITEM-001", 2, 2500),
+                new OrderLine("ITEM-002", 1, 1500)),
+                "123 Main Street, Springfield, IL 62701");
+
+        // When
+        String text = extractText(render(order));
+
+        // Then
+        assertThat(text).contains(
+                "ORDER INVOICE", "INVOICE", "ORD-12345", "CONFIRMED", "HIGH",
+                "BILL TO", "John Doe", "john.doe@example.com", "Tel: +1-555-123-4567",
+                "SHIP TO", "123 Main Street", "Springfield",
+                "Source: WEBSITE", "Region: US-WEST", "Notes: Leave at door",
+                "ITEM / SKU", "QTY", "UNIT PRICE", "TOTAL",
+                "ITEM-001", "$25.00", "$50.00", "ITEM-002", "$15.00",
+                "Subtotal:", "$65.00", "Tax (8%):", "$5.20", "TOTAL:", "$70.20",
+                "Thank you for your business!", "Order ID: ORD-12345", "Processing Time: 150ms");
+    }
+
+    @Test
+    void shouldShowSameAsBillingWhenAddressMissing() throws Exception {
+        // Given
+        Order order = createOrder(List.of(new OrderLine("ITEM-001", 1, 1000)), null);
+
+        // When
+        String text = extractText(render(order));
+
+        // Then
+        assertThat(text).contains("Same as billing address");
+    }
+
+    @Test
+    void shouldSpillLargeOrdersOntoFurtherPages() throws Exception {
+        // Given
+        List<OrderLine> lines = IntStream.range(0, 300)
+                .mapToObj(i -> new OrderLine("LINE-%04d".formatted(i), 1, 100))
+                .toList();
+        Order order = createOrder(lines, null);
+
+        // When
+        byte[] pdfBytes = render(order);
+
+        // Then
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdfBytes)))) {
+            assertThat(pdfDocument.getNumberOfPages()).isGreaterThan(1);
+        }
+        assertThat(extractText(pdfBytes)).contains("LINE-0000", "LINE-0299", "$324.00");
+    }
+
+    private byte[] render(Order order) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        renderer.render(order, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private String extractText(byte[] pdfBytes) throws IOException {
+        StringBuilder text = new StringBuilder();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdfBytes)))) {
+            for (int page = 1; page <= pdfDocument.getNumberOfPages(); page++) {
+                text.append(PdfTextExtractor.getTextFromPage(pdfDocument.getPage(page))).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    private Order createOrder(List<OrderLine> lines, String address) {
+        Customer customer = new Customer(
+                "John Doe",
+                "john.doe@example.com",
+                "+1-555-123-4567",
+                address);
+
+        return new Order(
+                "ORD-12345",
+                "USD",
+                Instant.parse("2024-03-15T10:30:00Z"),
+                customer,
+                lines,
+                "CONFIRMED",
+                "Leave at door",
+                "website",
+                "high",
+                "us-west",
+                0.0,
+                Instant.now().toString(),
+                150);
+    }
+}
@@ -1,13 +1,20 @@
 package com.orderpdf.app.pdf.service;
 
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
 import com.orderpdf.app.common.dto.Customer;
 import com.orderpdf.app.common.dto.Order;
 import com.orderpdf.app.common.dto.OrderLine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -112,6 +119,144 @@ class PdfDocumentGenerationServiceTest {
                 .isInstanceOf(Exception.class);
     }
 
+    @Test
+    void shouldWritePdfToProvidedOutputStream() throws Exception {
+        // Given
+        Order order = createBasicOrder();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // When
+        pdfDocumentGenerationService.generatePdfDocument(order, outputStream);
+
+        // Then
+        assertThat(outputStream.toByteArray()).startsWith("%PDF".getBytes()); // PDF magic number
+    }
+
+    @Test
+    void shouldGeneratePdfWhenStreamingHtml() throws Exception {
+        // Given
+        PdfDocumentGenerationService streamingService =
+                new PdfDocumentGenerationService(
+                        new HtmlInvoicePdfRenderer(new HtmlTemplateService(), HtmlConverterContext.shared(), true, 64 * 1024));
+        Order order = createRichOrder();
+
+        // When
+        byte[] pdfBytes = streamingService.generatePdfDocument(order);
+
+        // Then
+        assertThat(pdfBytes).startsWith("%PDF".getBytes()); // PDF magic number
+        assertThat(extractText(pdfBytes)).contains("ORDER-2024-789", "SKU-PREMIUM-001", "Jane Smith");
+    }
+
+    @Test
+    void shouldStreamLargeOrderThroughSmallBuffer() throws Exception {
+        // Given - the HTML is far larger than the pipe buffer
+        PdfDocumentGenerationService streamingService =
+                new PdfDocumentGenerationService(
+                        new HtmlInvoicePdfRenderer(new HtmlTemplateService(), HtmlConverterContext.shared(), true, 1024));
+        Order order = createOrderWithLineCount(500);
+
+        // When
+        byte[] pdfBytes = streamingService.generatePdfDocument(order);
+
+        // Then
+        assertThat(pdfBytes).startsWith("%PDF".getBytes()); // PDF magic number
+        assertThat(extractText(pdfBytes)).contains("LINE-0000", "LINE-0499");
+    }
+
+    @Test
+    void shouldFailWhenStreamingHtmlWriterFails() {
+        // Given - null lines make the template writer fail part way through
+        PdfDocumentGenerationService streamingService =
+                new PdfDocumentGenerationService(
+                        new HtmlInvoicePdfRenderer(new HtmlTemplateService(), HtmlConverterContext.shared(), true, 1024));
+        Order order = new Order("BROKEN-001", "USD", Instant.now(),
+                new Customer("Broken", "broken@example.com", null, null),
+                null, "PENDING", null, null, null, null, 0.0, null, 0);
+
+        // When/Then
+        assertThatThrownBy(() -> streamingService.generatePdfDocument(order))
+                .isInstanceOf(IOException.class)
+                .hasMessage("PDF generation failed");
+    }
+
+    @Test
+    void shouldSelectLayoutRendererWhenConfigured() {
+        // When
+        InvoicePdfRenderer renderer = PdfDocumentGenerationService.createRenderer(
+                "layout", HtmlTemplateService.DEFAULT_TEMPLATE_PATH);
+
+        // Then
+        assertThat(renderer).isInstanceOf(LayoutInvoicePdfRenderer.class);
+    }
+
+    @Test
+    void shouldSelectStampedRendererWhenConfigured() {
+        // When
+        InvoicePdfRenderer renderer = PdfDocumentGenerationService.createRenderer(
+                "STAMPED", HtmlTemplateService.DEFAULT_TEMPLATE_PATH);
+
+        // Then
+        assertThat(renderer).isInstanceOf(StampedInvoicePdfRenderer.class);
+    }
+
+    @Test
+    void shouldFallBackToHtmlRendererForUnknownName() {
+        // When
+        InvoicePdfRenderer renderer = PdfDocumentGenerationService.createRenderer(
+                "SVG", HtmlTemplateService.DEFAULT_TEMPLATE_PATH);
+
+        // Then
+        assertThat(renderer).isInstanceOf(HtmlInvoicePdfRenderer.class);
+    }
+
+    @Test
+    void shouldUseHtmlRendererForCustomTemplate() {
+        // When
+        InvoicePdfRenderer renderer = PdfDocumentGenerationService.createRenderer(
+                "LAYOUT", "/templates/custom-invoice.html");
+
+        // Then
+        assertThat(renderer).isInstanceOf(HtmlInvoicePdfRenderer.class);
+    }
+
+    private String extractText(byte[] pdfBytes) throws IOException {
+        StringBuilder text = new StringBuilder();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdfBytes)))) {
+            for (int page = 1; page <= pdfDocument.getNumberOfPages(); page++) {
+                text.append(PdfTextExtractor.getTextFromPage(pdfDocument.getPage(page)));
+            }
+        }
+        return text.toString();
+    }
+
+    private Order createOrderWithLineCount(int lineCount) {
+        Customer customer = new Customer(
+                "Bulk Customer",
+                "bulk@example.com",
+                "+1-555-222-3333",
+                "1 Warehouse Road, Bulk City, BC 11111");
+
+        List<OrderLine> orderLines = IntStream.range(0, lineCount)
+                .mapToObj(i -> new OrderLine("LINE-%04d".formatted(i), 1 + i % 5, 100 + i))
+                .toList();
+
+        return new Order(
+                "BULK-" + lineCount,
+                "USD",
+                Instant.now(),
+                customer,
+                orderLines,
+                "CONFIRMED",
+                "Bulk order",
+                "api",
+                "normal",
+                "us-east",
+                0.0,
+                Instant.now().toString(),
+                100);
+    }
+
     private Order createBasicOrder() {
         Customer customer = new Customer(
                 "John Doe",
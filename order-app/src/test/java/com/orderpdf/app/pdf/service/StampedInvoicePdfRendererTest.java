@@ -0,0 +1,209 @@
+package com.orderpdf.app.pdf.service;
+
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.orderpdf.app.common.dto.Customer;
+import com.orderpdf.app.common.dto.Order;
+import com.orderpdf.app.common.dto.OrderLine;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class StampedInvoicePdfRendererTest {
+
+    private final StampedInvoicePdfRenderer renderer = new StampedInvoicePdfRenderer();
+
+    @Test
+    void shouldRenderAllInvoiceSections() throws Exception {
+        // Given
+        Order order = createOrder(List.of(
+                new OrderLine("ITEM-001", 2, 2500),
+                new OrderLine("ITEM-002", 1, 1500)),
+                "123 Main Street, Springfield, IL 62701");
+
+        // When
+        String text = extractText(render(order));
+
+        // Then
+        assertThat(text).contains(
+                "ORDER INVOICE", "INVOICE", "ORD-12345", "CONFIRMED", "HIGH",
+                "BILL TO", "John Doe", "john.doe@example.com", "Tel: +1-555-123-4567",
+                "SHIP TO", "123 Main Street", "Springfield",
+                "Source: WEBSITE", "Region: US-WEST", "Notes: Leave at door",
+                "ITEM / SKU", "QTY", "UNIT PRICE", "TOTAL",
+                "ITEM-001", "$25.00", "$50.00", "ITEM-002", "$15.00",
+                "Subtotal:", "$65.00", "Tax (8%):", "$5.20", "TOTAL:", "$70.20",
+                "Thank you for your business!", "Order ID: ORD-12345", "Processing Time: 150ms");
+    }
+
+    @Test
+    void shouldShowSameAsBillingWhenAddressMissing() throws Exception {
+        // Given
+        Order order = createOrder(List.of(new OrderLine("ITEM-001", 1, 1000)), null);
+
+        // When
+        String text = extractText(render(order));
+
+        // Then
+        assertThat(text).contains("Same as billing address");
+    }
+
+    @Test
+    void shouldSpillLargeOrdersOntoFurtherPages() throws Exception {
+        // Given
+        List<OrderLine> lines = IntStream.range(0, 300)
+                .mapToObj(i -> new OrderLine("LINE-%04d".formatted(i), 1, 100))
+                .toList();
+        Order order = createOrder(lines, null);
+
+        // When
+        byte[] pdfBytes = render(order);
+
+        // Then
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdfBytes)))) {
+            assertThat(pdfDocument.getNumberOfPages()).isGreaterThan(1);
+        }
+        assertThat(extractText(pdfBytes)).contains("LINE-0000", "LINE-0299", "$324.00");
+    }
+
+    @Test
+    void shouldLayOutWholeInvoiceWhenAddressOverflowsTheCustomerPanel() throws Exception {
+        // Given
+        String address = IntStream.rangeClosed(1, 12)
+                .mapToObj(line -> "Building %d, Long Industrial Estate Road".formatted(line))
+                .collect(Collectors.joining(", "));
+        Order order = createOrder(List.of(new OrderLine("ITEM-001", 1, 1000)), address);
+
+        // When
+        String text = extractText(render(order)).replace("\n", " ");
+
+        // Then - nothing is dropped, and the rest of the invoice is still there
+        assertThat(text).contains("BILL TO", "SHIP TO", "Building 1 ", "Building 12 Long Industrial Estate Road",
+                "ORDER INVOICE", "ORD-12345", "ITEM-001", "TOTAL:", "$10.80", "Thank you for your business!");
+    }
+
+    @Test
+    void shouldLayOutWholeInvoiceWhenOrderIdIsWiderThanTheDetailBox() throws Exception {
+        // Given
+        InvoiceChrome chrome = spy(InvoiceChrome.shared());
+        String orderId = "ORD-" + "1234567890".repeat(6);
+        Order order = createOrder(orderId, List.of(new OrderLine("ITEM-001", 1, 1000)), null);
+
+        // When
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new StampedInvoicePdfRenderer(chrome).render(order, outputStream);
+        String text = extractText(outputStream.toByteArray()).replaceAll("\\s", "");
+
+        // Then - the header is not stamped, so the id cannot overprint its label
+        verify(chrome, never()).importInto(any());
+        assertThat(text.substring(0, text.indexOf("Date:"))).contains("1234567890".repeat(6));
+        assertThat(text).contains("CONFIRMED", "HIGH", "ITEM-001", "TOTAL:", "OrderID:" + orderId);
+    }
+
+    @Test
+    void shouldRenderOnVirtualThreads() throws Exception {
+        // Given
+        Order order = createOrder(List.of(new OrderLine("ITEM-001", 1, 1000)), null);
+
+        // When
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<byte[]>> renders = IntStream.range(0, 4)
+                    .mapToObj(i -> executor.submit(() -> render(order)))
+                    .toList();
+
+            // Then
+            for (Future<byte[]> pdfBytes : renders) {
+                assertThat(extractText(pdfBytes.get())).contains("ORDER INVOICE", "ORD-12345", "ITEM-001",
+                        "Thank you for your business!");
+            }
+        }
+    }
+
+    @Test
+    void shouldReuseTheSameChromeObjectsOnEveryPage() throws Exception {
+        // Given
+        List<OrderLine> lines = IntStream.range(0, 300)
+                .mapToObj(i -> new OrderLine("LINE-%04d".formatted(i), 1, 100))
+                .toList();
+        Order order = createOrder(lines, null);
+
+        // When
+        byte[] pdfBytes = render(order);
+
+        // Then - header, column headings and footer stamps, however many pages there are
+        Set<Integer> xObjects = new HashSet<>();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdfBytes)))) {
+            assertThat(pdfDocument.getNumberOfPages()).isGreaterThan(2);
+            for (int page = 1; page <= pdfDocument.getNumberOfPages(); page++) {
+                PdfDictionary pageXObjects = pdfDocument.getPage(page).getResources().getResource(PdfName.XObject);
+                for (PdfName name : pageXObjects.keySet()) {
+                    xObjects.add(pageXObjects.getAsStream(name).getIndirectReference().getObjNumber());
+                }
+            }
+        }
+        assertThat(xObjects).hasSize(3);
+    }
+
+    private byte[] render(Order order) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        renderer.render(order, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private String extractText(byte[] pdfBytes) throws IOException {
+        StringBuilder text = new StringBuilder();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdfBytes)))) {
+            for (int page = 1; page <= pdfDocument.getNumberOfPages(); page++) {
+                text.append(PdfTextExtractor.getTextFromPage(pdfDocument.getPage(page))).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    private Order createOrder(List<OrderLine> lines, String address) {
+        return createOrder("ORD-12345", lines, address);
+    }
+
+    private Order createOrder(String orderId, List<OrderLine> lines, String address) {
+        Customer customer = new Customer(
+                "John Doe",
+                "john.doe@example.com",
+                "+1-555-123-4567",
+                address);
+
+        return new Order(
+                orderId,
+                "USD",
+                Instant.parse("2024-03-15T10:30:00Z"),
+                customer,
+                lines,
+                "CONFIRMED",
+                "Leave at door",
+                "website",
+                "high",
+                "us-west",
+                0.0,
+                Instant.now().toString(),
+                150);
+    }
+}
@@ -1,10 +1,15 @@
 package com.orderpdf.app.preprocess;
 
 import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import com.fasterxml.jackson.core.JsonParseException;
 import com.orderpdf.app.common.dto.OrderItem;
 import com.orderpdf.app.common.dto.PreprocessOutput;
+import com.orderpdf.app.common.metrics.EmfMetricsLogger;
+import com.orderpdf.app.common.service.PriorityLaneService;
 import com.orderpdf.app.preprocess.service.DynamoDBMessageParsingService;
+import com.orderpdf.app.preprocess.service.OrderItemCoalescingService;
 import com.orderpdf.app.preprocess.service.OrderProcessingEligibilityService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,10 +17,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -126,4 +139,172 @@ class PreprocessHandlerTest {
         assertThat(result.items()).isEmpty();
         assertThat(result.timestamp()).isNotNull();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReportOnlyFailedMessagesInBatchResponse() throws Exception {
+        OrderItem orderItem = new OrderItem("ORDER#123", "STATE#v1", "123", null);
+
+        SQSEvent.SQSMessage healthyMessage = new SQSEvent.SQSMessage();
+        healthyMessage.setMessageId("healthy-message-id");
+        healthyMessage.setBody("healthy-message-body");
+
+        SQSEvent.SQSMessage malformedMessage = new SQSEvent.SQSMessage();
+        malformedMessage.setMessageId("malformed-message-id");
+        malformedMessage.setBody("malformed-message-body");
+
+        SQSEvent.SQSMessage failingMessage = new SQSEvent.SQSMessage();
+        failingMessage.setMessageId("failing-message-id");
+        failingMessage.setBody("failing-message-body");
+
+        SQSEvent sqsEvent = new SQSEvent();
+        sqsEvent.setRecords(List.of(healthyMessage, malformedMessage, failingMessage));
+
+        OrderItem failingOrderItem = new OrderItem("ORDER#456", "STATE#v1", "456", null);
+        when(messageParsingService.parseOrderItem("healthy-message-body")).thenReturn(orderItem);
+        when(messageParsingService.parseOrderItem("malformed-message-body"))
+                .thenThrow(new JsonParseException(null, "Unexpected character"));
+        when(messageParsingService.parseOrderItem("failing-message-body")).thenReturn(failingOrderItem);
+        when(eligibilityService.shouldProcessOrder(orderItem)).thenReturn(true);
+        when(eligibilityService.shouldProcessOrder(failingOrderItem))
+                .thenThrow(new RuntimeException("Eligibility check failed"));
+
+        SQSBatchResponse response = preprocessHandler.handleRequestWithBatchResponse(sqsEvent, lambdaContext);
+
+        assertThat(response.getBatchItemFailures())
+                .extracting(SQSBatchResponse.BatchItemFailure::getItemIdentifier)
+                .containsExactly("malformed-message-id", "failing-message-id");
+    }
+
+    @Test
+    void shouldReportSupersededMessagesWithTheRecordThatFailedEligibility() throws Exception {
+        OrderItem healthyItem = new OrderItem("ORDER#1", "STATE#v1", "1", null).withSequenceNumber("100");
+        OrderItem supersededItem = new OrderItem("ORDER#2", "STATE#v1", "2", null).withSequenceNumber("200");
+        OrderItem failingItem = supersededItem.withSequenceNumber("300");
+        SQSEvent sqsEvent = new SQSEvent();
+        sqsEvent.setRecords(List.of(message("healthy"), message("malformed"),
+                message("superseded"), message("failing")));
+
+        when(messageParsingService.parseOrderItem("healthy")).thenReturn(healthyItem);
+        when(messageParsingService.parseOrderItem("malformed"))
+                .thenThrow(new JsonParseException(null, "Unexpected character"));
+        when(messageParsingService.parseOrderItem("superseded")).thenReturn(supersededItem);
+        when(messageParsingService.parseOrderItem("failing")).thenReturn(failingItem);
+        when(eligibilityService.shouldProcessOrder(healthyItem)).thenReturn(true);
+        when(eligibilityService.shouldProcessOrder(failingItem))
+                .thenThrow(new RuntimeException("Eligibility check failed"));
+
+        SQSBatchResponse response = preprocessHandler.handleRequestWithBatchResponse(sqsEvent, lambdaContext);
+
+        // The superseded record is redelivered with the record that replaced it
+        assertThat(response.getBatchItemFailures())
+                .extracting(SQSBatchResponse.BatchItemFailure::getItemIdentifier)
+                .containsExactly("malformed-message-id", "superseded-message-id", "failing-message-id");
+    }
+
+    @Test
+    void shouldReturnNoBatchItemFailuresWhenAllMessagesSucceed() throws Exception {
+        SQSEvent.SQSMessage sqsMessage = new SQSEvent.SQSMessage();
+        sqsMessage.setMessageId("test-message-id");
+        sqsMessage.setBody("not-an-order-body");
+
+        SQSEvent sqsEvent = new SQSEvent();
+        sqsEvent.setRecords(List.of(sqsMessage));
+
+        when(messageParsingService.parseOrderItem("not-an-order-body")).thenReturn(null);
+
+        SQSBatchResponse response = preprocessHandler.handleRequestWithBatchResponse(sqsEvent, lambdaContext);
+
+        assertThat(response.getBatchItemFailures()).isEmpty();
+    }
+
+    @Test
+    void shouldCoalesceRecordsForTheSameOrderAndCountAvoidedRenders() {
+        ByteArrayOutputStream metricsOutput = new ByteArrayOutputStream();
+        EmfMetricsLogger metricsLogger = new EmfMetricsLogger("Test", Map.of("Service", "preprocess"),
+                new PrintStream(metricsOutput, true, StandardCharsets.UTF_8), Clock.systemUTC());
+        PreprocessHandler coalescingHandler = new PreprocessHandler(messageParsingService, eligibilityService,
+                new OrderItemCoalescingService(), metricsLogger);
+
+        OrderItem firstUpdate = new OrderItem("ORDER#123", "STATE#v1", "123", null).withSequenceNumber("100");
+        OrderItem secondUpdate = new OrderItem("ORDER#123", "STATE#v1", "123", null).withSequenceNumber("200");
+        OrderItem otherOrder = new OrderItem("ORDER#456", "STATE#v1", "456", null).withSequenceNumber("150");
+
+        SQSEvent sqsEvent = new SQSEvent();
+        sqsEvent.setRecords(List.of(message("first"), message("other"), message("second")));
+
+        when(messageParsingService.parseOrderItemFromMessage("first")).thenReturn(firstUpdate);
+        when(messageParsingService.parseOrderItemFromMessage("other")).thenReturn(otherOrder);
+        when(messageParsingService.parseOrderItemFromMessage("second")).thenReturn(secondUpdate);
+        when(eligibilityService.shouldProcessOrder(any())).thenReturn(true);
+
+        PreprocessOutput result = coalescingHandler.handleRequest(sqsEvent, lambdaContext);
+
+        assertThat(result.items()).containsExactly(secondUpdate, otherOrder);
+        verify(eligibilityService, never()).shouldProcessOrder(firstUpdate);
+        assertThat(metricsOutput.toString(StandardCharsets.UTF_8)).contains("\"CoalescedRecords\":1.0")
+            .contains("\"AllocatedBytes\"").contains("\"GcCount\"").contains("\"GcTime\"");
+    }
+
+    @Test
+    void shouldRouteFastLanePrioritiesSeparatelyAndReportRecordAgePerLane() {
+        ByteArrayOutputStream metricsOutput = new ByteArrayOutputStream();
+        EmfMetricsLogger metricsLogger = new EmfMetricsLogger("Test", Map.of("Service", "preprocess"),
+                new PrintStream(metricsOutput, true, StandardCharsets.UTF_8), Clock.systemUTC());
+        PreprocessHandler laneHandler = new PreprocessHandler(messageParsingService, eligibilityService,
+                new OrderItemCoalescingService(), metricsLogger, new PriorityLaneService("high, urgent"));
+
+        double createdSecondsAgo = System.currentTimeMillis() / 1000.0 - 5;
+        OrderItem urgentOrder = new OrderItem("ORDER#1", "STATE#v1", "1", null).withPriority("urgent")
+                .withApproximateCreationDateTime(createdSecondsAgo);
+        OrderItem normalOrder = new OrderItem("ORDER#2", "STATE#v1", "2", null).withPriority("normal");
+        OrderItem unprioritisedOrder = new OrderItem("ORDER#3", "STATE#v1", "3", null);
+
+        SQSEvent sqsEvent = new SQSEvent();
+        sqsEvent.setRecords(List.of(message("normal"), message("urgent"), message("none")));
+
+        when(messageParsingService.parseOrderItemFromMessage("normal")).thenReturn(normalOrder);
+        when(messageParsingService.parseOrderItemFromMessage("urgent")).thenReturn(urgentOrder);
+        when(messageParsingService.parseOrderItemFromMessage("none")).thenReturn(unprioritisedOrder);
+        when(eligibilityService.shouldProcessOrder(any())).thenReturn(true);
+
+        PreprocessOutput result = laneHandler.handleRequest(sqsEvent, lambdaContext);
+
+        assertThat(result.priorityItems()).containsExactly(urgentOrder);
+        assertThat(result.items()).containsExactly(normalOrder, unprioritisedOrder);
+        String metrics = metricsOutput.toString(StandardCharsets.UTF_8);
+        assertThat(metrics).contains("\"Lane\":\"fast\"").contains("\"Lane\":\"bulk\"");
+        assertThat(metrics.lines().filter(line -> line.contains("\"Lane\":\"fast\"")).findFirst().orElseThrow())
+                .contains("\"RoutedOrders\":1.0").contains("\"RecordAge\"");
+    }
+
+    private SQSEvent.SQSMessage message(String body) {
+        SQSEvent.SQSMessage sqsMessage = new SQSEvent.SQSMessage();
+        sqsMessage.setMessageId(body + "-message-id");
+        sqsMessage.setBody(body);
+        return sqsMessage;
+    }
+
+    @Test
+    void shouldCarryTheQueueSentTimestampOfEachMessage() {
+        // Given
+        SQSEvent.SQSMessage sqsMessage = new SQSEvent.SQSMessage();
+        sqsMessage.setMessageId("message-1");
+        sqsMessage.setBody("sample-message-body");
+        sqsMessage.setAttributes(Map.of("SentTimestamp", "1700000000000"));
+
+        SQSEvent sqsEvent = new SQSEvent();
+        sqsEvent.setRecords(List.of(sqsMessage));
+
+        OrderItem orderItem = new OrderItem("ORDER#123", "STATE#v1", "123", null);
+        OrderItem sentItem = orderItem.withHopTimestamps("1700000000000", null);
+        when(messageParsingService.parseOrderItemFromMessage("sample-message-body")).thenReturn(orderItem);
+        when(eligibilityService.shouldProcessOrder(sentItem)).thenReturn(true);
+
+        // When
+        PreprocessOutput result = preprocessHandler.handleRequest(sqsEvent, lambdaContext);
+
+        // Then
+        assertThat(result.items()).containsExactly(sentItem);
+        assertThat(result.items().get(0).queueSentAt()).isEqualTo(Instant.ofEpochMilli(1_700_000_000_000L));
+    }
+}
@@ -0,0 +1,232 @@
+package com.orderpdf.app.preprocess.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderpdf.app.common.dto.OrderItem;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DynamoDBMessageParsingServiceTest {
+
+    private static final String MESSAGE_BODY = """
+            {
+                "eventName": "INSERT",
+                "dynamodb": {
+                    "Keys": {"pk": {"S": "ORDER#123"}, "sk": {"S": "STATE#v1"}},
+                    "NewImage": {
+                        "pk": {"S": "ORDER#123"},
+                        "sk": {"S": "STATE#v1"},
+                        "orderId": {"S": "123"},
+                        "pdf": {"M": {"s3Key": {"S": "invoices/123.pdf"}}},
+                        "items": {"L": [{"M": {"itemId": {"S": "ITEM-001"}}}]}
+                    }
+                }
+            }
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldParseKeysWithoutImageByDefault() {
+        DynamoDBMessageParsingService parsingService = new DynamoDBMessageParsingService(objectMapper);
+
+        OrderItem orderItem = parsingService.parseOrderItemFromMessage(MESSAGE_BODY);
+
+        assertThat(orderItem).isEqualTo(new OrderItem("ORDER#123", "STATE#v1", "123", "invoices/123.pdf"));
+    }
+
+    @Test
+    void shouldPassImageThroughWhenMessageIsSmallEnough() {
+        DynamoDBMessageParsingService parsingService = new DynamoDBMessageParsingService(objectMapper, 64 * 1024);
+
+        OrderItem orderItem = parsingService.parseOrderItemFromMessage(MESSAGE_BODY);
+
+        assertThat(orderItem.newImage()).isNotNull();
+        assertThat(orderItem.newImage()).containsKeys("pk", "sk", "orderId", "pdf", "items");
+        assertThat(orderItem.newImage().get("orderId")).isEqualTo(Map.of("S", "123"));
+    }
+
+    @Test
+    void shouldDropImageWhenMessageIsTooLarge() {
+        DynamoDBMessageParsingService parsingService = new DynamoDBMessageParsingService(objectMapper, 64);
+
+        OrderItem orderItem = parsingService.parseOrderItemFromMessage(MESSAGE_BODY);
+
+        assertThat(orderItem.orderId()).isEqualTo("123");
+        assertThat(orderItem.newImage()).isNull();
+    }
+
+    @Test
+    void shouldFindImageFieldsInAnyOrderAndSkipOtherSections() {
+        DynamoDBMessageParsingService parsingService = new DynamoDBMessageParsingService(objectMapper);
+        String messageBody = """
+                {
+                    "dynamodb": {
+                        "OldImage": {"pk": {"S": "ORDER#OLD"}, "sk": {"S": "STATE#v0"}, "orderId": {"S": "old"}},
+                        "NewImage": {
+                            "items": {"L": [{"M": {"pk": {"S": "nested"}, "tags": {"SS": ["a", "b"]}}}]},
+                            "pdf": {"M": {"status": {"S": "DONE"}, "s3Key": {"S": "invoices/9.pdf"}}},
+                            "orderId": {"S": "9"},
+                            "sk": {"S": "STATE#v1"},
+                            "pk": {"S": "ORDER#9"}
+                        }
+                    },
+                    "eventName": "MODIFY"
+                }
+                """;
+
+        OrderItem orderItem = parsingService.parseOrderItemFromMessage(messageBody);
+
+        assertThat(orderItem).isEqualTo(new OrderItem("ORDER#9", "STATE#v1", "9", "invoices/9.pdf"));
+    }
+
+    @Test
+    void shouldReturnNullWhenRequiredFieldIsMissing() {
+        DynamoDBMessageParsingService parsingService = new DynamoDBMessageParsingService(objectMapper);
+        String messageBody = """
+                {"dynamodb": {"NewImage": {"pk": {"S": "ORDER#1"}, "orderId": {"N": "1"}}}}
+                """;
+
+        assertThat(parsingService.parseOrderItemFromMessage(messageBody)).isNull();
+    }
+
+    @Test
+    void shouldReturnNullWithoutNewImageOrForMalformedJson() {
+        DynamoDBMessageParsingService parsingService = new DynamoDBMessageParsingService(objectMapper);
+
+        assertThat(parsingService.parseOrderItemFromMessage("{\"eventName\": \"REMOVE\"}")).isNull();
+        assertThat(parsingService.parseOrderItemFromMessage("{\"dynamodb\": {\"Keys\": {}}}")).isNull();
+        assertThat(parsingService.parseOrderItemFromMessage("{\"dynamodb\": {\"NewImage\": {")).isNull();
+    }
+
+    @Test
+    void shouldThrowForMalformedJsonWhenParsingStrictly() {
+        DynamoDBMessageParsingService parsingService = new DynamoDBMessageParsingService(objectMapper);
+
+        assertThatThrownBy(() -> parsingService.parseOrderItem("{\"dynamodb\": {\"NewImage\": {"))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void shouldReadSequenceNumberBeforeOrAfterImage() {
+        DynamoDBMessageParsingService parsingService = new DynamoDBMessageParsingService(objectMapper);
+        String image = "{\"pk\": {\"S\": \"ORDER#1\"}, \"sk\": {\"S\": \"STATE#v1\"}, \"orderId\": {\"S\": \"1\"}, "
+                + "\"pdf\": {\"M\": {}}, \"items\": {\"L\": []}}";
+
+        OrderItem sequenceAfterImage = parsingService.parseOrderItemFromMessage(
+                "{\"dynamodb\": {\"NewImage\": " + image + ", \"SequenceNumber\": \"4200\", \"SizeBytes\": 10}}");
+        OrderItem sequenceBeforeImage = parsingService.parseOrderItemFromMessage(
+                "{\"dynamodb\": {\"SequenceNumber\": \"4300\", \"NewImage\": " + image + "}}");
+
+        assertThat(sequenceAfterImage.sequenceNumber()).isEqualTo("4200");
+        assertThat(sequenceAfterImage.orderId()).isEqualTo("1");
+        assertThat(sequenceBeforeImage.sequenceNumber()).isEqualTo("4300");
+    }
+
+    @Test
+    void shouldStopBeforeLineItemsOnceKeysAndPriorityAreRead() throws IOException {
+        // A truncated line item list shows whether the parser read past the key fields
+        String insertRecord = "{\"dynamodb\": {\"ApproximateCreationDateTime\": 1700000000, \"SequenceNumber\": \"42\", "
+                + "\"NewImage\": {\"pk\": {\"S\": \"ORDER#7\"}, \"sk\": {\"S\": \"STATE#v1\"}, \"orderId\": {\"S\": \"7\"}, "
+                + "\"priority\": {\"S\": \"high\"}, \"items\": {\"L\": [{\"M\": ";
+        DynamoDBMessageParsingService parsingService = new DynamoDBMessageParsingService(objectMapper, 0, false, false);
+
+        OrderItem orderItem = parsingService.parseOrderItem(insertRecord);
+
+        assertThat(orderItem.orderId()).isEqualTo("7");
+        assertThat(orderItem.sequenceNumber()).isEqualTo("42");
+        assertThat(orderItem.oldPdfKey()).isNull();
+        assertThat(orderItem.priority()).isEqualTo("high");
+        // FIRST_TIME_ONLY needs the previous PDF key, which could still come after the line items
+        assertThatThrownBy(() -> new DynamoDBMessageParsingService(objectMapper, 0, false, true)
+                .parseOrderItem(insertRecord))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void shouldReadPriorityThatComesAfterKeysAndLineItems() throws IOException {
+        String insertRecord = """
+                {"dynamodb": {"SequenceNumber": "42", "NewImage": {
+                    "pk": {"S": "ORDER#7"}, "sk": {"S": "STATE#v1"}, "orderId": {"S": "7"},
+                    "items": {"L": [{"M": {"itemId": {"S": "A"}, "price": {"N": "10.0"}}}]},
+                    "priority": {"S": "high"}
+                }}}
+                """;
+        DynamoDBMessageParsingService parsingService = new DynamoDBMessageParsingService(objectMapper, 0, false, false);
+
+        OrderItem orderItem = parsingService.parseOrderItem(insertRecord);
+
+        assertThat(orderItem.orderId()).isEqualTo("7");
+        assertThat(orderItem.priority()).isEqualTo("high");
+        // Without a priority the whole image has to be read to know there is none
+        assertThatThrownBy(() -> parsingService.parseOrderItem(insertRecord.substring(0, insertRecord.indexOf("\"items\""))))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void shouldFingerprintOnlyInvoiceFieldsOfBothImages() {
+        String pdfStatusUpdate = """
+                {
+                    "eventName": "MODIFY",
+                    "dynamodb": {
+                        "NewImage": {
+                            "pk": {"S": "ORDER#7"}, "sk": {"S": "STATE#v1"}, "orderId": {"S": "7"},
+                            "customerName": {"S": "Jane"}, "items": {"L": [{"M": {"itemId": {"S": "A"}, "price": {"N": "10.0"}}}]},
+                            "pdf": {"M": {"s3Key": {"S": "invoices/7.pdf"}}}, "updatedAt": {"S": "2024-01-02"}
+                        },
+                        "OldImage": {
+                            "updatedAt": {"S": "2024-01-01"}, "customerName": {"S": "Jane"}, "orderId": {"S": "7"},
+                            "items": {"L": [{"M": {"price": {"N": "10"}, "itemId": {"S": "A"}}}]}
+                        },
+                        "SequenceNumber": "300"
+                    }
+                }
+                """;
+        String nameUpdate = pdfStatusUpdate.replace("\"customerName\": {\"S\": \"Jane\"}, \"items\"",
+                "\"customerName\": {\"S\": \"Janet\"}, \"items\"");
+
+        for (int maxPassthroughImageBytes : new int[] {0, 64 * 1024}) {
+            DynamoDBMessageParsingService parsingService =
+                    new DynamoDBMessageParsingService(objectMapper, maxPassthroughImageBytes, true);
+
+            OrderItem unchanged = parsingService.parseOrderItemFromMessage(pdfStatusUpdate);
+            OrderItem changed = parsingService.parseOrderItemFromMessage(nameUpdate);
+
+            assertThat(unchanged.oldPdfKey()).isEqualTo("invoices/7.pdf");
+            assertThat(unchanged.sequenceNumber()).isEqualTo("300");
+            assertThat(unchanged.invoiceFingerprint()).isNotNull()
+                    .isEqualTo(unchanged.previousInvoiceFingerprint());
+            assertThat(changed.invoiceFingerprint()).isNotEqualTo(changed.previousInvoiceFingerprint());
+        }
+        assertThat(new DynamoDBMessageParsingService(objectMapper).parseOrderItemFromMessage(pdfStatusUpdate)
+                .invoiceFingerprint()).isNull();
+    }
+
+    @Test
+    void shouldReadPriorityAndRecordCreationTime() {
+        DynamoDBMessageParsingService parsingService = new DynamoDBMessageParsingService(objectMapper);
+        String messageBody = """
+                {
+                    "dynamodb": {
+                        "ApproximateCreationDateTime": 1700000000.5,
+                        "NewImage": {
+                            "pk": {"S": "ORDER#5"}, "sk": {"S": "STATE#v1"}, "orderId": {"S": "5"},
+                            "priority": {"S": "high"}, "pdf": {"M": {}}
+                        },
+                        "SequenceNumber": "500"
+                    }
+                }
+                """;
+
+        OrderItem orderItem = parsingService.parseOrderItemFromMessage(messageBody);
+
+        assertThat(orderItem.priority()).isEqualTo("high");
+        assertThat(orderItem.sequenceNumber()).isEqualTo("500");
+        assertThat(orderItem.streamRecordCreatedAt()).isEqualTo(Instant.ofEpochMilli(1_700_000_000_500L));
+    }
+}
@@ -0,0 +1,62 @@
+package com.orderpdf.app.preprocess.service;
+
+import com.orderpdf.app.common.dto.OrderItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderItemCoalescingServiceTest {
+
+    private final OrderItemCoalescingService coalescingService = new OrderItemCoalescingService();
+
+    @Test
+    void shouldKeepRecordWithHighestSequenceNumberPerOrder() {
+        OrderItem latest = new OrderItem("ORDER#1", "STATE#v1", "1", null).withSequenceNumber("1000000000000000000021");
+        OrderItem older = new OrderItem("ORDER#1", "STATE#v1", "1", null).withSequenceNumber("999000000000000000001");
+        OrderItem other = new OrderItem("ORDER#2", "STATE#v1", "2", null).withSequenceNumber("500");
+
+        List<OrderItem> result = coalescingService.coalesce(List.of(older, other, latest));
+
+        assertThat(result).containsExactly(latest, other);
+    }
+
+    @Test
+    void shouldKeepOutOfOrderEarlierRecordWhenItHasHigherSequenceNumber() {
+        OrderItem latest = new OrderItem("ORDER#1", "STATE#v1", "1", null).withSequenceNumber("300");
+        OrderItem older = new OrderItem("ORDER#1", "STATE#v1", "1", null).withSequenceNumber("200");
+
+        List<OrderItem> result = coalescingService.coalesce(List.of(latest, older));
+
+        assertThat(result).containsExactly(latest);
+    }
+
+    @Test
+    void shouldPreferLaterRecordWhenSequenceNumberIsMissing() {
+        OrderItem first = new OrderItem("ORDER#1", "STATE#v1", "1", null);
+        OrderItem second = new OrderItem("ORDER#1", "STATE#v1", "1", "invoices/1.pdf");
+
+        List<OrderItem> result = coalescingService.coalesce(List.of(first, second));
+
+        assertThat(result).containsExactly(second);
+    }
+
+    @Test
+    void shouldCompareInvoiceBeforeTheFirstRecordWithInvoiceAfterTheLast() {
+        // A line item change, then a write that only touched pdfStatus
+        OrderItem lineItemChange = new OrderItem("ORDER#1", "STATE#v1", "1", null)
+                .withSequenceNumber("100")
+                .withInvoiceFingerprints("after-line-change", "before-line-change");
+        OrderItem pdfStatusWrite = new OrderItem("ORDER#1", "STATE#v1", "1", null)
+                .withSequenceNumber("200")
+                .withInvoiceFingerprints("after-line-change", "after-line-change");
+
+        List<OrderItem> result = coalescingService.coalesce(List.of(lineItemChange, pdfStatusWrite));
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).sequenceNumber()).isEqualTo("200");
+        assertThat(result.get(0).previousInvoiceFingerprint()).isEqualTo("before-line-change");
+        assertThat(new OrderProcessingEligibilityService("URL_CHANGED").shouldProcessOrder(result.get(0))).isTrue();
+    }
+}
@@ -0,0 +1,37 @@
+package com.orderpdf.app.preprocess.service;
+
+import com.orderpdf.app.common.dto.OrderItem;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderProcessingEligibilityServiceTest {
+
+    private final OrderProcessingEligibilityService invoiceChangedPolicy =
+            new OrderProcessingEligibilityService("URL_CHANGED");
+
+    @Test
+    void shouldSkipWriteThatLeavesInvoiceFieldsUnchanged() {
+        OrderItem orderItem = new OrderItem("ORDER#1", "STATE#v1", "1", "invoices/1.pdf")
+                .withInvoiceFingerprints("abc", "abc");
+
+        assertThat(invoiceChangedPolicy.shouldProcessOrder(orderItem)).isFalse();
+    }
+
+    @Test
+    void shouldProcessWriteThatChangesInvoiceFields() {
+        OrderItem orderItem = new OrderItem("ORDER#1", "STATE#v1", "1", "invoices/1.pdf")
+                .withInvoiceFingerprints("def", "abc");
+
+        assertThat(invoiceChangedPolicy.shouldProcessOrder(orderItem)).isTrue();
+    }
+
+    @Test
+    void shouldProcessInsertsAndItemsWithoutFingerprints() {
+        OrderItem insert = new OrderItem("ORDER#1", "STATE#v1", "1", null).withInvoiceFingerprints("abc", null);
+        OrderItem unfingerprinted = new OrderItem("ORDER#1", "STATE#v1", "1", "invoices/1.pdf");
+
+        assertThat(invoiceChangedPolicy.shouldProcessOrder(insert)).isTrue();
+        assertThat(invoiceChangedPolicy.shouldProcessOrder(unfingerprinted)).isTrue();
+    }
+}
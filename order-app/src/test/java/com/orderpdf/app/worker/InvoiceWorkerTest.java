@@ -0,0 +1,144 @@
+package com.orderpdf.app.worker;
+
+import com.orderpdf.app.common.dto.GeneratePdfBatchResult;
+import com.orderpdf.app.common.dto.OrderItem;
+import com.orderpdf.app.pdf.InvoiceBatchPipeline;
+import com.orderpdf.app.preprocess.service.DynamoDBMessageParsingService;
+import com.orderpdf.app.preprocess.service.OrderItemCoalescingService;
+import com.orderpdf.app.preprocess.service.OrderProcessingEligibilityService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceWorkerTest {
+
+        @Mock
+        private DynamoDBMessageParsingService messageParsingService;
+
+        @Mock
+        private OrderProcessingEligibilityService eligibilityService;
+
+        @Mock
+        private InvoiceBatchPipeline batchPipeline;
+
+        private InMemoryOrderQueue orderQueue;
+        private InvoiceWorker invoiceWorker;
+
+        @BeforeEach
+        void setUp() {
+                orderQueue = new InMemoryOrderQueue();
+                invoiceWorker = new InvoiceWorker(orderQueue, messageParsingService, new OrderItemCoalescingService(),
+                                eligibilityService, batchPipeline, 1, Duration.ofMillis(50));
+        }
+
+        @Test
+        void shouldDeleteMessagesOfGeneratedAndIneligibleOrders() throws Exception {
+                // Given
+                OrderItem generated = orderItem("ORDER#1", "1", "100");
+                OrderItem ineligible = orderItem("ORDER#2", "2", "200");
+                orderQueue.send("generated");
+                orderQueue.send("ineligible");
+                orderQueue.send("not-an-order");
+                when(messageParsingService.parseOrderItem("generated")).thenReturn(generated);
+                when(messageParsingService.parseOrderItem("ineligible")).thenReturn(ineligible);
+                when(messageParsingService.parseOrderItem("not-an-order")).thenReturn(null);
+                when(eligibilityService.shouldProcessOrder(generated)).thenReturn(true);
+                when(eligibilityService.shouldProcessOrder(ineligible)).thenReturn(false);
+                when(batchPipeline.process(eq(List.of(generated)), anyString()))
+                                .thenReturn(List.of(GeneratePdfBatchResult.success("1", "temp/worker-1.pdf")));
+
+                // When
+                invoiceWorker.processMessages(orderQueue.receive(10, Duration.ZERO));
+
+                // Then
+                assertThat(orderQueue.inFlightCount()).isZero();
+                assertThat(orderQueue.availableCount()).isZero();
+                assertThat(invoiceWorker.generatedInvoices()).isEqualTo(1);
+                assertThat(invoiceWorker.failedMessages()).isZero();
+        }
+
+        @Test
+        void shouldReleaseMessagesThatFailToParseOrRender() throws Exception {
+                // Given
+                OrderItem failing = orderItem("ORDER#1", "1", "100");
+                orderQueue.send("malformed");
+                orderQueue.send("failing");
+                when(messageParsingService.parseOrderItem("malformed")).thenThrow(new IOException("bad json"));
+                when(messageParsingService.parseOrderItem("failing")).thenReturn(failing);
+                when(eligibilityService.shouldProcessOrder(failing)).thenReturn(true);
+                when(batchPipeline.process(eq(List.of(failing)), anyString()))
+                                .thenReturn(List.of(GeneratePdfBatchResult.failure("1", "render failed")));
+
+                // When
+                invoiceWorker.processMessages(orderQueue.receive(10, Duration.ZERO));
+
+                // Then
+                assertThat(orderQueue.inFlightCount()).isZero();
+                assertThat(orderQueue.availableCount()).isEqualTo(2);
+                assertThat(invoiceWorker.generatedInvoices()).isZero();
+                assertThat(invoiceWorker.failedMessages()).isEqualTo(2);
+        }
+
+        @Test
+        void shouldAcknowledgeSupersededRecordsWithTheLatestRecordForAnOrder() throws Exception {
+                // Given
+                OrderItem earlier = orderItem("ORDER#1", "1", "100");
+                OrderItem latest = orderItem("ORDER#1", "1", "200");
+                orderQueue.send("earlier");
+                orderQueue.send("latest");
+                when(messageParsingService.parseOrderItem("earlier")).thenReturn(earlier);
+                when(messageParsingService.parseOrderItem("latest")).thenReturn(latest);
+                when(eligibilityService.shouldProcessOrder(latest)).thenReturn(true);
+                when(batchPipeline.process(eq(List.of(latest)), anyString()))
+                                .thenReturn(List.of(GeneratePdfBatchResult.success("1", "temp/worker-1.pdf")));
+
+                // When
+                invoiceWorker.processMessages(orderQueue.receive(10, Duration.ZERO));
+
+                // Then
+                assertThat(orderQueue.inFlightCount()).isZero();
+                assertThat(orderQueue.availableCount()).isZero();
+                assertThat(invoiceWorker.generatedInvoices()).isEqualTo(1);
+        }
+
+        @Test
+        void shouldPollUntilClosedAndThenShutDownThePipeline() throws Exception {
+                // Given
+                OrderItem orderItem = orderItem("ORDER#1", "1", "100");
+                when(messageParsingService.parseOrderItem("order")).thenReturn(orderItem);
+                when(eligibilityService.shouldProcessOrder(orderItem)).thenReturn(true);
+                when(batchPipeline.process(eq(List.of(orderItem)), anyString()))
+                                .thenReturn(List.of(GeneratePdfBatchResult.success("1", "temp/worker-1.pdf")));
+
+                // When
+                invoiceWorker.start();
+                orderQueue.send("order");
+                verify(batchPipeline, timeout(5_000)).process(eq(List.of(orderItem)), anyString());
+                invoiceWorker.close();
+                invoiceWorker.awaitTermination();
+
+                // Then
+                verify(batchPipeline).close();
+                assertThat(orderQueue.inFlightCount()).isZero();
+                assertThat(orderQueue.availableCount()).isZero();
+                assertThat(invoiceWorker.generatedInvoices()).isEqualTo(1);
+        }
+
+        private static OrderItem orderItem(String pk, String orderId, String sequenceNumber) {
+                return new OrderItem(pk, "STATE#v1", orderId, null).withSequenceNumber(sequenceNumber);
+        }
+}
@@ -2,6 +2,7 @@ package com.orderpdf.infrastructure;
 
 import com.pulumi.Pulumi;
 import com.orderpdf.infrastructure.components.DynamoDBComponent;
+import com.orderpdf.infrastructure.components.IdempotencyTableComponent;
 import com.orderpdf.infrastructure.components.SQSComponent;
 import com.orderpdf.infrastructure.storage.S3Component;
 import com.orderpdf.infrastructure.roles.IAMRolesComponent;
@@ -21,12 +22,20 @@ public class PulumiStack {
                         String tableName = config.require("tableName");
                         String bucketName = config.require("bucketName");
                         String queueName = "orders-queue";
+                        String fastLaneQueueName = "orders-fast-queue";
                         String reprocessPolicy = config.get("reprocessPolicy").orElse("FIRST_TIME_ONLY");
+                        String pdfUploadMode = config.get("pdfUploadMode").orElse("BUFFERED");
+                        String fastLanePriorities = config.get("fastLanePriorities").orElse("high");
+                        String idempotencyTableName = tableName + "-invoice-idempotency";
 
                         DynamoDBComponent dynamoDBComponent = DynamoDBComponent.builder()
                                         .tableName(tableName)
                                         .build();
 
+                        IdempotencyTableComponent idempotencyTableComponent = IdempotencyTableComponent.builder()
+                                        .tableName(idempotencyTableName)
+                                        .build();
+
                         S3Component s3Component = S3Component.builder()
                                         .bucketName(bucketName)
                                         .build();
@@ -37,11 +46,18 @@ public class PulumiStack {
                                         .maxReceiveCount(5)
                                         .build();
 
+                        SQSComponent fastLaneSqsComponent = SQSComponent.builder()
+                                        .queueName(fastLaneQueueName)
+                                        .visibilityTimeoutSeconds(600)
+                                        .maxReceiveCount(5)
+                                        .build();
+
                         IAMRolesComponent iamRolesComponent = IAMRolesComponent.builder()
                                         .tableArn(dynamoDBComponent.getTableArn())
                                         .streamArn(dynamoDBComponent.getStreamArn())
                                         .queueArn(sqsComponent.getQueueArn())
                                         .bucketArn(s3Component.getBucketArn())
+                                        .idempotencyTableArn(idempotencyTableComponent.getTableArn())
                                         .build();
 
                         String buildApi = LambaBuilder.Build();
@@ -51,7 +67,8 @@ public class PulumiStack {
                                         .roleArn(iamRolesComponent.getPreprocessHandlerRoleArn())
                                         .codeLocation(buildApi)
                                         .environment(java.util.Map.of(
-                                                        "REPROCESS_POLICY", reprocessPolicy))
+                                                        "REPROCESS_POLICY", reprocessPolicy,
+                                                        "FAST_LANE_PRIORITIES", fastLanePriorities))
                                         .memorySize(512)
                                         .timeout(60)
                                         .build();
@@ -62,7 +79,10 @@ public class PulumiStack {
                                         .roleArn(iamRolesComponent.getGeneratePdfHandlerRoleArn())
                                         .codeLocation(buildApi)
                                         .environment(java.util.Map.of(
-                                                        "BUCKET_NAME", bucketName))
+                                                        "BUCKET_NAME", bucketName,
+                                                        "PDF_UPLOAD_MODE", pdfUploadMode,
+                                                        "IDEMPOTENCY_TABLE_NAME", idempotencyTableName,
+                                                        "FAST_LANE_PRIORITIES", fastLanePriorities))
                                         .memorySize(1024)
                                         .timeout(120)
                                         .build();
@@ -82,12 +102,18 @@ public class PulumiStack {
                         PipesIAMRoleComponent pipesIAMRoleComponent = PipesIAMRoleComponent.builder()
                                         .streamArn(dynamoDBComponent.getStreamArn())
                                         .queueArn(sqsComponent.getQueueArn())
+                                        .fastLaneQueueArn(fastLaneSqsComponent.getQueueArn())
                                         .stepFunctionArn(stepFunctionsComponent.getStateMachineArn())
                                         .build();
 
                         EventBridgePipesComponent eventBridgePipesComponent = EventBridgePipesComponent.builder()
                                         .streamArn(dynamoDBComponent.getStreamArn())
                                         .queueArn(sqsComponent.getQueueArn())
+                                        .fastLaneQueueArn(fastLaneSqsComponent.getQueueArn())
+                                        .fastLanePriorities(java.util.Arrays.stream(fastLanePriorities.split(","))
+                                                        .map(String::trim)
+                                                        .filter(priority -> !priority.isEmpty())
+                                                        .toList())
                                         .pipesRoleArn(pipesIAMRoleComponent.getPipesRoleArn())
                                         .preprocessHandlerArn(preprocessHandler.getFunctionArn())
                                         .stepFunctionArn(stepFunctionsComponent.getStateMachineArn())
@@ -96,6 +122,7 @@ public class PulumiStack {
 
                         context.export("ordersTableName", dynamoDBComponent.getTableName());
                         context.export("ordersTableArn", dynamoDBComponent.getTableArn());
+                        context.export("idempotencyTableName", idempotencyTableComponent.getTableName());
                         context.export("bucketName", s3Component.getBucketName());
                         context.export("bucketArn", s3Component.getBucketArn());
                         context.export("queueUrl", sqsComponent.getQueueUrl());
@@ -107,6 +134,10 @@ public class PulumiStack {
                         context.export("stateMachineArn", stepFunctionsComponent.getStateMachineArn());
                         context.export("pipeAArn", eventBridgePipesComponent.getPipeAArn());
                         context.export("pipeBArn", eventBridgePipesComponent.getPipeBArn());
+                        context.export("fastLaneQueueUrl", fastLaneSqsComponent.getQueueUrl());
+                        context.export("fastLaneQueueArn", fastLaneSqsComponent.getQueueArn());
+                        context.export("fastLanePipeAArn", eventBridgePipesComponent.getFastLanePipeAArn());
+                        context.export("fastLanePipeBArn", eventBridgePipesComponent.getFastLanePipeBArn());
                 });
         }
 
@@ -0,0 +1,64 @@
+package com.orderpdf.infrastructure.components;
+
+import com.pulumi.aws.dynamodb.Table;
+import com.pulumi.aws.dynamodb.TableArgs;
+import com.pulumi.aws.dynamodb.inputs.TableAttributeArgs;
+import com.pulumi.aws.dynamodb.inputs.TableTtlArgs;
+import com.pulumi.core.Output;
+
+public class IdempotencyTableComponent {
+
+    public static class Builder {
+        private String tableName;
+
+        public Builder tableName(String tableName) {
+            this.tableName = tableName;
+            return this;
+        }
+
+        public IdempotencyTableComponent build() {
+            return new IdempotencyTableComponent(tableName);
+        }
+    }
+
+    private final Table idempotencyTable;
+
+    private IdempotencyTableComponent(String tableName) {
+        this.idempotencyTable = new Table(tableName, TableArgs.builder()
+            .name(tableName)
+            .billingMode("PAY_PER_REQUEST")
+            .attributes(
+                TableAttributeArgs.builder()
+                    .name("id")
+                    .type("S")
+                    .build()
+            )
+            .hashKey("id")
+            .ttl(TableTtlArgs.builder()
+                .attributeName("expiresAt")
+                .enabled(true)
+                .build())
+            .tags(java.util.Map.of(
+                "Name", tableName,
+                "Purpose", "Generated invoice records per order version",
+                "Component", "IdempotencyTableComponent"
+            ))
+            .build());
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Output<String> getTableName() {
+        return idempotencyTable.name();
+    }
+
+    public Output<String> getTableArn() {
+        return idempotencyTable.arn();
+    }
+
+    public Table getTable() {
+        return idempotencyTable;
+    }
+}
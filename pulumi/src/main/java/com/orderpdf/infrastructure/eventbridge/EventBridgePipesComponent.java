@@ -5,13 +5,17 @@ import com.pulumi.aws.pipes.PipeArgs;
 import com.pulumi.aws.pipes.inputs.*;
 import com.pulumi.core.Output;
 
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 public class EventBridgePipesComponent {
 
         public static class Builder {
                 private Output<String> streamArn;
                 private Output<String> queueArn;
+                private Output<String> fastLaneQueueArn;
+                private List<String> fastLanePriorities = List.of("high");
                 private Output<String> pipesRoleArn;
                 private Output<String> preprocessHandlerArn;
                 private Output<String> stepFunctionArn;
@@ -27,6 +31,16 @@ public class EventBridgePipesComponent {
                         return this;
                 }
 
+                public Builder fastLaneQueueArn(Output<String> fastLaneQueueArn) {
+                        this.fastLaneQueueArn = fastLaneQueueArn;
+                        return this;
+                }
+
+                public Builder fastLanePriorities(List<String> fastLanePriorities) {
+                        this.fastLanePriorities = fastLanePriorities;
+                        return this;
+                }
+
                 public Builder pipesRoleArn(Output<String> pipesRoleArn) {
                         this.pipesRoleArn = pipesRoleArn;
                         return this;
@@ -48,21 +62,71 @@ public class EventBridgePipesComponent {
                 }
 
                 public EventBridgePipesComponent build() {
-                        return new EventBridgePipesComponent(streamArn, queueArn, pipesRoleArn,
-                                        preprocessHandlerArn, stepFunctionArn, logGroupArn);
+                        return new EventBridgePipesComponent(streamArn, queueArn, fastLaneQueueArn,
+                                        fastLanePriorities, pipesRoleArn, preprocessHandlerArn, stepFunctionArn,
+                                        logGroupArn);
                 }
         }
 
         private final Pipe pipeA;
         private final Pipe pipeB;
+        private final Pipe fastLanePipeA;
+        private final Pipe fastLanePipeB;
 
         private EventBridgePipesComponent(Output<String> streamArn, Output<String> queueArn,
+                        Output<String> fastLaneQueueArn, List<String> fastLanePriorities,
                         Output<String> pipesRoleArn,
                         Output<String> preprocessHandlerArn, Output<String> stepFunctionArn,
                         Output<String> logGroupArn) {
-                this.pipeA = new Pipe("pipe-a-dynamodb-to-sqs", PipeArgs.builder()
-                                .name("order-generator-pipe-a-dynamodb-to-sqs")
-                                .description("Pipe A: DynamoDB Stream to SQS")
+                // Orders whose priority is in fastLanePriorities go through the fast lane; everything
+                // else, including records without a priority, stays in the bulk lane. Values are matched
+                // exactly and case-sensitively, the same rule PriorityLaneService applies to its metrics
+                String priorityValues = fastLanePriorities.stream()
+                                .map(priority -> "\"" + priority + "\"")
+                                .collect(Collectors.joining(", "));
+                List<PipeSourceParametersFilterCriteriaFilterArgs> bulkLaneFilters = List.of(
+                                filter(String.format(
+                                                "{\"dynamodb\": {\"NewImage\": {\"priority\": {\"S\": [{\"anything-but\": [%s]}]}}}}",
+                                                priorityValues)),
+                                filter("{\"dynamodb\": {\"NewImage\": {\"priority\": {\"S\": [{\"exists\": false}]}}}}"));
+                List<PipeSourceParametersFilterCriteriaFilterArgs> fastLaneFilters = List.of(
+                                filter(String.format("{\"dynamodb\": {\"NewImage\": {\"priority\": {\"S\": [%s]}}}}",
+                                                priorityValues)));
+
+                this.pipeA = streamToQueuePipe("pipe-a-dynamodb-to-sqs",
+                                "Pipe A: DynamoDB Stream to SQS (bulk lane)",
+                                "Stream DynamoDB changes to SQS queue",
+                                streamArn, queueArn, pipesRoleArn, logGroupArn, bulkLaneFilters);
+
+                this.pipeB = queueToStateMachinePipe("pipe-b-sqs-to-stepfunctions",
+                                "Pipe B: SQS to Step Functions (bulk lane)",
+                                "Process SQS messages to Step Functions",
+                                queueArn, stepFunctionArn, pipesRoleArn, logGroupArn, 3, 60);
+
+                this.fastLanePipeA = streamToQueuePipe("pipe-a-fast-dynamodb-to-sqs",
+                                "Pipe A: DynamoDB Stream to SQS (fast lane)",
+                                "Stream high-priority DynamoDB changes to the fast-lane queue",
+                                streamArn, fastLaneQueueArn, pipesRoleArn, logGroupArn, fastLaneFilters);
+
+                // No batching window, so a high-priority order starts as soon as it is queued
+                this.fastLanePipeB = queueToStateMachinePipe("pipe-b-fast-sqs-to-stepfunctions",
+                                "Pipe B: SQS to Step Functions (fast lane)",
+                                "Process fast-lane SQS messages to Step Functions",
+                                fastLaneQueueArn, stepFunctionArn, pipesRoleArn, logGroupArn, 1, 0);
+        }
+
+        private static PipeSourceParametersFilterCriteriaFilterArgs filter(String pattern) {
+                return PipeSourceParametersFilterCriteriaFilterArgs.builder()
+                                .pattern(pattern)
+                                .build();
+        }
+
+        private static Pipe streamToQueuePipe(String name, String description, String purpose,
+                        Output<String> streamArn, Output<String> queueArn, Output<String> pipesRoleArn,
+                        Output<String> logGroupArn, List<PipeSourceParametersFilterCriteriaFilterArgs> filters) {
+                return new Pipe(name, PipeArgs.builder()
+                                .name("order-generator-" + name)
+                                .description(description)
                                 .roleArn(pipesRoleArn)
                                 .source(streamArn)
                                 .target(queueArn)
@@ -76,32 +140,32 @@ public class EventBridgePipesComponent {
                                                                                 .maximumRecordAgeInSeconds(120)
                                                                                 .parallelizationFactor(1)
                                                                                 .build())
+                                                .filterCriteria(PipeSourceParametersFilterCriteriaArgs.builder()
+                                                                .filters(filters)
+                                                                .build())
                                                 .build())
-                                .logConfiguration(PipeLogConfigurationArgs.builder()
-                                                .includeExecutionDatas("ALL")
-                                                .level("INFO")
-                                                .cloudwatchLogsLogDestination(
-                                                                PipeLogConfigurationCloudwatchLogsLogDestinationArgs
-                                                                                .builder()
-                                                                                .logGroupArn(logGroupArn)
-                                                                                .build())
-                                                .build())
-                                .tags(java.util.Map.of(
-                                                "Name", "order-generator-pipe-a-dynamodb-to-sqs",
-                                                "Purpose", "Stream DynamoDB changes to SQS queue",
+                                .logConfiguration(logConfiguration(logGroupArn))
+                                .tags(Map.of(
+                                                "Name", "order-generator-" + name,
+                                                "Purpose", purpose,
                                                 "Component", "EventBridgePipesComponent"))
                                 .build());
+        }
 
-                this.pipeB = new Pipe("pipe-b-sqs-to-stepfunctions", PipeArgs.builder()
-                                .name("order-generator-pipe-b-sqs-to-stepfunctions")
-                                .description("Pipe B: SQS to Step Functions")
+        private static Pipe queueToStateMachinePipe(String name, String description, String purpose,
+                        Output<String> queueArn, Output<String> stepFunctionArn, Output<String> pipesRoleArn,
+                        Output<String> logGroupArn, int batchSize, int maximumBatchingWindowInSeconds) {
+                return new Pipe(name, PipeArgs.builder()
+                                .name("order-generator-" + name)
+                                .description(description)
                                 .roleArn(pipesRoleArn)
                                 .source(queueArn)
                                 .target(stepFunctionArn)
                                 .sourceParameters(PipeSourceParametersArgs.builder()
                                                 .sqsQueueParameters(PipeSourceParametersSqsQueueParametersArgs.builder()
-                                                                .batchSize(3)
-                                                                .maximumBatchingWindowInSeconds(60)
+                                                                .batchSize(batchSize)
+                                                                .maximumBatchingWindowInSeconds(
+                                                                                maximumBatchingWindowInSeconds)
                                                                 .build())
                                                 .build())
                                 .targetParameters(PipeTargetParametersArgs.builder()
@@ -111,22 +175,26 @@ public class EventBridgePipesComponent {
                                                                                 .invocationType("FIRE_AND_FORGET")
                                                                                 .build())
                                                 .build())
-                                .logConfiguration(PipeLogConfigurationArgs.builder()
-                                                .includeExecutionDatas("ALL")
-                                                .level("INFO")
-                                                .cloudwatchLogsLogDestination(
-                                                                PipeLogConfigurationCloudwatchLogsLogDestinationArgs
-                                                                                .builder()
-                                                                                .logGroupArn(logGroupArn)
-                                                                                .build())
-                                                .build())
-                                .tags(java.util.Map.of(
-                                                "Name", "order-generator-pipe-b-sqs-to-stepfunctions",
-                                                "Purpose", "Process SQS messages to Step Functions",
+                                .logConfiguration(logConfiguration(logGroupArn))
+                                .tags(Map.of(
+                                                "Name", "order-generator-" + name,
+                                                "Purpose", purpose,
                                                 "Component", "EventBridgePipesComponent"))
                                 .build());
         }
 
+        private static PipeLogConfigurationArgs logConfiguration(Output<String> logGroupArn) {
+                return PipeLogConfigurationArgs.builder()
+                                .includeExecutionDatas("ALL")
+                                .level("INFO")
+                                .cloudwatchLogsLogDestination(
+                                                PipeLogConfigurationCloudwatchLogsLogDestinationArgs
+                                                                .builder()
+                                                                .logGroupArn(logGroupArn)
+                                                                .build())
+                                .build();
+        }
+
         public static Builder builder() {
                 return new Builder();
         }
@@ -139,6 +207,14 @@ public class EventBridgePipesComponent {
                 return pipeB.arn();
         }
 
+        public Output<String> getFastLanePipeAArn() {
+                return fastLanePipeA.arn();
+        }
+
+        public Output<String> getFastLanePipeBArn() {
+                return fastLanePipeB.arn();
+        }
+
         public Pipe getPipeA() {
                 return pipeA;
         }
@@ -146,4 +222,12 @@ public class EventBridgePipesComponent {
         public Pipe getPipeB() {
                 return pipeB;
         }
-}
\ No newline at end of file
+
+        public Pipe getFastLanePipeA() {
+                return fastLanePipeA;
+        }
+
+        public Pipe getFastLanePipeB() {
+                return fastLanePipeB;
+        }
+}
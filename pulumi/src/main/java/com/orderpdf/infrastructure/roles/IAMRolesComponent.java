@@ -13,6 +13,7 @@ public class IAMRolesComponent {
         private Output<String> streamArn;
         private Output<String> queueArn;
         private Output<String> bucketArn;
+        private Output<String> idempotencyTableArn;
 
         public Builder tableArn(Output<String> tableArn) {
             this.tableArn = tableArn;
@@ -34,8 +35,13 @@ public class IAMRolesComponent {
             return this;
         }
 
+        public Builder idempotencyTableArn(Output<String> idempotencyTableArn) {
+            this.idempotencyTableArn = idempotencyTableArn;
+            return this;
+        }
+
         public IAMRolesComponent build() {
-            return new IAMRolesComponent(tableArn, streamArn, queueArn, bucketArn);
+            return new IAMRolesComponent(tableArn, streamArn, queueArn, bucketArn, idempotencyTableArn);
         }
     }
 
@@ -43,7 +49,7 @@ public class IAMRolesComponent {
     private final Role generatePdfHandlerRole;
 
     private IAMRolesComponent(Output<String> tableArn, Output<String> streamArn, Output<String> queueArn,
-            Output<String> bucketArn) {
+            Output<String> bucketArn, Output<String> idempotencyTableArn) {
         String lambdaAssumeRolePolicy = """
                 {
                     "Version": "2012-10-17",
@@ -129,7 +135,7 @@ public class IAMRolesComponent {
                         "Component", "IAMRolesComponent"))
                 .build());
 
-        Output<String> generatePdfPolicyDocument = Output.all(tableArn, bucketArn)
+        Output<String> generatePdfPolicyDocument = Output.all(tableArn, bucketArn, idempotencyTableArn)
                 .apply(values -> Output.of(String.format("""
                         {
                             "Version": "2012-10-17",
@@ -138,6 +144,7 @@ public class IAMRolesComponent {
                                     "Effect": "Allow",
                                     "Action": [
                                         "dynamodb:GetItem",
+                                        "dynamodb:BatchGetItem",
                                         "dynamodb:Query"
                                     ],
                                     "Resource": "%s"
@@ -147,10 +154,19 @@ public class IAMRolesComponent {
                                     "Action": [
                                         "s3:PutObject",
                                         "s3:GetObject",
-                                        "s3:DeleteObject"
+                                        "s3:DeleteObject",
+                                        "s3:AbortMultipartUpload"
                                     ],
                                     "Resource": "%s/*"
                                 },
+                                {
+                                    "Effect": "Allow",
+                                    "Action": [
+                                        "dynamodb:GetItem",
+                                        "dynamodb:PutItem"
+                                    ],
+                                    "Resource": "%s"
+                                },
                                 {
                                     "Effect": "Allow",
                                     "Action": [
@@ -170,7 +186,7 @@ public class IAMRolesComponent {
                                 }
                             ]
                         }
-                        """, values.get(0), values.get(1))));
+                        """, values.get(0), values.get(1), values.get(2))));
 
         new RolePolicy("generate-pdf-policy", RolePolicyArgs.builder()
                 .name("order-generator-generate-pdf-policy")
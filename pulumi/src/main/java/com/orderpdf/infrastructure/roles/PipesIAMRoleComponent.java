@@ -11,6 +11,7 @@ public class PipesIAMRoleComponent {
     public static class Builder {
         private Output<String> streamArn;
         private Output<String> queueArn;
+        private Output<String> fastLaneQueueArn;
         private Output<String> stepFunctionArn;
 
         public Builder streamArn(Output<String> streamArn) {
@@ -23,19 +24,25 @@ public class PipesIAMRoleComponent {
             return this;
         }
 
+        public Builder fastLaneQueueArn(Output<String> fastLaneQueueArn) {
+            this.fastLaneQueueArn = fastLaneQueueArn;
+            return this;
+        }
+
         public Builder stepFunctionArn(Output<String> stepFunctionArn) {
             this.stepFunctionArn = stepFunctionArn;
             return this;
         }
 
         public PipesIAMRoleComponent build() {
-            return new PipesIAMRoleComponent(streamArn, queueArn, stepFunctionArn);
+            return new PipesIAMRoleComponent(streamArn, queueArn, fastLaneQueueArn, stepFunctionArn);
         }
     }
 
     private final Role pipesRole;
 
-    private PipesIAMRoleComponent(Output<String> streamArn, Output<String> queueArn, Output<String> stepFunctionArn) {
+    private PipesIAMRoleComponent(Output<String> streamArn, Output<String> queueArn, Output<String> fastLaneQueueArn,
+            Output<String> stepFunctionArn) {
         String assumeRolePolicy = """
                 {
                     "Version": "2012-10-17",
@@ -63,7 +70,7 @@ public class PipesIAMRoleComponent {
         Output<String> pipesPolicyDocument;
 
         if (stepFunctionArn != null) {
-            pipesPolicyDocument = Output.all(streamArn, queueArn, stepFunctionArn)
+            pipesPolicyDocument = Output.all(streamArn, queueArn, stepFunctionArn, fastLaneQueueArn)
                     .apply(values -> Output.of(String.format("""
                             {
                                 "Version": "2012-10-17",
@@ -86,7 +93,7 @@ public class PipesIAMRoleComponent {
                                             "sqs:DeleteMessage",
                                             "sqs:GetQueueAttributes"
                                         ],
-                                        "Resource": "%s"
+                                        "Resource": ["%s", "%s"]
                                     },
                                     {
                                         "Effect": "Allow",
@@ -119,9 +126,9 @@ public class PipesIAMRoleComponent {
                                     }
                                 ]
                             }
-                            """, values.get(0), values.get(1), values.get(2), values.get(2))));
+                            """, values.get(0), values.get(1), values.get(3), values.get(2), values.get(2))));
         } else {
-            pipesPolicyDocument = Output.all(streamArn, queueArn)
+            pipesPolicyDocument = Output.all(streamArn, queueArn, fastLaneQueueArn)
                     .apply(values -> Output.of(String.format("""
                             {
                                 "Version": "2012-10-17",
@@ -144,7 +151,7 @@ public class PipesIAMRoleComponent {
                                             "sqs:DeleteMessage",
                                             "sqs:GetQueueAttributes"
                                         ],
-                                        "Resource": "%s"
+                                        "Resource": ["%s", "%s"]
                                     },
                                     {
                                         "Effect": "Allow",
@@ -166,7 +173,7 @@ public class PipesIAMRoleComponent {
                                     }
                                 ]
                             }
-                            """, values.get(0), values.get(1))));
+                            """, values.get(0), values.get(1), values.get(2))));
         }
 
         new RolePolicy("pipes-policy", RolePolicyArgs.builder()
@@ -136,7 +136,9 @@ public class StepFunctionsComponent {
                                                     "ParseSQSMessage": {
                                                         "Type": "Pass",
                                                         "Parameters": {
-                                                            "dynamoRecord.$": "States.StringToJson($.body)"
+                                                            "dynamoRecord.$": "States.StringToJson($.body)",
+                                                            "queueSentTimestamp.$": "$.attributes.SentTimestamp",
+                                                            "executionStartTime.$": "$$.Execution.StartTime"
                                                         },
                                                         "Next": "CheckEventType"
                                                     },
@@ -166,7 +168,12 @@ public class StepFunctionsComponent {
                                                             "pk.$": "$.dynamoRecord.dynamodb.Keys.pk.S",
                                                             "sk.$": "$.dynamoRecord.dynamodb.Keys.sk.S",
                                                             "orderId.$": "$.dynamoRecord.dynamodb.NewImage.orderId.S",
-                                                            "oldPdfKey": null
+                                                            "oldPdfKey": null,
+                                                            "newImage.$": "$.dynamoRecord.dynamodb.NewImage",
+                                                            "sequenceNumber.$": "$.dynamoRecord.dynamodb.SequenceNumber",
+                                                            "approximateCreationDateTime.$": "$.dynamoRecord.dynamodb.ApproximateCreationDateTime",
+                                                            "queueSentTimestamp.$": "$.queueSentTimestamp",
+                                                            "executionStartTime.$": "$.executionStartTime"
                                                         },
                                                         "ResultPath": "$.pdfResult",
                                                         "Retry": [